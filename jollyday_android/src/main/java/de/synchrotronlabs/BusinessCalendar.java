@@ -0,0 +1,248 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.LocalDate;
+import org.joda.time.chrono.ISOChronology;
+
+import de.synchrotronlabs.util.CalendarUtil;
+import de.synchrotronlabs.util.HolidayBitmap;
+import de.synchrotronlabs.util.YearCache;
+
+/**
+ * Business day arithmetic for a state/region of a {@link HolidayManager} or
+ * any other {@link HolidaySource}. A business day is a day which is neither a
+ * holiday nor a weekend day. The business days of a year are kept as a bitmap
+ * with running counts, so that counting and skipping business days costs
+ * constant time per year instead of one holiday lookup per day.
+ * <p>
+ * Instances are obtained by
+ * {@link HolidayManager#getBusinessCalendar(RegionHandle)} or
+ * {@link HolidayCombination#getBusinessCalendar()} and are thread-safe.
+ * All dates are expected to be within the ISO chronology.
+ * </p>
+ *
+ * @version $Id: $
+ */
+public class BusinessCalendar {
+
+	/**
+	 * The maximum number of cached business years.
+	 */
+	private static final int CACHE_SIZE = 256;
+
+	/**
+	 * The source the holidays are taken from.
+	 */
+	private final HolidaySource source;
+	/**
+	 * Bit <code>dayOfWeek - 1</code> is set for every weekend day.
+	 */
+	private final int weekendMask;
+	/**
+	 * Caches the business days per year. Business calendars are shared
+	 * between threads, so the cache is segmented.
+	 */
+	private final YearCache<HolidayBitmap> businessDays = new YearCache<HolidayBitmap>(CACHE_SIZE);
+	/**
+	 * Utility for calendar operations
+	 */
+	private final CalendarUtil calendarUtil = new CalendarUtil();
+
+	/**
+	 * Constructs the business calendar for the holidays of the source using
+	 * the provided weekend days.
+	 *
+	 * @param source
+	 *            the source to take the holidays from
+	 * @param weekendDays
+	 *            the <code>DateTimeConstants</code> days of the week which are
+	 *            not business days
+	 */
+	BusinessCalendar(final HolidaySource source, int... weekendDays) {
+		this.source = source;
+		int mask = 0;
+		for (int day : weekendDays) {
+			if (day < DateTimeConstants.MONDAY || day > DateTimeConstants.SUNDAY) {
+				throw new IllegalArgumentException("Invalid day of week " + day + ".");
+			}
+			mask |= 1 << (day - 1);
+		}
+		if (mask == 0x7F) {
+			throw new IllegalArgumentException("At least one day of the week has to be a business day.");
+		}
+		this.weekendMask = mask;
+	}
+
+	/**
+	 * @return the source the holidays are taken from
+	 */
+	public HolidaySource getSource() {
+		return source;
+	}
+
+	/**
+	 * Shows if the date is a weekend day of this calendar.
+	 *
+	 * @param date
+	 *            the date
+	 * @return is a weekend day
+	 */
+	public boolean isWeekend(final LocalDate date) {
+		return (weekendMask & (1 << (date.getDayOfWeek() - 1))) != 0;
+	}
+
+	/**
+	 * Shows if the date is neither a holiday nor a weekend day.
+	 *
+	 * @param date
+	 *            the date
+	 * @return is a business day
+	 */
+	public boolean isBusinessDay(final LocalDate date) {
+		return getBusinessDays(date.getYear()).contains(date.getDayOfYear());
+	}
+
+	/**
+	 * Returns the date which lies the number of business days after (or before
+	 * if negative) the provided date. The provided date itself is not counted.
+	 * Zero days return the date unchanged.
+	 *
+	 * @param date
+	 *            the date to start from
+	 * @param days
+	 *            number of business days to add
+	 * @return the resulting business day
+	 */
+	public LocalDate addBusinessDays(final LocalDate date, int days) {
+		if (days == 0) {
+			return date;
+		}
+		int year = date.getYear();
+		HolidayBitmap businessYear = getBusinessDays(year);
+		if (days > 0) {
+			// index of the target within the business days of the year
+			long index = (long) businessYear.rank(date.getDayOfYear() + 1) + days - 1;
+			while (index >= businessYear.cardinality()) {
+				index -= businessYear.cardinality();
+				businessYear = getBusinessDays(++year);
+			}
+			return toDate(year, businessYear.select((int) index));
+		}
+		long index = (long) businessYear.rank(date.getDayOfYear()) + days;
+		while (index < 0) {
+			businessYear = getBusinessDays(--year);
+			index += businessYear.cardinality();
+		}
+		return toDate(year, businessYear.select((int) index));
+	}
+
+	/**
+	 * Returns the first business day after the date.
+	 *
+	 * @param date
+	 *            the date
+	 * @return the next business day
+	 */
+	public LocalDate nextBusinessDay(final LocalDate date) {
+		return addBusinessDays(date, 1);
+	}
+
+	/**
+	 * Returns the last business day before the date.
+	 *
+	 * @param date
+	 *            the date
+	 * @return the previous business day
+	 */
+	public LocalDate previousBusinessDay(final LocalDate date) {
+		return addBusinessDays(date, -1);
+	}
+
+	/**
+	 * Counts the business days from the first date (inclusive) to the second
+	 * date (exclusive). If the second date lies before the first the count is
+	 * negative.
+	 *
+	 * @param from
+	 *            the first date, inclusive
+	 * @param to
+	 *            the second date, exclusive
+	 * @return the number of business days in between
+	 */
+	public int countBusinessDays(final LocalDate from, final LocalDate to) {
+		if (to.isBefore(from)) {
+			return -countBusinessDays(to, from);
+		}
+		int count = -getBusinessDays(from.getYear()).rank(from.getDayOfYear());
+		for (int year = from.getYear(); year < to.getYear(); year++) {
+			count += getBusinessDays(year).cardinality();
+		}
+		return count + getBusinessDays(to.getYear()).rank(to.getDayOfYear());
+	}
+
+	/**
+	 * Returns the n-th business day of the month. Negative values count from
+	 * the end of the month, i.e. -1 returns the last business day.
+	 *
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month, 1 to 12
+	 * @param n
+	 *            the one based number of the business day, not 0
+	 * @return the business day or NULL if the month has less business days
+	 */
+	public LocalDate nthBusinessDayOfMonth(int year, int month, int n) {
+		if (n == 0) {
+			throw new IllegalArgumentException("Business day number must not be 0.");
+		}
+		HolidayBitmap businessYear = getBusinessDays(year);
+		int first = calendarUtil.getDayOfYear(year, month, 1);
+		int next = month == DateTimeConstants.DECEMBER ? businessYear.getLength() + 1 : calendarUtil
+				.getDayOfYear(year, month + 1, 1);
+		int start = businessYear.rank(first);
+		int end = businessYear.rank(next);
+		int index = n > 0 ? start + n - 1 : end + n;
+		if (index < start || index >= end) {
+			return null;
+		}
+		return toDate(year, businessYear.select(index));
+	}
+
+	/**
+	 * Returns the business days of the year.
+	 *
+	 * @param year
+	 *            the year
+	 * @return bitmap of the business days
+	 */
+	private HolidayBitmap getBusinessDays(int year) {
+		HolidayBitmap bitmap = businessDays.get(year);
+		if (bitmap == null) {
+			HolidayBitmap nonBusinessDays = source.getHolidayBitmap(year).or(
+					HolidayBitmap.createForDaysOfWeek(year, weekendMask));
+			bitmap = businessDays.putIfAbsent(year, nonBusinessDays.complement());
+		}
+		return bitmap;
+	}
+
+	private static LocalDate toDate(int year, int dayOfYear) {
+		return new LocalDate(year, 1, 1, ISOChronology.getInstanceUTC()).withDayOfYear(dayOfYear);
+	}
+
+}
@@ -31,7 +31,7 @@ public class CalendarHierarchy {
 	private String id;
 	private Map<String, CalendarHierarchy> children = new HashMap<String, CalendarHierarchy>();
 	private final CalendarHierarchy parent;
-	private ResourceUtil resourceUtil = new ResourceUtil();
+	private final ResourceUtil resourceUtil;
 	private String fallbackDescription;
 
 	/**
@@ -44,8 +44,24 @@ public class CalendarHierarchy {
 	 *            a {@link java.lang.String} object.
 	 */
 	public CalendarHierarchy(CalendarHierarchy parent, String id) {
+		this(parent, id, new ResourceUtil());
+	}
+
+	/**
+	 * Constructor which takes a eventually existing parent hierarchy node, the
+	 * ID of this hierarchy and the utility to read the description with.
+	 * 
+	 * @param parent
+	 *            a {@link de.synchrotronlabs.CalendarHierarchy} object.
+	 * @param id
+	 *            a {@link java.lang.String} object.
+	 * @param resourceUtil
+	 *            reads the description, i.e. the one of the manager
+	 */
+	public CalendarHierarchy(CalendarHierarchy parent, String id, ResourceUtil resourceUtil) {
 		this.parent = parent;
 		this.id = id;
+		this.resourceUtil = resourceUtil;
 	}
 
 	/**
@@ -17,13 +17,18 @@ package de.synchrotronlabs;
 
 import java.util.Locale;
 
+import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDate;
+import org.joda.time.chrono.ISOChronology;
 
+import de.synchrotronlabs.util.EpochDays;
 import de.synchrotronlabs.util.ResourceUtil;
 
 /**
  * Represents the holiday and contains the actual date and an localized
- * desription.
+ * desription. The properties key and the type are held by a shared
+ * {@link HolidayDescriptor}, the date is kept as days since 1970-01-01 and
+ * only converted into a <code>LocalDate</code> when requested.
  * 
  * @author Sven Diedrichsen
  * @version $Id: $
@@ -34,26 +39,27 @@ public final class Holiday {
 	 */
 	private int hashCode = 0;
 	/**
-	 * The date the holiday occurs.
+	 * The date the holiday occurs as days since 1970-01-01.
 	 */
-	private final LocalDate date;
+	private final int epochDay;
 	/**
-	 * The properties key to retrieve the description with.
+	 * The date the holiday occurs, created on first request.
 	 */
-	private final String propertiesKey;
-
+	private LocalDate date;
 	/**
-	 * The type of holiday. e.g. official holiday or not.
-	 * */
-	private final HolidayType type;
+	 * The properties key and type of the holiday.
+	 */
+	private final HolidayDescriptor descriptor;
 	/**
-	 * Utility for accessing resources.
+	 * Reads the description or <code>null</code> to read it through the
+	 * descriptor.
 	 */
-	private ResourceUtil resourceUtil = new ResourceUtil();
+	private final ResourceUtil resourceUtil;
 
 	/**
 	 * Constructs a holiday for a date using the provided properties key to
-	 * retrieve the description with.
+	 * retrieve the description with. The descriptor of the holiday is only
+	 * shared if the properties key and type are used by compiled rules.
 	 * 
 	 * @param date
 	 *            a {@link org.joda.time.LocalDate} object.
@@ -64,9 +70,46 @@ public final class Holiday {
 	 */
 	public Holiday(LocalDate date, String propertiesKey, HolidayType type) {
 		super();
-		this.type = type;
+		this.descriptor = HolidayDescriptor.find(propertiesKey, type);
+		this.resourceUtil = null;
 		this.date = date;
-		this.propertiesKey = propertiesKey == null ? "" : propertiesKey;
+		if (date.getChronology() instanceof ISOChronology) {
+			this.epochDay = EpochDays.of(date);
+		} else {
+			this.epochDay = (int) (date.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis() / 86400000L);
+		}
+	}
+
+	/**
+	 * Constructs a holiday for a date given as days since 1970-01-01.
+	 * 
+	 * @param epochDay
+	 *            the date as days since 1970-01-01
+	 * @param descriptor
+	 *            the properties key and type of the holiday
+	 */
+	public Holiday(int epochDay, HolidayDescriptor descriptor) {
+		this(epochDay, descriptor, null);
+	}
+
+	/**
+	 * Constructs a holiday for a date given as days since 1970-01-01 whose
+	 * description is read by the provided utility, i.e. the one of the
+	 * manager which calculated it.
+	 * 
+	 * @param epochDay
+	 *            the date as days since 1970-01-01
+	 * @param descriptor
+	 *            the properties key and type of the holiday
+	 * @param resourceUtil
+	 *            reads the description or <code>null</code> to read it
+	 *            through the descriptor
+	 */
+	public Holiday(int epochDay, HolidayDescriptor descriptor, ResourceUtil resourceUtil) {
+		super();
+		this.descriptor = descriptor;
+		this.resourceUtil = resourceUtil;
+		this.epochDay = epochDay;
 	}
 
 	/**
@@ -77,7 +120,20 @@ public final class Holiday {
 	 * @return the holiday date
 	 */
 	public LocalDate getDate() {
-		return date;
+		LocalDate d = date;
+		if (d == null) {
+			// LocalDate is immutable, a race only creates an equal instance
+			d = EpochDays.toLocalDate(epochDay);
+			date = d;
+		}
+		return d;
+	}
+
+	/**
+	 * @return the holiday date as days since 1970-01-01
+	 */
+	public int getEpochDay() {
+		return epochDay;
 	}
 
 	/**
@@ -88,7 +144,16 @@ public final class Holiday {
 	 * @return the holidays properties key
 	 */
 	public String getPropertiesKey() {
-		return propertiesKey;
+		return descriptor.getPropertiesKey();
+	}
+
+	/**
+	 * @return the properties key and type of the holiday, shared unless the
+	 *         holiday has been created with a properties key unknown to the
+	 *         compiled rules
+	 */
+	public HolidayDescriptor getDescriptor() {
+		return descriptor;
 	}
 
 	/**
@@ -97,7 +162,7 @@ public final class Holiday {
 	 * @return Description for this holiday
 	 */
 	public String getDescription() {
-		return resourceUtil.getHolidayDescription(Locale.getDefault(), getPropertiesKey());
+		return getDescription(Locale.getDefault());
 	}
 
 	/**
@@ -108,7 +173,10 @@ public final class Holiday {
 	 * @return Description for this holiday
 	 */
 	public String getDescription(Locale locale) {
-		return resourceUtil.getHolidayDescription(locale, getPropertiesKey());
+		if (resourceUtil == null) {
+			return descriptor.getDescription(locale);
+		}
+		return resourceUtil.getHolidayDescription(locale, descriptor.getPropertiesKey());
 	}
 
 	/*
@@ -124,8 +192,9 @@ public final class Holiday {
 		}
 		if (obj instanceof Holiday) {
 			Holiday other = (Holiday) obj;
-			return other.date.equals(this.date) && other.propertiesKey.equals(this.propertiesKey)
-					&& type.equals(other.type);
+			// descriptors of compiled rules are interned
+			return other.epochDay == this.epochDay
+					&& (other.descriptor == this.descriptor || other.descriptor.equals(this.descriptor));
 		}
 		return false;
 	}
@@ -140,9 +209,8 @@ public final class Holiday {
 		/** {@inheritDoc} */
 		if (hashCode == 0) {
 			int hash = 1;
-			hash = hash * 31 + date.hashCode();
-			hash = hash * 31 + propertiesKey.hashCode();
-			hash = hash * 31 + type.hashCode();
+			hash = hash * 31 + epochDay;
+			hash = hash * 31 + descriptor.hashCode();
 			hashCode = hash;
 		}
 		return hashCode;
@@ -156,7 +224,7 @@ public final class Holiday {
 	@Override
 	public String toString() {
 		/** {@inheritDoc} */
-		return date.toString() + " (" + getDescription() + ")";
+		return getDate().toString() + " (" + getDescription() + ")";
 	}
 
 	/**
@@ -165,6 +233,6 @@ public final class Holiday {
 	 * @return the type holiday
 	 */
 	public HolidayType getType() {
-		return type;
+		return descriptor.getType();
 	}
 }
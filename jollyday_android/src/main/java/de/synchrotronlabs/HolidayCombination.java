@@ -0,0 +1,243 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.LocalDate;
+import org.joda.time.chrono.ISOChronology;
+
+import de.synchrotronlabs.util.CalendarUtil;
+import de.synchrotronlabs.util.HolidayBitmap;
+import de.synchrotronlabs.util.YearCache;
+
+/**
+ * Combines the holidays of several states/regions, even of different
+ * managers, by union, intersection or difference. i.e. 'holiday in DE or FR',
+ * 'holiday in US/ny and UK' or 'holiday in de/by but not in de/nw'.
+ * Combinations are evaluated on the holiday bitmaps of each year and can be
+ * combined again. They answer queries without creating {@link Holiday}
+ * instances and are thread-safe.
+ *
+ * @version $Id: $
+ */
+public final class HolidayCombination implements HolidaySource {
+
+	/**
+	 * The maximum number of cached combined years.
+	 */
+	private static final int CACHE_SIZE = 256;
+
+	private enum Operation {
+		UNION, INTERSECTION, DIFFERENCE
+	}
+
+	private final Operation operation;
+	private final HolidaySource[] sources;
+	/**
+	 * Caches the combined bitmaps per year. Combinations are shared between
+	 * threads, so the cache is segmented.
+	 */
+	private final YearCache<HolidayBitmap> combined = new YearCache<HolidayBitmap>(CACHE_SIZE);
+	/**
+	 * Utility for calendar operations
+	 */
+	private final CalendarUtil calendarUtil = new CalendarUtil();
+
+	private HolidayCombination(Operation operation, HolidaySource[] sources) {
+		if (sources == null || sources.length == 0) {
+			throw new IllegalArgumentException("Missing holiday sources to combine.");
+		}
+		for (HolidaySource source : sources) {
+			if (source == null) {
+				throw new NullPointerException("Holiday source is NULL.");
+			}
+		}
+		this.operation = operation;
+		this.sources = sources.clone();
+	}
+
+	/**
+	 * Days which are a holiday in any of the sources.
+	 *
+	 * @param sources
+	 *            i.e. resolved regions
+	 * @return the union
+	 */
+	public static HolidayCombination union(final HolidaySource... sources) {
+		return new HolidayCombination(Operation.UNION, sources);
+	}
+
+	/**
+	 * Days which are a holiday in all of the sources.
+	 *
+	 * @param sources
+	 *            i.e. resolved regions
+	 * @return the intersection
+	 */
+	public static HolidayCombination intersection(final HolidaySource... sources) {
+		return new HolidayCombination(Operation.INTERSECTION, sources);
+	}
+
+	/**
+	 * Days which are a holiday in the first source but in none of the others.
+	 *
+	 * @param source
+	 *            i.e. a resolved region
+	 * @param excluded
+	 *            the sources whose holidays are removed
+	 * @return the difference
+	 */
+	public static HolidayCombination difference(final HolidaySource source, final HolidaySource... excluded) {
+		HolidaySource[] sources = new HolidaySource[excluded.length + 1];
+		sources[0] = source;
+		System.arraycopy(excluded, 0, sources, 1, excluded.length);
+		return new HolidayCombination(Operation.DIFFERENCE, sources);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Combines the bitmaps of all sources for the year.
+	 */
+	public HolidayBitmap getHolidayBitmap(int year) {
+		HolidayBitmap bitmap = combined.get(year);
+		if (bitmap == null) {
+			bitmap = sources[0].getHolidayBitmap(year);
+			for (int i = 1; i < sources.length; i++) {
+				HolidayBitmap other = sources[i].getHolidayBitmap(year);
+				switch (operation) {
+				case UNION:
+					bitmap = bitmap.or(other);
+					break;
+				case INTERSECTION:
+					bitmap = bitmap.and(other);
+					break;
+				case DIFFERENCE:
+					bitmap = bitmap.andNot(other);
+					break;
+				}
+			}
+			bitmap = combined.putIfAbsent(year, bitmap);
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Shows if the date is a holiday of this combination.
+	 *
+	 * @param date
+	 *            the date
+	 * @return is a holiday
+	 */
+	public boolean isHoliday(final LocalDate date) {
+		if (date.getChronology() != ISOChronology.getInstanceUTC()) {
+			return false;
+		}
+		return getHolidayBitmap(date.getYear()).contains(date.getDayOfYear());
+	}
+
+	/**
+	 * Shows if the gregorian date is a holiday of this combination.
+	 *
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month, 1 to 12
+	 * @param day
+	 *            the day of month
+	 * @return is a holiday
+	 */
+	public boolean isHoliday(int year, int month, int day) {
+		return getHolidayBitmap(year).contains(calendarUtil.getDayOfYear(year, month, day));
+	}
+
+	/**
+	 * Counts the holidays between the two dates, both inclusive.
+	 *
+	 * @param from
+	 *            the first day, inclusive
+	 * @param to
+	 *            the last day, inclusive
+	 * @return the number of holidays
+	 */
+	public int countHolidays(final LocalDate from, final LocalDate to) {
+		checkRange(from, to);
+		int count = -getHolidayBitmap(from.getYear()).rank(from.getDayOfYear());
+		for (int year = from.getYear(); year < to.getYear(); year++) {
+			count += getHolidayBitmap(year).cardinality();
+		}
+		return count + getHolidayBitmap(to.getYear()).rank(to.getDayOfYear() + 1);
+	}
+
+	/**
+	 * Returns the holiday dates between the two dates, both inclusive, in
+	 * ascending order.
+	 *
+	 * @param from
+	 *            the first day, inclusive
+	 * @param to
+	 *            the last day, inclusive
+	 * @return the holiday dates
+	 */
+	public List<LocalDate> getHolidayDates(final LocalDate from, final LocalDate to) {
+		checkRange(from, to);
+		List<LocalDate> dates = new ArrayList<LocalDate>();
+		for (int year = from.getYear(); year <= to.getYear(); year++) {
+			HolidayBitmap bitmap = getHolidayBitmap(year);
+			int first = year == from.getYear() ? bitmap.rank(from.getDayOfYear()) : 0;
+			int end = year == to.getYear() ? bitmap.rank(to.getDayOfYear() + 1) : bitmap.cardinality();
+			LocalDate januaryFirst = new LocalDate(year, DateTimeConstants.JANUARY, 1,
+					ISOChronology.getInstanceUTC());
+			for (int i = first; i < end; i++) {
+				dates.add(januaryFirst.plusDays(bitmap.select(i) - 1));
+			}
+		}
+		return dates;
+	}
+
+	/**
+	 * Returns the business day calendar for this combination with saturday
+	 * and sunday as weekend days.
+	 *
+	 * @return the business calendar
+	 */
+	public BusinessCalendar getBusinessCalendar() {
+		return getBusinessCalendar(DateTimeConstants.SATURDAY, DateTimeConstants.SUNDAY);
+	}
+
+	/**
+	 * Returns the business day calendar for this combination with the
+	 * provided weekend days.
+	 *
+	 * @param weekendDays
+	 *            the <code>DateTimeConstants</code> days of the week which
+	 *            are no business days
+	 * @return the business calendar
+	 */
+	public BusinessCalendar getBusinessCalendar(int... weekendDays) {
+		return new BusinessCalendar(this, weekendDays);
+	}
+
+	private static void checkRange(final LocalDate from, final LocalDate to) {
+		if (to.isBefore(from)) {
+			throw new IllegalArgumentException("End " + to + " lies before start " + from + ".");
+		}
+	}
+
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.synchrotronlabs.util.ResourceUtil;
+
+/**
+ * The date independent part of a holiday, its properties key and type.
+ * Descriptors of compiled rules are interned, there is exactly one instance
+ * per properties key and type within the process which is shared by all
+ * holidays of all years and managers. Every interned descriptor has a small id
+ * so that holidays can be stored as pairs of primitive values. Holidays
+ * created with arbitrary keys through
+ * {@link Holiday#Holiday(org.joda.time.LocalDate, String, HolidayType)} reuse
+ * an interned descriptor if there is one, otherwise they get a descriptor of
+ * their own which is not interned and has no id, so that these keys are not
+ * kept for the life of the process.
+ *
+ * @version $Id: $
+ */
+public final class HolidayDescriptor {
+
+	private static final ConcurrentMap<HolidayDescriptor, HolidayDescriptor> DESCRIPTORS =
+			new ConcurrentHashMap<HolidayDescriptor, HolidayDescriptor>();
+	/**
+	 * The descriptors by id, guarded by the class.
+	 */
+	private static volatile HolidayDescriptor[] byId = new HolidayDescriptor[64];
+	private static int count;
+	/**
+	 * Utility for accessing resources, shared by all descriptors.
+	 */
+	private static final ResourceUtil RESOURCE_UTIL = new ResourceUtil();
+
+	private final String propertiesKey;
+	private final HolidayType type;
+	private final int hashCode;
+	private final int id;
+
+	private HolidayDescriptor(String propertiesKey, HolidayType type, int id) {
+		this.propertiesKey = propertiesKey == null ? "" : propertiesKey;
+		this.type = type;
+		this.id = id;
+		this.hashCode = 31 * this.propertiesKey.hashCode() + (type == null ? 0 : type.hashCode());
+	}
+
+	/**
+	 * Returns the shared descriptor for properties key and type if one has
+	 * been interned, otherwise a descriptor which is not interned.
+	 *
+	 * @param propertiesKey
+	 *            the properties key of the description
+	 * @param type
+	 *            the holiday type
+	 * @return the interned descriptor or a new one without id
+	 */
+	static HolidayDescriptor find(String propertiesKey, HolidayType type) {
+		HolidayDescriptor key = new HolidayDescriptor(propertiesKey, type, -1);
+		HolidayDescriptor descriptor = DESCRIPTORS.get(key);
+		return descriptor == null ? key : descriptor;
+	}
+
+	/**
+	 * Returns the shared descriptor for properties key and type and interns
+	 * it if necessary. Used for the keys of compiled rules and post
+	 * processing stages, which are limited by the configuration.
+	 *
+	 * @param propertiesKey
+	 *            the properties key of the description
+	 * @param type
+	 *            the holiday type
+	 * @return the interned descriptor
+	 */
+	public static HolidayDescriptor valueOf(String propertiesKey, HolidayType type) {
+		HolidayDescriptor key = new HolidayDescriptor(propertiesKey, type, -1);
+		HolidayDescriptor descriptor = DESCRIPTORS.get(key);
+		if (descriptor == null) {
+			synchronized (HolidayDescriptor.class) {
+				descriptor = DESCRIPTORS.get(key);
+				if (descriptor == null) {
+					if (count == byId.length) {
+						byId = Arrays.copyOf(byId, count * 2);
+					}
+					descriptor = new HolidayDescriptor(propertiesKey, type, count);
+					byId[count++] = descriptor;
+					DESCRIPTORS.put(descriptor, descriptor);
+				}
+			}
+		}
+		return descriptor;
+	}
+
+	/**
+	 * Returns the descriptor with the id.
+	 *
+	 * @param id
+	 *            the id as returned by {@link #getId()}
+	 * @return the descriptor
+	 */
+	public static HolidayDescriptor valueOf(int id) {
+		HolidayDescriptor descriptor = id >= 0 && id < byId.length ? byId[id] : null;
+		if (descriptor == null) {
+			throw new IllegalArgumentException("Unknown holiday descriptor id " + id + ".");
+		}
+		return descriptor;
+	}
+
+	/**
+	 * @return the id, unique within the process, or -1 if the descriptor is
+	 *         not interned
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * @return the properties key to retrieve the description with
+	 */
+	public String getPropertiesKey() {
+		return propertiesKey;
+	}
+
+	/**
+	 * @return the holiday type
+	 */
+	public HolidayType getType() {
+		return type;
+	}
+
+	/**
+	 * The description read with the provided locale.
+	 *
+	 * @param locale
+	 *            a {@link java.util.Locale} object.
+	 * @return Description for this holiday
+	 */
+	public String getDescription(Locale locale) {
+		return RESOURCE_UTIL.getHolidayDescription(locale, propertiesKey);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof HolidayDescriptor) {
+			HolidayDescriptor other = (HolidayDescriptor) obj;
+			return other.propertiesKey.equals(propertiesKey)
+					&& (type == null ? other.type == null : type.equals(other.type));
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return propertiesKey + " (" + type + ")";
+	}
+
+}
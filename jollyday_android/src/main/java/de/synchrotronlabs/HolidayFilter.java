@@ -0,0 +1,166 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Selects holidays by their {@link HolidayDescriptor}. Filters are passed to
+ * the filtered queries of the {@link HolidayManager}, which only evaluate the
+ * rules of the accepted holidays and cache the results per filter. Filters
+ * are interned, equal filters are the same instance as long as any of them
+ * is referenced.
+ *
+ * @version $Id: $
+ */
+public final class HolidayFilter {
+
+	/**
+	 * The interned filters, which are removed once they are not referenced
+	 * anymore. Guarded by itself.
+	 */
+	private static final Map<HolidayFilter, WeakReference<HolidayFilter>> FILTERS =
+			new WeakHashMap<HolidayFilter, WeakReference<HolidayFilter>>();
+
+	/**
+	 * Accepts official holidays only.
+	 */
+	public static final HolidayFilter OFFICIAL = intern(new HolidayFilter(true, null, null));
+
+	private final boolean officialOnly;
+	/**
+	 * The accepted types or <code>null</code> for any type.
+	 */
+	private final Set<HolidayType> types;
+	/**
+	 * The accepted properties keys or <code>null</code> for any key.
+	 */
+	private final Set<String> propertiesKeys;
+
+	private HolidayFilter(boolean officialOnly, Set<HolidayType> types, Set<String> propertiesKeys) {
+		this.officialOnly = officialOnly;
+		this.types = types;
+		this.propertiesKeys = propertiesKeys;
+	}
+
+	private static HolidayFilter intern(final HolidayFilter filter) {
+		synchronized (FILTERS) {
+			WeakReference<HolidayFilter> reference = FILTERS.get(filter);
+			HolidayFilter existing = reference == null ? null : reference.get();
+			if (existing != null) {
+				return existing;
+			}
+			FILTERS.put(filter, new WeakReference<HolidayFilter>(filter));
+			return filter;
+		}
+	}
+
+	/**
+	 * Returns the filter accepting holidays of the types.
+	 *
+	 * @param types
+	 *            the accepted types, i.e.
+	 *            {@link de.synchrotronlabs.holidaytype.LocalizedHolidayType#OFFICIAL_HOLIDAY}
+	 * @return the filter
+	 */
+	public static HolidayFilter ofTypes(final HolidayType... types) {
+		if (types == null || types.length == 0) {
+			throw new IllegalArgumentException("Missing holiday types.");
+		}
+		Set<HolidayType> set = new HashSet<HolidayType>(Arrays.asList(types));
+		return intern(new HolidayFilter(false, Collections.unmodifiableSet(set), null));
+	}
+
+	/**
+	 * Returns the filter accepting holidays with the properties keys.
+	 *
+	 * @param propertiesKeys
+	 *            the accepted properties keys, i.e. 'CHRISTMAS'
+	 * @return the filter
+	 */
+	public static HolidayFilter ofPropertiesKeys(final String... propertiesKeys) {
+		if (propertiesKeys == null || propertiesKeys.length == 0) {
+			throw new IllegalArgumentException("Missing properties keys.");
+		}
+		Set<String> set = new HashSet<String>(Arrays.asList(propertiesKeys));
+		return intern(new HolidayFilter(false, null, Collections.unmodifiableSet(set)));
+	}
+
+	/**
+	 * Shows if the filter accepts holidays with the descriptor.
+	 *
+	 * @param descriptor
+	 *            the properties key and type of the holiday
+	 * @return is accepted
+	 */
+	public boolean accepts(final HolidayDescriptor descriptor) {
+		HolidayType type = descriptor.getType();
+		if (officialOnly && (type == null || !type.isOfficialHoliday())) {
+			return false;
+		}
+		if (types != null && !types.contains(type)) {
+			return false;
+		}
+		return propertiesKeys == null || propertiesKeys.contains(descriptor.getPropertiesKey());
+	}
+
+	/**
+	 * Shows if the filter accepts the holiday.
+	 *
+	 * @param holiday
+	 *            the holiday
+	 * @return is accepted
+	 */
+	public boolean accepts(final Holiday holiday) {
+		return accepts(holiday.getDescriptor());
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof HolidayFilter) {
+			HolidayFilter other = (HolidayFilter) obj;
+			return other.officialOnly == officialOnly
+					&& (types == null ? other.types == null : types.equals(other.types))
+					&& (propertiesKeys == null ? other.propertiesKeys == null : propertiesKeys.equals(other.propertiesKeys));
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = officialOnly ? 1 : 0;
+		h = 31 * h + (types == null ? 0 : types.hashCode());
+		return 31 * h + (propertiesKeys == null ? 0 : propertiesKeys.hashCode());
+	}
+
+	@Override
+	public String toString() {
+		if (officialOnly) {
+			return "HolidayFilter(official)";
+		}
+		return "HolidayFilter(" + (types != null ? types : propertiesKeys) + ")";
+	}
+
+}
@@ -20,21 +20,39 @@ import android.content.res.AssetManager;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Calendar;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.joda.time.DateTimeConstants;
 import org.joda.time.LocalDate;
 import org.joda.time.ReadableInterval;
+import org.joda.time.chrono.ISOChronology;
 
 import de.synchrotronlabs.configuration.ConfigurationProviderManager;
+import de.synchrotronlabs.description.DescriptionSource;
+import de.synchrotronlabs.description.internal.AssetDescriptionSource;
+import de.synchrotronlabs.rule.RuleNode;
 import de.synchrotronlabs.util.CalendarUtil;
 import de.synchrotronlabs.util.ClassLoadingUtil;
+import de.synchrotronlabs.util.HolidayBitmap;
+import de.synchrotronlabs.util.HolidayTable;
+import de.synchrotronlabs.util.RegionPath;
+import de.synchrotronlabs.util.ResourceUtil;
+import de.synchrotronlabs.util.YearCache;
 
 /**
  * Abstract base class for all holiday manager implementations. Upon call of
@@ -51,6 +69,20 @@ public abstract class HolidayManager {
 	 * Configuration property for the implementing Manager class.
 	 */
 	private static final String MANAGER_IMPL_CLASS_PREFIX = "manager.impl";
+	/**
+	 * Configuration property for the maximum number of cached years per
+	 * manager. One entry is cached per year and state/region.
+	 */
+	private static final String CACHE_SIZE_PROPERTY = "manager.cache.size";
+	/**
+	 * The maximum number of cached years if not configured.
+	 */
+	private static final int DEFAULT_CACHE_SIZE = 1024;
+	/**
+	 * The maximum number of years a batch query keeps its own table of year
+	 * bitmaps for.
+	 */
+	private static final int MAX_BATCH_YEARS = 4096;
 	/**
 	 * Signifies if caching of manager instances is enabled. If not every call
 	 * to getInstance will return a newly instantiated and initialized manager.
@@ -58,17 +90,35 @@ public abstract class HolidayManager {
 	private static boolean managerCachingEnabled = true;
 	/**
 	 * This map represents a cache for manager instances on a per country basis.
+	 * It holds the creation of every manager, which is finished for all
+	 * managers but the ones currently created. So there is only one creation
+	 * per country and cached managers are looked up without locking.
 	 */
-	private static final Map<String, HolidayManager> MANAGER_CHACHE = new HashMap<String, HolidayManager>();
+	private static final ConcurrentMap<String, Future<HolidayManager>> MANAGER_CHACHE =
+			new ConcurrentHashMap<String, Future<HolidayManager>>();
 
 	/**
-	 * Caches the holidays for a given year and state/region.
+	 * Caches the holiday bitmap for a given year and state/region.
+	 */
+	private volatile YearCache<HolidayBitmap> holidaysPerYear = new YearCache<HolidayBitmap>(DEFAULT_CACHE_SIZE);
+	/**
+	 * Remembers the years and states/regions which have been queried for a
+	 * single date but are not cached yet.
+	 */
+	private volatile YearCache<Object> touchedYears = new YearCache<Object>(DEFAULT_CACHE_SIZE);
+	/**
+	 * Caches the filtered holidays for a given year, state/region and filter.
+	 * All filters share the bound of one cache.
 	 */
-	private Map<String, Set<Holiday>> holidaysPerYear = new HashMap<String, Set<Holiday>>();
+	private volatile YearCache<HolidayTable> filteredHolidays = new YearCache<HolidayTable>(DEFAULT_CACHE_SIZE);
 	/**
 	 * The configuration properties.
 	 */
 	private Properties properties = new Properties();
+	/**
+	 * Reads the descriptions of the holidays and the calendar hierarchy.
+	 */
+	private ResourceUtil resourceUtil = new ResourceUtil();
 
 	/**
 	 * Utility for calendar operations
@@ -155,13 +205,148 @@ public abstract class HolidayManager {
 	 *            a {@link java.lang.String} object.
 	 * @return HolidayManager implementation for the provided country.
 	 */
-	public static final HolidayManager getInstance(final String calendar, Properties properties, AssetManager assetManager) {
+	public static final HolidayManager getInstance(final String calendar, final Properties properties,
+			final AssetManager assetManager) {
 		final String calendarName = prepareCalendarName(calendar);
-		HolidayManager m = isManagerCachingEnabled() ? getFromCache(calendarName) : null;
-		if (m == null) {
-			m = createManager(calendarName, properties, assetManager);
+		if (!isManagerCachingEnabled()) {
+			return createManager(calendarName, properties, assetManager);
+		}
+		Future<HolidayManager> manager = MANAGER_CHACHE.get(calendarName);
+		if (manager == null) {
+			manager = startCreation(calendarName, new FutureTask<HolidayManager>(new Callable<HolidayManager>() {
+				@Override
+				public HolidayManager call() {
+					return createManager(calendarName, properties, assetManager);
+				}
+			}));
+		}
+		return join(calendarName, manager);
+	}
+
+	/**
+	 * Creates the managers for the calendars and calculates the holidays of
+	 * the years in the background. See
+	 * {@link #preload(Collection, int, int, Executor, Properties, AssetManager)}.
+	 * 
+	 * @param calendars
+	 *            the calendars to create the managers for
+	 * @param fromYear
+	 *            the first year to calculate the holidays for
+	 * @param toYear
+	 *            the last year to calculate the holidays for
+	 * @param executor
+	 *            runs the preloads
+	 * @return the preloads by calendar name
+	 */
+	public static Map<String, Future<HolidayManager>> preload(final Collection<String> calendars, int fromYear,
+			int toYear, final Executor executor, AssetManager assetManager) {
+		return preload(calendars, fromYear, toYear, executor, null, assetManager);
+	}
+
+	/**
+	 * Creates the managers for the calendars with the provided configuration
+	 * properties and calculates the holidays of the years in the background.
+	 * Every calendar is preloaded by its own task submitted to the executor.
+	 * The holidays are calculated for the calendar itself, not for its
+	 * states/regions. Like <code>getInstance</code> a preload waits for a
+	 * manager which is currently created and does not create managers which
+	 * are cached already. If manager caching is disabled the created managers
+	 * are only available through the returned futures.
+	 * 
+	 * @param calendars
+	 *            the calendars to create the managers for
+	 * @param fromYear
+	 *            the first year to calculate the holidays for
+	 * @param toYear
+	 *            the last year to calculate the holidays for
+	 * @param executor
+	 *            runs the preloads
+	 * @param properties
+	 *            the configuration properties
+	 * @return the preloads by calendar name, the futures return the managers
+	 *         once the holidays of all years have been calculated
+	 */
+	public static Map<String, Future<HolidayManager>> preload(final Collection<String> calendars, final int fromYear,
+			final int toYear, final Executor executor, final Properties properties, final AssetManager assetManager) {
+		if (fromYear > toYear) {
+			throw new IllegalArgumentException("Year " + fromYear + " is after year " + toYear + ".");
+		}
+		if (executor == null) {
+			throw new IllegalArgumentException("Executor is NULL.");
+		}
+		Map<String, Future<HolidayManager>> result = new LinkedHashMap<String, Future<HolidayManager>>();
+		for (String calendar : calendars) {
+			final String calendarName = prepareCalendarName(calendar);
+			if (result.containsKey(calendarName)) {
+				continue;
+			}
+			final FutureTask<HolidayManager> creation = new FutureTask<HolidayManager>(new Callable<HolidayManager>() {
+				@Override
+				public HolidayManager call() {
+					return createManager(calendarName, properties, assetManager);
+				}
+			});
+			FutureTask<HolidayManager> preload = new FutureTask<HolidayManager>(new Callable<HolidayManager>() {
+				@Override
+				public HolidayManager call() {
+					HolidayManager m;
+					if (isManagerCachingEnabled()) {
+						Future<HolidayManager> manager = MANAGER_CHACHE.get(calendarName);
+						m = join(calendarName, manager == null ? startCreation(calendarName, creation) : manager);
+					} else {
+						creation.run();
+						m = join(null, creation);
+					}
+					m.cacheYears(fromYear, toYear, m.resolve());
+					return m;
+				}
+			});
+			executor.execute(preload);
+			result.put(calendarName, preload);
+		}
+		return result;
+	}
+
+	/**
+	 * Registers the creation of the manager and runs it unless another
+	 * creation has been registered in the meantime.
+	 * 
+	 * @return the registered creation
+	 */
+	private static Future<HolidayManager> startCreation(final String calendar,
+			final FutureTask<HolidayManager> creation) {
+		Future<HolidayManager> registered = MANAGER_CHACHE.putIfAbsent(calendar, creation);
+		if (registered != null) {
+			return registered;
+		}
+		creation.run();
+		return creation;
+	}
+
+	/**
+	 * Waits for the creation of the manager. Errors creating it are thrown to
+	 * the caller and the failed creation is removed from the cache, so that
+	 * the next call tries again.
+	 */
+	private static HolidayManager join(final String calendar, final Future<HolidayManager> manager) {
+		try {
+			return manager.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the manager.", e);
+		} catch (ExecutionException e) {
+			if (calendar != null) {
+				MANAGER_CHACHE.remove(calendar, manager);
+			}
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException("Cannot create manager.", cause);
 		}
-		return m;
 	}
 
 	/**
@@ -188,20 +373,28 @@ public abstract class HolidayManager {
 	 *            the URL to the calendar's file
 	 * @return HolidayManager implementation for the provided country.
 	 */
-	public static final HolidayManager getInstance(final InputStream inputStream, String country, Properties properties) {
+	public static final HolidayManager getInstance(final InputStream inputStream, final String country,
+			final Properties properties) {
 		if (country == null) {
 			throw new NullPointerException("Missing URL.");
 		}
-		HolidayManager m = isManagerCachingEnabled() ? getFromCache(country) : null;
-		if (m == null) {
-			m = createManager(inputStream, country, properties);
+		if (!isManagerCachingEnabled()) {
+			return createManager(inputStream, country, properties);
 		}
-		return m;
+		Future<HolidayManager> manager = MANAGER_CHACHE.get(country);
+		if (manager == null) {
+			manager = startCreation(country, new FutureTask<HolidayManager>(new Callable<HolidayManager>() {
+				@Override
+				public HolidayManager call() {
+					return createManager(inputStream, country, properties);
+				}
+			}));
+		}
+		return join(country, manager);
 	}
 
 	/**
-	 * Creates a new <code>HolidayManager</code> instance for the country and
-	 * puts it to the manager cache.
+	 * Creates a new <code>HolidayManager</code> instance for the country.
 	 * 
 	 * @param calendar
 	 *            <code>HolidayManager</code> instance for the calendar
@@ -216,10 +409,10 @@ public abstract class HolidayManager {
 		String managerImplClassName = readManagerImplClassName(calendar, props);
 		HolidayManager m = instantiateManagerImpl(managerImplClassName);
 		m.setProperties(props);
-		m.init(calendar, assetManager);
-		if (isManagerCachingEnabled()) {
-			putToCache(calendar, m);
+		if (assetManager != null) {
+			m.setDescriptionSource(new AssetDescriptionSource(assetManager));
 		}
+		m.init(calendar, assetManager);
 		return m;
 	}
 
@@ -263,8 +456,7 @@ public abstract class HolidayManager {
 	}
 
 	/**
-	 * Creates a new <code>HolidayManager</code> instance for the URL and puts
-	 * it to the manager cache.
+	 * Creates a new <code>HolidayManager</code> instance for the URL.
 	 * 
 	 * @param inputStream
 	 *            the URL to a file containing the calendar
@@ -279,9 +471,6 @@ public abstract class HolidayManager {
 		HolidayManager m = instantiateManagerImpl(managerImplClassName);
 		m.setProperties(props);
 		m.init(country, inputStream);
-		if (isManagerCachingEnabled()) {
-			putToCache(country, m);
-		}
 		return m;
 	}
 
@@ -302,30 +491,6 @@ public abstract class HolidayManager {
 		return calendar;
 	}
 
-	/**
-	 * Caches the manager instance for this country.
-	 * 
-	 * @param country
-	 * @param manager
-	 */
-	private static void putToCache(final String country, final HolidayManager manager) {
-		synchronized (MANAGER_CHACHE) {
-			MANAGER_CHACHE.put(country, manager);
-		}
-	}
-
-	/**
-	 * Tries to retrieve a manager instance from cache by country.
-	 * 
-	 * @param country
-	 * @return Manager instance for this country. NULL if none is cached yet.
-	 */
-	private static HolidayManager getFromCache(final String country) {
-		synchronized (MANAGER_CHACHE) {
-			return MANAGER_CHACHE.get(country);
-		}
-	}
-
 	/**
 	 * If true, instantiated managers will be cached. If false every call to
 	 * getInstance will create new manager. True by default.
@@ -352,9 +517,7 @@ public abstract class HolidayManager {
 	 * Clears the manager cache from all cached manager instances.
 	 */
 	public static void clearManagerCache() {
-		synchronized (MANAGER_CHACHE) {
-			MANAGER_CHACHE.clear();
-		}
+		MANAGER_CHACHE.clear();
 	}
 
 	/**
@@ -371,7 +534,10 @@ public abstract class HolidayManager {
 	}
 
 	/**
-	 * Show if the requested date is a holiday.
+	 * Show if the requested date is a holiday. The hierarchy is turned into a
+	 * region path on every call, repeated queries for the same state/region
+	 * should use {@link #isHoliday(LocalDate, RegionHandle)} with a handle
+	 * from {@link #resolve(String...)} instead.
 	 * 
 	 * @param c
 	 *            The potential holiday.
@@ -381,18 +547,395 @@ public abstract class HolidayManager {
 	 * @return is a holiday in the state/region
 	 */
 	public boolean isHoliday(final LocalDate c, final String... args) {
-		StringBuilder keyBuilder = new StringBuilder();
-		keyBuilder.append(c.getYear());
-		for (String arg : args) {
-			keyBuilder.append("_");
-			keyBuilder.append(arg);
+		if (c.getChronology() != ISOChronology.getInstanceUTC()) {
+			// holidays are ISO dates and never equal dates of other chronologies
+			return false;
+		}
+		int year = c.getYear();
+		HolidayBitmap bitmap = holidaysPerYear.get(year, RegionPath.of(args));
+		if (bitmap != null) {
+			return bitmap.contains(c.getDayOfYear());
+		}
+		return isHolidayUncached(year, c.getMonthOfYear(), c.getDayOfMonth(), resolve(args));
+	}
+
+	/**
+	 * Resolves the hierarchy once so that the returned handle can be used for
+	 * any number of queries without resolving the hierarchy again.
+	 * 
+	 * @param args
+	 *            Hierarchy to resolve. i.e. args = {'ny'} -> New York
+	 * @return the handle for the state/region
+	 */
+	public RegionHandle resolve(final String... args) {
+		return new RegionHandle(this, args);
+	}
+
+	/**
+	 * Resolves the compiled rules a new {@link RegionHandle} is bound to.
+	 * Managers which compile their rules return the compiled configurations
+	 * from the root down to the state/region, the default implementation
+	 * returns <code>null</code>.
+	 * 
+	 * @param path
+	 *            the region path of the hierarchy
+	 * @param hierarchy
+	 *            the hierarchy, i.e. {'us', 'ny'}
+	 * @return the compiled configurations from the root down to the
+	 *         state/region or <code>null</code>
+	 */
+	protected RuleNode[] resolveNodes(final RegionPath path, final String... hierarchy) {
+		return null;
+	}
+
+	/**
+	 * Returns the compiled rules the handle is bound to.
+	 * 
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the compiled configurations from the root down to the
+	 *         state/region or <code>null</code>
+	 */
+	protected final RuleNode[] getNodes(final RegionHandle region) {
+		checkRegion(region);
+		return region.nodes();
+	}
+
+	/**
+	 * Show if the requested date is a holiday within the resolved
+	 * state/region.
+	 * 
+	 * @param c
+	 *            The potential holiday.
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return is a holiday in the state/region
+	 */
+	public boolean isHoliday(final LocalDate c, final RegionHandle region) {
+		if (c.getChronology() != ISOChronology.getInstanceUTC()) {
+			return false;
+		}
+		return isHoliday(c.getYear(), c.getMonthOfYear(), c.getDayOfMonth(), c.getDayOfYear(), region);
+	}
+
+	/**
+	 * Show if the requested gregorian date is a holiday within the resolved
+	 * state/region. This does not resolve the hierarchy again.
+	 * 
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month, 1 to 12
+	 * @param day
+	 *            the day of month
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return is a holiday in the state/region
+	 */
+	public boolean isHoliday(int year, int month, int day, final RegionHandle region) {
+		return isHoliday(year, month, day, calendarUtil.getDayOfYear(year, month, day), region);
+	}
+
+	private boolean isHoliday(int year, int month, int day, int dayOfYear, final RegionHandle region) {
+		checkRegion(region);
+		HolidayBitmap bitmap = holidaysPerYear.get(year, region.getPath());
+		if (bitmap == null) {
+			return isHolidayUncached(year, month, day, region);
+		}
+		return bitmap.contains(dayOfYear);
+	}
+
+	/**
+	 * Answers a single date query for a year which is not cached. The first
+	 * query for a year and state/region only evaluates the rules which can
+	 * fall on the date if the manager supports it. Any further query
+	 * calculates and caches the holidays of the whole year.
+	 */
+	private boolean isHolidayUncached(int year, int month, int day, final RegionHandle region) {
+		if (isPointQuerySupported()) {
+			Object touch = new Object();
+			if (touchedYears.putIfAbsent(year, region.getPath(), touch) == touch) {
+				return evaluateHoliday(year, month, day, region);
+			}
+		}
+		return createHolidayBitmap(year, region).contains(calendarUtil.getDayOfYear(year, month, day));
+	}
+
+	/**
+	 * Shows if the manager can answer single date queries by
+	 * {@link #evaluateHoliday(int, int, int, RegionHandle)} without calculating
+	 * the holidays of the whole year.
+	 * 
+	 * @return supports single date evaluation
+	 */
+	protected boolean isPointQuerySupported() {
+		return false;
+	}
+
+	/**
+	 * Shows if the gregorian date is a holiday within the state/region without
+	 * calculating the holidays of the whole year. The result has to be the
+	 * same as looking up the date within <code>getHolidays(year, region)</code>,
+	 * which is what the default implementation does. Only called if
+	 * {@link #isPointQuerySupported()} returns true.
+	 * 
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month, 1 to 12
+	 * @param day
+	 *            the day of month
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return is a holiday in the state/region
+	 */
+	protected boolean evaluateHoliday(int year, int month, int day, final RegionHandle region) {
+		int epochDay = calendarUtil.getEpochDay(year, month, day);
+		for (Holiday h : getHolidays(year, region)) {
+			if (h.getEpochDay() == epochDay) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Shows for every date of the array if it is a holiday within the resolved
+	 * state/region. The dates are given as days since 1970-01-01 within the
+	 * gregorian calendar. The holidays of every year touched are calculated
+	 * once per call.
+	 * 
+	 * @param epochDays
+	 *            the dates as days since 1970-01-01
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @param out
+	 *            receives at each index whether the date at the same index
+	 *            is a holiday. Must be at least as long as the dates.
+	 */
+	public void isHoliday(final int[] epochDays, final RegionHandle region, final boolean[] out) {
+		checkRegion(region);
+		checkBatchLength(epochDays.length, out.length);
+		if (epochDays.length == 0) {
+			return;
+		}
+		int min = epochDays[0];
+		int max = min;
+		for (int epochDay : epochDays) {
+			if (epochDay < min) {
+				min = epochDay;
+			} else if (epochDay > max) {
+				max = epochDay;
+			}
+		}
+		int minYear = calendarUtil.getYearOfEpochDay(min);
+		int years = calendarUtil.getYearOfEpochDay(max) - minYear + 1;
+		if (years > MAX_BATCH_YEARS) {
+			for (int i = 0; i < epochDays.length; i++) {
+				int year = calendarUtil.getYearOfEpochDay(epochDays[i]);
+				out[i] = getHolidayBitmap(year, region).contains(
+						epochDays[i] - calendarUtil.getEpochDay(year, 1, 1) + 1);
+			}
+			return;
+		}
+		HolidayBitmap[] bitmaps = new HolidayBitmap[years];
+		int[] yearStarts = new int[years + 1];
+		for (int i = 0; i <= years; i++) {
+			yearStarts[i] = calendarUtil.getEpochDay(minYear + i, 1, 1);
+		}
+		int index = 0;
+		for (int i = 0; i < epochDays.length; i++) {
+			int epochDay = epochDays[i];
+			if (epochDay < yearStarts[index] || epochDay >= yearStarts[index + 1]) {
+				index = calendarUtil.getYearOfEpochDay(epochDay) - minYear;
+			}
+			HolidayBitmap bitmap = bitmaps[index];
+			if (bitmap == null) {
+				bitmap = getHolidayBitmap(minYear + index, region);
+				bitmaps[index] = bitmap;
+			}
+			out[i] = bitmap.contains(epochDay - yearStarts[index] + 1);
+		}
+	}
+
+	/**
+	 * Shows for every date of the array if it is a holiday within the resolved
+	 * state/region. The holidays of every year touched are calculated once per
+	 * call.
+	 * 
+	 * @param dates
+	 *            the potential holidays
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @param out
+	 *            receives at each index whether the date at the same index
+	 *            is a holiday. Must be at least as long as the dates.
+	 */
+	public void isHoliday(final LocalDate[] dates, final RegionHandle region, final boolean[] out) {
+		checkRegion(region);
+		checkBatchLength(dates.length, out.length);
+		if (dates.length == 0) {
+			return;
+		}
+		int minYear = Integer.MAX_VALUE;
+		int maxYear = Integer.MIN_VALUE;
+		for (LocalDate date : dates) {
+			minYear = Math.min(minYear, date.getYear());
+			maxYear = Math.max(maxYear, date.getYear());
+		}
+		boolean direct = (long) maxYear - minYear >= MAX_BATCH_YEARS;
+		HolidayBitmap[] bitmaps = new HolidayBitmap[direct ? 0 : maxYear - minYear + 1];
+		for (int i = 0; i < dates.length; i++) {
+			LocalDate date = dates[i];
+			if (date.getChronology() != ISOChronology.getInstanceUTC()) {
+				out[i] = false;
+				continue;
+			}
+			int year = date.getYear();
+			HolidayBitmap bitmap;
+			if (direct) {
+				bitmap = getHolidayBitmap(year, region);
+			} else {
+				bitmap = bitmaps[year - minYear];
+				if (bitmap == null) {
+					bitmap = getHolidayBitmap(year, region);
+					bitmaps[year - minYear] = bitmap;
+				}
+			}
+			out[i] = bitmap.contains(date.getDayOfYear());
+		}
+	}
+
+	private static void checkBatchLength(int dates, int out) {
+		if (out < dates) {
+			throw new IllegalArgumentException("Result array of length " + out + " cannot hold " + dates
+					+ " results.");
+		}
+	}
+
+	/**
+	 * Returns the business day calendar for the state/region with saturday
+	 * and sunday as weekend days.
+	 * 
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the business calendar
+	 */
+	public BusinessCalendar getBusinessCalendar(final RegionHandle region) {
+		return getBusinessCalendar(region, DateTimeConstants.SATURDAY, DateTimeConstants.SUNDAY);
+	}
+
+	/**
+	 * Returns the business day calendar for the state/region with the provided
+	 * weekend days.
+	 * 
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @param weekendDays
+	 *            the <code>DateTimeConstants</code> days of the week which
+	 *            are no business days, i.e. FRIDAY and SATURDAY
+	 * @return the business calendar
+	 */
+	public BusinessCalendar getBusinessCalendar(final RegionHandle region, int... weekendDays) {
+		checkRegion(region);
+		return new BusinessCalendar(region, weekendDays);
+	}
+
+	/**
+	 * Returns the holiday bitmap for the year and state/region. The bitmap is
+	 * calculated once and then kept within the year cache.
+	 * 
+	 * @param year
+	 *            the year
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the holiday bitmap
+	 */
+	HolidayBitmap getHolidayBitmap(int year, final RegionHandle region) {
+		checkRegion(region);
+		HolidayBitmap bitmap = holidaysPerYear.get(year, region.getPath());
+		if (bitmap == null) {
+			return createHolidayBitmap(year, region);
 		}
-		String key = keyBuilder.toString();
-		if (!holidaysPerYear.containsKey(key)) {
-			Set<Holiday> holidays = getHolidays(c.getYear(), args);
-			holidaysPerYear.put(key, holidays);
+		return bitmap;
+	}
+
+	/**
+	 * Calculates the holidays of the years within the state/region and keeps
+	 * them within the year cache, so that later queries for these years do
+	 * not calculate anything. Years which are cached already are skipped. The
+	 * year cache keeps at most <code>manager.cache.size</code> years.
+	 * 
+	 * @param fromYear
+	 *            the first year
+	 * @param toYear
+	 *            the last year
+	 * @param region
+	 *            the state/region resolved by this manager
+	 */
+	public void cacheYears(int fromYear, int toYear, final RegionHandle region) {
+		checkRegion(region);
+		for (long year = fromYear; year <= toYear; year++) {
+			if (!holidaysPerYear.contains((int) year, region.getPath())) {
+				createHolidayBitmap((int) year, region);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the holidays of the year and puts their bitmap into the year
+	 * cache.
+	 */
+	private HolidayBitmap createHolidayBitmap(int year, final RegionHandle region) {
+		return holidaysPerYear.putIfAbsent(year, region.getPath(), calculateHolidayBitmap(year, region));
+	}
+
+	/**
+	 * Calculates the bitmap of the holidays of the year within the
+	 * state/region. The default implementation creates it from
+	 * <code>getHolidays(year, region)</code>. Implementations may calculate it
+	 * directly as long as the result is the same.
+	 * 
+	 * @param year
+	 *            the year
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the holiday bitmap
+	 */
+	protected HolidayBitmap calculateHolidayBitmap(int year, final RegionHandle region) {
+		return HolidayBitmap.create(year, getHolidays(year, region));
+	}
+
+	/**
+	 * Checks that the handle has been resolved by this manager.
+	 * 
+	 * @param region
+	 *            the handle to check
+	 */
+	protected final void checkRegion(final RegionHandle region) {
+		if (region.getManager() != this) {
+			throw new IllegalArgumentException(region + " has been resolved by another manager.");
 		}
-		return calendarUtil.contains(holidaysPerYear.get(key), c);
+	}
+
+	/**
+	 * Returns the number of <code>isHoliday</code> calls which were answered
+	 * from the year cache.
+	 * 
+	 * @return the year cache hit count
+	 */
+	public long getCacheHitCount() {
+		return holidaysPerYear.getHitCount();
+	}
+
+	/**
+	 * Returns the number of <code>isHoliday</code> calls which had to
+	 * calculate the holidays of the year.
+	 * 
+	 * @return the year cache miss count
+	 */
+	public long getCacheMissCount() {
+		return holidaysPerYear.getMissCount();
 	}
 
 	/**
@@ -429,6 +972,59 @@ public abstract class HolidayManager {
 	 */
 	protected void setProperties(Properties properties) {
 		this.properties.putAll(properties);
+		int cacheSize = readCacheSize(this.properties);
+		holidaysPerYear = new YearCache<HolidayBitmap>(cacheSize);
+		touchedYears = new YearCache<Object>(cacheSize);
+		filteredHolidays = new YearCache<HolidayTable>(cacheSize);
+	}
+
+	/**
+	 * Returns the utility which reads the descriptions of the holidays and
+	 * the calendar hierarchy of this manager.
+	 * 
+	 * @return the resource utility
+	 */
+	protected ResourceUtil getResourceUtil() {
+		return resourceUtil;
+	}
+
+	/**
+	 * Sets the source the descriptions of the holidays and the calendar
+	 * hierarchy of this manager are read from. Managers created for an
+	 * <code>AssetManager</code> read them from its assets, all others from
+	 * the source shared through
+	 * {@link ResourceUtil#setDescriptionSource(DescriptionSource)}.
+	 * 
+	 * @param source
+	 *            the source of the description files
+	 */
+	protected void setDescriptionSource(final DescriptionSource source) {
+		this.resourceUtil = new ResourceUtil(source);
+	}
+
+	/**
+	 * Reads the maximum number of cached years from the properties.
+	 * 
+	 * @param props
+	 *            properties to read from
+	 * @return the configured cache size or the default if none or an invalid
+	 *         one is configured
+	 */
+	private static int readCacheSize(Properties props) {
+		String size = props.getProperty(CACHE_SIZE_PROPERTY);
+		if (size != null) {
+			try {
+				int cacheSize = Integer.parseInt(size.trim());
+				if (cacheSize > 0) {
+					return cacheSize;
+				}
+			} catch (NumberFormatException e) {
+				// handled below
+			}
+			LOG.warning("Invalid configuration '" + CACHE_SIZE_PROPERTY + "=" + size + "'. Using default "
+					+ DEFAULT_CACHE_SIZE + ".");
+		}
+		return DEFAULT_CACHE_SIZE;
 	}
 
 	/**
@@ -443,6 +1039,221 @@ public abstract class HolidayManager {
 	 */
 	abstract public Set<Holiday> getHolidays(int year, String... args);
 
+	/**
+	 * Returns the holidays for the requested year and resolved state/region.
+	 * 
+	 * @param year
+	 *            i.e. 2010
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the list of holidays for the requested year
+	 */
+	public Set<Holiday> getHolidays(int year, final RegionHandle region) {
+		checkRegion(region);
+		return getHolidays(year, region.hierarchy());
+	}
+
+	/**
+	 * Returns the holidays for the requested year and hierarchy structure as
+	 * a compact table of dates and shared descriptors.
+	 * 
+	 * @param year
+	 *            i.e. 2010
+	 * @param args
+	 *            i.e. args = {'ny'}. returns US/New York holidays. No args ->
+	 *            holidays common to whole country
+	 * @return the table of holidays for the requested year
+	 */
+	public HolidayTable getHolidayTable(int year, final String... args) {
+		return getHolidayTable(year, resolve(args));
+	}
+
+	/**
+	 * Returns the holidays for the requested year and resolved state/region
+	 * as a compact table of dates and shared descriptors. The default
+	 * implementation creates it from <code>getHolidays(year, region)</code>.
+	 * 
+	 * @param year
+	 *            i.e. 2010
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the table of holidays for the requested year
+	 */
+	public HolidayTable getHolidayTable(int year, final RegionHandle region) {
+		checkRegion(region);
+		return HolidayTable.create(getHolidays(year, region), resourceUtil);
+	}
+
+	/**
+	 * Returns the holidays for the requested year and hierarchy structure
+	 * which are accepted by the filter.
+	 * 
+	 * @param year
+	 *            i.e. 2010
+	 * @param filter
+	 *            the filter, i.e. {@link HolidayFilter#OFFICIAL}
+	 * @param args
+	 *            i.e. args = {'ny'}. returns US/New York holidays. No args ->
+	 *            holidays common to whole country
+	 * @return the accepted holidays for the requested year
+	 */
+	public Set<Holiday> getHolidays(int year, final HolidayFilter filter, final String... args) {
+		return getHolidays(year, filter, resolve(args));
+	}
+
+	/**
+	 * Returns the holidays for the requested year and resolved state/region
+	 * which are accepted by the filter.
+	 * 
+	 * @param year
+	 *            i.e. 2010
+	 * @param filter
+	 *            the filter, i.e. {@link HolidayFilter#OFFICIAL}
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the accepted holidays for the requested year
+	 */
+	public Set<Holiday> getHolidays(int year, final HolidayFilter filter, final RegionHandle region) {
+		return getHolidayTable(year, filter, region).toSet();
+	}
+
+	/**
+	 * Returns the holidays for the requested year and resolved state/region
+	 * which are accepted by the filter as a compact table. The tables are
+	 * cached per year, state/region and filter, separately from the
+	 * unfiltered holidays. The tables of all filters together are bounded by
+	 * the configured cache size.
+	 * 
+	 * @param year
+	 *            i.e. 2010
+	 * @param filter
+	 *            the filter, i.e. {@link HolidayFilter#OFFICIAL}
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the table of accepted holidays for the requested year
+	 */
+	public HolidayTable getHolidayTable(int year, final HolidayFilter filter, final RegionHandle region) {
+		checkRegion(region);
+		if (filter == null) {
+			throw new IllegalArgumentException("Missing holiday filter.");
+		}
+		YearCache<HolidayTable> cache = filteredHolidays;
+		HolidayTable table = cache.get(year, region.getPath(), filter);
+		if (table == null) {
+			table = cache.putIfAbsent(year, region.getPath(), filter, calculateHolidayTable(year, filter, region));
+		}
+		return table;
+	}
+
+	/**
+	 * Show if the requested date is a holiday within the resolved
+	 * state/region which is accepted by the filter.
+	 * 
+	 * @param c
+	 *            The potential holiday.
+	 * @param filter
+	 *            the filter, i.e. {@link HolidayFilter#OFFICIAL}
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return is an accepted holiday in the state/region
+	 */
+	public boolean isHoliday(final LocalDate c, final HolidayFilter filter, final RegionHandle region) {
+		if (c.getChronology() != ISOChronology.getInstanceUTC()) {
+			return false;
+		}
+		return getHolidayTable(c.getYear(), filter, region).contains(toEpochDay(c));
+	}
+
+	/**
+	 * Calculates the holidays of the year within the state/region which are
+	 * accepted by the filter. The default implementation filters
+	 * <code>getHolidayTable(year, region)</code>. Implementations may skip
+	 * the rules of holidays which are not accepted as long as the result is
+	 * the same.
+	 * 
+	 * @param year
+	 *            the year
+	 * @param filter
+	 *            the filter
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the table of accepted holidays
+	 */
+	protected HolidayTable calculateHolidayTable(int year, final HolidayFilter filter, final RegionHandle region) {
+		HolidayTable all = getHolidayTable(year, region);
+		HolidayTable.Builder builder = new HolidayTable.Builder(resourceUtil);
+		for (int i = 0; i < all.size(); i++) {
+			HolidayDescriptor descriptor = all.getDescriptor(i);
+			if (filter.accepts(descriptor)) {
+				builder.add(all.getEpochDay(i), descriptor);
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns the holidays between the two dates, both inclusive, for the
+	 * requested hierarchy structure. Dates are compared as days since
+	 * 1970-01-01, so the result does not depend on the default time zone.
+	 * 
+	 * @param from
+	 *            the first day, inclusive
+	 * @param to
+	 *            the last day, inclusive
+	 * @param args
+	 *            i.e. args = {'ny'}. returns US/New York holidays. No args ->
+	 *            holidays common to whole country
+	 * @return the holidays within the range
+	 */
+	public Set<Holiday> getHolidays(final LocalDate from, final LocalDate to, final String... args) {
+		return getHolidays(from, to, resolve(args));
+	}
+
+	/**
+	 * Returns the holidays between the two dates, both inclusive, for the
+	 * resolved state/region. Only the years touched by the range are
+	 * calculated and only holidays of the first and the last year are
+	 * compared against the range.
+	 * 
+	 * @param from
+	 *            the first day, inclusive
+	 * @param to
+	 *            the last day, inclusive
+	 * @param region
+	 *            the state/region resolved by this manager
+	 * @return the holidays within the range
+	 */
+	public Set<Holiday> getHolidays(final LocalDate from, final LocalDate to, final RegionHandle region) {
+		if (from == null || to == null) {
+			throw new IllegalArgumentException("Range is missing its start or end.");
+		}
+		if (to.isBefore(from)) {
+			throw new IllegalArgumentException("End " + to + " lies before start " + from + ".");
+		}
+		int first = toEpochDay(from);
+		int last = toEpochDay(to);
+		Set<Holiday> holidays = new HashSet<Holiday>();
+		for (int year = from.getYear(); year <= to.getYear(); year++) {
+			boolean partial = year == from.getYear() || year == to.getYear();
+			for (Holiday h : getHolidays(year, region)) {
+				LocalDate date = h.getDate();
+				if (!partial && date.getYear() == year) {
+					holidays.add(h);
+				} else {
+					int epochDay = toEpochDay(date);
+					if (epochDay >= first && epochDay <= last) {
+						holidays.add(h);
+					}
+				}
+			}
+		}
+		return holidays;
+	}
+
+	private int toEpochDay(final LocalDate date) {
+		return calendarUtil.getEpochDay(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth());
+	}
+
 	/**
 	 * Returns the holidays for the requested interval and hierarchy structure.
 	 * 
@@ -1,4 +1,3 @@
-
 /**
  * Copyright 2010 Sven Diedrichsen
  *
@@ -13,23 +12,26 @@
  * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
  * express or implied. See the License for the specific language
  * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import de.synchrotronlabs.util.HolidayBitmap;
+
+/**
+ * Anything which can deliver the holidays of a year as a day-of-year bitmap,
+ * i.e. a resolved state/region or a combination of several of them.
  *
- * @author sven
  * @version $Id: $
  */
-package de.synchrotronlabs.parser;
-
-import java.util.Set;
+public interface HolidaySource {
 
-import de.synchrotronlabs.Holiday;
-import de.synchrotronlabs.config.Holidays;
-public interface HolidayParser {
 	/**
-	 * <p>parse.</p>
+	 * Returns the bitmap of the holidays within the year.
 	 *
-	 * @param year a int.
-	 * @param holidays a {@link java.util.Set} object.
-	 * @param config a {@link de.synchrotronlabs.config.Holidays} object.
+	 * @param year
+	 *            the year
+	 * @return the holiday bitmap
 	 */
-	void parse(int year, Set<Holiday> holidays, Holidays config);
+	HolidayBitmap getHolidayBitmap(int year);
+
 }
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import de.synchrotronlabs.rule.RuleNode;
+import de.synchrotronlabs.util.HolidayBitmap;
+import de.synchrotronlabs.util.RegionPath;
+
+/**
+ * A state/region of a {@link HolidayManager} which has been resolved once by
+ * {@link HolidayManager#resolve(String...)}. Handles are immutable and can be
+ * shared between threads. A handle is bound to the compiled rules of the
+ * configurations from the root down to the state/region if the manager
+ * compiles its rules, so queries using a handle do not have to resolve the
+ * hierarchy again and do not need to allocate a varargs array.
+ *
+ * @version $Id: $
+ */
+public class RegionHandle implements HolidaySource {
+
+	/**
+	 * The manager this region belongs to.
+	 */
+	private final HolidayManager manager;
+	/**
+	 * The requested hierarchy, i.e. {'us', 'ny'}.
+	 */
+	private final String[] hierarchy;
+	/**
+	 * The region path, i.e. 'us/ny'.
+	 */
+	private final RegionPath path;
+	/**
+	 * The compiled rules from the root down to the state/region or
+	 * <code>null</code> if the manager does not compile its rules.
+	 */
+	private final RuleNode[] nodes;
+
+	/**
+	 * Constructs a handle for the hierarchy of the provided manager which is
+	 * not bound to compiled rules.
+	 *
+	 * @param manager
+	 *            the manager the region belongs to
+	 * @param hierarchy
+	 *            the hierarchy, i.e. {'us', 'ny'}
+	 */
+	protected RegionHandle(HolidayManager manager, String... hierarchy) {
+		if (manager == null) {
+			throw new NullPointerException("Missing manager.");
+		}
+		this.manager = manager;
+		this.hierarchy = hierarchy == null ? new String[0] : hierarchy.clone();
+		this.path = RegionPath.of(this.hierarchy);
+		this.nodes = manager.resolveNodes(path, this.hierarchy);
+	}
+
+	/**
+	 * @return the manager this region belongs to
+	 */
+	public HolidayManager getManager() {
+		return manager;
+	}
+
+	/**
+	 * @return a copy of the hierarchy this handle was resolved for
+	 */
+	public String[] getHierarchy() {
+		return hierarchy.clone();
+	}
+
+	/**
+	 * @return the lower case region path, i.e. 'us/ny'
+	 */
+	public RegionPath getPath() {
+		return path;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The bitmap is taken from the year cache of the manager.
+	 */
+	public HolidayBitmap getHolidayBitmap(int year) {
+		return manager.getHolidayBitmap(year, this);
+	}
+
+	/**
+	 * Returns the hierarchy without copying it. Must not be modified.
+	 *
+	 * @return the hierarchy
+	 */
+	String[] hierarchy() {
+		return hierarchy;
+	}
+
+	/**
+	 * Returns the compiled rules without copying them. Must not be modified.
+	 *
+	 * @return the compiled rules or <code>null</code>
+	 */
+	RuleNode[] nodes() {
+		return nodes;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Compares handles by manager and region path.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof RegionHandle) {
+			RegionHandle other = (RegionHandle) obj;
+			return other.manager == manager && other.path.equals(path);
+		}
+		return false;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String toString() {
+		return "RegionHandle(" + path + ")";
+	}
+
+}
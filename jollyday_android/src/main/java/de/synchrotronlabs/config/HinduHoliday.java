@@ -8,6 +8,8 @@
 
 package de.synchrotronlabs.config;
 
+import org.simpleframework.xml.Attribute;
+
 /**
  * <p>Java class for HinduHoliday complex type.
  * 
@@ -29,6 +31,7 @@ public class HinduHoliday
     extends Holiday
 {
 
+    @Attribute
     protected HinduHolidayType type;
 
     /**
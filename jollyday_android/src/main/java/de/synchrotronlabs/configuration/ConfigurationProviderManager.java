@@ -30,6 +30,12 @@ import de.synchrotronlabs.configuration.internal.URLConfigurationProvider;
 public class ConfigurationProviderManager {
 
 	private static final Logger LOG = Logger.getLogger(ConfigurationProviderManager.class.getName());
+	/**
+	 * Prefix of the former configuration of the holiday parsers. The parsers
+	 * have been replaced by rules compiled when a manager is initialized, so
+	 * these properties are not read anymore.
+	 */
+	private static final String PARSER_IMPL_PREFIX = "parser.impl.";
 
 	private ConfigurationProvider defaultConfigurationProvider = new DefaultConfigurationProvider();
 	private ConfigurationProvider urlConfigurationProvider = new URLConfigurationProvider();
@@ -57,9 +63,23 @@ public class ConfigurationProviderManager {
 		if (properties != null) {
 			unifiedProperties.putAll(properties);
 		}
+		warnAboutParserConfiguration(unifiedProperties);
 		return unifiedProperties;
 	}
 
+	/**
+	 * Logs a warning for every configured holiday parser as custom parsers
+	 * are not supported anymore and would be silently ignored otherwise.
+	 */
+	private void warnAboutParserConfiguration(Properties properties) {
+		for (String key : properties.stringPropertyNames()) {
+			if (key.startsWith(PARSER_IMPL_PREFIX)) {
+				LOG.warning("Ignoring configuration '" + key + "=" + properties.getProperty(key)
+						+ "'. Holiday parsers are not supported anymore, the holidays are calculated by compiled rules.");
+			}
+		}
+	}
+
 	private void addInternalConfigurationProviderProperies(Properties properties) {
 		defaultConfigurationProvider.putConfiguration(properties);
 		urlConfigurationProvider.putConfiguration(properties);
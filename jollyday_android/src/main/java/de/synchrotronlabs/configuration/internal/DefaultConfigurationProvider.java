@@ -45,16 +45,9 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
 	 */
 	public void putConfiguration(Properties properties) {
 		properties.put("manager.impl","de.synchrotronlabs.impl.XMLManager");
-		properties.put("parser.impl.de.jollyday.config.Fixed","de.synchrotronlabs.parser.impl.FixedParser");
-		properties.put("parser.impl.de.jollyday.config.FixedWeekdayInMonth","de.synchrotronlabs.parser.impl.FixedWeekdayInMonthParser");
-		properties.put("parser.impl.de.jollyday.config.IslamicHoliday","de.synchrotronlabs.parser.impl.IslamicHolidayParser");
-		properties.put("parser.impl.de.jollyday.config.ChristianHoliday","de.synchrotronlabs.parser.impl.ChristianHolidayParser");
-		properties.put("parser.impl.de.jollyday.config.RelativeToFixed","de.synchrotronlabs.parser.impl.RelativeToFixedParser");
-		properties.put("parser.impl.de.jollyday.config.RelativeToWeekdayInMonth","de.synchrotronlabs.parser.impl.RelativeToWeekdayInMonthParser");
-		properties.put("parser.impl.de.jollyday.config.FixedWeekdayBetweenFixed","de.synchrotronlabs.parser.impl.FixedWeekdayBetweenFixedParser");
-		properties.put("parser.impl.de.jollyday.config.FixedWeekdayRelativeToFixed","de.synchrotronlabs.parser.impl.FixedWeekdayRelativeToFixedParser");
-		properties.put("parser.impl.de.jollyday.config.EthiopianOrthodoxHoliday","de.synchrotronlabs.parser.impl.EthiopianOrthodoxHolidayParser");
-		properties.put("parser.impl.de.jollyday.config.RelativeToEasterSunday","de.synchrotronlabs.parser.impl.RelativeToEasterSundayParser");
+		properties.put("manager.cache.size","1024");
+		properties.put("configuration.reader.impl","de.synchrotronlabs.impl.SimpleXmlConfigurationReader");
+		properties.put("configuration.lazy","true");
 	}
 
 }
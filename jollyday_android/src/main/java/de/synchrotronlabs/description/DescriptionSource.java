@@ -0,0 +1,41 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.description;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The interface for sources of the description properties files, i.e.
+ * <code>descriptions/holiday_descriptions_de.properties</code>.
+ * 
+ * @version $Id: $
+ */
+public interface DescriptionSource {
+
+	/**
+	 * Opens the properties file.
+	 * 
+	 * @param fileName
+	 *            the path of the file relative to the root of the source
+	 * @return the stream to read the file from or <code>null</code> if this
+	 *         source does not contain the file
+	 * @throws IOException
+	 *             if the file exists but cannot be opened
+	 */
+	InputStream open(String fileName) throws IOException;
+
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.description;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Index of one family of localized description properties files, i.e.
+ * <code>descriptions/holiday_descriptions_*.properties</code>. Every file is
+ * read once from the {@link DescriptionSource}. For every requested locale
+ * the entries of the files along its fallback chain are merged into a single
+ * hash map when the locale is requested the first time, so looking up a
+ * description is a lock free hash lookup afterwards.
+ * <p>
+ * The fallback chain is the one of {@link java.util.ResourceBundle}:
+ * language, country and variant specific files override less specific ones
+ * and the file without locale suffix. If there is no specific file for a
+ * locale other than the root locale the files of the default locale are
+ * used.
+ * </p>
+ * 
+ * @version $Id: $
+ */
+public final class DescriptionStore {
+
+	private static final Logger LOG = Logger.getLogger(DescriptionStore.class.getName());
+	/**
+	 * Marker for files which are not contained in the source.
+	 */
+	private static final Map<String, String> MISSING = Collections.emptyMap();
+
+	private final DescriptionSource source;
+	private final String baseName;
+	/**
+	 * The parsed files by file name.
+	 */
+	private final ConcurrentMap<String, Map<String, String>> files = new ConcurrentHashMap<String, Map<String, String>>();
+	/**
+	 * The merged entries by requested locale.
+	 */
+	private final ConcurrentMap<Locale, Map<String, String>> descriptions = new ConcurrentHashMap<Locale, Map<String, String>>();
+
+	/**
+	 * @param source
+	 *            the source to read the files from
+	 * @param baseName
+	 *            the path of the files without locale suffix and extension,
+	 *            i.e. <code>descriptions/holiday_descriptions</code>
+	 */
+	public DescriptionStore(final DescriptionSource source, String baseName) {
+		if (source == null) {
+			throw new IllegalArgumentException("Missing description source.");
+		}
+		if (baseName == null) {
+			throw new IllegalArgumentException("Missing base name.");
+		}
+		this.source = source;
+		this.baseName = baseName;
+	}
+
+	/**
+	 * Returns the description for the key.
+	 * 
+	 * @param locale
+	 *            the locale to return the description for
+	 * @param key
+	 *            the properties key
+	 * @return the description or <code>null</code> if there is none
+	 */
+	public String get(Locale locale, String key) {
+		return getDescriptions(locale).get(key);
+	}
+
+	/**
+	 * Returns all descriptions for the locale.
+	 * 
+	 * @param locale
+	 *            the locale to return the descriptions for
+	 * @return the unmodifiable descriptions by properties key
+	 */
+	public Map<String, String> getDescriptions(Locale locale) {
+		Map<String, String> result = descriptions.get(locale);
+		if (result == null) {
+			result = merge(locale);
+			Map<String, String> existing = descriptions.putIfAbsent(locale, result);
+			if (existing != null) {
+				result = existing;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Merges the entries of all files along the fallback chain of the locale.
+	 */
+	private Map<String, String> merge(Locale locale) {
+		List<Map<String, String>> chain = getSpecificFiles(locale);
+		if (chain.isEmpty() && locale.toString().length() > 0 && !locale.equals(Locale.getDefault())) {
+			chain = getSpecificFiles(Locale.getDefault());
+		}
+		Map<String, String> merged = new HashMap<String, String>(getFile(baseName));
+		for (int i = chain.size() - 1; i >= 0; i--) {
+			merged.putAll(chain.get(i));
+		}
+		return Collections.unmodifiableMap(merged);
+	}
+
+	/**
+	 * Returns the existing locale specific files from the most to the least
+	 * specific one.
+	 */
+	private List<Map<String, String>> getSpecificFiles(Locale locale) {
+		List<String> names = new ArrayList<String>(3);
+		String language = locale.getLanguage();
+		String country = locale.getCountry();
+		String variant = locale.getVariant();
+		if (variant.length() > 0) {
+			names.add(baseName + "_" + language + "_" + country + "_" + variant);
+		}
+		if (country.length() > 0) {
+			names.add(baseName + "_" + language + "_" + country);
+		}
+		if (language.length() > 0) {
+			names.add(baseName + "_" + language);
+		}
+		List<Map<String, String>> result = new ArrayList<Map<String, String>>(names.size());
+		for (String name : names) {
+			Map<String, String> file = getFile(name);
+			if (file != MISSING) {
+				result.add(file);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the eventually cached entries of the file.
+	 */
+	private Map<String, String> getFile(String name) {
+		Map<String, String> file = files.get(name);
+		if (file == null) {
+			file = read(name + ".properties");
+			Map<String, String> existing = files.putIfAbsent(name, file);
+			if (existing != null) {
+				file = existing;
+			}
+		}
+		return file;
+	}
+
+	private Map<String, String> read(String fileName) {
+		InputStream inputStream = null;
+		try {
+			inputStream = source.open(fileName);
+			if (inputStream == null) {
+				return MISSING;
+			}
+			Properties properties = new Properties();
+			properties.load(inputStream);
+			Map<String, String> entries = new HashMap<String, String>(properties.size() * 2);
+			for (String key : properties.stringPropertyNames()) {
+				entries.put(key, properties.getProperty(key));
+			}
+			if (LOG.isLoggable(Level.FINER)) {
+				LOG.finer("Read " + entries.size() + " descriptions from " + fileName + ".");
+			}
+			return entries;
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read descriptions from " + fileName + ".", e);
+		} finally {
+			if (inputStream != null) {
+				try {
+					inputStream.close();
+				} catch (IOException e) {
+					LOG.warning("Cannot close stream for descriptions " + fileName + ".");
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.description.internal;
+
+import android.content.res.AssetManager;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+import de.synchrotronlabs.description.DescriptionSource;
+
+/**
+ * A {@link DescriptionSource} implementation which reads the files from the
+ * assets of the application.
+ * 
+ * @version $Id: $
+ */
+public class AssetDescriptionSource implements DescriptionSource {
+
+	private final AssetManager assetManager;
+
+	/**
+	 * @param assetManager
+	 *            the asset manager to read the files with
+	 */
+	public AssetDescriptionSource(final AssetManager assetManager) {
+		if (assetManager == null) {
+			throw new IllegalArgumentException("Missing asset manager.");
+		}
+		this.assetManager = assetManager;
+	}
+
+	@Override
+	public InputStream open(String fileName) throws IOException {
+		try {
+			return assetManager.open(fileName);
+		} catch (FileNotFoundException e) {
+			return null;
+		}
+	}
+
+}
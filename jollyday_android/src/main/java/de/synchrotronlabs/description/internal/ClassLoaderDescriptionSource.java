@@ -0,0 +1,52 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.description.internal;
+
+import java.io.InputStream;
+
+import de.synchrotronlabs.description.DescriptionSource;
+
+/**
+ * A {@link DescriptionSource} implementation which reads the files as
+ * resources from the classpath.
+ * 
+ * @version $Id: $
+ */
+public class ClassLoaderDescriptionSource implements DescriptionSource {
+
+	private final ClassLoader classLoader;
+
+	/**
+	 * Reads the files with the class loader of this class.
+	 */
+	public ClassLoaderDescriptionSource() {
+		this(ClassLoaderDescriptionSource.class.getClassLoader());
+	}
+
+	/**
+	 * @param classLoader
+	 *            the class loader to read the files with
+	 */
+	public ClassLoaderDescriptionSource(final ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	@Override
+	public InputStream open(String fileName) {
+		return classLoader.getResourceAsStream(fileName);
+	}
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.description.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import de.synchrotronlabs.description.DescriptionSource;
+
+/**
+ * A {@link DescriptionSource} implementation which reads the files from a
+ * directory of the file system.
+ * 
+ * @version $Id: $
+ */
+public class FileDescriptionSource implements DescriptionSource {
+
+	private final File directory;
+
+	/**
+	 * @param directory
+	 *            the directory containing the <code>descriptions</code>
+	 *            directory
+	 */
+	public FileDescriptionSource(final File directory) {
+		if (directory == null) {
+			throw new IllegalArgumentException("Missing directory.");
+		}
+		this.directory = directory;
+	}
+
+	@Override
+	public InputStream open(String fileName) throws IOException {
+		File file = new File(directory, fileName);
+		return file.isFile() ? new FileInputStream(file) : null;
+	}
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.impl;
+
+import android.content.res.AssetManager;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.synchrotronlabs.rule.RuleFile;
+import de.synchrotronlabs.rule.RuleNode;
+
+/**
+ * Manager implementation for reading the bundled calendars from their
+ * compiled binary form (see {@link RuleFile}). The files with the name
+ * pattern Holidays_[country].bin are created out of the XML files by the
+ * compile&lt;Variant&gt;HolidayRules build tasks. They are read from the assets
+ * without parsing XML or reflection.
+ * Calendars without compiled file and configurations provided as stream are
+ * read as XML. With the property <code>configuration.lazy</code> set to
+ * <code>true</code> only the rules of the calendar itself are decoded by
+ * {@link #init(String, AssetManager)}, the rules of its states/regions are
+ * decoded on their first use.
+ * 
+ * @version $Id: $
+ */
+public class BinaryManager extends XMLManager {
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOG = Logger.getLogger(BinaryManager.class.getName());
+	/**
+	 * prefix of the compiled files.
+	 */
+	private static final String FILE_PREFIX = "holidays/Holidays";
+	/**
+	 * suffix of the compiled files.
+	 */
+	private static final String FILE_SUFFIX = ".bin";
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Reads the compiled calendar from the assets. Falls back to the XML file
+	 * if there is no compiled file or if it cannot be read.
+	 */
+	@Override
+	public void init(final String calendar, AssetManager am) {
+		RuleNode root = readCompiledConfiguration(calendar, am, isLazy());
+		if (root == null) {
+			super.init(calendar, am);
+		} else {
+			init(calendar, root);
+		}
+	}
+
+	private RuleNode readCompiledConfiguration(final String calendar, AssetManager am, boolean lazy) {
+		String fileName = getCompiledFileName(calendar);
+		InputStream inputStream = null;
+		try {
+			inputStream = openAsset(am, fileName);
+			return RuleFile.read(inputStream, lazy);
+		} catch (FileNotFoundException e) {
+			if (LOG.isLoggable(Level.FINE)) {
+				LOG.fine("No compiled configuration " + fileName + ". Reading XML.");
+			}
+		} catch (Exception e) {
+			LOG.warning("Cannot read compiled configuration " + fileName + ". Reading XML. "
+					+ e.getClass().getSimpleName() + " (" + e.getMessage() + ").");
+		} finally {
+			if (inputStream != null) {
+				try {
+					inputStream.close();
+				} catch (IOException e) {
+					LOG.warning("Cannot close stream for " + fileName + ".");
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the compiled configuration file name for the country.
+	 * 
+	 * @param country
+	 *            a {@link java.lang.String} object.
+	 * @return file name
+	 */
+	public static String getCompiledFileName(final String country) {
+		return FILE_PREFIX + "_" + country + FILE_SUFFIX;
+	}
+
+}
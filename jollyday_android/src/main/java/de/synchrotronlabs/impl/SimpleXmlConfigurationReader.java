@@ -0,0 +1,60 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import de.synchrotronlabs.config.Configuration;
+import de.synchrotronlabs.rule.ConfigurationReader;
+import de.synchrotronlabs.rule.RuleCompiler;
+import de.synchrotronlabs.rule.RuleNode;
+import de.synchrotronlabs.util.XMLUtil;
+
+/**
+ * Reads the configuration by unmarshalling it with simple-xml into the
+ * classes of <code>de.synchrotronlabs.config</code> which are compiled
+ * afterwards.
+ * 
+ * @version $Id: $
+ */
+public class SimpleXmlConfigurationReader implements ConfigurationReader {
+
+	/**
+	 * XML utility class.
+	 */
+	private final XMLUtil xmlUtil = new XMLUtil();
+
+	@Override
+	public RuleNode read(InputStream stream) throws IOException {
+		return read(stream, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * simple-xml unmarshals the whole file, so with <code>lazy</code> set
+	 * only the compilation of the sub configurations is deferred.
+	 */
+	@Override
+	public RuleNode read(InputStream stream, boolean lazy) throws IOException {
+		Configuration configuration = xmlUtil.unmarshallConfiguration(stream);
+		XMLManager.validateConfigurationHierarchy(configuration);
+		XMLManager.logHierarchy(configuration, 0);
+		return new RuleCompiler().compile(configuration, lazy);
+	}
+
+}
@@ -17,14 +17,16 @@ package de.synchrotronlabs.impl;
 
 import android.content.res.AssetManager;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -33,28 +35,26 @@ import org.joda.time.ReadableInterval;
 
 import de.synchrotronlabs.CalendarHierarchy;
 import de.synchrotronlabs.Holiday;
+import de.synchrotronlabs.HolidayFilter;
 import de.synchrotronlabs.HolidayManager;
+import de.synchrotronlabs.RegionHandle;
 import de.synchrotronlabs.config.Configuration;
-import de.synchrotronlabs.config.Holidays;
-import de.synchrotronlabs.parser.HolidayParser;
-import de.synchrotronlabs.parser.impl.ChristianHolidayParser;
-import de.synchrotronlabs.parser.impl.EthiopianOrthodoxHolidayParser;
-import de.synchrotronlabs.parser.impl.FixedParser;
-import de.synchrotronlabs.parser.impl.FixedWeekdayBetweenFixedParser;
-import de.synchrotronlabs.parser.impl.FixedWeekdayInMonthParser;
-import de.synchrotronlabs.parser.impl.FixedWeekdayRelativeToFixedParser;
-import de.synchrotronlabs.parser.impl.HinduHolidayParser;
-import de.synchrotronlabs.parser.impl.IslamicHolidayParser;
-import de.synchrotronlabs.parser.impl.RelativeToEasterSundayParser;
-import de.synchrotronlabs.parser.impl.RelativeToFixedParser;
-import de.synchrotronlabs.parser.impl.RelativeToWeekdayInMonthParser;
+import de.synchrotronlabs.postprocessor.HolidayPostProcessor;
+import de.synchrotronlabs.postprocessor.YearHolidays;
+import de.synchrotronlabs.rule.ConfigurationReader;
+import de.synchrotronlabs.rule.RuleEvaluator;
+import de.synchrotronlabs.rule.RuleIndex;
+import de.synchrotronlabs.rule.RuleNode;
 import de.synchrotronlabs.util.ClassLoadingUtil;
-import de.synchrotronlabs.util.XMLUtil;
+import de.synchrotronlabs.util.HolidayBitmap;
+import de.synchrotronlabs.util.HolidayTable;
+import de.synchrotronlabs.util.RegionPath;
 
 /**
  * Manager implementation for reading data from XML files. The files with the
  * name pattern Holidays_[country].xml will be read from the system classpath.
- * It uses a list a parsers for parsing the different type of XML nodes.
+ * On initialization the XML configuration is compiled into a tree of rule
+ * programs which are evaluated for the requested years.
  * 
  * @author Sven Diedrichsen
  * @version $Id: $
@@ -65,10 +65,6 @@ public class XMLManager extends HolidayManager {
 	 * Logger.
 	 */
 	private static final Logger LOG = Logger.getLogger(XMLManager.class.getName());
-	/**
-	 * The configuration prefix for parser implementations.
-	 */
-	private static final String PARSER_IMPL_PREFIX = "parser.impl.";
 	/**
 	 * prefix of the config files.
 	 */
@@ -77,175 +73,207 @@ public class XMLManager extends HolidayManager {
 	 * suffix of the config files.
 	 */
 	private static final String FILE_SUFFIX = ".xml";
-
 	/**
-	 * Parser cache by XML class name.
+	 * Prefix of the properties configuring the post processing stages. The
+	 * calendar specific property <code>postprocessor.impl.[calendar]</code>
+	 * takes precedence. The value is a comma separated list of class names.
+	 */
+	private static final String POST_PROCESSOR_IMPL_PREFIX = "postprocessor.impl";
+	/**
+	 * Property for the configuration reader implementation class.
+	 */
+	private static final String CONFIGURATION_READER_IMPL = "configuration.reader.impl";
+	/**
+	 * Property to compile the rules of states/regions on their first use.
 	 */
-	private final Map<String, HolidayParser> parserCache = new HashMap<String, HolidayParser>();
+	private static final String LAZY_PROPERTY = "configuration.lazy";
+
 	/**
-	 * Configuration parsed on initialization.
+	 * Compiled configuration tree indexed by region path.
 	 */
-	protected Configuration configuration;
+	private RuleIndex index;
 	/**
-	 * Utility class to handle class loading
+	 * Evaluates the compiled rules.
 	 */
-	private ClassLoadingUtil classLoadingUtil = new ClassLoadingUtil();
+	private final RuleEvaluator ruleEvaluator = new RuleEvaluator();
 	/**
-	 * XML utility class.
+	 * The post processing stages run in this order on the holidays of every
+	 * year.
 	 */
-	private XMLUtil xmlUtil = new XMLUtil();
-	
-	private Collection<HolidayParser> parsers;
+	private HolidayPostProcessor[] postProcessors = new HolidayPostProcessor[0];
 
 	/**
 	 * {@inheritDoc}
 	 * 
-	 * Calls
-	 * <code>Set&lt;LocalDate&gt; getHolidays(int year, Configuration c, String... args)</code>
-	 * with the configuration from initialization.
+	 * Resolves the hierarchy and calls
+	 * <code>Set&lt;Holiday&gt; getHolidays(int year, RegionHandle region)</code>
+	 * with it.
 	 */
 	@Override
 	public Set<Holiday> getHolidays(int year, final String... args) {
-		Set<Holiday> holidaySet = Collections.synchronizedSet(new HashSet<Holiday>());
-		getHolidays(year, configuration, holidaySet, args);
-		return holidaySet;
+		return getHolidays(year, resolve(args));
 	}
 
 	/**
 	 * {@inheritDoc}
 	 * 
-	 * Calls <code>getHolidays(year, args)</code> for each year within the
-	 * interval and returns a list of holidays which are then contained in the
-	 * interval.
+	 * Evaluates the rules of every configuration from the root down to the
+	 * resolved state/region and runs the post processing stages on them.
 	 */
 	@Override
-	public Set<Holiday> getHolidays(ReadableInterval interval, final String... args) {
-		if (interval == null) {
-			throw new IllegalArgumentException("Interval is NULL.");
-		}
-		Set<Holiday> holidays = new HashSet<Holiday>();
-		for (int year = interval.getStart().getYear(); year <= interval.getEnd().getYear(); year++) {
-			Set<Holiday> yearHolidays = getHolidays(year, args);
-			for (Holiday h : yearHolidays) {
-				if (interval.contains(h.getDate().toDateTimeAtStartOfDay())) {
-					holidays.add(h);
-				}
+	public Set<Holiday> getHolidays(int year, final RegionHandle region) {
+		Set<Holiday> holidaySet = Collections.synchronizedSet(evaluateTable(year, null, region).toSet());
+		if (postProcessors.length > 0) {
+			YearHolidays yearHolidays = new YearHolidays(year, holidaySet);
+			for (HolidayPostProcessor p : postProcessors) {
+				p.process(yearHolidays);
+				yearHolidays.apply();
 			}
+			Set<Holiday> processed = new HashSet<Holiday>();
+			yearHolidays.addTo(processed);
+			holidaySet = Collections.synchronizedSet(HolidayTable.create(processed, getResourceUtil()).toSet());
 		}
-		return holidays;
+		return holidaySet;
 	}
 
 	/**
-	 * Parses the provided configuration for the provided year and fills the
-	 * list of holidays.
+	 * {@inheritDoc}
 	 * 
-	 * @param year
-	 * @param c
-	 * @param holidaySet
-	 * @param args
+	 * Evaluates the rules directly into the table unless the holidays are
+	 * post processed.
 	 */
-	private void getHolidays(int year, final Configuration c, Set<Holiday> holidaySet, final String... args) {
-		if (LOG.isLoggable(Level.FINER)) {
-			LOG.finer("Adding holidays for " + c.getDescription());
-		}
-		parseHolidays(year, holidaySet, c.getHolidays());
-		if (args != null && args.length > 0) {
-			String hierarchy = args[0];
-			for (Configuration config : c.getSubConfigurations()) {
-				if (hierarchy.equalsIgnoreCase(config.getHierarchy())) {
-					getHolidays(year, config, holidaySet, copyOfRange(args, 1, args.length));
-					break;
-				}
-			}
+	@Override
+	public HolidayTable getHolidayTable(int year, final RegionHandle region) {
+		if (hasPostProcessing()) {
+			return super.getHolidayTable(year, region);
 		}
+		checkRegion(region);
+		return evaluateTable(year, null, region);
 	}
 
 	/**
-	 * Copies the specified range from the original array to a new array. This
-	 * is a replacement for Java 1.6 Arrays.copyOfRange() specialized in String.
+	 * {@inheritDoc}
 	 * 
-	 * @param original
-	 *            the original array to copy range from
-	 * @param from
-	 *            the start of the range to copy from the original array
-	 * @param to
-	 *            the inclusive end of the range to copy from the original array
-	 * @return the copied range
-	 */
-	private String[] copyOfRange(final String[] original, int from, int to) {
-		int newLength = to - from;
-		if (newLength < 0) {
-			throw new IllegalArgumentException(from + " > " + to);
+	 * Only evaluates the rules accepted by the filter unless the holidays are
+	 * post processed. Post processing depends on all holidays, so these are
+	 * filtered afterwards.
+	 */
+	@Override
+	protected HolidayTable calculateHolidayTable(int year, final HolidayFilter filter, final RegionHandle region) {
+		if (hasPostProcessing()) {
+			return super.calculateHolidayTable(year, filter, region);
 		}
-		String[] copy = new String[newLength];
-		System.arraycopy(original, from, copy, 0, Math.min(original.length - from, newLength));
-		return copy;
+		return evaluateTable(year, filter, region);
 	}
 
 	/**
-	 * Iterates of the list of parsers and calls parse on each of them.
-	 * 
-	 * @param year
-	 * @param holidays
-	 * @param config
-	 */
-	private void parseHolidays(int year, Set<Holiday> holidays, final Holidays config) {
-		Collection<HolidayParser> parsers = getParsers(config);
-		for (HolidayParser p : parsers) {
-			HolidayParserRunner holidayParserRunner = new HolidayParserRunner(year, holidays, config, p);
-			holidayParserRunner.run();
+	 * Evaluates the rules of every configuration from the root down to the
+	 * state/region which are accepted by the filter, all for a
+	 * <code>null</code> filter.
+	 */
+	private HolidayTable evaluateTable(int year, final HolidayFilter filter, final RegionHandle region) {
+		HolidayTable.Builder builder = new HolidayTable.Builder(getResourceUtil());
+		for (RuleNode node : getNodes(region)) {
+			if (LOG.isLoggable(Level.FINER)) {
+				LOG.finer("Adding holidays for " + node.getDescription());
+			}
+			ruleEvaluator.evaluate(node.getProgram(), year, filter, builder);
 		}
+		return builder.build();
 	}
 
 	/**
-	 * Private class which is used to asyncronisly parse holiday configuration.
-	 * 
-	 * @author Sven
+	 * Shows if the holidays of a year are changed after the rules have been
+	 * evaluated. In that case every query calculates the holidays by
+	 * <code>getHolidays(year, region)</code>, otherwise the rules are
+	 * evaluated directly for single dates, tables and bitmaps. True if there
+	 * are post processing stages. Subclasses which override
+	 * <code>getHolidays</code> have to override this method and return true.
 	 * 
+	 * @return the holidays are post processed
 	 */
-	private static class HolidayParserRunner implements Runnable {
+	protected boolean hasPostProcessing() {
+		return postProcessors.length > 0;
+	}
 
-		private final int year;
-		private final Set<Holiday> holidays;
-		private final Holidays config;
-		private final HolidayParser parser;
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Supported unless the holidays are post processed.
+	 */
+	@Override
+	protected boolean isPointQuerySupported() {
+		return !hasPostProcessing();
+	}
 
-		public HolidayParserRunner(int year, Set<Holiday> holidays, final Holidays config, HolidayParser parser) {
-			this.year = year;
-			this.holidays = holidays;
-			this.config = config;
-			this.parser = parser;
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Evaluates only the rules which can land within the month of the date.
+	 */
+	@Override
+	protected boolean evaluateHoliday(int year, int month, int day, final RegionHandle region) {
+		for (RuleNode node : getNodes(region)) {
+			if (ruleEvaluator.isHoliday(node.getProgram(), year, month, day)) {
+				return true;
+			}
 		}
+		return false;
+	}
 
-		public void run() {
-			parser.parse(year, holidays, config);
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Sets the days of the rules directly without creating
+	 * <code>Holiday</code> instances unless the holidays are post processed.
+	 */
+	@Override
+	protected HolidayBitmap calculateHolidayBitmap(int year, final RegionHandle region) {
+		if (hasPostProcessing()) {
+			return super.calculateHolidayBitmap(year, region);
 		}
-
+		HolidayBitmap.Builder builder = new HolidayBitmap.Builder(year);
+		for (RuleNode node : getNodes(region)) {
+			ruleEvaluator.evaluate(node.getProgram(), builder);
+		}
+		return builder.build();
 	}
 
 	/**
-	 * Creates a list of parsers by reading the configuration and trying to find
-	 * an <code>HolidayParser</code> implementation for by XML class type.
+	 * {@inheritDoc}
 	 * 
-	 * @param config
-	 * @return A list of parsers to for this configuration.
-	 */
-	private Collection<HolidayParser> getParsers(final Holidays config) {
-		if (parsers == null) {
-			parsers = new ArrayList<>();
-			parsers.add(new ChristianHolidayParser());
-			parsers.add(new EthiopianOrthodoxHolidayParser());
-			parsers.add(new FixedParser());
-			parsers.add(new FixedWeekdayBetweenFixedParser());
-			parsers.add(new FixedWeekdayInMonthParser());
-			parsers.add(new FixedWeekdayRelativeToFixedParser());
-			parsers.add(new HinduHolidayParser());
-			parsers.add(new IslamicHolidayParser());
-			parsers.add(new RelativeToEasterSundayParser());
-			parsers.add(new RelativeToFixedParser());
-			parsers.add(new RelativeToWeekdayInMonthParser());
+	 * Calls <code>getHolidays(year, region)</code> for each year within the
+	 * interval and returns a list of holidays which are then contained in the
+	 * interval.
+	 */
+	@Override
+	public Set<Holiday> getHolidays(ReadableInterval interval, final String... args) {
+		if (interval == null) {
+			throw new IllegalArgumentException("Interval is NULL.");
+		}
+		RegionHandle region = resolve(args);
+		Set<Holiday> holidays = new HashSet<Holiday>();
+		for (int year = interval.getStart().getYear(); year <= interval.getEnd().getYear(); year++) {
+			Set<Holiday> yearHolidays = getHolidays(year, region);
+			for (Holiday h : yearHolidays) {
+				if (interval.contains(h.getDate().toDateTimeAtStartOfDay())) {
+					holidays.add(h);
+				}
+			}
 		}
-		return parsers;
+		return holidays;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * Looks up the compiled configurations from the root down to the
+	 * requested state/region within the index. Resolution stops at the first
+	 * hierarchy id which is not configured.
+	 */
+	@Override
+	protected RuleNode[] resolveNodes(final RegionPath path, final String... hierarchy) {
+		return index.getChain(path, hierarchy);
 	}
 
 	/**
@@ -261,29 +289,137 @@ public class XMLManager extends HolidayManager {
 		String configurationFileName = getConfigurationFileName(calendar);
 		InputStream inputStream = null;
 		try {
-			inputStream = am.open(configurationFileName);
+			inputStream = openAsset(am, configurationFileName);
 		} catch (Exception e) {
 			throw new IllegalStateException("Cannot instantiate configuration.", e);
 		}
 		init(calendar, inputStream);
 	}
 
+	/**
+	 * Opens a file of the assets. Used for all files of the calendars, so
+	 * that they can be read from elsewhere.
+	 * 
+	 * @param am
+	 *            the asset manager passed to {@link #init(String, AssetManager)}
+	 * @param fileName
+	 *            the file name relative to the assets, i.e.
+	 *            holidays/Holidays_de.xml
+	 * @return the stream to read the file from
+	 * @throws IOException
+	 *             if the file does not exist or cannot be opened
+	 */
+	protected InputStream openAsset(AssetManager am, String fileName) throws IOException {
+		return am.open(fileName);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * 
-	 * Initializes the XMLManager by loading the holidays XML file as resource
-	 * from the classpath. When the XML file is found it will be unmarshalled
-	 * with JAXB to some Java classes.
+	 * Initializes the XMLManager by reading the holidays XML file with the
+	 * {@link ConfigurationReader} configured by the property
+	 * <code>configuration.reader.impl</code> which compiles it into rule
+	 * programs. With the property <code>configuration.lazy</code> set to
+	 * <code>true</code> the rules of the states/regions are compiled on their
+	 * first use.
 	 */
 	@Override
 	public void init(String calendar, final InputStream inputStream) {
+		RuleNode root;
 		try {
-			configuration = xmlUtil.unmarshallConfiguration(inputStream);
-		} catch (Exception e) {
+			root = createConfigurationReader().read(inputStream, isLazy());
+		} catch (IOException e) {
 			throw new IllegalStateException("Cannot instantiate configuration.", e);
 		}
-		validateConfigurationHierarchy(configuration);
-		logHierarchy(configuration, 0);
+		init(calendar, root);
+	}
+
+	/**
+	 * @return the rules of the states/regions are compiled on their first use
+	 */
+	protected boolean isLazy() {
+		return Boolean.parseBoolean(getProperties().getProperty(LAZY_PROPERTY));
+	}
+
+	/**
+	 * Instantiates the configured reader, reading with simple-xml if there is
+	 * none.
+	 */
+	private ConfigurationReader createConfigurationReader() {
+		String className = getProperties().getProperty(CONFIGURATION_READER_IMPL);
+		if (className == null) {
+			return new SimpleXmlConfigurationReader();
+		}
+		try {
+			Class<?> readerClass = new ClassLoadingUtil().loadClass(className.trim());
+			return ConfigurationReader.class.cast(readerClass.newInstance());
+		} catch (Exception e) {
+			throw new IllegalStateException("Cannot create configuration reader class " + className, e);
+		}
+	}
+
+	/**
+	 * Initializes the XMLManager with the already compiled configuration.
+	 * 
+	 * @param calendar
+	 *            i.e. us, uk, de
+	 * @param root
+	 *            the root of the compiled configuration tree
+	 */
+	protected void init(String calendar, final RuleNode root) {
+		index = new RuleIndex(root);
+		for (HolidayPostProcessor p : readPostProcessors(calendar)) {
+			addPostProcessor(p);
+		}
+	}
+
+	/**
+	 * Instantiates the post processing stages configured for the calendar.
+	 */
+	private List<HolidayPostProcessor> readPostProcessors(String calendar) {
+		List<HolidayPostProcessor> result = new ArrayList<HolidayPostProcessor>();
+		Properties props = getProperties();
+		String classNames = null;
+		if (calendar != null && props.containsKey(POST_PROCESSOR_IMPL_PREFIX + "." + calendar)) {
+			classNames = props.getProperty(POST_PROCESSOR_IMPL_PREFIX + "." + calendar);
+		} else if (props.containsKey(POST_PROCESSOR_IMPL_PREFIX)) {
+			classNames = props.getProperty(POST_PROCESSOR_IMPL_PREFIX);
+		}
+		if (classNames == null) {
+			return result;
+		}
+		ClassLoadingUtil classLoadingUtil = new ClassLoadingUtil();
+		for (String className : classNames.split(",")) {
+			className = className.trim();
+			if (className.length() == 0) {
+				continue;
+			}
+			try {
+				Class<?> processorClass = classLoadingUtil.loadClass(className);
+				result.add(HolidayPostProcessor.class.cast(processorClass.newInstance()));
+			} catch (Exception e) {
+				throw new IllegalStateException("Cannot create post processor class " + className, e);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Appends a post processing stage which runs on the holidays of every
+	 * year after the configured rules have been evaluated. Has to be called
+	 * before the manager is used, i.e. within the constructor of a subclass.
+	 * Single dates are not evaluated on their own if there are any stages.
+	 * 
+	 * @param postProcessor
+	 *            the stage to append
+	 */
+	protected void addPostProcessor(final HolidayPostProcessor postProcessor) {
+		if (postProcessor == null) {
+			throw new IllegalArgumentException("Post processor is NULL.");
+		}
+		HolidayPostProcessor[] processors = Arrays.copyOf(postProcessors, postProcessors.length + 1);
+		processors[postProcessors.length] = postProcessor;
+		postProcessors = processors;
 	}
 
 	/**
@@ -363,20 +499,21 @@ public class XMLManager extends HolidayManager {
 	 */
 	@Override
 	public CalendarHierarchy getCalendarHierarchy() {
-		return createConfigurationHierarchy(configuration, null);
+		return createConfigurationHierarchy(index.getRoot(), null);
 	}
 
 	/**
-	 * Creates the configuration hierarchy for the provided configuration.
+	 * Creates the configuration hierarchy for the provided compiled
+	 * configuration.
 	 * 
-	 * @param c
+	 * @param node
 	 * @return configuration hierarchy
 	 */
-	private static CalendarHierarchy createConfigurationHierarchy(final Configuration c, CalendarHierarchy h) {
-		h = new CalendarHierarchy(h, c.getHierarchy());
-		h.setFallbackDescription(c.getDescription());
-		for (Configuration sub : c.getSubConfigurations()) {
-			CalendarHierarchy subHierarchy = createConfigurationHierarchy(sub, h);
+	private CalendarHierarchy createConfigurationHierarchy(final RuleNode node, CalendarHierarchy h) {
+		h = new CalendarHierarchy(h, node.getHierarchy(), getResourceUtil());
+		h.setFallbackDescription(node.getDescription());
+		for (int i = 0; i < node.getChildCount(); i++) {
+			CalendarHierarchy subHierarchy = createConfigurationHierarchy(node.getChild(i), h);
 			h.getChildren().put(subHierarchy.getId(), subHierarchy);
 		}
 		return h;
@@ -15,49 +15,27 @@
  */
 package de.synchrotronlabs.impl;
 
-import java.util.HashSet;
-import java.util.Set;
-
-import org.joda.time.LocalDate;
-
-import de.synchrotronlabs.Holiday;
-import de.synchrotronlabs.holidaytype.LocalizedHolidayType;
+import de.synchrotronlabs.postprocessor.impl.BridgingHolidayPostProcessor;
 
 /**
  * <p>
  * XMLManagerJapan class.
  * </p>
  * 
+ * Implements the rule which requests if two holidays have one non holiday
+ * between each other than this day is also a holiday. The rule runs as a
+ * post processing stage on the holidays of every year.
+ * 
  * @author Sven
  * @version $Id: $
  */
 public class XMLManagerJapan extends XMLManager {
 
 	/**
-	 * The properties key for japanese bridging holidays.
-	 */
-	private static final String BRIDGING_HOLIDAY_PROPERTIES_KEY = "BRIDGING_HOLIDAY";
-
-	/**
-	 * {@inheritDoc}
-	 * 
-	 * Implements the rule which requests if two holidays have one non holiday
-	 * between each other than this day is also a holiday.
+	 * Adds the bridging holidays stage.
 	 */
-	@Override
-	public Set<Holiday> getHolidays(int year, final String... args) {
-		Set<Holiday> holidays = super.getHolidays(year, args);
-		Set<Holiday> additionalHolidays = new HashSet<Holiday>();
-		for (Holiday d : holidays) {
-			LocalDate twoDaysLater = d.getDate().plusDays(2);
-			if (calendarUtil.contains(holidays, twoDaysLater)) {
-				LocalDate bridgingDate = twoDaysLater.minusDays(1);
-				additionalHolidays.add(new Holiday(bridgingDate, BRIDGING_HOLIDAY_PROPERTIES_KEY,
-						LocalizedHolidayType.OFFICIAL_HOLIDAY));
-			}
-		}
-		holidays.addAll(additionalHolidays);
-		return holidays;
+	public XMLManagerJapan() {
+		addPostProcessor(new BridgingHolidayPostProcessor());
 	}
 
 }
@@ -0,0 +1,40 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.postprocessor;
+
+/**
+ * Stage which derives holidays from the holidays calculated for a year, i.e.
+ * bridging days or substitutes for holidays falling onto another holiday.
+ * Stages run in the configured order, each one sees the result of the
+ * previous stages. Implementations have to be stateless as they are shared
+ * between threads and need a public no-argument constructor to be
+ * configurable by the <code>postprocessor.impl</code> properties.
+ *
+ * @version $Id: $
+ */
+public interface HolidayPostProcessor {
+
+	/**
+	 * Processes the holidays of the year. Changes are requested through the
+	 * methods of {@link YearHolidays} and applied after the stage has
+	 * finished.
+	 *
+	 * @param holidays
+	 *            the holidays of the year sorted by date
+	 */
+	void process(YearHolidays holidays);
+
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.postprocessor;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+import de.synchrotronlabs.Holiday;
+import de.synchrotronlabs.HolidayDescriptor;
+import de.synchrotronlabs.HolidayType;
+import de.synchrotronlabs.util.EpochDays;
+
+/**
+ * The holidays of one year sorted by their date as days since 1970-01-01
+ * (see {@link EpochDays}). Holidays on the same day are sorted by their
+ * properties key. Post processing stages walk the sorted days with linear
+ * cost and request additions and moves, which are applied after the stage
+ * has finished. So every stage sees the holidays as they were before it
+ * started. Instances are not thread safe.
+ *
+ * @version $Id: $
+ */
+public final class YearHolidays {
+
+	private static final Comparator<Holiday> BY_PROPERTIES_KEY = new Comparator<Holiday>() {
+		@Override
+		public int compare(Holiday h1, Holiday h2) {
+			return h1.getPropertiesKey().compareTo(h2.getPropertiesKey());
+		}
+	};
+
+	private final int year;
+	private int size;
+	private int[] days;
+	private Holiday[] holidays;
+
+	private int changes;
+	private Holiday[] changedHolidays = new Holiday[4];
+	/**
+	 * Index of the holiday replaced by the change or -1 for additions.
+	 */
+	private int[] replaced = new int[4];
+
+	/**
+	 * Sorts the holidays of the year.
+	 *
+	 * @param year
+	 *            the year the holidays have been calculated for
+	 * @param holidays
+	 *            the holidays, some may lie outside of the year
+	 */
+	public YearHolidays(int year, final Collection<Holiday> holidays) {
+		this.year = year;
+		Holiday[] sorted = holidays.toArray(new Holiday[holidays.size()]);
+		// sort by key first, the stable sort by day keeps that order
+		Arrays.sort(sorted, BY_PROPERTIES_KEY);
+		long[] keys = new long[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			keys[i] = ((long) sorted[i].getEpochDay() << 32) | i;
+		}
+		Arrays.sort(keys);
+		this.size = sorted.length;
+		this.days = new int[size];
+		this.holidays = new Holiday[size];
+		for (int i = 0; i < size; i++) {
+			days[i] = (int) (keys[i] >> 32);
+			this.holidays[i] = sorted[(int) keys[i]];
+		}
+	}
+
+	/**
+	 * @return the year the holidays have been calculated for
+	 */
+	public int getYear() {
+		return year;
+	}
+
+	/**
+	 * @return the number of holidays
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the holiday, 0 to size - 1
+	 * @return the day of the holiday as days since 1970-01-01
+	 */
+	public int getEpochDay(int index) {
+		return days[index];
+	}
+
+	/**
+	 * @param index
+	 *            the index of the holiday, 0 to size - 1
+	 * @return the holiday
+	 */
+	public Holiday getHoliday(int index) {
+		return holidays[index];
+	}
+
+	/**
+	 * Returns the index of the first holiday on or after the day.
+	 *
+	 * @param epochDay
+	 *            the day as days since 1970-01-01
+	 * @return the index or size if there is none
+	 */
+	public int indexOf(int epochDay) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (days[mid] < epochDay) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Shows if there is a holiday on the day.
+	 *
+	 * @param epochDay
+	 *            the day as days since 1970-01-01
+	 * @return is a holiday
+	 */
+	public boolean contains(int epochDay) {
+		int index = indexOf(epochDay);
+		return index < size && days[index] == epochDay;
+	}
+
+	/**
+	 * Requests to add a holiday.
+	 *
+	 * @param epochDay
+	 *            the day as days since 1970-01-01
+	 * @param propertiesKey
+	 *            the properties key of the description
+	 * @param type
+	 *            the holiday type
+	 */
+	public void add(int epochDay, String propertiesKey, HolidayType type) {
+		addChange(new Holiday(epochDay, HolidayDescriptor.valueOf(propertiesKey, type)), -1);
+	}
+
+	/**
+	 * Requests to move a holiday to another day.
+	 *
+	 * @param index
+	 *            the index of the holiday
+	 * @param epochDay
+	 *            the new day as days since 1970-01-01
+	 */
+	public void move(int index, int epochDay) {
+		addChange(new Holiday(epochDay, holidays[index].getDescriptor()), index);
+	}
+
+	private void addChange(final Holiday holiday, int index) {
+		if (changes == changedHolidays.length) {
+			changedHolidays = Arrays.copyOf(changedHolidays, changes * 2);
+			replaced = Arrays.copyOf(replaced, changes * 2);
+		}
+		changedHolidays[changes] = holiday;
+		replaced[changes] = index;
+		changes++;
+	}
+
+	/**
+	 * Applies the requested changes. Called by the manager after every stage.
+	 */
+	public void apply() {
+		if (changes == 0) {
+			return;
+		}
+		boolean[] removed = new boolean[size];
+		for (int c = 0; c < changes; c++) {
+			if (replaced[c] >= 0) {
+				removed[replaced[c]] = true;
+			}
+		}
+		Holiday[] all = new Holiday[size - countRemoved(removed) + changes];
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			if (!removed[i]) {
+				all[n++] = holidays[i];
+			}
+		}
+		for (int c = 0; c < changes; c++) {
+			all[n++] = changedHolidays[c];
+		}
+		YearHolidays sorted = new YearHolidays(year, Arrays.asList(all));
+		this.size = sorted.size;
+		this.days = sorted.days;
+		this.holidays = sorted.holidays;
+		this.changes = 0;
+		Arrays.fill(changedHolidays, null);
+	}
+
+	private static int countRemoved(boolean[] removed) {
+		int count = 0;
+		for (boolean r : removed) {
+			if (r) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Adds all holidays to the collection.
+	 *
+	 * @param result
+	 *            the collection to add to
+	 */
+	public void addTo(final Collection<Holiday> result) {
+		for (int i = 0; i < size; i++) {
+			result.add(holidays[i]);
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.postprocessor.impl;
+
+import de.synchrotronlabs.holidaytype.LocalizedHolidayType;
+import de.synchrotronlabs.postprocessor.HolidayPostProcessor;
+import de.synchrotronlabs.postprocessor.YearHolidays;
+
+/**
+ * Makes a single day between two holidays a holiday as well. The day is
+ * added even if it already is a holiday.
+ *
+ * @version $Id: $
+ */
+public class BridgingHolidayPostProcessor implements HolidayPostProcessor {
+
+	/**
+	 * The properties key for bridging holidays.
+	 */
+	public static final String BRIDGING_HOLIDAY_PROPERTIES_KEY = "BRIDGING_HOLIDAY";
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Walks the holidays with a second index two days ahead.
+	 */
+	@Override
+	public void process(final YearHolidays holidays) {
+		int ahead = 0;
+		for (int i = 0; i < holidays.size(); i++) {
+			int day = holidays.getEpochDay(i);
+			if (i > 0 && holidays.getEpochDay(i - 1) == day) {
+				continue;
+			}
+			while (ahead < holidays.size() && holidays.getEpochDay(ahead) < day + 2) {
+				ahead++;
+			}
+			if (ahead < holidays.size() && holidays.getEpochDay(ahead) == day + 2) {
+				holidays.add(day + 1, BRIDGING_HOLIDAY_PROPERTIES_KEY, LocalizedHolidayType.OFFICIAL_HOLIDAY);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.postprocessor.impl;
+
+import de.synchrotronlabs.postprocessor.HolidayPostProcessor;
+import de.synchrotronlabs.postprocessor.YearHolidays;
+
+/**
+ * Moves holidays which fall onto another holiday to the next day which is
+ * not a holiday. Of the holidays on the same day the first one by properties
+ * key stays.
+ *
+ * @version $Id: $
+ */
+public class SubstituteCollisionPostProcessor implements HolidayPostProcessor {
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Walks the holidays with a second index searching for free days. The
+	 * days used by moved holidays only increase, so both indices only move
+	 * forward.
+	 */
+	@Override
+	public void process(final YearHolidays holidays) {
+		int occupied = 0;
+		int lastUsed = Integer.MIN_VALUE;
+		for (int i = 1; i < holidays.size(); i++) {
+			int day = holidays.getEpochDay(i);
+			if (holidays.getEpochDay(i - 1) != day) {
+				continue;
+			}
+			int free = Math.max(day, lastUsed) + 1;
+			while (occupied < holidays.size() && holidays.getEpochDay(occupied) <= free) {
+				if (holidays.getEpochDay(occupied) == free) {
+					free++;
+				}
+				occupied++;
+			}
+			holidays.move(i, free);
+			lastUsed = free;
+		}
+	}
+
+}
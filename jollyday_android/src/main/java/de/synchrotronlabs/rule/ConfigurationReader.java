@@ -0,0 +1,64 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a holiday XML configuration (see <code>Holiday.xsd</code>) and
+ * compiles it into a tree of {@link RuleNode}s. The implementation used by the
+ * XML managers is configured by the property
+ * <code>configuration.reader.impl</code>.
+ * <p>
+ * All readers compile the same rules. <code>HinduHoliday</code> and
+ * <code>HebrewHoliday</code> elements are accepted but skipped, no rules are
+ * compiled for them as the hindu and the hebrew calendar are not
+ * implemented, so these holidays are never returned.
+ *
+ * @version $Id: $
+ */
+public interface ConfigurationReader {
+
+	/**
+	 * Reads and compiles the configuration.
+	 *
+	 * @param stream
+	 *            the XML configuration
+	 * @return the root of the compiled configuration tree
+	 * @throws IOException
+	 *             if the configuration cannot be read
+	 */
+	RuleNode read(InputStream stream) throws IOException;
+
+	/**
+	 * Reads the configuration. If <code>lazy</code> is set only the rules of
+	 * the root configuration are compiled while reading, the rules of the
+	 * sub configurations are compiled on the first access of their
+	 * {@link RuleNode#getProgram() program}. Errors within the rules of a sub
+	 * configuration surface as {@link IllegalStateException} on that access.
+	 *
+	 * @param stream
+	 *            the XML configuration
+	 * @param lazy
+	 *            compile the rules of the sub configurations on first use
+	 * @return the root of the configuration tree
+	 * @throws IOException
+	 *             if the configuration cannot be read
+	 */
+	RuleNode read(InputStream stream, boolean lazy) throws IOException;
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parsed form of the <code>every</code> attribute of a holiday
+ * configuration. Every distinct value is only parsed once, afterwards the
+ * cycle is a lookup within a map.
+ *
+ * @version $Id: $
+ */
+public final class Cycle {
+
+	/**
+	 * Applies to every year, also used if no cycle is configured.
+	 */
+	public static final Cycle EVERY_YEAR = new Cycle("EVERY_YEAR", 0, 0, false);
+
+	private static final ConcurrentMap<String, Cycle> CYCLES = new ConcurrentHashMap<String, Cycle>();
+
+	static {
+		CYCLES.put(EVERY_YEAR.name, EVERY_YEAR);
+		CYCLES.put("ODD_YEARS", new Cycle("ODD_YEARS", 2, 1, false));
+		CYCLES.put("EVEN_YEARS", new Cycle("EVEN_YEARS", 2, 0, false));
+	}
+
+	private final String name;
+	/**
+	 * Applies to years where <code>(year - anchor) % modulus</code> is 0. A
+	 * modulus of 0 applies to every year.
+	 */
+	private final int modulus;
+	private final int anchor;
+	/**
+	 * The cycle starts with the first valid year instead of the anchor. Such
+	 * cycles apply to every year if there is no first valid year.
+	 */
+	private final boolean startsWithValidFrom;
+
+	private Cycle(String name, int modulus, int anchor, boolean startsWithValidFrom) {
+		this.name = name;
+		this.modulus = modulus;
+		this.anchor = anchor;
+		this.startsWithValidFrom = startsWithValidFrom;
+	}
+
+	/**
+	 * Returns the cycle for the <code>every</code> attribute.
+	 *
+	 * @param every
+	 *            the configured cycle, may be NULL
+	 * @return the cycle
+	 */
+	public static Cycle valueOf(String every) {
+		if (every == null) {
+			return EVERY_YEAR;
+		}
+		Cycle cycle = CYCLES.get(every);
+		if (cycle == null) {
+			cycle = parse(every);
+			Cycle existing = CYCLES.putIfAbsent(every, cycle);
+			if (existing != null) {
+				cycle = existing;
+			}
+		}
+		return cycle;
+	}
+
+	private static Cycle parse(String every) {
+		for (int years = 2; years <= 6; years++) {
+			if ((years + "_YEARS").equalsIgnoreCase(every)) {
+				return new Cycle(every, years, 0, true);
+			}
+		}
+		return new Cycle(every, RuleProgram.INVALID_CYCLE, 0, true);
+	}
+
+	/**
+	 * @return the configured cycle
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @param validFrom
+	 *            the first valid year, may be NULL
+	 * @return the modulus of the years the cycle applies to, 0 for every year
+	 *         or {@link RuleProgram#INVALID_CYCLE} if the cycle is unknown
+	 */
+	int getModulus(Integer validFrom) {
+		return startsWithValidFrom && validFrom == null ? 0 : modulus;
+	}
+
+	/**
+	 * @param validFrom
+	 *            the first valid year, may be NULL
+	 * @return the anchor of the years the cycle applies to
+	 */
+	int getAnchor(Integer validFrom) {
+		return startsWithValidFrom && validFrom != null ? validFrom.intValue() : anchor;
+	}
+
+	/**
+	 * Shows if the cycle hits the year.
+	 *
+	 * @param year
+	 *            the year
+	 * @param validFrom
+	 *            the first valid year, may be NULL
+	 * @return hits the year
+	 * @throws IllegalArgumentException
+	 *             if the cycle is unknown
+	 */
+	public boolean matches(int year, Integer validFrom) {
+		int m = getModulus(validFrom);
+		if (m == 0) {
+			return true;
+		}
+		if (m == RuleProgram.INVALID_CYCLE) {
+			throw new IllegalArgumentException("Cannot handle unknown cycle type '" + name + "'.");
+		}
+		return (year - getAnchor(validFrom)) % m == 0;
+	}
+
+}
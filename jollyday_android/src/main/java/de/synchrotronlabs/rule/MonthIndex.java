@@ -0,0 +1,161 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+/**
+ * Calculates for every rule of a program the months of a year it can land
+ * in. The months are determined conservatively from the range of days the
+ * rule can be moved by. Rules depending on easter or on another calendar can
+ * land in any month; they are filtered by a window calculated for the
+ * requested year instead.
+ *
+ * @version $Id: $
+ */
+final class MonthIndex {
+
+	/**
+	 * Number of days before the first of each month within a non leap year.
+	 */
+	private static final int[] DAYS_BEFORE_MONTH = { 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334, 365 };
+
+	private static final int ALL_MONTHS = 0xFFF;
+
+	private MonthIndex() {
+	}
+
+	/**
+	 * Creates the indices of the rules per month.
+	 *
+	 * @param p
+	 *            the program
+	 * @return for every month (0 to 11) the indices of the rules which can
+	 *         land within it
+	 */
+	static int[][] build(final RuleProgram p) {
+		int[] masks = new int[p.size];
+		int[] counts = new int[12];
+		for (int i = 0; i < p.size; i++) {
+			masks[i] = getMonthMask(p, i);
+			for (int m = 0; m < 12; m++) {
+				if ((masks[i] & (1 << m)) != 0) {
+					counts[m]++;
+				}
+			}
+		}
+		int[][] rulesByMonth = new int[12][];
+		for (int m = 0; m < 12; m++) {
+			rulesByMonth[m] = new int[counts[m]];
+			int n = 0;
+			for (int i = 0; i < p.size; i++) {
+				if ((masks[i] & (1 << m)) != 0) {
+					rulesByMonth[m][n++] = i;
+				}
+			}
+		}
+		return rulesByMonth;
+	}
+
+	/**
+	 * Shows if the rule can land anywhere within the year and has to be
+	 * checked against a window calculated for the year.
+	 *
+	 * @param kind
+	 *            the kind of the rule
+	 * @return is moving with the year
+	 */
+	static boolean isMoving(int kind) {
+		return kind == RuleProgram.RELATIVE_TO_EASTER_SUNDAY || kind == RuleProgram.ISLAMIC
+				|| kind == RuleProgram.ETHIOPIAN_ORTHODOX;
+	}
+
+	/**
+	 * Returns the mask of months (bit <code>month - 1</code>) the rule can
+	 * land in.
+	 */
+	private static int getMonthMask(final RuleProgram p, int i) {
+		int month = p.month[i];
+		int day = p.day[i];
+		switch (p.kind[i]) {
+		case RuleProgram.FIXED: {
+			int before = 0;
+			int after = 0;
+			for (int m = p.movingStart[i]; m < p.movingStart[i + 1]; m += 3) {
+				if (p.moving[m + 1] < 0) {
+					before = 6;
+				} else {
+					after = 6;
+				}
+			}
+			return getMonthMask(month, day - before, month, day + after);
+		}
+		case RuleProgram.RELATIVE_TO_FIXED:
+			if (p.weekday[i] != 0) {
+				return p.direction[i] < 0 ? getMonthMask(month, day - 7, month, day - 1) : getMonthMask(month,
+						day + 1, month, day + 7);
+			}
+			int shifted = day + p.direction[i] * p.offset[i];
+			return getMonthMask(month, shifted, month, shifted);
+		case RuleProgram.FIXED_WEEKDAY_IN_MONTH:
+			return 1 << (month - 1);
+		case RuleProgram.RELATIVE_TO_WEEKDAY_IN_MONTH: {
+			int first = p.which[i] == RuleProgram.LAST ? getMonthLength(month, false) - 6 : 7 * p.which[i] - 6;
+			int last = p.which[i] == RuleProgram.LAST ? getMonthLength(month, true) : 7 * p.which[i];
+			return p.direction[i] < 0 ? getMonthMask(month, first - 6, month, last) : getMonthMask(month, first,
+					month, last + 6);
+		}
+		case RuleProgram.FIXED_WEEKDAY_BETWEEN_FIXED:
+			return getMonthMask(month, day, p.month2[i], p.day2[i]) | getMonthMask(p.month2[i], p.day2[i], month, day);
+		case RuleProgram.FIXED_WEEKDAY_RELATIVE_TO_FIXED: {
+			int weeks = p.which[i] == RuleProgram.LAST ? 0 : p.which[i] - 1;
+			return p.direction[i] < 0 ? getMonthMask(month, day - 7 - 7 * weeks, month, day - 1) : getMonthMask(
+					month, day + 1, month, day + 7 + 7 * weeks);
+		}
+		default:
+			return ALL_MONTHS;
+		}
+	}
+
+	/**
+	 * Returns the months touched by the days from the first to the last date
+	 * within leap and non leap years. The days may exceed the month, days
+	 * outside of the year are ignored.
+	 */
+	private static int getMonthMask(int fromMonth, int fromDay, int toMonth, int toDay) {
+		int mask = 0;
+		for (int leap = 0; leap < 2; leap++) {
+			int length = DAYS_BEFORE_MONTH[12] + leap;
+			int from = Math.max(1, getDayOfYear(fromMonth, fromDay, leap));
+			int to = Math.min(length, getDayOfYear(toMonth, toDay, leap));
+			for (int m = 0; m < 12 && from <= to; m++) {
+				int first = getDayOfYear(m + 1, 1, leap);
+				int last = first + getMonthLength(m + 1, leap == 1) - 1;
+				if (from <= last && to >= first) {
+					mask |= 1 << m;
+				}
+			}
+		}
+		return mask;
+	}
+
+	private static int getDayOfYear(int month, int day, int leap) {
+		return DAYS_BEFORE_MONTH[month - 1] + (month > 2 ? leap : 0) + day;
+	}
+
+	private static int getMonthLength(int month, boolean leap) {
+		return DAYS_BEFORE_MONTH[month] - DAYS_BEFORE_MONTH[month - 1] + (leap && month == 2 ? 1 : 0);
+	}
+
+}
@@ -0,0 +1,546 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import android.util.Xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import de.synchrotronlabs.config.ChristianHolidayType;
+import de.synchrotronlabs.config.ChronologyType;
+import de.synchrotronlabs.config.EthiopianOrthodoxHolidayType;
+import de.synchrotronlabs.config.HinduHolidayType;
+import de.synchrotronlabs.config.HolidayType;
+import de.synchrotronlabs.config.IslamicHolidayType;
+import de.synchrotronlabs.config.Month;
+import de.synchrotronlabs.config.Weekday;
+import de.synchrotronlabs.config.When;
+import de.synchrotronlabs.config.Which;
+import de.synchrotronlabs.config.With;
+import de.synchrotronlabs.util.XMLUtil;
+
+/**
+ * Reads the configuration with the pull parser of the platform and compiles
+ * every holiday into its rule while reading it. Neither the classes of
+ * <code>de.synchrotronlabs.config</code> nor reflection are used. The rules
+ * of a configuration keep their order within the XML file. Like every
+ * {@link ConfigurationReader} it skips hindu and hebrew holidays.
+ *
+ * @version $Id: $
+ */
+public class PullParserConfigurationReader implements ConfigurationReader {
+
+	private static final Logger LOG = Logger.getLogger(PullParserConfigurationReader.class.getName());
+
+	/**
+	 * XML utility class.
+	 */
+	private final XMLUtil xmlUtil = new XMLUtil();
+
+	@Override
+	public RuleNode read(InputStream stream) throws IOException {
+		return read(stream, false);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * If <code>lazy</code> is set the XML is kept and the sub configurations
+	 * are only checked for their structure while reading. The first access
+	 * of the program of a sub configuration parses the XML again up to its
+	 * holidays and compiles just these.
+	 */
+	@Override
+	public RuleNode read(InputStream stream, boolean lazy) throws IOException {
+		if (stream == null) {
+			throw new IllegalArgumentException("Stream is NULL. Cannot read XML.");
+		}
+		byte[] xml = lazy ? readFully(stream) : null;
+		try {
+			XmlPullParser parser = startConfiguration(xml == null ? stream : new ByteArrayInputStream(xml));
+			return readConfiguration(parser, 0, xml, new int[0]);
+		} catch (XmlPullParserException e) {
+			throw new IOException("Error reading holiday XML file", e);
+		}
+	}
+
+	private static byte[] readFully(final InputStream stream) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (int read = stream.read(buffer); read != -1; read = stream.read(buffer)) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Creates the parser and moves it to the root configuration.
+	 */
+	private XmlPullParser startConfiguration(final InputStream stream) throws XmlPullParserException, IOException {
+		XmlPullParser parser = newPullParser();
+		parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
+		parser.setInput(stream, null);
+		if (parser.nextTag() != XmlPullParser.START_TAG || !"Configuration".equals(parser.getName())) {
+			throw unexpected(parser);
+		}
+		return parser;
+	}
+
+	/**
+	 * Creates the parser, which is the pull parser of the platform unless
+	 * overridden.
+	 *
+	 * @return a new pull parser
+	 */
+	protected XmlPullParser newPullParser() {
+		return Xml.newPullParser();
+	}
+
+	/**
+	 * Reads the configuration and its sub configurations. If the XML is
+	 * passed the holidays of the sub configurations are skipped.
+	 * 
+	 * @param path
+	 *            the indexes of the sub configurations leading to this one
+	 */
+	private RuleNode readConfiguration(final XmlPullParser parser, int level, final byte[] xml, final int[] path)
+			throws XmlPullParserException, IOException {
+		String hierarchy = parser.getAttributeValue(null, "hierarchy");
+		String description = parser.getAttributeValue(null, "description");
+		if (LOG.isLoggable(Level.FINER)) {
+			StringBuilder space = new StringBuilder();
+			for (int i = 0; i < level; i++) {
+				space.append("-");
+			}
+			LOG.finer(space + " " + description + "(" + hierarchy + ").");
+		}
+		boolean deferred = xml != null && level > 0;
+		boolean holidays = false;
+		RuleProgram program = null;
+		List<RuleNode> children = new ArrayList<RuleNode>();
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			String name = parser.getName();
+			if ("Holidays".equals(name) && !holidays) {
+				holidays = true;
+				if (deferred) {
+					skipElement(parser);
+				} else {
+					program = readHolidays(parser);
+				}
+			} else if ("SubConfigurations".equals(name)) {
+				int[] childPath = Arrays.copyOf(path, path.length + 1);
+				childPath[path.length] = children.size();
+				children.add(readConfiguration(parser, level + 1, xml, childPath));
+			} else {
+				throw unexpected(parser);
+			}
+		}
+		if (!holidays) {
+			throw new XmlPullParserException("Configuration " + hierarchy + " has no Holidays.", parser, null);
+		}
+		RuleNode[] nodes = children.toArray(new RuleNode[children.size()]);
+		validateHierarchy(hierarchy, nodes);
+		if (deferred) {
+			return new RuleNode(hierarchy, description, new DeferredHolidays(xml, path), nodes);
+		}
+		return new RuleNode(hierarchy, description, program, nodes);
+	}
+
+	/**
+	 * Moves the parser from the start of a configuration to the start of its
+	 * sub configuration with the index.
+	 */
+	private static void moveToSubConfiguration(final XmlPullParser parser, int index) throws XmlPullParserException,
+			IOException {
+		int count = 0;
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			if ("SubConfigurations".equals(parser.getName()) && count++ == index) {
+				return;
+			}
+			skipElement(parser);
+		}
+		throw unexpected(parser);
+	}
+
+	/**
+	 * Moves the parser from the start of a configuration to the start of its
+	 * holidays.
+	 */
+	private static void moveToHolidays(final XmlPullParser parser) throws XmlPullParserException, IOException {
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			if ("Holidays".equals(parser.getName())) {
+				return;
+			}
+			skipElement(parser);
+		}
+		throw unexpected(parser);
+	}
+
+	/**
+	 * Checks for multiple sub configurations with the same hierarchy id.
+	 */
+	private static void validateHierarchy(String hierarchy, final RuleNode[] children) {
+		Map<String, Integer> counts = new HashMap<String, Integer>();
+		StringBuilder msg = null;
+		for (RuleNode child : children) {
+			Integer count = counts.get(child.getHierarchy());
+			counts.put(child.getHierarchy(), Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+		}
+		for (Map.Entry<String, Integer> e : counts.entrySet()) {
+			if (e.getValue().intValue() > 1) {
+				if (msg == null) {
+					msg = new StringBuilder("Configuration for " + hierarchy
+							+ " contains  multiple SubConfigurations with the same hierarchy id.");
+				}
+				msg.append(" " + e.getKey() + " " + e.getValue() + " times");
+			}
+		}
+		if (msg != null) {
+			throw new IllegalArgumentException(msg.toString());
+		}
+	}
+
+	private RuleProgram readHolidays(final XmlPullParser parser) throws XmlPullParserException, IOException {
+		RuleProgramBuilder builder = new RuleProgramBuilder();
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			String name = parser.getName();
+			if ("Fixed".equals(name)) {
+				addRule(builder, parser, RuleProgram.FIXED, parser.getAttributeValue(null, "descriptionPropertiesKey"));
+				builder.setDate(getMonth(parser), getInt(parser, "day"));
+				readMovingConditions(builder, parser);
+			} else if ("RelativeToFixed".equals(name)) {
+				addRule(builder, parser, RuleProgram.RELATIVE_TO_FIXED,
+						parser.getAttributeValue(null, "descriptionPropertiesKey"));
+				readRelativeToFixed(builder, parser);
+			} else if ("RelativeToWeekdayInMonth".equals(name)) {
+				addRule(builder, parser, RuleProgram.RELATIVE_TO_WEEKDAY_IN_MONTH,
+						parser.getAttributeValue(null, "descriptionPropertiesKey"));
+				builder.setRelativeWeekday(getWeekday(parser, "weekday"));
+				builder.setDirection(getEnum(parser, When.class, "when") == When.BEFORE ? -1 : 1);
+				readRelativeToWeekdayInMonth(builder, parser);
+			} else if ("FixedWeekday".equals(name)) {
+				addRule(builder, parser, RuleProgram.FIXED_WEEKDAY_IN_MONTH,
+						parser.getAttributeValue(null, "descriptionPropertiesKey"));
+				setWeekdayInMonth(builder, parser);
+				skipElement(parser);
+			} else if ("ChristianHoliday".equals(name)) {
+				ChristianHolidayType type = getEnum(parser, ChristianHolidayType.class, "type");
+				addRule(builder, parser, RuleProgram.RELATIVE_TO_EASTER_SUNDAY,
+						RuleCompiler.PREFIX_PROPERTY_CHRISTIAN + type.name());
+				String chronology = parser.getAttributeValue(null, "chronology");
+				builder.setOffset(RuleCompiler.getEasterOffset(type)).setChronology(
+						RuleCompiler.getChronology(chronology == null ? null : toEnum(parser, ChronologyType.class,
+								chronology)));
+				skipElement(parser);
+			} else if ("IslamicHoliday".equals(name)) {
+				IslamicHolidayType type = getEnum(parser, IslamicHolidayType.class, "type");
+				addRule(builder, parser, RuleProgram.ISLAMIC, RuleCompiler.PREFIX_PROPERTY_ISLAMIC + type.name());
+				builder.setDate(RuleCompiler.getIslamicMonth(type), RuleCompiler.getIslamicDay(type));
+				skipElement(parser);
+			} else if ("FixedWeekdayBetweenFixed".equals(name)) {
+				addRule(builder, parser, RuleProgram.FIXED_WEEKDAY_BETWEEN_FIXED,
+						parser.getAttributeValue(null, "descriptionPropertiesKey"));
+				builder.setWeekday(getWeekday(parser, "weekday"));
+				readFixedWeekdayBetweenFixed(builder, parser);
+			} else if ("FixedWeekdayRelativeToFixed".equals(name)) {
+				addRule(builder, parser, RuleProgram.FIXED_WEEKDAY_RELATIVE_TO_FIXED,
+						parser.getAttributeValue(null, "descriptionPropertiesKey"));
+				builder.setWeekday(getWeekday(parser, "weekday")).setWhich(
+						RuleCompiler.getWhich(getEnum(parser, Which.class, "which")));
+				builder.setDirection(getEnum(parser, When.class, "when") == When.AFTER ? 1 : -1);
+				readFixedWeekdayRelativeToFixed(builder, parser);
+			} else if ("HinduHoliday".equals(name)) {
+				RuleCompiler.skipHinduHoliday(getEnum(parser, HinduHolidayType.class, "type"));
+				skipElement(parser);
+			} else if ("HebrewHoliday".equals(name)) {
+				RuleCompiler.skipHebrewHoliday(parser.getAttributeValue(null, "type"));
+				skipElement(parser);
+			} else if ("EthiopianOrthodoxHoliday".equals(name)) {
+				EthiopianOrthodoxHolidayType type = getEnum(parser, EthiopianOrthodoxHolidayType.class, "type");
+				addRule(builder, parser, RuleProgram.ETHIOPIAN_ORTHODOX,
+						RuleCompiler.PREFIX_PROPERTY_ETHIOPIAN_ORTHODOX + type.name());
+				RuleCompiler.setEthiopianOrthodoxDate(builder, type);
+				skipElement(parser);
+			} else if ("RelativeToEasterSunday".equals(name)) {
+				addRule(builder, parser, RuleProgram.RELATIVE_TO_EASTER_SUNDAY, RuleCompiler.PREFIX_PROPERTY_CHRISTIAN
+						+ parser.getAttributeValue(null, "descriptionPropertiesKey"));
+				readRelativeToEasterSunday(builder, parser);
+			} else {
+				throw unexpected(parser);
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Starts the rule with the attributes common to all holidays.
+	 */
+	private void addRule(final RuleProgramBuilder builder, final XmlPullParser parser, int kind,
+			String propertiesKey) throws XmlPullParserException {
+		String localizedType = parser.getAttributeValue(null, "localizedType");
+		HolidayType type = localizedType == null ? HolidayType.OFFICIAL_HOLIDAY : toEnum(parser, HolidayType.class,
+				localizedType);
+		builder.addRule(kind, propertiesKey, xmlUtil.getType(type));
+		String every = parser.getAttributeValue(null, "every");
+		builder.setValidity(getInteger(parser, "validFrom"), getInteger(parser, "validTo"), every == null ? "EVERY_YEAR"
+				: every);
+	}
+
+	private void readMovingConditions(final RuleProgramBuilder builder, final XmlPullParser parser)
+			throws XmlPullParserException, IOException {
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			if (!"MovingCondition".equals(parser.getName())) {
+				throw unexpected(parser);
+			}
+			builder.addMovingCondition(getWeekday(parser, "substitute"),
+					getEnum(parser, With.class, "with") == With.NEXT ? 1 : -1, getWeekday(parser, "weekday"));
+			skipElement(parser);
+		}
+	}
+
+	private void readRelativeToFixed(final RuleProgramBuilder builder, final XmlPullParser parser)
+			throws XmlPullParserException, IOException {
+		String days = null;
+		String weekday = null;
+		When when = null;
+		boolean date = false;
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			String name = parser.getName();
+			if ("Days".equals(name) || "days".equals(name)) {
+				days = parser.nextText();
+			} else if ("Weekday".equals(name)) {
+				weekday = parser.nextText();
+			} else if ("When".equals(name)) {
+				when = toEnum(parser, When.class, parser.nextText());
+			} else if ("Date".equals(name)) {
+				builder.setDate(getMonth(parser), getInt(parser, "day"));
+				skipElement(parser);
+				date = true;
+			} else {
+				throw unexpected(parser);
+			}
+		}
+		if (when == null || !date) {
+			throw new XmlPullParserException("RelativeToFixed needs When and Date.", parser, null);
+		}
+		builder.setDirection(when == When.BEFORE ? -1 : 1);
+		if (weekday != null) {
+			builder.setWeekday(xmlUtil.getWeekday(toEnum(parser, Weekday.class, weekday)));
+		} else if (days != null) {
+			builder.setOffset(toInt(parser, days));
+		}
+	}
+
+	private void readRelativeToWeekdayInMonth(final RuleProgramBuilder builder, final XmlPullParser parser)
+			throws XmlPullParserException, IOException {
+		boolean fixedWeekday = false;
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			if (!"FixedWeekday".equals(parser.getName())) {
+				throw unexpected(parser);
+			}
+			setWeekdayInMonth(builder, parser);
+			skipElement(parser);
+			fixedWeekday = true;
+		}
+		if (!fixedWeekday) {
+			throw new XmlPullParserException("RelativeToWeekdayInMonth needs FixedWeekday.", parser, null);
+		}
+	}
+
+	private void setWeekdayInMonth(final RuleProgramBuilder builder, final XmlPullParser parser)
+			throws XmlPullParserException {
+		builder.setDate(getMonth(parser), 1);
+		builder.setWeekday(getWeekday(parser, "weekday")).setWhich(
+				RuleCompiler.getWhich(getEnum(parser, Which.class, "which")));
+	}
+
+	private void readFixedWeekdayBetweenFixed(final RuleProgramBuilder builder, final XmlPullParser parser)
+			throws XmlPullParserException, IOException {
+		boolean from = false;
+		boolean to = false;
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			String name = parser.getName();
+			if ("from".equals(name)) {
+				builder.setDate(getMonth(parser), getInt(parser, "day"));
+				from = true;
+			} else if ("to".equals(name)) {
+				builder.setSecondDate(getMonth(parser), getInt(parser, "day"));
+				to = true;
+			} else {
+				throw unexpected(parser);
+			}
+			skipElement(parser);
+		}
+		if (!from || !to) {
+			throw new XmlPullParserException("FixedWeekdayBetweenFixed needs from and to.", parser, null);
+		}
+	}
+
+	private void readFixedWeekdayRelativeToFixed(final RuleProgramBuilder builder, final XmlPullParser parser)
+			throws XmlPullParserException, IOException {
+		boolean day = false;
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			if (!"day".equals(parser.getName())) {
+				throw unexpected(parser);
+			}
+			builder.setDate(getMonth(parser), getInt(parser, "day"));
+			skipElement(parser);
+			day = true;
+		}
+		if (!day) {
+			throw new XmlPullParserException("FixedWeekdayRelativeToFixed needs day.", parser, null);
+		}
+	}
+
+	private static void readRelativeToEasterSunday(final RuleProgramBuilder builder, final XmlPullParser parser)
+			throws XmlPullParserException, IOException {
+		ChronologyType chronology = null;
+		while (parser.nextTag() == XmlPullParser.START_TAG) {
+			String name = parser.getName();
+			if ("chronology".equals(name)) {
+				chronology = toEnum(parser, ChronologyType.class, parser.nextText());
+			} else if ("days".equals(name)) {
+				builder.setOffset(toInt(parser, parser.nextText()));
+			} else {
+				throw unexpected(parser);
+			}
+		}
+		if (chronology == null) {
+			throw new XmlPullParserException("RelativeToEasterSunday needs chronology.", parser, null);
+		}
+		builder.setChronology(RuleCompiler.getChronology(chronology));
+	}
+
+	private int getMonth(final XmlPullParser parser) throws XmlPullParserException {
+		return xmlUtil.getMonth(getEnum(parser, Month.class, "month"));
+	}
+
+	private int getWeekday(final XmlPullParser parser, String attribute) throws XmlPullParserException {
+		return xmlUtil.getWeekday(getEnum(parser, Weekday.class, attribute));
+	}
+
+	private static <E extends Enum<E>> E getEnum(final XmlPullParser parser, Class<E> type, String attribute)
+			throws XmlPullParserException {
+		return toEnum(parser, type, getRequired(parser, attribute));
+	}
+
+	private static <E extends Enum<E>> E toEnum(final XmlPullParser parser, Class<E> type, String value)
+			throws XmlPullParserException {
+		try {
+			return Enum.valueOf(type, value.trim());
+		} catch (IllegalArgumentException e) {
+			throw new XmlPullParserException("Unknown " + type.getSimpleName() + " '" + value + "' at "
+					+ parser.getPositionDescription(), parser, e);
+		}
+	}
+
+	private static int getInt(final XmlPullParser parser, String attribute) throws XmlPullParserException {
+		return toInt(parser, getRequired(parser, attribute));
+	}
+
+	private static Integer getInteger(final XmlPullParser parser, String attribute) throws XmlPullParserException {
+		String value = parser.getAttributeValue(null, attribute);
+		return value == null ? null : Integer.valueOf(toInt(parser, value));
+	}
+
+	private static int toInt(final XmlPullParser parser, String value) throws XmlPullParserException {
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new XmlPullParserException("Invalid number '" + value + "' at " + parser.getPositionDescription(),
+					parser, e);
+		}
+	}
+
+	private static String getRequired(final XmlPullParser parser, String attribute) throws XmlPullParserException {
+		String value = parser.getAttributeValue(null, attribute);
+		if (value == null) {
+			throw new XmlPullParserException("Missing attribute " + attribute + " of " + parser.getName() + " at "
+					+ parser.getPositionDescription(), parser, null);
+		}
+		return value;
+	}
+
+	/**
+	 * Skips the rest of the current element including all sub elements.
+	 */
+	private static void skipElement(final XmlPullParser parser) throws XmlPullParserException, IOException {
+		int depth = 1;
+		while (depth > 0) {
+			switch (parser.next()) {
+			case XmlPullParser.START_TAG:
+				depth++;
+				break;
+			case XmlPullParser.END_TAG:
+				depth--;
+				break;
+			case XmlPullParser.END_DOCUMENT:
+				throw new XmlPullParserException("Unexpected end of document.", parser, null);
+			default:
+				break;
+			}
+		}
+	}
+
+	private static XmlPullParserException unexpected(final XmlPullParser parser) {
+		return new XmlPullParserException("Unexpected element " + parser.getName() + " at "
+				+ parser.getPositionDescription(), parser, null);
+	}
+
+	/**
+	 * Compiles the holidays of a sub configuration out of the kept XML.
+	 */
+	private final class DeferredHolidays implements RuleNode.ProgramLoader {
+
+		private final byte[] xml;
+		private final int[] path;
+
+		DeferredHolidays(byte[] xml, int[] path) {
+			this.xml = xml;
+			this.path = path;
+		}
+
+		@Override
+		public RuleProgram load() {
+			try {
+				XmlPullParser parser = startConfiguration(new ByteArrayInputStream(xml));
+				for (int index : path) {
+					moveToSubConfiguration(parser, index);
+				}
+				moveToHolidays(parser);
+				return readHolidays(parser);
+			} catch (Exception e) {
+				throw new IllegalStateException("Cannot read holidays of sub configuration " + Arrays.toString(path)
+						+ ".", e);
+			}
+		}
+
+	}
+
+}
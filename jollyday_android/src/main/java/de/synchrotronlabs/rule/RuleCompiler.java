@@ -0,0 +1,387 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.synchrotronlabs.config.ChristianHoliday;
+import de.synchrotronlabs.config.ChristianHolidayType;
+import de.synchrotronlabs.config.ChronologyType;
+import de.synchrotronlabs.config.Configuration;
+import de.synchrotronlabs.config.EthiopianOrthodoxHoliday;
+import de.synchrotronlabs.config.EthiopianOrthodoxHolidayType;
+import de.synchrotronlabs.config.Fixed;
+import de.synchrotronlabs.config.FixedWeekdayBetweenFixed;
+import de.synchrotronlabs.config.FixedWeekdayInMonth;
+import de.synchrotronlabs.config.FixedWeekdayRelativeToFixed;
+import de.synchrotronlabs.config.HebrewHoliday;
+import de.synchrotronlabs.config.HinduHoliday;
+import de.synchrotronlabs.config.HinduHolidayType;
+import de.synchrotronlabs.config.Holiday;
+import de.synchrotronlabs.config.Holidays;
+import de.synchrotronlabs.config.IslamicHoliday;
+import de.synchrotronlabs.config.IslamicHolidayType;
+import de.synchrotronlabs.config.MovingCondition;
+import de.synchrotronlabs.config.RelativeToEasterSunday;
+import de.synchrotronlabs.config.RelativeToFixed;
+import de.synchrotronlabs.config.RelativeToWeekdayInMonth;
+import de.synchrotronlabs.config.When;
+import de.synchrotronlabs.config.Which;
+import de.synchrotronlabs.config.With;
+import de.synchrotronlabs.util.XMLUtil;
+
+/**
+ * Compiles the unmarshalled XML configuration into a tree of
+ * {@link RuleNode}s. The compiled tree does not reference the configuration
+ * anymore. Hindu and hebrew holidays are skipped, see
+ * {@link ConfigurationReader}.
+ *
+ * @version $Id: $
+ */
+public class RuleCompiler {
+
+	private static final Logger LOG = Logger.getLogger(RuleCompiler.class.getName());
+
+	/**
+	 * Properties prefix for christian holidays names.
+	 */
+	static final String PREFIX_PROPERTY_CHRISTIAN = "christian.";
+	/**
+	 * Properties prefix for islamic holidays.
+	 */
+	static final String PREFIX_PROPERTY_ISLAMIC = "islamic.";
+	/**
+	 * Ethiopian orthodox properties prefix.
+	 */
+	static final String PREFIX_PROPERTY_ETHIOPIAN_ORTHODOX = "ethiopian.orthodox.";
+
+	/**
+	 * XML utility class.
+	 */
+	private final XMLUtil xmlUtil = new XMLUtil();
+	/**
+	 * Builder reused for all nodes.
+	 */
+	private final RuleProgramBuilder builder = new RuleProgramBuilder();
+
+	/**
+	 * Compiles the configuration and all of its sub configurations.
+	 *
+	 * @param c
+	 *            the configuration
+	 * @return the compiled node
+	 */
+	public RuleNode compile(final Configuration c) {
+		return compile(c, false);
+	}
+
+	/**
+	 * Compiles the configuration. If <code>lazy</code> is set the rules of
+	 * the sub configurations are compiled on the first access of their
+	 * program.
+	 *
+	 * @param c
+	 *            the configuration
+	 * @param lazy
+	 *            compile the rules of the sub configurations on first use
+	 * @return the node
+	 */
+	public RuleNode compile(final Configuration c, boolean lazy) {
+		return compile(c, lazy, false);
+	}
+
+	private RuleNode compile(final Configuration c, boolean lazy, boolean deferred) {
+		List<Configuration> subConfigurations = c.getSubConfigurations();
+		RuleNode[] children = new RuleNode[subConfigurations.size()];
+		for (int i = 0; i < children.length; i++) {
+			children[i] = compile(subConfigurations.get(i), lazy, lazy);
+		}
+		if (deferred) {
+			return new RuleNode(c.getHierarchy(), c.getDescription(), new DeferredHolidays(c.getHolidays()), children);
+		}
+		return new RuleNode(c.getHierarchy(), c.getDescription(), compile(c.getHolidays()), children);
+	}
+
+	/**
+	 * Compiles the rules of one configuration.
+	 *
+	 * @param config
+	 *            the holidays of a configuration
+	 * @return the program
+	 */
+	public RuleProgram compile(final Holidays config) {
+		if (config == null) {
+			return builder.build();
+		}
+		for (ChristianHoliday ch : config.getChristianHoliday()) {
+			add(RuleProgram.RELATIVE_TO_EASTER_SUNDAY, ch, PREFIX_PROPERTY_CHRISTIAN + ch.getType().name());
+			builder.setOffset(getEasterOffset(ch.getType())).setChronology(getChronology(ch.getChronology()));
+		}
+		for (EthiopianOrthodoxHoliday h : config.getEthiopianOrthodoxHoliday()) {
+			add(RuleProgram.ETHIOPIAN_ORTHODOX, h, PREFIX_PROPERTY_ETHIOPIAN_ORTHODOX + h.getType().name());
+			setEthiopianOrthodoxDate(builder, h.getType());
+		}
+		for (Fixed f : config.getFixed()) {
+			add(RuleProgram.FIXED, f, f.getDescriptionPropertiesKey());
+			builder.setDate(xmlUtil.getMonth(f.getMonth()), f.getDay());
+			for (MovingCondition mc : f.getMovingCondition()) {
+				builder.addMovingCondition(xmlUtil.getWeekday(mc.getSubstitute()), mc.getWith() == With.NEXT ? 1 : -1,
+						xmlUtil.getWeekday(mc.getWeekday()));
+			}
+		}
+		for (FixedWeekdayBetweenFixed fwm : config.getFixedWeekdayBetweenFixed()) {
+			add(RuleProgram.FIXED_WEEKDAY_BETWEEN_FIXED, fwm, fwm.getDescriptionPropertiesKey());
+			builder.setDate(xmlUtil.getMonth(fwm.getFrom().getMonth()), fwm.getFrom().getDay());
+			builder.setSecondDate(xmlUtil.getMonth(fwm.getTo().getMonth()), fwm.getTo().getDay());
+			builder.setWeekday(xmlUtil.getWeekday(fwm.getWeekday()));
+		}
+		for (FixedWeekdayInMonth fwm : config.getFixedWeekday()) {
+			add(RuleProgram.FIXED_WEEKDAY_IN_MONTH, fwm, fwm.getDescriptionPropertiesKey());
+			setWeekdayInMonth(fwm);
+		}
+		for (FixedWeekdayRelativeToFixed f : config.getFixedWeekdayRelativeToFixed()) {
+			add(RuleProgram.FIXED_WEEKDAY_RELATIVE_TO_FIXED, f, f.getDescriptionPropertiesKey());
+			builder.setDate(xmlUtil.getMonth(f.getDay().getMonth()), f.getDay().getDay());
+			builder.setWeekday(xmlUtil.getWeekday(f.getWeekday())).setWhich(getWhich(f.getWhich()));
+			builder.setDirection(f.getWhen() == When.AFTER ? 1 : -1);
+		}
+		for (HinduHoliday hh : config.getHinduHoliday()) {
+			skipHinduHoliday(hh.getType());
+		}
+		for (HebrewHoliday hh : config.getHebrewHoliday()) {
+			skipHebrewHoliday(hh.getType());
+		}
+		for (IslamicHoliday i : config.getIslamicHoliday()) {
+			add(RuleProgram.ISLAMIC, i, PREFIX_PROPERTY_ISLAMIC + i.getType().name());
+			builder.setDate(getIslamicMonth(i.getType()), getIslamicDay(i.getType()));
+		}
+		for (RelativeToEasterSunday ch : config.getRelativeToEasterSunday()) {
+			add(RuleProgram.RELATIVE_TO_EASTER_SUNDAY, ch,
+					PREFIX_PROPERTY_CHRISTIAN + ch.getDescriptionPropertiesKey());
+			builder.setOffset(ch.getDays()).setChronology(getChronology(ch.getChronology()));
+		}
+		for (RelativeToFixed rf : config.getRelativeToFixed()) {
+			add(RuleProgram.RELATIVE_TO_FIXED, rf, rf.getDescriptionPropertiesKey());
+			builder.setDate(xmlUtil.getMonth(rf.getDate().getMonth()), rf.getDate().getDay());
+			builder.setDirection(rf.getWhen() == When.BEFORE ? -1 : 1);
+			if (rf.getWeekday() != null) {
+				builder.setWeekday(xmlUtil.getWeekday(rf.getWeekday()));
+			} else if (rf.getDays() != null) {
+				builder.setOffset(rf.getDays().intValue());
+			}
+		}
+		for (RelativeToWeekdayInMonth rtfw : config.getRelativeToWeekdayInMonth()) {
+			add(RuleProgram.RELATIVE_TO_WEEKDAY_IN_MONTH, rtfw, rtfw.getDescriptionPropertiesKey());
+			setWeekdayInMonth(rtfw.getFixedWeekday());
+			builder.setRelativeWeekday(xmlUtil.getWeekday(rtfw.getWeekday()));
+			builder.setDirection(rtfw.getWhen() == When.BEFORE ? -1 : 1);
+		}
+		return builder.build();
+	}
+
+	private void add(int kind, final Holiday h, final String propertiesKey) {
+		builder.addRule(kind, propertiesKey, xmlUtil.getType(h.getLocalizedType()));
+		builder.setValidity(h.getValidFrom(), h.getValidTo(), h.getEvery());
+	}
+
+	private void setWeekdayInMonth(final FixedWeekdayInMonth fwm) {
+		builder.setDate(xmlUtil.getMonth(fwm.getMonth()), 1);
+		builder.setWeekday(xmlUtil.getWeekday(fwm.getWeekday())).setWhich(getWhich(fwm.getWhich()));
+	}
+
+	/**
+	 * Hindu holidays follow the lunisolar hindu calendar, which is not
+	 * implemented. No rule is compiled for them, so they are never returned
+	 * as holidays.
+	 *
+	 * @param type
+	 *            the skipped hindu holiday
+	 */
+	static void skipHinduHoliday(final HinduHolidayType type) {
+		switch (type) {
+		case HOLI:
+			if (LOG.isLoggable(Level.FINE)) {
+				LOG.fine("Skipping hindu holiday " + type + ". The hindu calendar is not supported.");
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown hindu holiday " + type);
+		}
+	}
+
+	/**
+	 * Hebrew holidays follow the lunisolar hebrew calendar, which is not
+	 * implemented. No rule is compiled for them, so they are never returned
+	 * as holidays.
+	 *
+	 * @param type
+	 *            the skipped hebrew holiday
+	 */
+	static void skipHebrewHoliday(final String type) {
+		if (LOG.isLoggable(Level.FINE)) {
+			LOG.fine("Skipping hebrew holiday " + type + ". The hebrew calendar is not supported.");
+		}
+	}
+
+	static void setEthiopianOrthodoxDate(final RuleProgramBuilder builder, final EthiopianOrthodoxHolidayType type) {
+		switch (type) {
+		case TIMKAT:
+			builder.setDate(5, 10);
+			break;
+		case ENKUTATASH:
+			builder.setDate(1, 1);
+			break;
+		case MESKEL:
+			builder.setDate(1, 17);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown ethiopian orthodox holiday type " + type);
+		}
+	}
+
+	static int getWhich(final Which which) {
+		switch (which) {
+		case FIRST:
+			return 1;
+		case SECOND:
+			return 2;
+		case THIRD:
+			return 3;
+		case FOURTH:
+			return 4;
+		case LAST:
+			return RuleProgram.LAST;
+		default:
+			throw new IllegalArgumentException("Unknown which " + which);
+		}
+	}
+
+	static int getChronology(final ChronologyType ct) {
+		if (ct == ChronologyType.JULIAN) {
+			return RuleProgram.CHRONOLOGY_JULIAN;
+		} else if (ct == ChronologyType.GREGORIAN) {
+			return RuleProgram.CHRONOLOGY_GREGORIAN;
+		}
+		return RuleProgram.CHRONOLOGY_DEFAULT;
+	}
+
+	static int getEasterOffset(final ChristianHolidayType type) {
+		switch (type) {
+		case EASTER:
+			return 0;
+		case CLEAN_MONDAY:
+		case SHROVE_MONDAY:
+			return -48;
+		case MARDI_GRAS:
+		case CARNIVAL:
+			return -47;
+		case ASH_WEDNESDAY:
+			return -46;
+		case MAUNDY_THURSDAY:
+			return -3;
+		case GOOD_FRIDAY:
+			return -2;
+		case EASTER_SATURDAY:
+			return -1;
+		case EASTER_MONDAY:
+			return 1;
+		case EASTER_TUESDAY:
+			return 2;
+		case GENERAL_PRAYER_DAY:
+			return 26;
+		case ASCENSION_DAY:
+			return 39;
+		case PENTECOST:
+		case WHIT_SUNDAY:
+			return 49;
+		case WHIT_MONDAY:
+		case PENTECOST_MONDAY:
+			return 50;
+		case CORPUS_CHRISTI:
+			return 60;
+		case SACRED_HEART:
+			return 68;
+		default:
+			throw new IllegalArgumentException("Unknown christian holiday type " + type);
+		}
+	}
+
+	static int getIslamicMonth(final IslamicHolidayType type) {
+		switch (type) {
+		case NEWYEAR:
+		case ASCHURA:
+			return 1;
+		case MAWLID_AN_NABI:
+			return 3;
+		case LAILAT_AL_MIRAJ:
+			return 7;
+		case LAILAT_AL_BARAT:
+			return 8;
+		case RAMADAN:
+		case LAILAT_AL_QADR:
+			return 9;
+		case ID_AL_FITR:
+			return 10;
+		case ID_UL_ADHA:
+			return 12;
+		default:
+			throw new IllegalArgumentException("Unknown islamic holiday " + type);
+		}
+	}
+
+	static int getIslamicDay(final IslamicHolidayType type) {
+		switch (type) {
+		case NEWYEAR:
+		case ID_AL_FITR:
+		case RAMADAN:
+			return 1;
+		case ASCHURA:
+		case ID_UL_ADHA:
+			return 10;
+		case MAWLID_AN_NABI:
+			return 12;
+		case LAILAT_AL_BARAT:
+			return 15;
+		case LAILAT_AL_MIRAJ:
+		case LAILAT_AL_QADR:
+			return 27;
+		default:
+			throw new IllegalArgumentException("Unknown islamic holiday " + type);
+		}
+	}
+
+	/**
+	 * Compiles the holidays of a sub configuration with its own compiler as
+	 * the builder of a compiler is not shared between threads.
+	 */
+	private static final class DeferredHolidays implements RuleNode.ProgramLoader {
+
+		private final Holidays holidays;
+
+		DeferredHolidays(Holidays holidays) {
+			this.holidays = holidays;
+		}
+
+		@Override
+		public RuleProgram load() {
+			return new RuleCompiler().compile(holidays);
+		}
+
+	}
+
+}
@@ -0,0 +1,354 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import de.synchrotronlabs.HolidayFilter;
+import de.synchrotronlabs.util.CalendarUtil;
+import de.synchrotronlabs.util.EpochDays;
+import de.synchrotronlabs.util.HolidayBitmap;
+import de.synchrotronlabs.util.HolidayTable;
+import de.synchrotronlabs.util.TabularCalendars;
+
+/**
+ * Evaluates {@link RuleProgram}s for a year. All dates are calculated as days
+ * since 1970-01-01 (see {@link EpochDays}) and only converted into
+ * <code>LocalDate</code>s when the holidays of a {@link HolidayTable} are
+ * requested. Instances are stateless and can be shared between threads.
+ *
+ * @version $Id: $
+ */
+public class RuleEvaluator {
+
+	/**
+	 * Maximum number of dates a single rule can result in within one year.
+	 */
+	private static final int MAX_DATES = 4;
+	/**
+	 * Memoized day of a rule which does not result in a holiday.
+	 */
+	private static final int NO_DATE = Integer.MAX_VALUE;
+	/**
+	 * Memoized day of a rule whose date does not exist within the year type.
+	 * The rule is evaluated again so that it fails as before.
+	 */
+	private static final int INVALID_DATE = Integer.MIN_VALUE;
+
+	/**
+	 * Calendar utility class.
+	 */
+	private final CalendarUtil calendarUtil = new CalendarUtil();
+
+	/**
+	 * Adds the dates and descriptors of all rules of the program which are
+	 * valid within the year and accepted by the filter. Rules which are not
+	 * accepted are never evaluated.
+	 *
+	 * @param program
+	 *            the program to evaluate
+	 * @param year
+	 *            the year
+	 * @param filter
+	 *            the filter or <code>null</code> for all rules
+	 * @param builder
+	 *            the builder of the table of holidays
+	 */
+	public void evaluate(final RuleProgram program, int year, final HolidayFilter filter,
+			final HolidayTable.Builder builder) {
+		int[] days = new int[MAX_DATES];
+		int firstDay = EpochDays.of(year, 1, 1);
+		int[] invariantDays = getInvariantDays(program, year, firstDay);
+		for (int i : program.getValidity(filter).getRules(year)) {
+			if (isInCycle(program, i, year)) {
+				int count = evaluate(program, i, year, firstDay, invariantDays, days);
+				for (int n = 0; n < count; n++) {
+					builder.add(days[n], program.descriptor[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sets the days of all rules of the program which are valid within the
+	 * year. No <code>Holiday</code> instances are created. Days outside of the
+	 * year of the builder are ignored.
+	 *
+	 * @param program
+	 *            the program to evaluate
+	 * @param builder
+	 *            the builder of the bitmap of the year
+	 */
+	public void evaluate(final RuleProgram program, final HolidayBitmap.Builder builder) {
+		int year = builder.getYear();
+		int[] days = new int[MAX_DATES];
+		int firstDay = EpochDays.of(year, 1, 1);
+		int[] invariantDays = getInvariantDays(program, year, firstDay);
+		for (int i : program.validity.getRules(year)) {
+			if (isInCycle(program, i, year)) {
+				int count = evaluate(program, i, year, firstDay, invariantDays, days);
+				for (int n = 0; n < count; n++) {
+					builder.addEpochDay(days[n]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Shows if any rule of the program results in a holiday at the date
+	 * within the year. Only the rules which can land within the month of the
+	 * date are evaluated. Holidays which do not lie within the year, like
+	 * moved holidays of the previous year, are not taken into account.
+	 *
+	 * @param program
+	 *            the program to evaluate
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month of the date, 1 to 12
+	 * @param day
+	 *            the day of the month
+	 * @return is a holiday
+	 */
+	public boolean isHoliday(final RuleProgram program, int year, int month, int day) {
+		int[] rules = program.rulesByMonth[month - 1];
+		int epochDay = EpochDays.of(year, month, day);
+		int[] days = null;
+		for (int i : rules) {
+			if (!isValid(program, i, year)) {
+				continue;
+			}
+			if (MonthIndex.isMoving(program.kind[i]) && !isWithinWindow(program, i, year, epochDay)) {
+				continue;
+			}
+			if (days == null) {
+				days = new int[MAX_DATES];
+			}
+			int count = evaluate(program, i, year, days);
+			for (int n = 0; n < count; n++) {
+				if (days[n] == epochDay) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Shows if the rule is valid within the year and its cycle hits the year.
+	 *
+	 * @param program
+	 *            the program
+	 * @param rule
+	 *            the index of the rule
+	 * @param year
+	 *            the year
+	 * @return is valid
+	 */
+	public boolean isValid(final RuleProgram program, int rule, int year) {
+		if (year < program.validFrom[rule] || year > program.validTo[rule]) {
+			return false;
+		}
+		return isInCycle(program, rule, year);
+	}
+
+	/**
+	 * Shows if the cycle of the rule hits the year.
+	 */
+	private static boolean isInCycle(final RuleProgram program, int rule, int year) {
+		int modulus = program.cycleModulus[rule];
+		if (modulus == 0) {
+			return true;
+		}
+		if (modulus == RuleProgram.INVALID_CYCLE) {
+			throw new IllegalArgumentException("Cannot handle unknown cycle type '" + program.cycle[rule] + "'.");
+		}
+		return (year - program.cycleAnchor[rule]) % modulus == 0;
+	}
+
+	/**
+	 * Returns the days of the calendar invariant rules relative to the first
+	 * of january for the type of the year. They are calculated once per year
+	 * type and program, so that only the rules depending on easter or another
+	 * calendar are calculated for every year.
+	 *
+	 * @return the days by rule index or NULL if the program has no calendar
+	 *         invariant rules
+	 */
+	private int[] getInvariantDays(final RuleProgram p, int year, int firstDay) {
+		if (!p.hasInvariantRules) {
+			return null;
+		}
+		int type = RuleProgram.getYearType(year);
+		int[] invariantDays = p.daysByYearType.get(type);
+		if (invariantDays == null) {
+			invariantDays = new int[p.size];
+			int[] days = new int[MAX_DATES];
+			for (int i = 0; i < p.size; i++) {
+				if (!RuleProgram.isCalendarInvariant(p.kind[i])) {
+					continue;
+				}
+				try {
+					invariantDays[i] = evaluate(p, i, year, days) == 0 ? NO_DATE : days[0] - firstDay;
+				} catch (IllegalArgumentException e) {
+					invariantDays[i] = INVALID_DATE;
+				}
+			}
+			if (!p.daysByYearType.compareAndSet(type, null, invariantDays)) {
+				invariantDays = p.daysByYearType.get(type);
+			}
+		}
+		return invariantDays;
+	}
+
+	/**
+	 * Calculates the epoch days of the rule within the year using the
+	 * memoized days of the year type if available.
+	 *
+	 * @return the number of days written into the array
+	 */
+	private int evaluate(final RuleProgram p, int i, int year, int firstDay, int[] invariantDays, int[] days) {
+		if (invariantDays != null && RuleProgram.isCalendarInvariant(p.kind[i])) {
+			int day = invariantDays[i];
+			if (day == NO_DATE) {
+				return 0;
+			}
+			if (day != INVALID_DATE) {
+				days[0] = firstDay + day;
+				return 1;
+			}
+		}
+		return evaluate(p, i, year, days);
+	}
+
+	/**
+	 * Calculates the epoch days of the rule within the year.
+	 *
+	 * @return the number of days written into the array
+	 */
+	private int evaluate(final RuleProgram p, int i, int year, int[] days) {
+		int date;
+		switch (p.kind[i]) {
+		case RuleProgram.FIXED:
+			date = move(p, i, EpochDays.ofChecked(year, p.month[i], p.day[i]));
+			break;
+		case RuleProgram.RELATIVE_TO_FIXED:
+			date = EpochDays.ofChecked(year, p.month[i], p.day[i]);
+			if (p.weekday[i] != 0) {
+				date = EpochDays.toNextWeekday(date, p.weekday[i], p.direction[i]);
+			} else {
+				date += p.direction[i] * p.offset[i];
+			}
+			break;
+		case RuleProgram.FIXED_WEEKDAY_IN_MONTH:
+			date = getWeekdayInMonth(p, i, year);
+			break;
+		case RuleProgram.RELATIVE_TO_WEEKDAY_IN_MONTH:
+			date = EpochDays.toWeekday(getWeekdayInMonth(p, i, year), p.weekday2[i], p.direction[i]);
+			break;
+		case RuleProgram.FIXED_WEEKDAY_BETWEEN_FIXED:
+			date = EpochDays.toWeekday(EpochDays.ofChecked(year, p.month[i], p.day[i]), p.weekday[i], 1);
+			if (date > EpochDays.ofChecked(year, p.month2[i], p.day2[i])) {
+				return 0;
+			}
+			break;
+		case RuleProgram.FIXED_WEEKDAY_RELATIVE_TO_FIXED:
+			date = EpochDays.toNextWeekday(EpochDays.ofChecked(year, p.month[i], p.day[i]), p.weekday[i],
+					p.direction[i]) + p.direction[i] * getWeeks(p.which[i]) * 7;
+			break;
+		case RuleProgram.RELATIVE_TO_EASTER_SUNDAY:
+			date = getEasterSunday(year, p.chronology[i]) + p.offset[i];
+			break;
+		case RuleProgram.ISLAMIC:
+			return copy(calendarUtil.getIslamicEpochDaysInGregorianYear(year, p.month[i], p.day[i]), days);
+		case RuleProgram.ETHIOPIAN_ORTHODOX:
+			return copy(calendarUtil.getEthiopianOrthodoxEpochDaysInGregorianYear(year, p.month[i], p.day[i]), days);
+		default:
+			throw new IllegalStateException("Unknown rule kind " + p.kind[i]);
+		}
+		days[0] = date;
+		return 1;
+	}
+
+	private static int copy(int[] dates, int[] days) {
+		System.arraycopy(dates, 0, days, 0, dates.length);
+		return dates.length;
+	}
+
+	/**
+	 * Moves the date by the first matching moving condition of the rule.
+	 */
+	private static int move(final RuleProgram p, int i, int date) {
+		int dayOfWeek = EpochDays.getDayOfWeek(date);
+		for (int m = p.movingStart[i]; m < p.movingStart[i + 1]; m += 3) {
+			if (dayOfWeek == p.moving[m]) {
+				return EpochDays.toWeekday(date, p.moving[m + 2], p.moving[m + 1]);
+			}
+		}
+		return date;
+	}
+
+	private static int getWeekdayInMonth(final RuleProgram p, int i, int year) {
+		int month = p.month[i];
+		if (p.which[i] == RuleProgram.LAST) {
+			return EpochDays.toWeekday(EpochDays.of(year, month, EpochDays.getMonthLength(year, month)),
+					p.weekday[i], -1);
+		}
+		return EpochDays.toWeekday(EpochDays.of(year, month, 1), p.weekday[i], 1) + getWeeks(p.which[i]) * 7;
+	}
+
+	/**
+	 * @return the number of weeks to add for the n-th weekday
+	 */
+	private static int getWeeks(int which) {
+		return which == RuleProgram.LAST ? 0 : which - 1;
+	}
+
+	private int getEasterSunday(int year, int chronology) {
+		switch (chronology) {
+		case RuleProgram.CHRONOLOGY_JULIAN:
+			return calendarUtil.getJulianEasterEpochDay(year);
+		case RuleProgram.CHRONOLOGY_GREGORIAN:
+			return calendarUtil.getGregorianEasterEpochDay(year);
+		default:
+			return calendarUtil.getEasterEpochDay(year);
+		}
+	}
+
+	/**
+	 * Shows if the rule, which depends on another calendar, lands on the epoch
+	 * day. The date is checked arithmetically without validating it, so that
+	 * the rule has to be evaluated afterwards. Rules relative to easter are
+	 * cheap enough to be evaluated directly.
+	 */
+	private static boolean isWithinWindow(final RuleProgram p, int i, int year, int epochDay) {
+		switch (p.kind[i]) {
+		case RuleProgram.ISLAMIC:
+			if (year < TabularCalendars.FIRST_ISLAMIC_GREGORIAN_YEAR) {
+				return true;
+			}
+			return TabularCalendars.islamicToEpochDay(TabularCalendars.getIslamicYear(epochDay), p.month[i],
+					p.day[i]) == epochDay;
+		case RuleProgram.ETHIOPIAN_ORTHODOX:
+			if (year < TabularCalendars.FIRST_COPTIC_GREGORIAN_YEAR) {
+				return true;
+			}
+			return TabularCalendars.copticToEpochDay(TabularCalendars.getCopticYear(epochDay), p.month[i],
+					p.day[i]) == epochDay;
+		default:
+			return true;
+		}
+	}
+
+}
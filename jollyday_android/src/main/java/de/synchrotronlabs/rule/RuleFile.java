@@ -0,0 +1,477 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.synchrotronlabs.HolidayType;
+import de.synchrotronlabs.holidaytype.LocalizedHolidayType;
+
+/**
+ * Binary format of a compiled hierarchy of rule programs. The bundled
+ * calendars are compiled into it at build time, so that loading them does
+ * neither parse XML nor bind it reflectively.
+ * <p>
+ * The file starts with the magic bytes <code>JDRB</code> and the format
+ * version, followed by the string table and the nodes in depth first order.
+ * Every node consists of its hierarchy id, its description, the length of its
+ * rules in bytes, its rules and the number of its sub nodes. The length
+ * allows to skip the rules of sub nodes until they are needed. Every rule is packed into its kind, a bit set of
+ * the fields which differ from their defaults and those fields. All numbers
+ * are variable length encoded, signed numbers zig zag encoded. Strings are
+ * referenced by their index within the string table plus one, 0 stands for
+ * NULL.
+ * </p>
+ *
+ * @version $Id: $
+ */
+public final class RuleFile {
+
+	/**
+	 * The version of the format which is written and which can be read.
+	 */
+	public static final int FORMAT_VERSION = 2;
+
+	private static final byte[] MAGIC = { 'J', 'D', 'R', 'B' };
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int VALID_FROM = 1;
+	private static final int VALID_TO = 1 << 1;
+	private static final int CYCLE = 1 << 2;
+	private static final int DATE = 1 << 3;
+	private static final int SECOND_DATE = 1 << 4;
+	private static final int WEEKDAY = 1 << 5;
+	private static final int RELATIVE_WEEKDAY = 1 << 6;
+	private static final int WHICH = 1 << 7;
+	private static final int DIRECTION = 1 << 8;
+	private static final int OFFSET = 1 << 9;
+	private static final int CHRONOLOGY = 1 << 10;
+	private static final int MOVING = 1 << 11;
+
+	private RuleFile() {
+	}
+
+	/**
+	 * Writes the hierarchy of rule programs.
+	 *
+	 * @param root
+	 *            the root node
+	 * @param out
+	 *            the stream to write to, it is not closed
+	 * @throws IOException
+	 *             if the stream cannot be written
+	 */
+	public static void write(final RuleNode root, final OutputStream out) throws IOException {
+		Writer nodes = new Writer();
+		Map<String, Integer> strings = new HashMap<String, Integer>();
+		List<String> table = new ArrayList<String>();
+		writeNode(root, nodes, strings, table);
+
+		Writer file = new Writer();
+		file.bytes(MAGIC, MAGIC.length);
+		file.unsigned(FORMAT_VERSION);
+		file.unsigned(table.size());
+		for (String s : table) {
+			byte[] utf8 = s.getBytes(UTF_8);
+			file.unsigned(utf8.length);
+			file.bytes(utf8, utf8.length);
+		}
+		file.bytes(nodes.buffer, nodes.size);
+		out.write(file.buffer, 0, file.size);
+	}
+
+	private static void writeNode(final RuleNode node, final Writer out, final Map<String, Integer> strings,
+			final List<String> table) {
+		out.unsigned(stringRef(node.getHierarchy(), strings, table));
+		out.unsigned(stringRef(node.getDescription(), strings, table));
+		Writer rules = new Writer();
+		writeProgram(node.getProgram(), rules, strings, table);
+		out.unsigned(rules.size);
+		out.bytes(rules.buffer, rules.size);
+		out.unsigned(node.getChildCount());
+		for (int c = 0; c < node.getChildCount(); c++) {
+			writeNode(node.getChild(c), out, strings, table);
+		}
+	}
+
+	private static void writeProgram(final RuleProgram p, final Writer out, final Map<String, Integer> strings,
+			final List<String> table) {
+		out.unsigned(p.size);
+		for (int i = 0; i < p.size; i++) {
+			out.unsigned(p.kind[i]);
+			out.unsigned(stringRef(p.propertiesKey[i], strings, table));
+			out.unsigned(stringRef(getTypeName(p.type[i]), strings, table));
+			int moving = (p.movingStart[i + 1] - p.movingStart[i]) / 3;
+			int fields = (p.validFrom[i] != Integer.MIN_VALUE ? VALID_FROM : 0)
+					| (p.validTo[i] != Integer.MAX_VALUE ? VALID_TO : 0) | (p.cycle[i] != null ? CYCLE : 0)
+					| (p.month[i] != 0 || p.day[i] != 0 ? DATE : 0)
+					| (p.month2[i] != 0 || p.day2[i] != 0 ? SECOND_DATE : 0) | (p.weekday[i] != 0 ? WEEKDAY : 0)
+					| (p.weekday2[i] != 0 ? RELATIVE_WEEKDAY : 0) | (p.which[i] != 0 ? WHICH : 0)
+					| (p.direction[i] != 1 ? DIRECTION : 0) | (p.offset[i] != 0 ? OFFSET : 0)
+					| (p.chronology[i] != 0 ? CHRONOLOGY : 0) | (moving != 0 ? MOVING : 0);
+			out.unsigned(fields);
+			if ((fields & VALID_FROM) != 0) {
+				out.signed(p.validFrom[i]);
+			}
+			if ((fields & VALID_TO) != 0) {
+				out.signed(p.validTo[i]);
+			}
+			if ((fields & CYCLE) != 0) {
+				out.unsigned(stringRef(p.cycle[i], strings, table));
+			}
+			if ((fields & DATE) != 0) {
+				out.signed(p.month[i]);
+				out.signed(p.day[i]);
+			}
+			if ((fields & SECOND_DATE) != 0) {
+				out.signed(p.month2[i]);
+				out.signed(p.day2[i]);
+			}
+			if ((fields & WEEKDAY) != 0) {
+				out.signed(p.weekday[i]);
+			}
+			if ((fields & RELATIVE_WEEKDAY) != 0) {
+				out.signed(p.weekday2[i]);
+			}
+			if ((fields & WHICH) != 0) {
+				out.signed(p.which[i]);
+			}
+			if ((fields & DIRECTION) != 0) {
+				out.signed(p.direction[i]);
+			}
+			if ((fields & OFFSET) != 0) {
+				out.signed(p.offset[i]);
+			}
+			if ((fields & CHRONOLOGY) != 0) {
+				out.signed(p.chronology[i]);
+			}
+			if ((fields & MOVING) != 0) {
+				out.unsigned(moving);
+				for (int m = p.movingStart[i]; m < p.movingStart[i + 1]; m++) {
+					out.signed(p.moving[m]);
+				}
+			}
+		}
+	}
+
+	private static String getTypeName(final HolidayType type) {
+		if (type == null) {
+			return null;
+		}
+		if (!(type instanceof LocalizedHolidayType)) {
+			throw new IllegalArgumentException("Cannot write holiday type " + type + ".");
+		}
+		return ((LocalizedHolidayType) type).name();
+	}
+
+	private static int stringRef(String s, final Map<String, Integer> strings, final List<String> table) {
+		if (s == null) {
+			return 0;
+		}
+		Integer ref = strings.get(s);
+		if (ref == null) {
+			table.add(s);
+			ref = Integer.valueOf(table.size());
+			strings.put(s, ref);
+		}
+		return ref.intValue();
+	}
+
+	/**
+	 * Reads the hierarchy of rule programs with a single buffered read.
+	 *
+	 * @param in
+	 *            the stream to read from, it is not closed
+	 * @return the root node
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+	public static RuleNode read(final InputStream in) throws IOException {
+		return read(in, false);
+	}
+
+	/**
+	 * Reads the hierarchy of rule programs with a single buffered read.
+	 *
+	 * @param in
+	 *            the stream to read from, it is not closed
+	 * @param lazy
+	 *            decode the rules of the sub nodes on their first access
+	 *            instead of right away
+	 * @return the root node
+	 * @throws IOException
+	 *             if the stream cannot be read
+	 */
+	public static RuleNode read(final InputStream in, boolean lazy) throws IOException {
+		byte[] data = new byte[Math.max(in.available(), 4096)];
+		int size = 0;
+		int read;
+		while ((read = in.read(data, size, data.length - size)) != -1) {
+			size += read;
+			if (size == data.length) {
+				data = Arrays.copyOf(data, size * 2);
+			}
+		}
+		return read(data, size, lazy);
+	}
+
+	/**
+	 * Reads the hierarchy of rule programs.
+	 *
+	 * @param data
+	 *            the file content
+	 * @param size
+	 *            the number of bytes within the content
+	 * @return the root node
+	 */
+	public static RuleNode read(final byte[] data, int size) {
+		return read(data, size, false);
+	}
+
+	/**
+	 * Reads the hierarchy of rule programs. The rules of the root node are
+	 * always decoded right away. If the rules of the sub nodes are decoded
+	 * lazily the content is kept and must not be modified afterwards, errors
+	 * within those rules are thrown on their first access.
+	 *
+	 * @param data
+	 *            the file content
+	 * @param size
+	 *            the number of bytes within the content
+	 * @param lazy
+	 *            decode the rules of the sub nodes on their first access
+	 *            instead of right away
+	 * @return the root node
+	 */
+	public static RuleNode read(final byte[] data, int size, boolean lazy) {
+		Reader in = new Reader(data, size);
+		for (byte b : MAGIC) {
+			if (in.next() != b) {
+				throw new IllegalArgumentException("Not a rule file.");
+			}
+		}
+		int version = in.unsigned();
+		if (version != FORMAT_VERSION) {
+			throw new IllegalArgumentException("Unsupported rule file version " + version + ", expected "
+					+ FORMAT_VERSION + ".");
+		}
+		String[] strings = new String[in.unsigned() + 1];
+		for (int i = 1; i < strings.length; i++) {
+			int length = in.unsigned();
+			strings[i] = new String(data, in.skip(length), length, UTF_8);
+		}
+		RuleNode root = readNode(in, strings, new RuleProgramBuilder(), false, lazy);
+		if (in.position != size) {
+			throw new IllegalArgumentException("Rule file has " + (size - in.position) + " trailing bytes.");
+		}
+		return root;
+	}
+
+	private static RuleNode readNode(final Reader in, final String[] strings, final RuleProgramBuilder builder,
+			boolean lazy, boolean lazyChildren) {
+		String hierarchy = strings[in.unsigned()];
+		String description = strings[in.unsigned()];
+		int length = in.unsigned();
+		int start = in.skip(length);
+		RuleProgram program = null;
+		if (!lazy) {
+			program = readProgram(new Reader(in.data, start + length, start), strings, builder);
+		}
+		RuleNode[] children = new RuleNode[in.unsigned()];
+		for (int c = 0; c < children.length; c++) {
+			children[c] = readNode(in, strings, builder, lazyChildren, lazyChildren);
+		}
+		if (lazy) {
+			return new RuleNode(hierarchy, description, new LazyProgram(in.data, start, length, strings), children);
+		}
+		return new RuleNode(hierarchy, description, program, children);
+	}
+
+	private static RuleProgram readProgram(final Reader in, final String[] strings, final RuleProgramBuilder builder) {
+		int rules = in.unsigned();
+		for (int i = 0; i < rules; i++) {
+			int kind = in.unsigned();
+			String propertiesKey = strings[in.unsigned()];
+			String typeName = strings[in.unsigned()];
+			builder.addRule(kind, propertiesKey, typeName == null ? null : LocalizedHolidayType.valueOf(typeName));
+			int fields = in.unsigned();
+			if ((fields & (VALID_FROM | VALID_TO | CYCLE)) != 0) {
+				Integer validFrom = (fields & VALID_FROM) != 0 ? Integer.valueOf(in.signed()) : null;
+				Integer validTo = (fields & VALID_TO) != 0 ? Integer.valueOf(in.signed()) : null;
+				String cycle = (fields & CYCLE) != 0 ? strings[in.unsigned()] : null;
+				builder.setValidity(validFrom, validTo, cycle);
+			}
+			if ((fields & DATE) != 0) {
+				builder.setDate(in.signed(), in.signed());
+			}
+			if ((fields & SECOND_DATE) != 0) {
+				builder.setSecondDate(in.signed(), in.signed());
+			}
+			if ((fields & WEEKDAY) != 0) {
+				builder.setWeekday(in.signed());
+			}
+			if ((fields & RELATIVE_WEEKDAY) != 0) {
+				builder.setRelativeWeekday(in.signed());
+			}
+			if ((fields & WHICH) != 0) {
+				builder.setWhich(in.signed());
+			}
+			if ((fields & DIRECTION) != 0) {
+				builder.setDirection(in.signed());
+			}
+			if ((fields & OFFSET) != 0) {
+				builder.setOffset(in.signed());
+			}
+			if ((fields & CHRONOLOGY) != 0) {
+				builder.setChronology(in.signed());
+			}
+			if ((fields & MOVING) != 0) {
+				int moving = in.unsigned();
+				for (int m = 0; m < moving; m++) {
+					builder.addMovingCondition(in.signed(), in.signed(), in.signed());
+				}
+			}
+		}
+		if (in.position != in.size) {
+			throw new IllegalArgumentException("Rules of rule file have " + (in.size - in.position)
+					+ " trailing bytes.");
+		}
+		return builder.build();
+	}
+
+	/**
+	 * The rules of a node which are decoded on first access.
+	 */
+	private static final class LazyProgram implements RuleNode.ProgramLoader {
+
+		private final byte[] data;
+		private final int start;
+		private final int length;
+		private final String[] strings;
+
+		LazyProgram(byte[] data, int start, int length, String[] strings) {
+			this.data = data;
+			this.start = start;
+			this.length = length;
+			this.strings = strings;
+		}
+
+		@Override
+		public RuleProgram load() {
+			return readProgram(new Reader(data, start + length, start), strings, new RuleProgramBuilder());
+		}
+
+	}
+
+	/**
+	 * Growing buffer of variable length encoded numbers.
+	 */
+	private static final class Writer {
+
+		private byte[] buffer = new byte[1024];
+		private int size;
+
+		void bytes(byte[] bytes, int length) {
+			ensure(length);
+			System.arraycopy(bytes, 0, buffer, size, length);
+			size += length;
+		}
+
+		void unsigned(int value) {
+			ensure(5);
+			while ((value & ~0x7F) != 0) {
+				buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[size++] = (byte) value;
+		}
+
+		void signed(int value) {
+			unsigned((value << 1) ^ (value >> 31));
+		}
+
+		private void ensure(int length) {
+			if (size + length > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+			}
+		}
+
+	}
+
+	/**
+	 * Cursor over the content of a rule file.
+	 */
+	private static final class Reader {
+
+		private final byte[] data;
+		private final int size;
+		private int position;
+
+		Reader(byte[] data, int size) {
+			this(data, size, 0);
+		}
+
+		Reader(byte[] data, int size, int position) {
+			this.data = data;
+			this.size = size;
+			this.position = position;
+		}
+
+		byte next() {
+			if (position >= size) {
+				throw new IllegalArgumentException("Rule file is truncated.");
+			}
+			return data[position++];
+		}
+
+		int skip(int length) {
+			if (length < 0 || position + length > size) {
+				throw new IllegalArgumentException("Rule file is truncated.");
+			}
+			int start = position;
+			position += length;
+			return start;
+		}
+
+		int unsigned() {
+			int value = 0;
+			for (int shift = 0; shift < 35; shift += 7) {
+				byte b = next();
+				value |= (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+			throw new IllegalArgumentException("Malformed number within rule file.");
+		}
+
+		int signed() {
+			int value = unsigned();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+	}
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.synchrotronlabs.util.RegionPath;
+
+/**
+ * Immutable index of all nodes of a compiled hierarchy by their region path.
+ * Every entry holds the chain of nodes from the root down to the node, so
+ * that resolving a state/region is a single map lookup instead of a scan over
+ * the children of every level.
+ *
+ * @version $Id: $
+ */
+public final class RuleIndex {
+
+	private final RuleNode root;
+	private final Map<RegionPath, RuleNode[]> chains = new HashMap<RegionPath, RuleNode[]>();
+
+	/**
+	 * Indexes the tree below the root.
+	 *
+	 * @param root
+	 *            the root of the compiled hierarchy
+	 */
+	public RuleIndex(final RuleNode root) {
+		this.root = root;
+		index(root, new RuleNode[] { root }, new String[0]);
+	}
+
+	private void index(final RuleNode node, final RuleNode[] chain, final String[] hierarchy) {
+		RegionPath path = RegionPath.of(hierarchy);
+		if (chains.containsKey(path)) {
+			// ids differing only in case, the first one wins as it does
+			// when resolving level by level
+			return;
+		}
+		chains.put(path, chain);
+		for (int i = 0; i < node.getChildCount(); i++) {
+			RuleNode child = node.getChild(i);
+			RuleNode[] childChain = new RuleNode[chain.length + 1];
+			System.arraycopy(chain, 0, childChain, 0, chain.length);
+			childChain[chain.length] = child;
+			String[] childHierarchy = new String[hierarchy.length + 1];
+			System.arraycopy(hierarchy, 0, childHierarchy, 0, hierarchy.length);
+			childHierarchy[hierarchy.length] = child.getHierarchy();
+			index(child, childChain, childHierarchy);
+		}
+	}
+
+	/**
+	 * @return the root of the hierarchy
+	 */
+	public RuleNode getRoot() {
+		return root;
+	}
+
+	/**
+	 * @return the number of indexed nodes
+	 */
+	public int size() {
+		return chains.size();
+	}
+
+	/**
+	 * Returns the nodes from the root down to the state/region. Resolution
+	 * stops at the first hierarchy id which is not configured. The returned
+	 * array is shared and must not be modified.
+	 *
+	 * @param path
+	 *            the region path of the hierarchy
+	 * @param hierarchy
+	 *            the hierarchy, i.e. {'us', 'ny'}
+	 * @return the nodes from the root down to the state/region
+	 */
+	public RuleNode[] getChain(final RegionPath path, final String... hierarchy) {
+		int depth = hierarchy == null ? 0 : hierarchy.length;
+		RuleNode[] chain = chains.get(path);
+		if (chain != null && chain.length == depth + 1) {
+			return chain;
+		}
+		return resolve(hierarchy);
+	}
+
+	/**
+	 * Resolves the hierarchy level by level.
+	 */
+	private RuleNode[] resolve(final String... hierarchy) {
+		List<RuleNode> chain = new ArrayList<RuleNode>();
+		RuleNode node = root;
+		chain.add(node);
+		if (hierarchy != null) {
+			for (String id : hierarchy) {
+				node = node.getChild(id);
+				if (node == null) {
+					break;
+				}
+				chain.add(node);
+			}
+		}
+		return chain.toArray(new RuleNode[chain.size()]);
+	}
+
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+/**
+ * Immutable node of the compiled hierarchy. Holds the rule program of one
+ * configuration and its sub nodes. The program of a node may be decoded on
+ * its first access, which happens exactly once even if several threads
+ * access it concurrently.
+ *
+ * @version $Id: $
+ */
+public final class RuleNode {
+
+	private static final RuleNode[] NO_CHILDREN = new RuleNode[0];
+
+	private final String hierarchy;
+	private final String description;
+	private final RuleNode[] children;
+	private volatile RuleProgram program;
+	/**
+	 * Decodes the program on first access, NULL afterwards. Guarded by this.
+	 */
+	private ProgramLoader loader;
+
+	/**
+	 * Creates the node.
+	 *
+	 * @param hierarchy
+	 *            the hierarchy id, i.e. 'ny'
+	 * @param description
+	 *            the fallback description
+	 * @param program
+	 *            the rules of this node
+	 * @param children
+	 *            the sub nodes
+	 */
+	public RuleNode(String hierarchy, String description, RuleProgram program, RuleNode... children) {
+		this.hierarchy = hierarchy;
+		this.description = description;
+		this.program = program;
+		this.children = children == null || children.length == 0 ? NO_CHILDREN : children.clone();
+	}
+
+	/**
+	 * Creates the node with a program which is decoded on first access.
+	 *
+	 * @param hierarchy
+	 *            the hierarchy id, i.e. 'ny'
+	 * @param description
+	 *            the fallback description
+	 * @param loader
+	 *            decodes the rules of this node
+	 * @param children
+	 *            the sub nodes
+	 */
+	RuleNode(String hierarchy, String description, ProgramLoader loader, RuleNode... children) {
+		this(hierarchy, description, (RuleProgram) null, children);
+		this.loader = loader;
+	}
+
+	/**
+	 * @return the hierarchy id
+	 */
+	public String getHierarchy() {
+		return hierarchy;
+	}
+
+	/**
+	 * @return the fallback description
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return the rules of this node
+	 */
+	public RuleProgram getProgram() {
+		RuleProgram p = program;
+		if (p == null) {
+			synchronized (this) {
+				p = program;
+				if (p == null && loader != null) {
+					p = loader.load();
+					program = p;
+					loader = null;
+				}
+			}
+		}
+		return p;
+	}
+
+	/**
+	 * @return the rules of this node have been decoded already
+	 */
+	public boolean isProgramLoaded() {
+		return program != null;
+	}
+
+	/**
+	 * @return the number of sub nodes
+	 */
+	public int getChildCount() {
+		return children.length;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the sub node
+	 * @return the sub node
+	 */
+	public RuleNode getChild(int index) {
+		return children[index];
+	}
+
+	/**
+	 * Returns the sub node with the hierarchy id ignoring the case.
+	 *
+	 * @param hierarchy
+	 *            the hierarchy id
+	 * @return the sub node or NULL if there is none
+	 */
+	public RuleNode getChild(String hierarchy) {
+		for (RuleNode child : children) {
+			if (hierarchy.equalsIgnoreCase(child.hierarchy)) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Decodes the program of a node.
+	 */
+	interface ProgramLoader {
+
+		/**
+		 * @return the decoded program
+		 */
+		RuleProgram load();
+
+	}
+
+}
@@ -0,0 +1,323 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.synchrotronlabs.HolidayDescriptor;
+import de.synchrotronlabs.HolidayFilter;
+import de.synchrotronlabs.HolidayType;
+import de.synchrotronlabs.util.EpochDays;
+
+/**
+ * Immutable, compiled form of the holiday rules of one hierarchy node. The
+ * rules are stored column wise within parallel arrays, one entry per rule.
+ * All enumerations of the XML configuration are already translated into
+ * <code>DateTimeConstants</code> values, the cycles are parsed and the
+ * holiday types are resolved. Which columns are used depends on the kind of
+ * the rule. Programs are created by {@link RuleProgramBuilder} and evaluated
+ * by {@link RuleEvaluator}.
+ *
+ * @version $Id: $
+ */
+public final class RuleProgram {
+
+	/**
+	 * Fixed date with optional moving conditions. Uses month, day and the
+	 * moving conditions.
+	 */
+	public static final int FIXED = 0;
+	/**
+	 * Fixed date moved by a number of days or to a weekday. Uses month, day,
+	 * weekday (0 if moved by days), direction and offset.
+	 */
+	public static final int RELATIVE_TO_FIXED = 1;
+	/**
+	 * n-th weekday within a month. Uses month, weekday and which.
+	 */
+	public static final int FIXED_WEEKDAY_IN_MONTH = 2;
+	/**
+	 * Weekday before/after the n-th weekday within a month. Uses month,
+	 * weekday, which, direction and the relative weekday.
+	 */
+	public static final int RELATIVE_TO_WEEKDAY_IN_MONTH = 3;
+	/**
+	 * First weekday between two fixed dates. Uses month, day, the second month
+	 * and day and weekday.
+	 */
+	public static final int FIXED_WEEKDAY_BETWEEN_FIXED = 4;
+	/**
+	 * n-th weekday before/after a fixed date. Uses month, day, weekday, which
+	 * and direction.
+	 */
+	public static final int FIXED_WEEKDAY_RELATIVE_TO_FIXED = 5;
+	/**
+	 * Days relative to easter sunday. Uses offset and chronology.
+	 */
+	public static final int RELATIVE_TO_EASTER_SUNDAY = 6;
+	/**
+	 * Month and day within the islamic calendar. Uses month and day.
+	 */
+	public static final int ISLAMIC = 7;
+	/**
+	 * Month and day within the ethiopian orthodox calendar. Uses month and
+	 * day.
+	 */
+	public static final int ETHIOPIAN_ORTHODOX = 8;
+
+	/**
+	 * Easter is calculated depending on the year.
+	 */
+	public static final int CHRONOLOGY_DEFAULT = 0;
+	/**
+	 * Easter is calculated within the julian calendar.
+	 */
+	public static final int CHRONOLOGY_JULIAN = 1;
+	/**
+	 * Easter is calculated within the gregorian calendar.
+	 */
+	public static final int CHRONOLOGY_GREGORIAN = 2;
+
+	/**
+	 * Value of the which column for the last weekday. All other values count
+	 * the weekdays starting with 1.
+	 */
+	public static final int LAST = -1;
+
+	/**
+	 * Cycle modulus of rules with a cycle which cannot be handled.
+	 */
+	static final int INVALID_CYCLE = -1;
+	/**
+	 * Number of year types, see {@link #getYearType(int)}.
+	 */
+	static final int YEAR_TYPES = 14;
+	/**
+	 * Maximum number of filters whose validity indices are kept.
+	 */
+	static final int MAX_FILTERED_VALIDITY = 8;
+
+	final int size;
+	final int[] kind;
+	final int[] validFrom;
+	final int[] validTo;
+	/**
+	 * The rule applies to years where <code>(year - anchor) % modulus</code> is
+	 * 0. A modulus of 0 applies to every year.
+	 */
+	final int[] cycleModulus;
+	final int[] cycleAnchor;
+	final String[] cycle;
+	final int[] month;
+	final int[] day;
+	final int[] month2;
+	final int[] day2;
+	final int[] weekday;
+	final int[] weekday2;
+	final int[] which;
+	final int[] direction;
+	final int[] offset;
+	final int[] chronology;
+	/**
+	 * The moving conditions of rule i are stored as triples of substitute,
+	 * direction and weekday from <code>movingStart[i]</code> to
+	 * <code>movingStart[i + 1]</code> within the moving array.
+	 */
+	final int[] movingStart;
+	final int[] moving;
+	final String[] propertiesKey;
+	final HolidayType[] type;
+	/**
+	 * The interned properties key and type of every rule.
+	 */
+	final HolidayDescriptor[] descriptor;
+	/**
+	 * The indices of the rules which can land within a month, by month - 1.
+	 */
+	final int[][] rulesByMonth;
+	/**
+	 * The rules valid within a year.
+	 */
+	final ValidityIndex validity;
+	/**
+	 * The rules valid within a year which are accepted by a filter, by filter.
+	 * Holds the most recently used filters only. Guarded by itself.
+	 */
+	final Map<HolidayFilter, ValidityIndex> filteredValidity = new LinkedHashMap<HolidayFilter, ValidityIndex>(
+			16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<HolidayFilter, ValidityIndex> eldest) {
+			return size() > MAX_FILTERED_VALIDITY;
+		}
+
+	};
+	/**
+	 * Lazily calculated days of the calendar invariant rules relative to the
+	 * first of january, by year type. Filled by {@link RuleEvaluator}.
+	 */
+	final AtomicReferenceArray<int[]> daysByYearType = new AtomicReferenceArray<int[]>(YEAR_TYPES);
+	/**
+	 * Has any calendar invariant rules.
+	 */
+	final boolean hasInvariantRules;
+
+	RuleProgram(RuleProgramBuilder b) {
+		this.size = b.size;
+		this.kind = RuleProgramBuilder.trim(b.kind, size);
+		this.validFrom = RuleProgramBuilder.trim(b.validFrom, size);
+		this.validTo = RuleProgramBuilder.trim(b.validTo, size);
+		this.cycleModulus = RuleProgramBuilder.trim(b.cycleModulus, size);
+		this.cycleAnchor = RuleProgramBuilder.trim(b.cycleAnchor, size);
+		this.cycle = RuleProgramBuilder.trim(b.cycle, new String[size]);
+		this.month = RuleProgramBuilder.trim(b.month, size);
+		this.day = RuleProgramBuilder.trim(b.day, size);
+		this.month2 = RuleProgramBuilder.trim(b.month2, size);
+		this.day2 = RuleProgramBuilder.trim(b.day2, size);
+		this.weekday = RuleProgramBuilder.trim(b.weekday, size);
+		this.weekday2 = RuleProgramBuilder.trim(b.weekday2, size);
+		this.which = RuleProgramBuilder.trim(b.which, size);
+		this.direction = RuleProgramBuilder.trim(b.direction, size);
+		this.offset = RuleProgramBuilder.trim(b.offset, size);
+		this.chronology = RuleProgramBuilder.trim(b.chronology, size);
+		this.movingStart = RuleProgramBuilder.trim(b.movingStart, size + 1);
+		this.moving = RuleProgramBuilder.trim(b.moving, b.movingSize);
+		this.propertiesKey = RuleProgramBuilder.trim(b.propertiesKey, new String[size]);
+		this.type = RuleProgramBuilder.trim(b.type, new HolidayType[size]);
+		this.descriptor = new HolidayDescriptor[size];
+		for (int i = 0; i < size; i++) {
+			descriptor[i] = HolidayDescriptor.valueOf(propertiesKey[i], type[i]);
+		}
+		this.rulesByMonth = MonthIndex.build(this);
+		this.validity = new ValidityIndex(this);
+		boolean invariant = false;
+		for (int i = 0; i < size && !invariant; i++) {
+			invariant = isCalendarInvariant(kind[i]);
+		}
+		this.hasInvariantRules = invariant;
+	}
+
+	/**
+	 * Returns the index of the valid rules which are accepted by the filter.
+	 * The indices of the most recently used filters are kept, others are
+	 * created again.
+	 *
+	 * @param filter
+	 *            the filter or <code>null</code> for all rules
+	 * @return the index of the valid and accepted rules
+	 */
+	ValidityIndex getValidity(final HolidayFilter filter) {
+		if (filter == null) {
+			return validity;
+		}
+		ValidityIndex index;
+		synchronized (filteredValidity) {
+			index = filteredValidity.get(filter);
+		}
+		if (index == null) {
+			boolean[] accepted = new boolean[size];
+			for (int i = 0; i < size; i++) {
+				accepted[i] = filter.accepts(descriptor[i]);
+			}
+			index = new ValidityIndex(validity, accepted);
+			synchronized (filteredValidity) {
+				filteredValidity.put(filter, index);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Shows if the rules of the kind only depend on the weekday of the first
+	 * of january and on whether the year is a leap year. Their days relative
+	 * to the first of january are the same for all years of a year type.
+	 *
+	 * @param kind
+	 *            the kind of the rule
+	 * @return is calendar invariant
+	 */
+	static boolean isCalendarInvariant(int kind) {
+		return kind <= FIXED_WEEKDAY_RELATIVE_TO_FIXED;
+	}
+
+	/**
+	 * Returns the type of the year, which is made up of the weekday of the
+	 * first of january and whether it is a leap year.
+	 *
+	 * @param year
+	 *            the year
+	 * @return the year type, 0 to 13
+	 */
+	static int getYearType(int year) {
+		int dayOfWeek = EpochDays.getDayOfWeek(EpochDays.of(year, 1, 1));
+		return (EpochDays.isLeapYear(year) ? 7 : 0) + dayOfWeek - 1;
+	}
+
+	/**
+	 * @return the number of rules
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return has no rules
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param rule
+	 *            the index of the rule
+	 * @return the kind of the rule, i.e. {@link #FIXED}
+	 */
+	public int getKind(int rule) {
+		return kind[rule];
+	}
+
+	/**
+	 * @param rule
+	 *            the index of the rule
+	 * @return the properties key of the rule
+	 */
+	public String getPropertiesKey(int rule) {
+		return propertiesKey[rule];
+	}
+
+	/**
+	 * @param rule
+	 *            the index of the rule
+	 * @return the holiday type of the rule
+	 */
+	public HolidayType getType(int rule) {
+		return type[rule];
+	}
+
+	/**
+	 * @param rule
+	 *            the index of the rule
+	 * @return the shared properties key and type of the rule
+	 */
+	public HolidayDescriptor getDescriptor(int rule) {
+		return descriptor[rule];
+	}
+
+}
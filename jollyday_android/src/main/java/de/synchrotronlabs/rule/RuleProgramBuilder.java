@@ -0,0 +1,305 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import java.util.Arrays;
+
+import de.synchrotronlabs.HolidayType;
+
+/**
+ * Collects rules and creates the immutable {@link RuleProgram} out of them.
+ * A rule is started by {@link #addRule(int, String, HolidayType)}, all setters
+ * apply to the most recently added rule. Builders are not thread-safe and
+ * are reset by {@link #build()} so that they can be reused.
+ *
+ * @version $Id: $
+ */
+public class RuleProgramBuilder {
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	int size;
+	int[] kind;
+	int[] validFrom;
+	int[] validTo;
+	int[] cycleModulus;
+	int[] cycleAnchor;
+	String[] cycle;
+	int[] month;
+	int[] day;
+	int[] month2;
+	int[] day2;
+	int[] weekday;
+	int[] weekday2;
+	int[] which;
+	int[] direction;
+	int[] offset;
+	int[] chronology;
+	int[] movingStart;
+	int[] moving;
+	int movingSize;
+	String[] propertiesKey;
+	HolidayType[] type;
+
+	/**
+	 * Creates an empty builder.
+	 */
+	public RuleProgramBuilder() {
+		reset();
+	}
+
+	/**
+	 * Starts a new rule which is valid in every year.
+	 *
+	 * @param kind
+	 *            the kind of the rule, i.e. {@link RuleProgram#FIXED}
+	 * @param propertiesKey
+	 *            the properties key of the resulting holidays
+	 * @param type
+	 *            the type of the resulting holidays
+	 * @return this builder
+	 */
+	public RuleProgramBuilder addRule(int kind, String propertiesKey, HolidayType type) {
+		if (kind < RuleProgram.FIXED || kind > RuleProgram.ETHIOPIAN_ORTHODOX) {
+			throw new IllegalArgumentException("Unknown rule kind " + kind + ".");
+		}
+		if (size == this.kind.length) {
+			grow();
+		}
+		int i = size++;
+		this.kind[i] = kind;
+		this.validFrom[i] = Integer.MIN_VALUE;
+		this.validTo[i] = Integer.MAX_VALUE;
+		this.direction[i] = 1;
+		this.movingStart[i] = movingSize;
+		this.propertiesKey[i] = propertiesKey;
+		this.type[i] = type;
+		return this;
+	}
+
+	/**
+	 * Restricts the current rule to a range of years and a cycle.
+	 *
+	 * @param validFrom
+	 *            first valid year or NULL
+	 * @param validTo
+	 *            last valid year or NULL
+	 * @param every
+	 *            the cycle, i.e. 'EVERY_YEAR', 'ODD_YEARS', 'EVEN_YEARS' or
+	 *            '2_YEARS' to '6_YEARS' or NULL
+	 * @return this builder
+	 */
+	public RuleProgramBuilder setValidity(Integer validFrom, Integer validTo, String every) {
+		int i = current();
+		this.validFrom[i] = validFrom == null ? Integer.MIN_VALUE : validFrom.intValue();
+		this.validTo[i] = validTo == null ? Integer.MAX_VALUE : validTo.intValue();
+		this.cycle[i] = every;
+		Cycle c = Cycle.valueOf(every);
+		this.cycleModulus[i] = c.getModulus(validFrom);
+		this.cycleAnchor[i] = c.getAnchor(validFrom);
+		return this;
+	}
+
+	/**
+	 * @param month
+	 *            the month of the date
+	 * @param day
+	 *            the day of the date
+	 * @return this builder
+	 */
+	public RuleProgramBuilder setDate(int month, int day) {
+		int i = current();
+		this.month[i] = month;
+		this.day[i] = day;
+		return this;
+	}
+
+	/**
+	 * @param month
+	 *            the month of the second date
+	 * @param day
+	 *            the day of the second date
+	 * @return this builder
+	 */
+	public RuleProgramBuilder setSecondDate(int month, int day) {
+		int i = current();
+		this.month2[i] = month;
+		this.day2[i] = day;
+		return this;
+	}
+
+	/**
+	 * @param weekday
+	 *            the <code>DateTimeConstants</code> weekday
+	 * @return this builder
+	 */
+	public RuleProgramBuilder setWeekday(int weekday) {
+		this.weekday[current()] = weekday;
+		return this;
+	}
+
+	/**
+	 * @param weekday
+	 *            the <code>DateTimeConstants</code> weekday relative to the
+	 *            weekday in month
+	 * @return this builder
+	 */
+	public RuleProgramBuilder setRelativeWeekday(int weekday) {
+		weekday2[current()] = weekday;
+		return this;
+	}
+
+	/**
+	 * @param which
+	 *            1 to 4 or {@link RuleProgram#LAST}
+	 * @return this builder
+	 */
+	public RuleProgramBuilder setWhich(int which) {
+		this.which[current()] = which;
+		return this;
+	}
+
+	/**
+	 * @param direction
+	 *            1 for after, -1 for before
+	 * @return this builder
+	 */
+	public RuleProgramBuilder setDirection(int direction) {
+		this.direction[current()] = direction;
+		return this;
+	}
+
+	/**
+	 * @param offset
+	 *            the number of days
+	 * @return this builder
+	 */
+	public RuleProgramBuilder setOffset(int offset) {
+		this.offset[current()] = offset;
+		return this;
+	}
+
+	/**
+	 * @param chronology
+	 *            i.e. {@link RuleProgram#CHRONOLOGY_JULIAN}
+	 * @return this builder
+	 */
+	public RuleProgramBuilder setChronology(int chronology) {
+		this.chronology[current()] = chronology;
+		return this;
+	}
+
+	/**
+	 * Adds a moving condition to the current rule. The first condition which
+	 * matches is applied.
+	 *
+	 * @param substitute
+	 *            the weekday which causes the date to be moved
+	 * @param direction
+	 *            1 to move to the next, -1 to move to the previous weekday
+	 * @param weekday
+	 *            the weekday to move to
+	 * @return this builder
+	 */
+	public RuleProgramBuilder addMovingCondition(int substitute, int direction, int weekday) {
+		current();
+		if (movingSize + 3 > moving.length) {
+			moving = Arrays.copyOf(moving, moving.length * 2);
+		}
+		moving[movingSize++] = substitute;
+		moving[movingSize++] = direction;
+		moving[movingSize++] = weekday;
+		return this;
+	}
+
+	/**
+	 * Creates the program out of the rules added so far and resets the
+	 * builder.
+	 *
+	 * @return the program
+	 */
+	public RuleProgram build() {
+		movingStart[size] = movingSize;
+		RuleProgram program = new RuleProgram(this);
+		reset();
+		return program;
+	}
+
+	private int current() {
+		if (size == 0) {
+			throw new IllegalStateException("No rule added.");
+		}
+		return size - 1;
+	}
+
+	private void reset() {
+		size = 0;
+		movingSize = 0;
+		kind = new int[INITIAL_CAPACITY];
+		validFrom = new int[INITIAL_CAPACITY];
+		validTo = new int[INITIAL_CAPACITY];
+		cycleModulus = new int[INITIAL_CAPACITY];
+		cycleAnchor = new int[INITIAL_CAPACITY];
+		cycle = new String[INITIAL_CAPACITY];
+		month = new int[INITIAL_CAPACITY];
+		day = new int[INITIAL_CAPACITY];
+		month2 = new int[INITIAL_CAPACITY];
+		day2 = new int[INITIAL_CAPACITY];
+		weekday = new int[INITIAL_CAPACITY];
+		weekday2 = new int[INITIAL_CAPACITY];
+		which = new int[INITIAL_CAPACITY];
+		direction = new int[INITIAL_CAPACITY];
+		offset = new int[INITIAL_CAPACITY];
+		chronology = new int[INITIAL_CAPACITY];
+		movingStart = new int[INITIAL_CAPACITY + 1];
+		moving = new int[INITIAL_CAPACITY * 3];
+		propertiesKey = new String[INITIAL_CAPACITY];
+		type = new HolidayType[INITIAL_CAPACITY];
+	}
+
+	private void grow() {
+		int capacity = kind.length * 2;
+		kind = Arrays.copyOf(kind, capacity);
+		validFrom = Arrays.copyOf(validFrom, capacity);
+		validTo = Arrays.copyOf(validTo, capacity);
+		cycleModulus = Arrays.copyOf(cycleModulus, capacity);
+		cycleAnchor = Arrays.copyOf(cycleAnchor, capacity);
+		cycle = Arrays.copyOf(cycle, capacity);
+		month = Arrays.copyOf(month, capacity);
+		day = Arrays.copyOf(day, capacity);
+		month2 = Arrays.copyOf(month2, capacity);
+		day2 = Arrays.copyOf(day2, capacity);
+		weekday = Arrays.copyOf(weekday, capacity);
+		weekday2 = Arrays.copyOf(weekday2, capacity);
+		which = Arrays.copyOf(which, capacity);
+		direction = Arrays.copyOf(direction, capacity);
+		offset = Arrays.copyOf(offset, capacity);
+		chronology = Arrays.copyOf(chronology, capacity);
+		movingStart = Arrays.copyOf(movingStart, capacity + 1);
+		propertiesKey = Arrays.copyOf(propertiesKey, capacity);
+		type = Arrays.copyOf(type, capacity);
+	}
+
+	static int[] trim(int[] values, int length) {
+		return values.length == length ? values : Arrays.copyOf(values, length);
+	}
+
+	static <T> T[] trim(T[] values, T[] target) {
+		System.arraycopy(values, 0, target, 0, target.length);
+		return target;
+	}
+
+}
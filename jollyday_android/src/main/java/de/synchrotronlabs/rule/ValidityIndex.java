@@ -0,0 +1,128 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import java.util.Arrays;
+
+/**
+ * Splits the years into segments within which the same rules of a program
+ * are valid. The boundaries of the segments are the first valid years and
+ * the years after the last valid years of the rules. Looking up the rules
+ * valid within a year is a binary search over the segments, rules which
+ * expired or are not yet valid are never visited.
+ *
+ * @version $Id: $
+ */
+final class ValidityIndex {
+
+	/**
+	 * The first year of every segment in ascending order. The first segment
+	 * starts with <code>Integer.MIN_VALUE</code>.
+	 */
+	private final int[] segmentStart;
+	/**
+	 * The indices of the rules valid within each segment in program order.
+	 */
+	private final int[][] rulesBySegment;
+
+	/**
+	 * Creates the index of the program.
+	 *
+	 * @param p
+	 *            the program
+	 */
+	ValidityIndex(final RuleProgram p) {
+		int[] starts = new int[2 * p.size + 1];
+		int n = 0;
+		starts[n++] = Integer.MIN_VALUE;
+		for (int i = 0; i < p.size; i++) {
+			starts[n++] = p.validFrom[i];
+			if (p.validTo[i] != Integer.MAX_VALUE) {
+				starts[n++] = p.validTo[i] + 1;
+			}
+		}
+		Arrays.sort(starts, 0, n);
+		int segments = 0;
+		for (int i = 0; i < n; i++) {
+			if (i == 0 || starts[i] != starts[i - 1]) {
+				starts[segments++] = starts[i];
+			}
+		}
+		this.segmentStart = Arrays.copyOf(starts, segments);
+		this.rulesBySegment = new int[segments][];
+		int[] rules = new int[p.size];
+		for (int s = 0; s < segments; s++) {
+			int year = segmentStart[s];
+			int count = 0;
+			for (int i = 0; i < p.size; i++) {
+				if (p.validFrom[i] <= year && p.validTo[i] >= year) {
+					rules[count++] = i;
+				}
+			}
+			int[] active = Arrays.copyOf(rules, count);
+			// neighbouring segments with the same rules share their array
+			rulesBySegment[s] = s > 0 && Arrays.equals(rulesBySegment[s - 1], active) ? rulesBySegment[s - 1] : active;
+		}
+	}
+
+	/**
+	 * Creates the index of the rules of another index which are accepted.
+	 * The segments stay the same.
+	 *
+	 * @param all
+	 *            the index of all rules
+	 * @param accepted
+	 *            whether the rule is accepted, by rule index
+	 */
+	ValidityIndex(final ValidityIndex all, final boolean[] accepted) {
+		this.segmentStart = all.segmentStart;
+		this.rulesBySegment = new int[segmentStart.length][];
+		int[] rules = new int[accepted.length];
+		for (int s = 0; s < segmentStart.length; s++) {
+			if (s > 0 && all.rulesBySegment[s] == all.rulesBySegment[s - 1]) {
+				rulesBySegment[s] = rulesBySegment[s - 1];
+				continue;
+			}
+			int count = 0;
+			for (int i : all.rulesBySegment[s]) {
+				if (accepted[i]) {
+					rules[count++] = i;
+				}
+			}
+			int[] active = Arrays.copyOf(rules, count);
+			rulesBySegment[s] = s > 0 && Arrays.equals(rulesBySegment[s - 1], active) ? rulesBySegment[s - 1] : active;
+		}
+	}
+
+	/**
+	 * Returns the indices of the rules valid within the year. Their cycles
+	 * still have to be checked. The returned array is shared and must not be
+	 * modified.
+	 *
+	 * @param year
+	 *            the year
+	 * @return the indices of the rules in program order
+	 */
+	int[] getRules(int year) {
+		int s = Arrays.binarySearch(segmentStart, year);
+		if (s < 0) {
+			// the segment starting before the year
+			s = -s - 2;
+		}
+		return rulesBySegment[s];
+	}
+
+}
@@ -26,7 +26,6 @@ import org.joda.time.LocalDate;
 import org.joda.time.chrono.CopticChronology;
 import org.joda.time.chrono.ISOChronology;
 import org.joda.time.chrono.IslamicChronology;
-import org.joda.time.chrono.JulianChronology;
 
 import de.synchrotronlabs.Holiday;
 import de.synchrotronlabs.config.Fixed;
@@ -62,7 +61,7 @@ public class CalendarUtil {
 	 * @return date
 	 */
 	public LocalDate create(int year, int month, int day) {
-		return create(year, month, day, ISOChronology.getInstance());
+		return create(year, month, day, ISOChronology.getInstanceUTC());
 	}
 
 	/**
@@ -95,6 +94,19 @@ public class CalendarUtil {
 		return create(year, xmlUtil.getMonth(fixed.getMonth()), fixed.getDay());
 	}
 
+	/**
+	 * Returns the epoch day of the month/day within the specified year.
+	 * 
+	 * @param year
+	 *            a int.
+	 * @param fixed
+	 *            a {@link de.synchrotronlabs.config.Fixed} object.
+	 * @return the days since 1970-01-01
+	 */
+	public int getEpochDay(int year, Fixed fixed) {
+		return EpochDays.ofChecked(year, xmlUtil.getMonth(fixed.getMonth()), fixed.getDay());
+	}
+
 	/**
 	 * Creates a LocalDate. Does not use the Chronology of the Calendar.
 	 * 
@@ -114,11 +126,7 @@ public class CalendarUtil {
 	 * @return Easter sunday.
 	 */
 	public LocalDate getEasterSunday(int year) {
-		if (year <= 1583) {
-			return getJulianEasterSunday(year);
-		} else {
-			return getGregorianEasterSunday(year);
-		}
+		return EpochDays.toLocalDate(getEasterEpochDay(year));
 	}
 
 	/**
@@ -129,6 +137,67 @@ public class CalendarUtil {
 	 * @return julian easter sunday
 	 */
 	public LocalDate getJulianEasterSunday(int year) {
+		return EpochDays.toLocalDate(getJulianEasterEpochDay(year));
+	}
+
+	/**
+	 * Returns the easter sunday within the gregorian chronology.
+	 * 
+	 * @param year
+	 *            a int.
+	 * @return gregorian easter sunday.
+	 */
+	public LocalDate getGregorianEasterSunday(int year) {
+		return EpochDays.toLocalDate(getGregorianEasterEpochDay(year));
+	}
+
+	/**
+	 * Returns the epoch day of easter sunday for a given year. Up to 1583
+	 * easter is calculated within the julian calendar.
+	 * 
+	 * @param year
+	 *            a int.
+	 * @return easter sunday as days since 1970-01-01
+	 */
+	public int getEasterEpochDay(int year) {
+		if (year <= 1583) {
+			return getJulianEasterEpochDay(year);
+		} else {
+			return getGregorianEasterEpochDay(year);
+		}
+	}
+
+	/**
+	 * Returns the epoch day of easter sunday calculated within the julian
+	 * calendar.
+	 * 
+	 * @param year
+	 *            a int.
+	 * @return julian easter sunday as days since 1970-01-01
+	 */
+	public int getJulianEasterEpochDay(int year) {
+		if (year >= EasterTable.FIRST_YEAR && year <= EasterTable.LAST_YEAR) {
+			return EasterTable.JULIAN[year - EasterTable.FIRST_YEAR];
+		}
+		return calculateJulianEasterEpochDay(year);
+	}
+
+	/**
+	 * Returns the epoch day of easter sunday calculated within the gregorian
+	 * calendar.
+	 * 
+	 * @param year
+	 *            a int.
+	 * @return gregorian easter sunday as days since 1970-01-01
+	 */
+	public int getGregorianEasterEpochDay(int year) {
+		if (year >= EasterTable.FIRST_YEAR && year <= EasterTable.LAST_YEAR) {
+			return EasterTable.GREGORIAN[year - EasterTable.FIRST_YEAR];
+		}
+		return calculateGregorianEasterEpochDay(year);
+	}
+
+	private static int calculateJulianEasterEpochDay(int year) {
 		int a, b, c, d, e;
 		int x, month, day;
 		a = year % 4;
@@ -139,19 +208,10 @@ public class CalendarUtil {
 		x = d + e + 114;
 		month = x / 31;
 		day = (x % 31) + 1;
-		LocalDate julianEasterDate = create(year, (month == 3 ? DateTimeConstants.MARCH : DateTimeConstants.APRIL),
-				day, JulianChronology.getInstanceUTC());
-		return convertToISODate(julianEasterDate);
+		return EpochDays.ofJulian(year, (month == 3 ? DateTimeConstants.MARCH : DateTimeConstants.APRIL), day);
 	}
 
-	/**
-	 * Returns the easter sunday within the gregorian chronology.
-	 * 
-	 * @param year
-	 *            a int.
-	 * @return gregorian easter sunday.
-	 */
-	public LocalDate getGregorianEasterSunday(int year) {
+	private static int calculateGregorianEasterEpochDay(int year) {
 		int a, b, c, d, e, f, g, h, i, j, k, l;
 		int x, month, day;
 		a = year % 19;
@@ -169,7 +229,89 @@ public class CalendarUtil {
 		x = h + k - 7 * l + 114;
 		month = x / 31;
 		day = (x % 31) + 1;
-		return create(year, (month == 3 ? DateTimeConstants.MARCH : DateTimeConstants.APRIL), day);
+		return EpochDays.of(year, (month == 3 ? DateTimeConstants.MARCH : DateTimeConstants.APRIL), day);
+	}
+
+	/**
+	 * Easter sundays of the years most requested, shared by all instances.
+	 * The tables are calculated when first used.
+	 */
+	private static final class EasterTable {
+
+		static final int FIRST_YEAR = 1583;
+		static final int LAST_YEAR = 2500;
+		static final int[] JULIAN = new int[LAST_YEAR - FIRST_YEAR + 1];
+		static final int[] GREGORIAN = new int[LAST_YEAR - FIRST_YEAR + 1];
+
+		static {
+			for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+				JULIAN[year - FIRST_YEAR] = calculateJulianEasterEpochDay(year);
+				GREGORIAN[year - FIRST_YEAR] = calculateGregorianEasterEpochDay(year);
+			}
+		}
+
+		private EasterTable() {
+		}
+
+	}
+
+	/**
+	 * Shows if the year is a leap year within the gregorian calendar.
+	 * 
+	 * @param year
+	 *            a int.
+	 * @return is leap year
+	 */
+	public boolean isLeapYear(int year) {
+		return EpochDays.isLeapYear(year);
+	}
+
+	/**
+	 * Returns the day of the year of the gregorian date without creating a
+	 * date object.
+	 * 
+	 * @param year
+	 *            a int.
+	 * @param month
+	 *            a int, 1 to 12.
+	 * @param day
+	 *            a int, 1 to the length of the month.
+	 * @return the day of the year, starting with 1
+	 */
+	public int getDayOfYear(int year, int month, int day) {
+		if (month < 1 || month > 12) {
+			throw new IllegalArgumentException("Invalid month " + month + ".");
+		}
+		if (day < 1 || day > EpochDays.getMonthLength(year, month)) {
+			throw new IllegalArgumentException("Invalid day " + day + " for " + year + "-" + month + ".");
+		}
+		return EpochDays.getDaysBeforeMonth(year, month) + day;
+	}
+
+	/**
+	 * Returns the number of days since 1970-01-01 of the gregorian date.
+	 * 
+	 * @param year
+	 *            a int.
+	 * @param month
+	 *            a int, 1 to 12.
+	 * @param day
+	 *            a int.
+	 * @return the epoch day
+	 */
+	public int getEpochDay(int year, int month, int day) {
+		return EpochDays.of(year, month, day);
+	}
+
+	/**
+	 * Returns the gregorian year of the day since 1970-01-01.
+	 * 
+	 * @param epochDay
+	 *            the epoch day
+	 * @return the year
+	 */
+	public int getYearOfEpochDay(int epochDay) {
+		return EpochDays.getYear(epochDay);
 	}
 
 	/**
@@ -199,8 +341,27 @@ public class CalendarUtil {
 	 * @return List of gregorian dates for the islamic month/day.
 	 */
 	public Set<LocalDate> getIslamicHolidaysInGregorianYear(int gregorianYear, int islamicMonth, int islamicDay) {
-		return getDatesFromChronologyWithinGregorianYear(islamicMonth, islamicDay, gregorianYear,
-				IslamicChronology.getInstance());
+		return toLocalDates(getIslamicEpochDaysInGregorianYear(gregorianYear, islamicMonth, islamicDay));
+	}
+
+	/**
+	 * Returns the epoch days within a gregorian year which equal the islamic
+	 * month and day. The returned array must not be modified.
+	 * 
+	 * @param gregorianYear
+	 *            a int.
+	 * @param islamicMonth
+	 *            a int.
+	 * @param islamicDay
+	 *            a int.
+	 * @return the days since 1970-01-01 of the islamic month/day.
+	 */
+	public int[] getIslamicEpochDaysInGregorianYear(int gregorianYear, int islamicMonth, int islamicDay) {
+		if (gregorianYear >= TabularCalendars.FIRST_ISLAMIC_GREGORIAN_YEAR) {
+			return TabularCalendars.getIslamicEpochDays(gregorianYear, islamicMonth, islamicDay);
+		}
+		return toEpochDays(getDatesFromChronologyWithinGregorianYear(islamicMonth, islamicDay, gregorianYear,
+				IslamicChronology.getInstance()));
 	}
 
 	/**
@@ -218,12 +379,50 @@ public class CalendarUtil {
 	 *            a int.
 	 */
 	public Set<LocalDate> getEthiopianOrthodoxHolidaysInGregorianYear(int gregorianYear, int eoMonth, int eoDay) {
-		return getDatesFromChronologyWithinGregorianYear(eoMonth, eoDay, gregorianYear, CopticChronology.getInstance());
+		return toLocalDates(getEthiopianOrthodoxEpochDaysInGregorianYear(gregorianYear, eoMonth, eoDay));
+	}
+
+	/**
+	 * Returns the epoch days within a gregorian year which equal the ethiopian
+	 * orthodox month and day. The returned array must not be modified.
+	 * 
+	 * @param gregorianYear
+	 *            a int.
+	 * @param eoMonth
+	 *            a int.
+	 * @param eoDay
+	 *            a int.
+	 * @return the days since 1970-01-01 of the ethiopian orthodox month/day.
+	 */
+	public int[] getEthiopianOrthodoxEpochDaysInGregorianYear(int gregorianYear, int eoMonth, int eoDay) {
+		if (gregorianYear >= TabularCalendars.FIRST_COPTIC_GREGORIAN_YEAR) {
+			return TabularCalendars.getCopticEpochDays(gregorianYear, eoMonth, eoDay);
+		}
+		return toEpochDays(getDatesFromChronologyWithinGregorianYear(eoMonth, eoDay, gregorianYear,
+				CopticChronology.getInstance()));
+	}
+
+	private static Set<LocalDate> toLocalDates(int[] epochDays) {
+		Set<LocalDate> dates = new HashSet<LocalDate>();
+		for (int epochDay : epochDays) {
+			dates.add(EpochDays.toLocalDate(epochDay));
+		}
+		return dates;
+	}
+
+	private static int[] toEpochDays(final Set<LocalDate> dates) {
+		int[] epochDays = new int[dates.size()];
+		int i = 0;
+		for (LocalDate date : dates) {
+			epochDays[i++] = EpochDays.of(date);
+		}
+		return epochDays;
 	}
 
 	/**
 	 * Searches for the occurrences of a month/day in one chronology within one
-	 * gregorian year.
+	 * gregorian year. Only used for years before the arithmetic conversion of
+	 * {@link TabularCalendars} applies.
 	 * 
 	 * @param targetMonth
 	 * @param targetDay
@@ -0,0 +1,292 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import org.joda.time.LocalDate;
+import org.joda.time.chrono.ISOChronology;
+
+/**
+ * Date arithmetic on days since 1970-01-01 (epoch days) within the proleptic
+ * gregorian calendar. Dates are plain <code>int</code> values, so that
+ * calculations neither allocate objects nor depend on a time zone. Dates are
+ * only converted to <code>LocalDate</code> where they leave the library.
+ * Years are numbered astronomically, i.e. the year before 1 is 0.
+ *
+ * @version $Id: $
+ */
+public final class EpochDays {
+
+	/**
+	 * Number of days before the first of each month within a non leap year.
+	 */
+	private static final int[] DAYS_BEFORE_MONTH = { 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334, 365 };
+	/**
+	 * Days from 0000-03-01 to 1970-01-01 within the gregorian calendar.
+	 */
+	private static final int DAYS_0000_TO_1970 = 719468;
+	/**
+	 * Days within a cycle of 400 gregorian years.
+	 */
+	private static final int DAYS_PER_CYCLE = 146097;
+	/**
+	 * Julian day number of 1970-01-01.
+	 */
+	private static final int JULIAN_DAY_1970 = 2440588;
+
+	private EpochDays() {
+	}
+
+	/**
+	 * Returns the epoch day of the gregorian date. The date is not validated,
+	 * days exceeding the month continue into the following months.
+	 *
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month, 1 to 12
+	 * @param day
+	 *            the day of the month
+	 * @return the epoch day
+	 */
+	public static int of(int year, int month, int day) {
+		long y = month <= 2 ? year - 1L : year;
+		long era = (y >= 0 ? y : y - 399) / 400;
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return (int) (era * DAYS_PER_CYCLE + dayOfEra - DAYS_0000_TO_1970);
+	}
+
+	/**
+	 * Returns the epoch day of the gregorian date after validating it.
+	 *
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month, 1 to 12
+	 * @param day
+	 *            the day of the month
+	 * @return the epoch day
+	 * @throws IllegalArgumentException
+	 *             if the date does not exist
+	 */
+	public static int ofChecked(int year, int month, int day) {
+		if (month < 1 || month > 12) {
+			throw new IllegalArgumentException("Invalid month " + month + ".");
+		}
+		if (day < 1 || day > getMonthLength(year, month)) {
+			throw new IllegalArgumentException("Invalid day " + day + " for " + year + "-" + month + ".");
+		}
+		return of(year, month, day);
+	}
+
+	/**
+	 * Returns the epoch day of the date within the proleptic julian calendar.
+	 *
+	 * @param year
+	 *            the julian year
+	 * @param month
+	 *            the julian month, 1 to 12
+	 * @param day
+	 *            the julian day of the month
+	 * @return the epoch day
+	 */
+	public static int ofJulian(int year, int month, int day) {
+		int a = (14 - month) / 12;
+		long y = year + 4800L - a;
+		int m = month + 12 * a - 3;
+		long julianDay = day + (153 * m + 2) / 5 + 365 * y + floorDiv(y, 4) - 32083;
+		return (int) (julianDay - JULIAN_DAY_1970);
+	}
+
+	/**
+	 * Returns the epoch day of the <code>LocalDate</code>.
+	 *
+	 * @param date
+	 *            a date within the ISO chronology
+	 * @return the epoch day
+	 */
+	public static int of(final LocalDate date) {
+		return of(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth());
+	}
+
+	/**
+	 * Returns the date of the epoch day within the ISO chronology.
+	 *
+	 * @param epochDay
+	 *            the epoch day
+	 * @return the date
+	 */
+	public static LocalDate toLocalDate(int epochDay) {
+		int year = getYear(epochDay);
+		int dayOfYear = epochDay - of(year, 1, 1) + 1;
+		int month = getMonthOfDayOfYear(year, dayOfYear);
+		int day = dayOfYear - getDaysBeforeMonth(year, month);
+		return new LocalDate(year, month, day, ISOChronology.getInstanceUTC());
+	}
+
+	/**
+	 * @param epochDay
+	 *            the epoch day
+	 * @return the gregorian year
+	 */
+	public static int getYear(int epochDay) {
+		long z = epochDay + (long) DAYS_0000_TO_1970;
+		long era = (z >= 0 ? z : z - (DAYS_PER_CYCLE - 1)) / DAYS_PER_CYCLE;
+		long dayOfEra = z - era * DAYS_PER_CYCLE;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / (DAYS_PER_CYCLE - 1)) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long monthIndex = (5 * dayOfYear + 2) / 153;
+		// the era based year starts with march
+		return (int) (yearOfEra + era * 400 + (monthIndex >= 10 ? 1 : 0));
+	}
+
+	/**
+	 * @param epochDay
+	 *            the epoch day
+	 * @return the gregorian month, 1 to 12
+	 */
+	public static int getMonth(int epochDay) {
+		int year = getYear(epochDay);
+		return getMonthOfDayOfYear(year, epochDay - of(year, 1, 1) + 1);
+	}
+
+	/**
+	 * @param epochDay
+	 *            the epoch day
+	 * @return the gregorian day of the month
+	 */
+	public static int getDayOfMonth(int epochDay) {
+		int year = getYear(epochDay);
+		int dayOfYear = epochDay - of(year, 1, 1) + 1;
+		return dayOfYear - getDaysBeforeMonth(year, getMonthOfDayOfYear(year, dayOfYear));
+	}
+
+	/**
+	 * @param epochDay
+	 *            the epoch day
+	 * @return the gregorian day of the year, starting with 1
+	 */
+	public static int getDayOfYear(int epochDay) {
+		return epochDay - of(getYear(epochDay), 1, 1) + 1;
+	}
+
+	/**
+	 * @param epochDay
+	 *            the epoch day
+	 * @return the <code>DateTimeConstants</code> day of the week, 1 (monday)
+	 *         to 7 (sunday)
+	 */
+	public static int getDayOfWeek(int epochDay) {
+		// 1970-01-01 has been a thursday
+		return (int) floorMod(epochDay + 3L, 7) + 1;
+	}
+
+	/**
+	 * Shows if the year is a leap year within the gregorian calendar.
+	 *
+	 * @param year
+	 *            the year
+	 * @return is leap year
+	 */
+	public static boolean isLeapYear(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	/**
+	 * @param year
+	 *            the year
+	 * @return the number of days within the gregorian year
+	 */
+	public static int getYearLength(int year) {
+		return isLeapYear(year) ? 366 : 365;
+	}
+
+	/**
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month, 1 to 12
+	 * @return the number of days within the gregorian month
+	 */
+	public static int getMonthLength(int year, int month) {
+		return DAYS_BEFORE_MONTH[month] - DAYS_BEFORE_MONTH[month - 1]
+				+ (month == 2 && isLeapYear(year) ? 1 : 0);
+	}
+
+	/**
+	 * @param year
+	 *            the year
+	 * @param month
+	 *            the month, 1 to 12
+	 * @return the number of days of the year before the first of the month
+	 */
+	public static int getDaysBeforeMonth(int year, int month) {
+		return DAYS_BEFORE_MONTH[month - 1] + (month > 2 && isLeapYear(year) ? 1 : 0);
+	}
+
+	/**
+	 * Moves the epoch day into the direction until the weekday is reached. It
+	 * is not moved if it already is the weekday.
+	 *
+	 * @param epochDay
+	 *            the epoch day
+	 * @param weekday
+	 *            the <code>DateTimeConstants</code> weekday
+	 * @param direction
+	 *            1 to move forward, -1 to move backward
+	 * @return the epoch day of the weekday
+	 */
+	public static int toWeekday(int epochDay, int weekday, int direction) {
+		int days = direction > 0 ? weekday - getDayOfWeek(epochDay) : getDayOfWeek(epochDay) - weekday;
+		days = (days % 7 + 7) % 7;
+		return direction > 0 ? epochDay + days : epochDay - days;
+	}
+
+	/**
+	 * Moves the epoch day into the direction until the weekday is reached. It
+	 * is moved at least one day.
+	 *
+	 * @param epochDay
+	 *            the epoch day
+	 * @param weekday
+	 *            the <code>DateTimeConstants</code> weekday
+	 * @param direction
+	 *            1 to move forward, -1 to move backward
+	 * @return the epoch day of the weekday
+	 */
+	public static int toNextWeekday(int epochDay, int weekday, int direction) {
+		return toWeekday(epochDay + direction, weekday, direction);
+	}
+
+	private static int getMonthOfDayOfYear(int year, int dayOfYear) {
+		int month = Math.min(12, (dayOfYear - 1) / 31 + 1);
+		while (month < 12 && dayOfYear > getDaysBeforeMonth(year, month + 1)) {
+			month++;
+		}
+		return month;
+	}
+
+	private static long floorDiv(long x, long y) {
+		long q = x / y;
+		return (x % y != 0 && ((x ^ y) < 0)) ? q - 1 : q;
+	}
+
+	private static long floorMod(long x, long y) {
+		return x - floorDiv(x, y) * y;
+	}
+
+}
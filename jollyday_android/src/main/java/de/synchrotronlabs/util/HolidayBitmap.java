@@ -0,0 +1,325 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import java.util.Collection;
+
+import de.synchrotronlabs.Holiday;
+
+/**
+ * Immutable day-of-year index of the holidays within one year. Every day of
+ * the year is represented by a single bit so that answering whether a date is
+ * a holiday is a single bit test instead of a scan over the holidays. Running
+ * bit counts per 64 day word make counting the days set before a day of the
+ * year a constant time operation.
+ *
+ * @version $Id: $
+ */
+public final class HolidayBitmap {
+
+	/**
+	 * Number of 64 bit words needed to hold 366 days.
+	 */
+	private static final int WORDS = 6;
+
+	/**
+	 * The year this bitmap represents.
+	 */
+	private final int year;
+	/**
+	 * Number of days within the year.
+	 */
+	private final int length;
+	/**
+	 * Bit <code>dayOfYear - 1</code> is set if the day is a holiday.
+	 */
+	private final long[] words;
+	/**
+	 * Number of days set within all words before the word at the index. The
+	 * last entry is the total number of days set.
+	 */
+	private final int[] counts;
+
+	private HolidayBitmap(int year, long[] words) {
+		this.year = year;
+		this.length = EpochDays.getYearLength(year);
+		this.words = words;
+		this.counts = new int[WORDS + 1];
+		for (int i = 0; i < WORDS; i++) {
+			counts[i + 1] = counts[i] + Long.bitCount(words[i]);
+		}
+	}
+
+	/**
+	 * Creates the bitmap for the provided year from the holidays. Holidays
+	 * which do not lie within the year are ignored.
+	 *
+	 * @param year
+	 *            the year to create the bitmap for
+	 * @param holidays
+	 *            the holidays of the year
+	 * @return the bitmap
+	 */
+	public static HolidayBitmap create(int year, final Collection<Holiday> holidays) {
+		long[] words = new long[WORDS];
+		for (Holiday h : holidays) {
+			if (h.getDate().getYear() == year) {
+				int bit = h.getDate().getDayOfYear() - 1;
+				words[bit >>> 6] |= 1L << bit;
+			}
+		}
+		return new HolidayBitmap(year, words);
+	}
+
+	/**
+	 * Creates the bitmap of all days within the year which fall on one of the
+	 * days of the week within the mask.
+	 *
+	 * @param year
+	 *            the year to create the bitmap for
+	 * @param daysOfWeekMask
+	 *            bit <code>dayOfWeek - 1</code> is set for every requested
+	 *            <code>DateTimeConstants</code> day of the week
+	 * @return the bitmap
+	 */
+	public static HolidayBitmap createForDaysOfWeek(int year, int daysOfWeekMask) {
+		long[] words = new long[WORDS];
+		int length = EpochDays.getYearLength(year);
+		int dayOfWeek = EpochDays.getDayOfWeek(EpochDays.of(year, 1, 1)) - 1;
+		for (int bit = 0; bit < length; bit++) {
+			if ((daysOfWeekMask & (1 << dayOfWeek)) != 0) {
+				words[bit >>> 6] |= 1L << bit;
+			}
+			dayOfWeek = dayOfWeek == 6 ? 0 : dayOfWeek + 1;
+		}
+		return new HolidayBitmap(year, words);
+	}
+
+	/**
+	 * @return the year this bitmap represents
+	 */
+	public int getYear() {
+		return year;
+	}
+
+	/**
+	 * @return the number of days within the year
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Shows if the day of the year is a holiday.
+	 *
+	 * @param dayOfYear
+	 *            the day of the year, starting with 1
+	 * @return is a holiday
+	 */
+	public boolean contains(int dayOfYear) {
+		int bit = dayOfYear - 1;
+		if (bit < 0 || bit >= length) {
+			return false;
+		}
+		return (words[bit >>> 6] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * @return the number of holidays within the year
+	 */
+	public int cardinality() {
+		return counts[WORDS];
+	}
+
+	/**
+	 * Counts the days set before the day of the year.
+	 *
+	 * @param dayOfYear
+	 *            the day of the year, 1 to the length of the year plus one
+	 * @return the number of days set with a smaller day of the year
+	 */
+	public int rank(int dayOfYear) {
+		int bit = dayOfYear - 1;
+		if (bit <= 0) {
+			return 0;
+		}
+		if (bit >= length) {
+			return counts[WORDS];
+		}
+		int word = bit >>> 6;
+		return counts[word] + Long.bitCount(words[word] & ((1L << bit) - 1));
+	}
+
+	/**
+	 * Returns the day of the year of the n-th day set within the year.
+	 *
+	 * @param n
+	 *            the zero based index of the day set
+	 * @return the day of the year or -1 if less days are set
+	 */
+	public int select(int n) {
+		if (n < 0 || n >= counts[WORDS]) {
+			return -1;
+		}
+		int word = 0;
+		while (counts[word + 1] <= n) {
+			word++;
+		}
+		long bits = words[word];
+		for (int i = counts[word]; i < n; i++) {
+			bits &= bits - 1;
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits) + 1;
+	}
+
+	/**
+	 * Returns the bitmap of the days set in this and in the other bitmap.
+	 *
+	 * @param other
+	 *            a bitmap of the same year
+	 * @return the intersection
+	 */
+	public HolidayBitmap and(final HolidayBitmap other) {
+		checkYear(other);
+		long[] result = new long[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			result[i] = words[i] & other.words[i];
+		}
+		return new HolidayBitmap(year, result);
+	}
+
+	/**
+	 * Returns the bitmap of the days set in this or in the other bitmap.
+	 *
+	 * @param other
+	 *            a bitmap of the same year
+	 * @return the union
+	 */
+	public HolidayBitmap or(final HolidayBitmap other) {
+		checkYear(other);
+		long[] result = new long[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			result[i] = words[i] | other.words[i];
+		}
+		return new HolidayBitmap(year, result);
+	}
+
+	/**
+	 * Returns the bitmap of the days set in this but not in the other bitmap.
+	 *
+	 * @param other
+	 *            a bitmap of the same year
+	 * @return the difference
+	 */
+	public HolidayBitmap andNot(final HolidayBitmap other) {
+		checkYear(other);
+		long[] result = new long[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			result[i] = words[i] & ~other.words[i];
+		}
+		return new HolidayBitmap(year, result);
+	}
+
+	/**
+	 * Returns the bitmap of all days of the year which are not set in this
+	 * bitmap.
+	 *
+	 * @return the complement within the year
+	 */
+	public HolidayBitmap complement() {
+		long[] result = new long[WORDS];
+		for (int i = 0; i < WORDS; i++) {
+			result[i] = ~words[i];
+		}
+		int tail = length & 63;
+		result[length >>> 6] &= (1L << tail) - 1;
+		for (int i = (length >>> 6) + 1; i < WORDS; i++) {
+			result[i] = 0;
+		}
+		return new HolidayBitmap(year, result);
+	}
+
+	private void checkYear(final HolidayBitmap other) {
+		if (other.year != year) {
+			throw new IllegalArgumentException("Cannot combine bitmaps of " + year + " and " + other.year + ".");
+		}
+	}
+
+	/**
+	 * Collects the days of one year without creating <code>Holiday</code>
+	 * instances. Days outside of the year are ignored. A builder is not
+	 * thread safe.
+	 */
+	public static final class Builder {
+
+		private final int year;
+		private final int firstDay;
+		private final int length;
+		private final long[] words = new long[WORDS];
+
+		/**
+		 * @param year
+		 *            the year to create the bitmap for
+		 */
+		public Builder(int year) {
+			this.year = year;
+			this.firstDay = EpochDays.of(year, 1, 1);
+			this.length = EpochDays.getYearLength(year);
+		}
+
+		/**
+		 * @return the year of the bitmap
+		 */
+		public int getYear() {
+			return year;
+		}
+
+		/**
+		 * Sets the day given as days since 1970-01-01.
+		 *
+		 * @param epochDay
+		 *            the epoch day
+		 * @return this builder
+		 */
+		public Builder addEpochDay(int epochDay) {
+			return addDayOfYear(epochDay - firstDay + 1);
+		}
+
+		/**
+		 * Sets the day of the year.
+		 *
+		 * @param dayOfYear
+		 *            the day of the year, starting with 1
+		 * @return this builder
+		 */
+		public Builder addDayOfYear(int dayOfYear) {
+			int bit = dayOfYear - 1;
+			if (bit >= 0 && bit < length) {
+				words[bit >>> 6] |= 1L << bit;
+			}
+			return this;
+		}
+
+		/**
+		 * @return the bitmap of the days set
+		 */
+		public HolidayBitmap build() {
+			return new HolidayBitmap(year, words.clone());
+		}
+
+	}
+
+}
@@ -0,0 +1,357 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import de.synchrotronlabs.Holiday;
+import de.synchrotronlabs.HolidayDescriptor;
+
+/**
+ * Immutable, compact table of holidays. Every holiday is stored as a pair of
+ * its date as days since 1970-01-01 and the id of its
+ * {@link HolidayDescriptor} within one <code>long</code>, sorted by date and
+ * free of duplicates. Descriptors which are not interned are kept by the
+ * table itself and stored with a negative index instead of the id.
+ * <code>Holiday</code> instances are only created when they are requested.
+ *
+ * @version $Id: $
+ */
+public final class HolidayTable {
+
+	private static final HolidayDescriptor[] NO_DESCRIPTORS = new HolidayDescriptor[0];
+	private static final HolidayTable EMPTY = new HolidayTable(new long[0], NO_DESCRIPTORS, null);
+
+	/**
+	 * The date in the upper and the descriptor id in the lower 32 bits. The
+	 * lower bits hold <code>-(index + 1)</code> for descriptors which are
+	 * not interned.
+	 */
+	private final long[] entries;
+	/**
+	 * The descriptors which are not interned.
+	 */
+	private final HolidayDescriptor[] descriptors;
+	/**
+	 * Reads the descriptions of the holidays created or <code>null</code>.
+	 */
+	private final ResourceUtil resourceUtil;
+
+	private HolidayTable(long[] entries, final HolidayDescriptor[] descriptors, final ResourceUtil resourceUtil) {
+		this.entries = entries;
+		this.descriptors = descriptors;
+		this.resourceUtil = resourceUtil;
+	}
+
+	/**
+	 * Creates the table of the holidays.
+	 *
+	 * @param holidays
+	 *            the holidays
+	 * @return the table
+	 */
+	public static HolidayTable create(final Collection<Holiday> holidays) {
+		return create(holidays, null);
+	}
+
+	/**
+	 * Creates the table of the holidays.
+	 *
+	 * @param holidays
+	 *            the holidays
+	 * @param resourceUtil
+	 *            reads the descriptions of the holidays created by the table
+	 *            or <code>null</code> to read them through their descriptors
+	 * @return the table
+	 */
+	public static HolidayTable create(final Collection<Holiday> holidays, final ResourceUtil resourceUtil) {
+		Builder builder = new Builder(resourceUtil);
+		for (Holiday h : holidays) {
+			builder.add(h.getEpochDay(), h.getDescriptor());
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return the number of holidays
+	 */
+	public int size() {
+		return entries.length;
+	}
+
+	/**
+	 * @param index
+	 *            the index of the holiday, 0 to size - 1
+	 * @return the date of the holiday as days since 1970-01-01
+	 */
+	public int getEpochDay(int index) {
+		return (int) (entries[index] >> 32);
+	}
+
+	/**
+	 * @param index
+	 *            the index of the holiday, 0 to size - 1
+	 * @return the properties key and type of the holiday
+	 */
+	public HolidayDescriptor getDescriptor(int index) {
+		int id = (int) entries[index];
+		return id >= 0 ? HolidayDescriptor.valueOf(id) : descriptors[-id - 1];
+	}
+
+	/**
+	 * Creates the holiday at the index.
+	 *
+	 * @param index
+	 *            the index of the holiday, 0 to size - 1
+	 * @return the holiday
+	 */
+	public Holiday getHoliday(int index) {
+		return new Holiday(getEpochDay(index), getDescriptor(index), resourceUtil);
+	}
+
+	/**
+	 * Returns the index of the first holiday on or after the day.
+	 *
+	 * @param epochDay
+	 *            the day as days since 1970-01-01
+	 * @return the index or size if there is none
+	 */
+	public int indexOf(int epochDay) {
+		int index = Arrays.binarySearch(entries, (long) epochDay << 32);
+		return index < 0 ? -index - 1 : index;
+	}
+
+	/**
+	 * Shows if there is a holiday on the day.
+	 *
+	 * @param epochDay
+	 *            the day as days since 1970-01-01
+	 * @return is a holiday
+	 */
+	public boolean contains(int epochDay) {
+		int index = indexOf(epochDay);
+		return index < entries.length && getEpochDay(index) == epochDay;
+	}
+
+	/**
+	 * Shows if the table contains the holiday.
+	 *
+	 * @param holiday
+	 *            the holiday
+	 * @return is contained
+	 */
+	public boolean contains(final Holiday holiday) {
+		HolidayDescriptor descriptor = holiday.getDescriptor();
+		int id = descriptor.getId();
+		if (id < 0) {
+			int index = Arrays.asList(descriptors).indexOf(descriptor);
+			if (index < 0) {
+				return false;
+			}
+			id = -index - 1;
+		}
+		return Arrays.binarySearch(entries, toEntry(holiday.getEpochDay(), id)) >= 0;
+	}
+
+	/**
+	 * Returns a modifiable set of the holidays. The holidays are created while
+	 * iterating, the set only copies them on the first modification.
+	 *
+	 * @return the set of holidays
+	 */
+	public Set<Holiday> toSet() {
+		return new HolidaySet(this);
+	}
+
+	private static long toEntry(int epochDay, int id) {
+		return ((long) epochDay << 32) | (id & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Collects the holidays of a table. A builder is not thread safe.
+	 */
+	public static final class Builder {
+
+		private final ResourceUtil resourceUtil;
+		private long[] entries = new long[16];
+		private int size;
+		private List<HolidayDescriptor> descriptors;
+
+		/**
+		 * Creates a builder of a table whose holidays read their descriptions
+		 * through their descriptors.
+		 */
+		public Builder() {
+			this(null);
+		}
+
+		/**
+		 * @param resourceUtil
+		 *            reads the descriptions of the holidays created by the
+		 *            table or <code>null</code> to read them through their
+		 *            descriptors
+		 */
+		public Builder(final ResourceUtil resourceUtil) {
+			this.resourceUtil = resourceUtil;
+		}
+
+		/**
+		 * Adds a holiday.
+		 *
+		 * @param epochDay
+		 *            the date as days since 1970-01-01
+		 * @param descriptor
+		 *            the properties key and type of the holiday
+		 * @return this builder
+		 */
+		public Builder add(int epochDay, final HolidayDescriptor descriptor) {
+			if (size == entries.length) {
+				entries = Arrays.copyOf(entries, size * 2);
+			}
+			int id = descriptor.getId();
+			if (id < 0) {
+				if (descriptors == null) {
+					descriptors = new ArrayList<HolidayDescriptor>();
+				}
+				int index = descriptors.indexOf(descriptor);
+				if (index < 0) {
+					index = descriptors.size();
+					descriptors.add(descriptor);
+				}
+				id = -index - 1;
+			}
+			entries[size++] = toEntry(epochDay, id);
+			return this;
+		}
+
+		/**
+		 * @return the table of the holidays added
+		 */
+		public HolidayTable build() {
+			if (size == 0) {
+				return resourceUtil == null ? EMPTY : new HolidayTable(EMPTY.entries, NO_DESCRIPTORS, resourceUtil);
+			}
+			long[] sorted = Arrays.copyOf(entries, size);
+			Arrays.sort(sorted);
+			int unique = 1;
+			for (int i = 1; i < sorted.length; i++) {
+				if (sorted[i] != sorted[unique - 1]) {
+					sorted[unique++] = sorted[i];
+				}
+			}
+			return new HolidayTable(unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique),
+					descriptors == null ? NO_DESCRIPTORS : descriptors.toArray(new HolidayDescriptor[descriptors.size()]),
+					resourceUtil);
+		}
+
+	}
+
+	/**
+	 * Set view of a table which switches to a copy of the holidays when it is
+	 * modified.
+	 */
+	private static final class HolidaySet extends AbstractSet<Holiday> {
+
+		private final HolidayTable table;
+		private Set<Holiday> copy;
+
+		HolidaySet(final HolidayTable table) {
+			this.table = table;
+		}
+
+		private Set<Holiday> modifiable() {
+			if (copy == null) {
+				copy = new HashSet<Holiday>(table.size() * 2);
+				for (int i = 0; i < table.size(); i++) {
+					copy.add(table.getHoliday(i));
+				}
+			}
+			return copy;
+		}
+
+		@Override
+		public int size() {
+			return copy == null ? table.size() : copy.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (copy != null) {
+				return copy.contains(o);
+			}
+			return o instanceof Holiday && table.contains((Holiday) o);
+		}
+
+		@Override
+		public boolean add(final Holiday h) {
+			return modifiable().add(h);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			return modifiable().remove(o);
+		}
+
+		@Override
+		public void clear() {
+			copy = new HashSet<Holiday>();
+		}
+
+		@Override
+		public Iterator<Holiday> iterator() {
+			if (copy != null) {
+				return copy.iterator();
+			}
+			return new Iterator<Holiday>() {
+				private int next;
+				private Holiday last;
+
+				@Override
+				public boolean hasNext() {
+					return next < table.size();
+				}
+
+				@Override
+				public Holiday next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					last = table.getHoliday(next++);
+					return last;
+				}
+
+				@Override
+				public void remove() {
+					if (last == null) {
+						throw new IllegalStateException();
+					}
+					modifiable().remove(last);
+					last = null;
+				}
+			};
+		}
+
+	}
+
+}
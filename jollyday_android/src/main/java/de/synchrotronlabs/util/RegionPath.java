@@ -0,0 +1,105 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Immutable, case insensitive path of a state/region within the hierarchy of
+ * a calendar, i.e. {'us', 'ny'}. Paths are compared element by element, so
+ * {'a/b'} and {'a', 'b'} are different paths.
+ *
+ * @version $Id: $
+ */
+public final class RegionPath {
+
+	/**
+	 * The path of the calendar itself.
+	 */
+	public static final RegionPath ROOT = new RegionPath(new String[0]);
+
+	private final String[] elements;
+	private final int hashCode;
+
+	private RegionPath(String[] elements) {
+		this.elements = elements;
+		this.hashCode = Arrays.hashCode(elements);
+	}
+
+	/**
+	 * Returns the path of the hierarchy. The elements are lower cased with
+	 * the english locale, so that the path does not depend on the locale of
+	 * the device, just like the case insensitive comparison of the
+	 * hierarchy ids. Every call creates a new path, callers querying the same
+	 * state/region repeatedly should resolve a
+	 * {@link de.synchrotronlabs.RegionHandle} once instead.
+	 *
+	 * @param hierarchy
+	 *            the hierarchy, i.e. {'us', 'ny'}
+	 * @return the lower case path
+	 */
+	public static RegionPath of(final String... hierarchy) {
+		if (hierarchy == null || hierarchy.length == 0) {
+			return ROOT;
+		}
+		String[] elements = new String[hierarchy.length];
+		for (int i = 0; i < hierarchy.length; i++) {
+			elements[i] = String.valueOf(hierarchy[i]).toLowerCase(Locale.ENGLISH);
+		}
+		return new RegionPath(elements);
+	}
+
+	/**
+	 * @return the number of elements, 0 for the calendar itself
+	 */
+	public int size() {
+		return elements.length;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (obj instanceof RegionPath) {
+			RegionPath other = (RegionPath) obj;
+			return other.hashCode == hashCode && Arrays.equals(other.elements, elements);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	/**
+	 * @return the elements separated by '/', i.e. 'us/ny'
+	 */
+	@Override
+	public String toString() {
+		StringBuilder path = new StringBuilder();
+		for (int i = 0; i < elements.length; i++) {
+			if (i > 0) {
+				path.append('/');
+			}
+			path.append(elements[i]);
+		}
+		return path.toString();
+	}
+
+}
@@ -15,14 +15,14 @@
  */
 package de.synchrotronlabs.util;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
-import java.util.Map;
-import java.util.ResourceBundle;
 import java.util.Set;
 
+import de.synchrotronlabs.description.DescriptionSource;
+import de.synchrotronlabs.description.DescriptionStore;
+import de.synchrotronlabs.description.internal.ClassLoaderDescriptionSource;
+
 /**
  * <p>
  * ResourceUtil class.
@@ -44,24 +44,86 @@ public class ResourceUtil {
 	/**
 	 * The prefix of the country description file.
 	 */
-	private static final String COUNTRY_DESCRIPTIONS_FILE_PREFIX = "descriptions.country_descriptions";
+	private static final String COUNTRY_DESCRIPTIONS_FILE_PREFIX = "descriptions/country_descriptions";
 	/**
 	 * The prefix of the holiday descriptions file.
 	 */
-	private static final String HOLIDAY_DESCRIPTIONS_FILE_PREFIX = "descriptions.holiday_descriptions";
+	private static final String HOLIDAY_DESCRIPTIONS_FILE_PREFIX = "descriptions/holiday_descriptions";
 	/**
 	 * Unknown constant will be returned when there is no description
 	 * configured.
 	 */
 	public static final String UNDEFINED = "undefined";
 	/**
-	 * Cache for the holiday descriptions resource bundles.
+	 * Index of the holiday descriptions shared by the instances created
+	 * without a source.
 	 */
-	private static final Map<Locale, ResourceBundle> HOLIDAY_DESCRIPTION_CACHE = new HashMap<Locale, ResourceBundle>();
+	private static volatile DescriptionStore holidayDescriptions;
 	/**
-	 * Cache for the country descriptions resource bundles.
+	 * Index of the country descriptions shared by the instances created
+	 * without a source.
 	 */
-	private final static Map<Locale, ResourceBundle> COUNTRY_DESCRIPTIONS_CACHE = new HashMap<Locale, ResourceBundle>();
+	private static volatile DescriptionStore countryDescriptions;
+
+	static {
+		useSource(new ClassLoaderDescriptionSource());
+	}
+
+	/**
+	 * Index of the holiday descriptions of this instance or <code>null</code>
+	 * to use the shared ones.
+	 */
+	private final DescriptionStore ownHolidayDescriptions;
+	/**
+	 * Index of the country descriptions of this instance or <code>null</code>
+	 * to use the shared ones.
+	 */
+	private final DescriptionStore ownCountryDescriptions;
+
+	/**
+	 * Reads the descriptions from the shared source, see
+	 * {@link #setDescriptionSource(DescriptionSource)}.
+	 */
+	public ResourceUtil() {
+		this.ownHolidayDescriptions = null;
+		this.ownCountryDescriptions = null;
+	}
+
+	/**
+	 * Reads the descriptions from the provided source.
+	 * 
+	 * @param source
+	 *            the source of the description files
+	 */
+	public ResourceUtil(final DescriptionSource source) {
+		this.ownHolidayDescriptions = new DescriptionStore(source, HOLIDAY_DESCRIPTIONS_FILE_PREFIX);
+		this.ownCountryDescriptions = new DescriptionStore(source, COUNTRY_DESCRIPTIONS_FILE_PREFIX);
+	}
+
+	/**
+	 * Sets the shared source to read the description files from. Instances
+	 * created with their own source are not affected. The descriptions read
+	 * so far are discarded.
+	 * 
+	 * @param source
+	 *            the source of the description files
+	 */
+	public static synchronized void setDescriptionSource(final DescriptionSource source) {
+		useSource(source);
+	}
+
+	private static void useSource(final DescriptionSource source) {
+		holidayDescriptions = new DescriptionStore(source, HOLIDAY_DESCRIPTIONS_FILE_PREFIX);
+		countryDescriptions = new DescriptionStore(source, COUNTRY_DESCRIPTIONS_FILE_PREFIX);
+	}
+
+	private DescriptionStore getHolidayDescriptions() {
+		return ownHolidayDescriptions == null ? holidayDescriptions : ownHolidayDescriptions;
+	}
+
+	private DescriptionStore getCountryDescriptions() {
+		return ownCountryDescriptions == null ? countryDescriptions : ownCountryDescriptions;
+	}
 
 	/**
 	 * The description read with the default locale.
@@ -84,7 +146,7 @@ public class ResourceUtil {
 	 *            a {@link java.lang.String} object.
 	 */
 	public String getHolidayDescription(Locale locale, String key) {
-		return getDescription(HOLIDAY_PROPERTY_PREFIX + "." + key, getHolidayDescriptions(locale));
+		return getDescription(HOLIDAY_PROPERTY_PREFIX + "." + key, locale, getHolidayDescriptions());
 	}
 
 	/**
@@ -111,7 +173,7 @@ public class ResourceUtil {
 	 */
 	public String getCountryDescription(Locale l, String key) {
 		if (key != null) {
-			return getDescription(COUNTRY_PROPERTY_PREFIX + "." + key.toLowerCase(), getCountryDescriptions(l));
+			return getDescription(COUNTRY_PROPERTY_PREFIX + "." + key.toLowerCase(), l, getCountryDescriptions());
 		}
 		return ResourceUtil.UNDEFINED;
 	}
@@ -123,8 +185,7 @@ public class ResourceUtil {
 	 */
 	public Set<String> getISOCodes() {
 		Set<String> codes = new HashSet<String>();
-		ResourceBundle countryDescriptions = getCountryDescriptions(Locale.getDefault());
-		for (String property : Collections.list(countryDescriptions.getKeys())) {
+		for (String property : getCountryDescriptions().getDescriptions(Locale.getDefault()).keySet()) {
 			String[] split = property.split("\\.");
 			if (split != null && split.length > 2) {
 				codes.add(split[2].toLowerCase());
@@ -134,59 +195,17 @@ public class ResourceUtil {
 	}
 
 	/**
-	 * Returns the description from the resource bundle if the key is contained.
-	 * It will return 'undefined' otherwise.
+	 * Returns the description from the store if the key is contained. It
+	 * will return 'undefined' otherwise.
 	 * 
 	 * @param key
-	 * @param bundle
+	 * @param locale
+	 * @param store
 	 * @return description
 	 */
-	private String getDescription(String key, final ResourceBundle bundle) {
-		if (!Collections.list(bundle.getKeys()).contains(key)) {
-			return UNDEFINED;
-		}
-		return bundle.getString(key);
-	}
-
-	/**
-	 * Returns the eventually cached ResourceBundle for the holiday
-	 * descriptions.
-	 * 
-	 * @param l
-	 *            Locale to retrieve the descriptions for.
-	 * @return ResourceBundle containing the descriptions for the locale.
-	 */
-	private ResourceBundle getHolidayDescriptions(Locale l) {
-		return getResourceBundle(l, HOLIDAY_DESCRIPTION_CACHE, HOLIDAY_DESCRIPTIONS_FILE_PREFIX);
-	}
-
-	/**
-	 * Returns the eventually cached ResourceBundle for the holiday
-	 * descriptions.
-	 * 
-	 * @param l
-	 *            Locale to retrieve the descriptions for.
-	 * @return ResourceBundle containing the descriptions for the locale.
-	 */
-	private ResourceBundle getCountryDescriptions(Locale l) {
-		return getResourceBundle(l, COUNTRY_DESCRIPTIONS_CACHE, COUNTRY_DESCRIPTIONS_FILE_PREFIX);
-	}
-
-	/**
-	 * Returns the eventually cached ResourceBundle for the descriptions.
-	 * 
-	 * @param l
-	 *            Locale to retrieve the descriptions for.
-	 * @return ResourceBundle containing the descriptions for the locale.
-	 */
-	private ResourceBundle getResourceBundle(Locale l, Map<Locale, ResourceBundle> resourceCache, String filePrefix) {
-		synchronized (resourceCache) {
-			if (!resourceCache.containsKey(l)) {
-				ResourceBundle bundle = ResourceBundle.getBundle(filePrefix, l, ResourceUtil.class.getClassLoader());
-				resourceCache.put(l, bundle);
-			}
-			return resourceCache.get(l);
-		}
+	private String getDescription(String key, Locale locale, final DescriptionStore store) {
+		String description = store.get(locale, key);
+		return description == null ? UNDEFINED : description;
 	}
 
 }
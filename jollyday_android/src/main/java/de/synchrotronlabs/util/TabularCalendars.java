@@ -0,0 +1,252 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import java.util.Arrays;
+
+/**
+ * Arithmetic conversion of the tabular islamic and the coptic calendar into
+ * epoch days (see {@link EpochDays}). The calculations are the same as the
+ * ones of Joda's <code>IslamicChronology</code> (civil epoch, 16 based leap
+ * years) and <code>CopticChronology</code>. The occurrences of a month/day
+ * within a gregorian year are cached for the whole process, so all managers
+ * share them.
+ *
+ * @version $Id: $
+ */
+public final class TabularCalendars {
+
+	/**
+	 * First gregorian year which lies completely after the start of the
+	 * islamic calendar.
+	 */
+	public static final int FIRST_ISLAMIC_GREGORIAN_YEAR = 623;
+	/**
+	 * First gregorian year which lies completely after the start of the
+	 * coptic calendar.
+	 */
+	public static final int FIRST_COPTIC_GREGORIAN_YEAR = 285;
+
+	/**
+	 * The 16th of july 622 within the julian calendar.
+	 */
+	private static final int ISLAMIC_EPOCH_DAY = EpochDays.ofJulian(622, 7, 16);
+	/**
+	 * Number of days within a cycle of 30 islamic years.
+	 */
+	private static final int ISLAMIC_CYCLE_DAYS = 10631;
+	/**
+	 * The 29th of august 284 within the julian calendar.
+	 */
+	private static final int COPTIC_EPOCH_DAY = EpochDays.ofJulian(284, 8, 29);
+	/**
+	 * Number of days within a cycle of 4 coptic years.
+	 */
+	private static final int COPTIC_CYCLE_DAYS = 1461;
+
+	private static final YearCache<int[]> OCCURRENCES = new YearCache<int[]>(4096);
+
+	private TabularCalendars() {
+	}
+
+	/**
+	 * Returns the epoch day of the islamic date. The date is not validated.
+	 *
+	 * @param year
+	 *            the islamic year, starting with 1
+	 * @param month
+	 *            the islamic month, 1 to 12
+	 * @param day
+	 *            the islamic day of the month
+	 * @return the epoch day
+	 */
+	public static int islamicToEpochDay(int year, int month, int day) {
+		int yearsBefore = year - 1;
+		return ISLAMIC_EPOCH_DAY + yearsBefore * 354 + (11 * yearsBefore + 14) / 30 + (59 * (month - 1) + 1) / 2
+				+ day - 1;
+	}
+
+	/**
+	 * @param epochDay
+	 *            an epoch day after the start of the islamic calendar
+	 * @return the islamic year of the epoch day
+	 */
+	public static int getIslamicYear(int epochDay) {
+		int year = (int) ((epochDay - (long) ISLAMIC_EPOCH_DAY) * 30 / ISLAMIC_CYCLE_DAYS) + 1;
+		while (islamicToEpochDay(year, 1, 1) > epochDay) {
+			year--;
+		}
+		while (islamicToEpochDay(year + 1, 1, 1) <= epochDay) {
+			year++;
+		}
+		return year;
+	}
+
+	/**
+	 * Shows if the islamic year has 355 days.
+	 *
+	 * @param year
+	 *            the islamic year
+	 * @return is leap year
+	 */
+	public static boolean isIslamicLeapYear(int year) {
+		return (11 * year + 14) % 30 < 11;
+	}
+
+	/**
+	 * @param year
+	 *            the islamic year
+	 * @param month
+	 *            the islamic month, 1 to 12
+	 * @return the number of days within the islamic month
+	 */
+	public static int getIslamicMonthLength(int year, int month) {
+		if (month == 12 && isIslamicLeapYear(year)) {
+			return 30;
+		}
+		return (month & 1) == 1 ? 30 : 29;
+	}
+
+	/**
+	 * Returns the epoch day of the coptic date. The date is not validated.
+	 *
+	 * @param year
+	 *            the coptic year, starting with 1
+	 * @param month
+	 *            the coptic month, 1 to 13
+	 * @param day
+	 *            the coptic day of the month
+	 * @return the epoch day
+	 */
+	public static int copticToEpochDay(int year, int month, int day) {
+		return COPTIC_EPOCH_DAY + 365 * (year - 1) + year / 4 + 30 * (month - 1) + day - 1;
+	}
+
+	/**
+	 * @param epochDay
+	 *            an epoch day after the start of the coptic calendar
+	 * @return the coptic year of the epoch day
+	 */
+	public static int getCopticYear(int epochDay) {
+		int year = (int) ((4L * (epochDay - COPTIC_EPOCH_DAY) + 1463) / COPTIC_CYCLE_DAYS);
+		while (copticToEpochDay(year, 1, 1) > epochDay) {
+			year--;
+		}
+		while (copticToEpochDay(year + 1, 1, 1) <= epochDay) {
+			year++;
+		}
+		return year;
+	}
+
+	/**
+	 * @param year
+	 *            the coptic year
+	 * @param month
+	 *            the coptic month, 1 to 13
+	 * @return the number of days within the coptic month
+	 */
+	public static int getCopticMonthLength(int year, int month) {
+		if (month < 13) {
+			return 30;
+		}
+		return (year & 3) == 3 ? 6 : 5;
+	}
+
+	/**
+	 * Returns the epoch days of all occurrences of the islamic month/day
+	 * within the gregorian year. The returned array is shared and must not be
+	 * modified.
+	 *
+	 * @param gregorianYear
+	 *            the gregorian year, at least
+	 *            {@link #FIRST_ISLAMIC_GREGORIAN_YEAR}
+	 * @param month
+	 *            the islamic month
+	 * @param day
+	 *            the islamic day of the month
+	 * @return the epoch days in ascending order
+	 * @throws IllegalArgumentException
+	 *             if the date does not exist within one of the islamic years
+	 *             overlapping the gregorian year
+	 */
+	public static int[] getIslamicEpochDays(int gregorianYear, int month, int day) {
+		if (gregorianYear < FIRST_ISLAMIC_GREGORIAN_YEAR) {
+			throw new IllegalArgumentException("Gregorian year " + gregorianYear + " is before the islamic calendar.");
+		}
+		RegionPath key = RegionPath.of("islamic", String.valueOf(month), String.valueOf(day));
+		int[] epochDays = OCCURRENCES.get(gregorianYear, key);
+		if (epochDays == null) {
+			int first = EpochDays.of(gregorianYear, 1, 1);
+			int last = EpochDays.of(gregorianYear, 12, 31);
+			int[] found = new int[2];
+			int count = 0;
+			for (int year = getIslamicYear(first); year <= getIslamicYear(last); year++) {
+				if (month < 1 || month > 12 || day < 1 || day > getIslamicMonthLength(year, month)) {
+					throw new IllegalArgumentException("Invalid islamic date " + year + "-" + month + "-" + day + ".");
+				}
+				int epochDay = islamicToEpochDay(year, month, day);
+				if (epochDay >= first && epochDay <= last) {
+					found[count++] = epochDay;
+				}
+			}
+			epochDays = OCCURRENCES.putIfAbsent(gregorianYear, key, Arrays.copyOf(found, count));
+		}
+		return epochDays;
+	}
+
+	/**
+	 * Returns the epoch days of all occurrences of the coptic month/day
+	 * within the gregorian year. The returned array is shared and must not be
+	 * modified.
+	 *
+	 * @param gregorianYear
+	 *            the gregorian year, at least
+	 *            {@link #FIRST_COPTIC_GREGORIAN_YEAR}
+	 * @param month
+	 *            the coptic month
+	 * @param day
+	 *            the coptic day of the month
+	 * @return the epoch days in ascending order
+	 * @throws IllegalArgumentException
+	 *             if the date does not exist within one of the coptic years
+	 *             overlapping the gregorian year
+	 */
+	public static int[] getCopticEpochDays(int gregorianYear, int month, int day) {
+		if (gregorianYear < FIRST_COPTIC_GREGORIAN_YEAR) {
+			throw new IllegalArgumentException("Gregorian year " + gregorianYear + " is before the coptic calendar.");
+		}
+		RegionPath key = RegionPath.of("coptic", String.valueOf(month), String.valueOf(day));
+		int[] epochDays = OCCURRENCES.get(gregorianYear, key);
+		if (epochDays == null) {
+			int first = EpochDays.of(gregorianYear, 1, 1);
+			int last = EpochDays.of(gregorianYear, 12, 31);
+			int[] found = new int[2];
+			int count = 0;
+			for (int year = getCopticYear(first); year <= getCopticYear(last); year++) {
+				if (month < 1 || month > 13 || day < 1 || day > getCopticMonthLength(year, month)) {
+					throw new IllegalArgumentException("Invalid coptic date " + year + "-" + month + "-" + day + ".");
+				}
+				int epochDay = copticToEpochDay(year, month, day);
+				if (epochDay >= first && epochDay <= last) {
+					found[count++] = epochDay;
+				}
+			}
+			epochDays = OCCURRENCES.putIfAbsent(gregorianYear, key, Arrays.copyOf(found, count));
+		}
+		return epochDays;
+	}
+
+}
@@ -0,0 +1,300 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe cache of values per year and region with a bounded size. Values
+ * may further be qualified by an object which is part of the key, so that
+ * the values of all qualifiers share one bound. The entries are distributed
+ * over up to 16 independently locked segments. The maximum size is split
+ * between the segments, so the cache never holds more than the maximum number
+ * of entries. Each segment evicts its own least recently used entry once it
+ * is full, so eviction is least recently used per segment and not across the
+ * whole cache. Caches of fewer than 16 entries use fewer segments.
+ *
+ * @param <V>
+ *            the type of the cached values
+ * @version $Id: $
+ */
+public final class YearCache<V> {
+
+	/**
+	 * Maximum number of independently locked segments, a power of two.
+	 */
+	private static final int MAX_SEGMENTS = 16;
+
+	private final Segment<V>[] segments;
+	private final int segmentMask;
+	private final int maximumSize;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Creates a cache holding at most the provided number of entries. The
+	 * number of segments is the largest power of two not exceeding 16 or the
+	 * maximum size, and every segment holds at least one entry.
+	 *
+	 * @param maximumSize
+	 *            the maximum number of cached entries
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public YearCache(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Cache size must be positive but was " + maximumSize + ".");
+		}
+		this.maximumSize = maximumSize;
+		int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maximumSize));
+		this.segments = new Segment[count];
+		this.segmentMask = count - 1;
+		for (int i = 0; i < count; i++) {
+			segments[i] = new Segment<V>(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Returns the cached value for the year of a cache which holds one value
+	 * per year only.
+	 *
+	 * @param year
+	 *            the year
+	 * @return the value or NULL if none is cached
+	 */
+	public V get(int year) {
+		return get(year, RegionPath.ROOT, null);
+	}
+
+	/**
+	 * Returns the cached value for year and region.
+	 *
+	 * @param year
+	 *            the year
+	 * @param region
+	 *            the path of the region
+	 * @return the value or NULL if none is cached
+	 */
+	public V get(int year, RegionPath region) {
+		return get(year, region, null);
+	}
+
+	/**
+	 * Returns the cached value for year, region and qualifier.
+	 *
+	 * @param year
+	 *            the year
+	 * @param region
+	 *            the path of the region
+	 * @param qualifier
+	 *            the qualifier, i.e. a filter, or NULL
+	 * @return the value or NULL if none is cached
+	 */
+	public V get(int year, RegionPath region, Object qualifier) {
+		Key key = new Key(year, region, qualifier);
+		Segment<V> segment = segmentFor(key);
+		V value;
+		synchronized (segment) {
+			value = segment.get(key);
+		}
+		(value == null ? misses : hits).incrementAndGet();
+		return value;
+	}
+
+	/**
+	 * Shows if there is a value cached for year and region without counting
+	 * a hit or miss.
+	 *
+	 * @param year
+	 *            the year
+	 * @param region
+	 *            the path of the region
+	 * @return a value is cached
+	 */
+	public boolean contains(int year, RegionPath region) {
+		Key key = new Key(year, region, null);
+		Segment<V> segment = segmentFor(key);
+		synchronized (segment) {
+			return segment.containsKey(key);
+		}
+	}
+
+	/**
+	 * Caches the value for the year unless there is already one cached. For
+	 * caches which hold one value per year only.
+	 *
+	 * @param year
+	 *            the year
+	 * @param value
+	 *            the value to cache
+	 * @return the value cached for the year after this call
+	 */
+	public V putIfAbsent(int year, V value) {
+		return putIfAbsent(year, RegionPath.ROOT, null, value);
+	}
+
+	/**
+	 * Caches the value for year and region unless there is already one cached.
+	 *
+	 * @param year
+	 *            the year
+	 * @param region
+	 *            the path of the region
+	 * @param value
+	 *            the value to cache
+	 * @return the value cached for year and region after this call
+	 */
+	public V putIfAbsent(int year, RegionPath region, V value) {
+		return putIfAbsent(year, region, null, value);
+	}
+
+	/**
+	 * Caches the value for year, region and qualifier unless there is already
+	 * one cached.
+	 *
+	 * @param year
+	 *            the year
+	 * @param region
+	 *            the path of the region
+	 * @param qualifier
+	 *            the qualifier, i.e. a filter, or NULL
+	 * @param value
+	 *            the value to cache
+	 * @return the value cached for year, region and qualifier after this call
+	 */
+	public V putIfAbsent(int year, RegionPath region, Object qualifier, V value) {
+		Key key = new Key(year, region, qualifier);
+		Segment<V> segment = segmentFor(key);
+		synchronized (segment) {
+			V existing = segment.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			segment.put(key, value);
+			return value;
+		}
+	}
+
+	/**
+	 * Removes all entries from the cache. The hit and miss counters are kept.
+	 */
+	public void clear() {
+		for (Segment<V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of currently cached entries
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment<V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the maximum number of cached entries
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * @return the number of lookups which found a cached value
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of lookups which did not find a cached value
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	private Segment<V> segmentFor(Key key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return segments[h & segmentMask];
+	}
+
+	/**
+	 * Composite key of year, region path and optional qualifier.
+	 */
+	private static final class Key {
+
+		private final int year;
+		private final RegionPath region;
+		private final Object qualifier;
+
+		Key(int year, RegionPath region, Object qualifier) {
+			this.year = year;
+			this.region = region;
+			this.qualifier = qualifier;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (obj instanceof Key) {
+				Key other = (Key) obj;
+				return other.year == year && other.region.equals(region)
+						&& (qualifier == null ? other.qualifier == null : qualifier.equals(other.qualifier));
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			int h = region.hashCode() * 31 + year;
+			return qualifier == null ? h : h * 31 + qualifier.hashCode();
+		}
+
+	}
+
+	/**
+	 * Access ordered map which evicts its eldest entry once it is full.
+	 */
+	private static final class Segment<V> extends LinkedHashMap<Key, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+
+		Segment(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+			return size() > capacity;
+		}
+
+	}
+
+}
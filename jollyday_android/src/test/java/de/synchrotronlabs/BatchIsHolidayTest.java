@@ -0,0 +1,187 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.joda.time.chrono.GJChronology;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares the batch queries {@link HolidayManager#isHoliday(int[], RegionHandle, boolean[])}
+ * and {@link HolidayManager#isHoliday(LocalDate[], RegionHandle, boolean[])}
+ * with {@link HolidayManager#getHolidays(int, String...)}.
+ *
+ * @version $Id: $
+ */
+public class BatchIsHolidayTest {
+
+	private static final LocalDate EPOCH = new LocalDate(1970, 1, 1);
+
+	private static HolidayManager manager;
+	private static RegionHandle region;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		manager = TestCalendars.load("de", "batch_is_holiday_test", null);
+		region = manager.resolve("nw");
+	}
+
+	private static int toEpochDay(LocalDate date) {
+		return Days.daysBetween(EPOCH, date).getDays();
+	}
+
+	private static void assertBatch(List<LocalDate> dates) {
+		int minYear = Integer.MAX_VALUE;
+		int maxYear = Integer.MIN_VALUE;
+		int[] epochDays = new int[dates.size()];
+		for (int i = 0; i < epochDays.length; i++) {
+			epochDays[i] = toEpochDay(dates.get(i));
+			minYear = Math.min(minYear, dates.get(i).getYear());
+			maxYear = Math.max(maxYear, dates.get(i).getYear());
+		}
+		boolean[] byEpochDay = new boolean[epochDays.length];
+		boolean[] byDate = new boolean[epochDays.length];
+		manager.isHoliday(epochDays, region, byEpochDay);
+		manager.isHoliday(dates.toArray(new LocalDate[dates.size()]), region, byDate);
+		for (int i = 0; i < epochDays.length; i++) {
+			LocalDate date = dates.get(i);
+			Set<LocalDate> holidays = TestCalendars.holidayDates(manager, date.getYear(), date.getYear(), "nw");
+			assertEquals(date.toString(), holidays.contains(date), byEpochDay[i]);
+			assertEquals(date.toString(), holidays.contains(date), byDate[i]);
+		}
+	}
+
+	@Test
+	public void testSortedDates() {
+		List<LocalDate> dates = new ArrayList<LocalDate>();
+		for (LocalDate d = new LocalDate(2010, 12, 1); d.getYear() < 2013; d = d.plusDays(1)) {
+			dates.add(d);
+		}
+		assertBatch(dates);
+	}
+
+	@Test
+	public void testUnsortedDatesWithDuplicates() {
+		List<LocalDate> dates = new ArrayList<LocalDate>();
+		for (LocalDate d = new LocalDate(2009, 12, 20); d.getYear() < 2011; d = d.plusDays(1)) {
+			dates.add(d);
+			dates.add(d);
+		}
+		Collections.shuffle(dates, new Random(42));
+		Collections.reverse(dates.subList(0, dates.size() / 2));
+		assertBatch(dates);
+	}
+
+	@Test
+	public void testDistantYears() {
+		List<LocalDate> dates = new ArrayList<LocalDate>();
+		dates.add(new LocalDate(6010, 12, 25));
+		dates.add(new LocalDate(1010, 12, 25));
+		dates.add(new LocalDate(6010, 12, 27));
+		dates.add(new LocalDate(1010, 1, 1));
+		assertBatch(dates);
+	}
+
+	@Test
+	public void testKnownDates() {
+		LocalDate[] dates = { new LocalDate(2011, 6, 23), new LocalDate(1969, 12, 25), new LocalDate(2011, 6, 24),
+				new LocalDate(1969, 12, 24), new LocalDate(2012, 2, 29), new LocalDate(2011, 11, 1) };
+		boolean[] expected = { true, true, false, false, false, true };
+		int[] epochDays = new int[dates.length];
+		for (int i = 0; i < dates.length; i++) {
+			epochDays[i] = toEpochDay(dates[i]);
+		}
+		boolean[] byEpochDay = new boolean[dates.length];
+		boolean[] byDate = new boolean[dates.length];
+		manager.isHoliday(epochDays, region, byEpochDay);
+		manager.isHoliday(dates, region, byDate);
+		for (int i = 0; i < dates.length; i++) {
+			assertEquals(dates[i].toString(), expected[i], byEpochDay[i]);
+			assertEquals(dates[i].toString(), expected[i], byDate[i]);
+		}
+	}
+
+	@Test
+	public void testHolidaysPushedIntoNextYear() throws Exception {
+		HolidayManager substitutes = TestCalendars.loadSubstitutes("batch_is_holiday_test_substitutes");
+		RegionHandle root = substitutes.resolve();
+		// 2012-01-02 is pushed from 2011, but dates are looked up in their own year
+		LocalDate first = new LocalDate(2011, 12, 29);
+		boolean[] expected = { false, true, true, true, false, false };
+		int[] epochDays = new int[expected.length];
+		LocalDate[] dates = new LocalDate[expected.length];
+		for (int i = 0; i < expected.length; i++) {
+			dates[i] = first.plusDays(i);
+			epochDays[i] = toEpochDay(dates[i]);
+		}
+		boolean[] byEpochDay = new boolean[expected.length];
+		boolean[] byDate = new boolean[expected.length];
+		substitutes.isHoliday(epochDays, root, byEpochDay);
+		substitutes.isHoliday(dates, root, byDate);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(dates[i].toString(), expected[i], byEpochDay[i]);
+			assertEquals(dates[i].toString(), expected[i], byDate[i]);
+			assertEquals(dates[i].toString(), expected[i], substitutes.isHoliday(dates[i]));
+		}
+	}
+
+	@Test
+	public void testEmptyArrays() {
+		manager.isHoliday(new int[0], region, new boolean[0]);
+		manager.isHoliday(new LocalDate[0], region, new boolean[0]);
+	}
+
+	@Test
+	public void testLongerResultArray() {
+		boolean[] out = new boolean[3];
+		out[2] = true;
+		manager.isHoliday(new int[] { toEpochDay(new LocalDate(2011, 12, 25)), toEpochDay(new LocalDate(2011, 12, 28)) },
+				region, out);
+		assertTrue(out[0]);
+		assertFalse(out[1]);
+		assertTrue(out[2]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testShortResultArray() {
+		manager.isHoliday(new int[] { 1, 2 }, region, new boolean[1]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testShortResultArrayForDates() {
+		manager.isHoliday(new LocalDate[] { EPOCH }, region, new boolean[0]);
+	}
+
+	@Test
+	public void testOtherChronology() {
+		boolean[] out = new boolean[1];
+		manager.isHoliday(new LocalDate[] { new LocalDate(2011, 12, 25, GJChronology.getInstanceUTC()) }, region, out);
+		assertFalse(out[0]);
+	}
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.synchrotronlabs.postprocessor.impl.BridgingHolidayPostProcessor;
+
+/**
+ * Tests the japanese calendar with the bridging holidays stage, which makes
+ * a single day between two holidays a holiday.
+ *
+ * @version $Id: $
+ */
+public class BridgingHolidaysTest {
+
+	private static final String NAME = "bridging_holidays_test";
+
+	private static HolidayManager manager;
+	private static HolidayManager reference;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty("postprocessor.impl." + NAME,
+				"de.synchrotronlabs.postprocessor.impl.BridgingHolidayPostProcessor");
+		manager = TestCalendars.load("jp", NAME, properties);
+		reference = TestCalendars.load("jp", NAME + "_reference", null);
+	}
+
+	private static Set<LocalDate> bridgingDays(int year) {
+		Set<LocalDate> dates = new HashSet<LocalDate>();
+		for (Holiday h : manager.getHolidays(year)) {
+			if (BridgingHolidayPostProcessor.BRIDGING_HOLIDAY_PROPERTIES_KEY.equals(h.getPropertiesKey())) {
+				dates.add(h.getDate());
+			}
+		}
+		return dates;
+	}
+
+	@Test
+	public void testDayBetweenHolidays() {
+		// may 4th lies between constitution day and childrens day
+		LocalDate may4th = new LocalDate(2006, 5, 4);
+		assertFalse(reference.isHoliday(may4th));
+		assertEquals(1, bridgingDays(2006).size());
+		assertTrue(bridgingDays(2006).contains(may4th));
+		assertEquals(reference.getHolidays(2006).size() + 1, manager.getHolidays(2006).size());
+		assertTrue(manager.getHolidayTable(2006).toSet().containsAll(manager.getHolidays(2006)));
+	}
+
+	@Test
+	public void testDayWhichIsAHolidayAlready() {
+		// greenery day is on may 4th since 2007, the bridging holiday is added
+		// nevertheless
+		LocalDate may4th = new LocalDate(2011, 5, 4);
+		assertTrue(reference.isHoliday(may4th));
+		assertEquals(1, bridgingDays(2011).size());
+		assertTrue(bridgingDays(2011).contains(may4th));
+		assertEquals(TestCalendars.holidayDates(reference, 2011, 2011),
+				TestCalendars.holidayDates(manager, 2011, 2011));
+	}
+
+	@Test
+	public void testOnlyDaysBetweenHolidays() {
+		// no other holidays are exactly two days apart
+		for (int year = 1948; year <= 2050; year++) {
+			Set<LocalDate> expected = new HashSet<LocalDate>();
+			expected.add(new LocalDate(year, 5, 4));
+			assertEquals(String.valueOf(year), expected, bridgingDays(year));
+		}
+	}
+
+	@Test
+	public void testRange() {
+		LocalDate from = new LocalDate(2006, 5, 1);
+		LocalDate to = new LocalDate(2006, 5, 31);
+		Set<Holiday> holidays = manager.getHolidays(from, to);
+		assertEquals(3, holidays.size());
+		assertTrue(manager.isHoliday(new LocalDate(2006, 5, 4)));
+	}
+
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.LocalDate;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares the {@link BusinessCalendar} with business days derived from
+ * {@link HolidayManager#getHolidays(int, String...)}.
+ *
+ * @version $Id: $
+ */
+public class BusinessCalendarTest {
+
+	private static HolidayManager manager;
+	private static Set<LocalDate> holidays;
+	private static BusinessCalendar calendar;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		manager = TestCalendars.load("de", "business_calendar_test", null);
+		holidays = TestCalendars.holidayDates(manager, 2008, 2014, "by");
+		calendar = manager.getBusinessCalendar(manager.resolve("by"));
+	}
+
+	private static boolean isBusinessDay(LocalDate date) {
+		return !holidays.contains(date) && date.getDayOfWeek() != DateTimeConstants.SATURDAY
+				&& date.getDayOfWeek() != DateTimeConstants.SUNDAY;
+	}
+
+	private static LocalDate addBusinessDays(LocalDate date, int days) {
+		int step = days < 0 ? -1 : 1;
+		for (int remaining = Math.abs(days); remaining > 0;) {
+			date = date.plusDays(step);
+			if (isBusinessDay(date)) {
+				remaining--;
+			}
+		}
+		return date;
+	}
+
+	@Test
+	public void testIsBusinessDay() {
+		for (LocalDate d = new LocalDate(2009, 1, 1); d.getYear() < 2014; d = d.plusDays(1)) {
+			assertEquals(d.toString(), isBusinessDay(d), calendar.isBusinessDay(d));
+		}
+	}
+
+	@Test
+	public void testAddBusinessDaysAcrossYearEnd() {
+		for (LocalDate d = new LocalDate(2010, 12, 1); d.isBefore(new LocalDate(2011, 2, 1)); d = d.plusDays(1)) {
+			for (int days = -40; days <= 40; days++) {
+				assertEquals(d + " " + days, addBusinessDays(d, days), calendar.addBusinessDays(d, days));
+			}
+		}
+	}
+
+	@Test
+	public void testAddBusinessDaysOverSeveralYears() {
+		LocalDate date = new LocalDate(2010, 12, 24);
+		assertEquals(addBusinessDays(date, 600), calendar.addBusinessDays(date, 600));
+		assertEquals(addBusinessDays(date, -400), calendar.addBusinessDays(date, -400));
+	}
+
+	@Test
+	public void testAddZeroBusinessDays() {
+		LocalDate christmas = new LocalDate(2011, 12, 25);
+		assertEquals(christmas, calendar.addBusinessDays(christmas, 0));
+	}
+
+	@Test
+	public void testNextAndPreviousBusinessDay() {
+		assertEquals(new LocalDate(2011, 12, 27), calendar.nextBusinessDay(new LocalDate(2011, 12, 23)));
+		assertEquals(new LocalDate(2012, 1, 2), calendar.nextBusinessDay(new LocalDate(2011, 12, 30)));
+		assertEquals(new LocalDate(2011, 12, 30), calendar.previousBusinessDay(new LocalDate(2012, 1, 2)));
+		assertEquals(new LocalDate(2012, 1, 5), calendar.previousBusinessDay(new LocalDate(2012, 1, 9)));
+	}
+
+	@Test
+	public void testCountBusinessDays() {
+		LocalDate from = new LocalDate(2010, 11, 15);
+		for (LocalDate to = from.minusDays(60); to.isBefore(from.plusDays(120)); to = to.plusDays(1)) {
+			int expected = 0;
+			LocalDate lo = to.isBefore(from) ? to : from;
+			LocalDate hi = to.isBefore(from) ? from : to;
+			for (LocalDate d = lo; d.isBefore(hi); d = d.plusDays(1)) {
+				if (isBusinessDay(d)) {
+					expected++;
+				}
+			}
+			assertEquals(to.toString(), to.isBefore(from) ? -expected : expected, calendar.countBusinessDays(from, to));
+		}
+	}
+
+	@Test
+	public void testNthBusinessDayOfMonth() {
+		for (int month = 1; month <= 12; month++) {
+			List<LocalDate> days = new ArrayList<LocalDate>();
+			for (LocalDate d = new LocalDate(2011, month, 1); d.getMonthOfYear() == month; d = d.plusDays(1)) {
+				if (isBusinessDay(d)) {
+					days.add(d);
+				}
+			}
+			for (int n = 1; n <= days.size(); n++) {
+				assertEquals(days.get(n - 1), calendar.nthBusinessDayOfMonth(2011, month, n));
+				assertEquals(days.get(days.size() - n), calendar.nthBusinessDayOfMonth(2011, month, -n));
+			}
+			assertNull(calendar.nthBusinessDayOfMonth(2011, month, days.size() + 1));
+			assertNull(calendar.nthBusinessDayOfMonth(2011, month, -days.size() - 1));
+		}
+	}
+
+	@Test
+	public void testKnownBusinessDays() {
+		// epiphany is a holiday in Bavaria only
+		assertFalse(calendar.isBusinessDay(new LocalDate(2011, 1, 6)));
+		assertTrue(manager.getBusinessCalendar(manager.resolve("nw")).isBusinessDay(new LocalDate(2011, 1, 6)));
+		// from maundy thursday over good friday, the weekend and easter monday
+		assertEquals(new LocalDate(2011, 4, 26), calendar.addBusinessDays(new LocalDate(2011, 4, 21), 1));
+		assertEquals(new LocalDate(2011, 4, 21), calendar.addBusinessDays(new LocalDate(2011, 4, 26), -1));
+		assertEquals(1, calendar.countBusinessDays(new LocalDate(2011, 4, 21), new LocalDate(2011, 4, 26)));
+	}
+
+	@Test
+	public void testYearsOfDifferentLength() {
+		// 260 weekdays in 2011 of which 9 are holidays in Bavaria
+		assertEquals(251, calendar.countBusinessDays(new LocalDate(2011, 1, 1), new LocalDate(2012, 1, 1)));
+		// 261 weekdays in the leap year 2012 of which 11 are holidays
+		assertEquals(250, calendar.countBusinessDays(new LocalDate(2012, 1, 1), new LocalDate(2013, 1, 1)));
+		assertEquals(-501, calendar.countBusinessDays(new LocalDate(2013, 1, 1), new LocalDate(2011, 1, 1)));
+		// the 366th day of 2012 is a monday
+		LocalDate lastDay = new LocalDate(2012, 12, 31);
+		assertTrue(calendar.isBusinessDay(lastDay));
+		assertEquals(lastDay, calendar.nthBusinessDayOfMonth(2012, 12, -1));
+		assertEquals(lastDay, calendar.addBusinessDays(new LocalDate(2012, 12, 28), 1));
+		assertEquals(new LocalDate(2013, 1, 2), calendar.addBusinessDays(lastDay, 1));
+		assertEquals(new LocalDate(2012, 2, 29), calendar.nthBusinessDayOfMonth(2012, 2, -1));
+		assertEquals(new LocalDate(2011, 2, 28), calendar.nthBusinessDayOfMonth(2011, 2, -1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testZerothBusinessDayOfMonth() {
+		calendar.nthBusinessDayOfMonth(2011, 1, 0);
+	}
+
+	@Test
+	public void testCustomWeekend() {
+		BusinessCalendar fridayOff = manager.getBusinessCalendar(manager.resolve("by"), DateTimeConstants.FRIDAY);
+		LocalDate thursday = new LocalDate(2011, 12, 29);
+		assertEquals(new LocalDate(2011, 12, 31), fridayOff.nextBusinessDay(thursday));
+		assertEquals(new LocalDate(2012, 1, 2), fridayOff.addBusinessDays(thursday, 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWeekendWithoutBusinessDays() {
+		manager.getBusinessCalendar(manager.resolve("by"), 1, 2, 3, 4, 5, 6, 7);
+	}
+
+}
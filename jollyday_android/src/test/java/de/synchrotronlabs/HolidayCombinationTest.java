@@ -0,0 +1,167 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares {@link HolidayCombination} with set operations on the holidays of
+ * {@link HolidayManager#getHolidays(int, String...)}.
+ *
+ * @version $Id: $
+ */
+public class HolidayCombinationTest {
+
+	private static final LocalDate FROM = new LocalDate(2010, 1, 1);
+	private static final LocalDate TO = new LocalDate(2012, 12, 31);
+
+	private static HolidayManager germany;
+	private static HolidayManager austria;
+	private static Set<LocalDate> bavaria;
+	private static Set<LocalDate> northRhineWestphalia;
+	private static Set<LocalDate> vienna;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		germany = TestCalendars.load("de", "holiday_combination_test_de", null);
+		austria = TestCalendars.load("at", "holiday_combination_test_at", null);
+		bavaria = TestCalendars.holidayDates(germany, 2009, 2013, "by");
+		northRhineWestphalia = TestCalendars.holidayDates(germany, 2009, 2013, "nw");
+		vienna = TestCalendars.holidayDates(austria, 2009, 2013, "w");
+	}
+
+	private static void assertCombination(Set<LocalDate> expected, HolidayCombination combination) {
+		List<LocalDate> dates = new ArrayList<LocalDate>();
+		for (LocalDate d = FROM; !d.isAfter(TO); d = d.plusDays(1)) {
+			assertEquals(d.toString(), expected.contains(d), combination.isHoliday(d));
+			assertEquals(d.toString(), expected.contains(d),
+					combination.isHoliday(d.getYear(), d.getMonthOfYear(), d.getDayOfMonth()));
+			if (expected.contains(d)) {
+				dates.add(d);
+			}
+		}
+		assertEquals(dates, combination.getHolidayDates(FROM, TO));
+		assertEquals(dates.size(), combination.countHolidays(FROM, TO));
+	}
+
+	@Test
+	public void testUnion() {
+		Set<LocalDate> expected = new HashSet<LocalDate>(bavaria);
+		expected.addAll(northRhineWestphalia);
+		expected.addAll(vienna);
+		assertCombination(expected,
+				HolidayCombination.union(germany.resolve("by"), germany.resolve("nw"), austria.resolve("w")));
+	}
+
+	@Test
+	public void testIntersection() {
+		Set<LocalDate> expected = new HashSet<LocalDate>(bavaria);
+		expected.retainAll(vienna);
+		assertCombination(expected, HolidayCombination.intersection(germany.resolve("by"), austria.resolve("w")));
+	}
+
+	@Test
+	public void testDifference() {
+		Set<LocalDate> expected = new HashSet<LocalDate>(bavaria);
+		expected.removeAll(northRhineWestphalia);
+		expected.removeAll(vienna);
+		assertCombination(expected,
+				HolidayCombination.difference(germany.resolve("by"), germany.resolve("nw"), austria.resolve("w")));
+	}
+
+	@Test
+	public void testNestedCombination() {
+		Set<LocalDate> expected = new HashSet<LocalDate>(bavaria);
+		expected.addAll(northRhineWestphalia);
+		expected.removeAll(vienna);
+		HolidayCombination germanStates = HolidayCombination.union(germany.resolve("by"), germany.resolve("nw"));
+		assertCombination(expected, HolidayCombination.difference(germanStates, austria.resolve("w")));
+	}
+
+	@Test
+	public void testRangeAcrossYearEnd() {
+		HolidayCombination combination = HolidayCombination.union(germany.resolve("by"), austria.resolve("w"));
+		for (LocalDate from = new LocalDate(2010, 12, 20); from.isBefore(new LocalDate(2011, 1, 10)); from = from
+				.plusDays(1)) {
+			for (LocalDate to = from; to.isBefore(new LocalDate(2011, 1, 10)); to = to.plusDays(1)) {
+				int count = 0;
+				for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+					if (bavaria.contains(d) || vienna.contains(d)) {
+						count++;
+					}
+				}
+				assertEquals(from + " - " + to, count, combination.countHolidays(from, to));
+				assertEquals(from + " - " + to, count, combination.getHolidayDates(from, to).size());
+			}
+		}
+	}
+
+	@Test
+	public void testBusinessCalendar() {
+		BusinessCalendar calendar = HolidayCombination.union(germany.resolve("by"), austria.resolve("w"))
+				.getBusinessCalendar();
+		// 2010-12-08 is a holiday in Austria only
+		assertEquals(new LocalDate(2010, 12, 9), calendar.nextBusinessDay(new LocalDate(2010, 12, 7)));
+		assertEquals(new LocalDate(2011, 1, 3), calendar.nextBusinessDay(new LocalDate(2010, 12, 31)));
+	}
+
+	@Test
+	public void testYearsOfDifferentLength() throws Exception {
+		HolidaySource substitutes = TestCalendars.loadSubstitutes("holiday_combination_test_substitutes").resolve();
+		HolidayCombination union = HolidayCombination.union(substitutes, germany.resolve("by"));
+		// 14 Bavarian holidays plus december 30th and 31st, in 2011 and the leap year 2012
+		assertEquals(16, union.countHolidays(new LocalDate(2011, 1, 1), new LocalDate(2011, 12, 31)));
+		assertEquals(16, union.countHolidays(new LocalDate(2012, 1, 1), new LocalDate(2012, 12, 31)));
+		assertEquals(32, union.countHolidays(new LocalDate(2011, 1, 1), new LocalDate(2012, 12, 31)));
+		// december 31st is day 365 in 2011 and day 366 in 2012
+		assertEquals(Arrays.asList(new LocalDate(2011, 12, 30), new LocalDate(2011, 12, 31), new LocalDate(2012, 1, 1)),
+				union.getHolidayDates(new LocalDate(2011, 12, 27), new LocalDate(2012, 1, 5)));
+		assertEquals(Arrays.asList(new LocalDate(2012, 12, 30), new LocalDate(2012, 12, 31), new LocalDate(2013, 1, 1)),
+				union.getHolidayDates(new LocalDate(2012, 12, 27), new LocalDate(2013, 1, 5)));
+		assertEquals(1, union.countHolidays(new LocalDate(2012, 12, 31), new LocalDate(2012, 12, 31)));
+		HolidayCombination difference = HolidayCombination.difference(substitutes, germany.resolve("by"));
+		assertEquals(Arrays.asList(new LocalDate(2011, 12, 30), new LocalDate(2011, 12, 31), new LocalDate(2012, 12, 30),
+				new LocalDate(2012, 12, 31)), difference.getHolidayDates(new LocalDate(2011, 6, 1), new LocalDate(2013, 6, 1)));
+		assertEquals(Arrays.asList(new LocalDate(2012, 1, 1)), HolidayCombination.intersection(substitutes,
+				germany.resolve("by")).getHolidayDates(new LocalDate(2011, 6, 1), new LocalDate(2012, 6, 1)));
+	}
+
+	@Test
+	public void testPushedHolidaysStayInTheirYear() throws Exception {
+		HolidayCombination combination = HolidayCombination.union(TestCalendars.loadSubstitutes(
+				"holiday_combination_test_substitutes").resolve());
+		// 2012-01-02 is pushed from 2011 but is no holiday of 2012
+		assertFalse(combination.isHoliday(new LocalDate(2012, 1, 2)));
+		assertEquals(3, combination.countHolidays(new LocalDate(2012, 1, 1), new LocalDate(2012, 12, 31)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEndBeforeStart() {
+		HolidayCombination.union(germany.resolve("by")).countHolidays(TO, FROM);
+	}
+
+}
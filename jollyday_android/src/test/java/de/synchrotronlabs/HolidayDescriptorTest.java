@@ -0,0 +1,103 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import de.synchrotronlabs.holidaytype.LocalizedHolidayType;
+import de.synchrotronlabs.util.HolidayTable;
+
+/**
+ * Tests the interning of the {@link HolidayDescriptor}s and the holidays with
+ * descriptors which are not interned.
+ *
+ * @version $Id: $
+ */
+public class HolidayDescriptorTest {
+
+	private static final HolidayType TYPE = LocalizedHolidayType.OFFICIAL_HOLIDAY;
+
+	@Test
+	public void testCompiledKeysAreInterned() {
+		HolidayDescriptor descriptor = HolidayDescriptor.valueOf("DESCRIPTOR_TEST_COMPILED", TYPE);
+		assertSame(descriptor, HolidayDescriptor.valueOf("DESCRIPTOR_TEST_COMPILED", TYPE));
+		assertSame(descriptor, HolidayDescriptor.valueOf(descriptor.getId()));
+		Holiday holiday = new Holiday(new LocalDate(2010, 1, 1), "DESCRIPTOR_TEST_COMPILED", TYPE);
+		assertSame(descriptor, holiday.getDescriptor());
+	}
+
+	@Test
+	public void testOtherKeysAreNotInterned() {
+		LocalDate date = new LocalDate(2010, 1, 1);
+		Holiday first = new Holiday(date, "DESCRIPTOR_TEST_CUSTOM", TYPE);
+		Holiday second = new Holiday(date, "DESCRIPTOR_TEST_CUSTOM", TYPE);
+		assertEquals(-1, first.getDescriptor().getId());
+		assertEquals(-1, second.getDescriptor().getId());
+		assertNotSame(first.getDescriptor(), second.getDescriptor());
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+		assertFalse(first.equals(new Holiday(date, "DESCRIPTOR_TEST_CUSTOM", LocalizedHolidayType.UNOFFICIAL_HOLIDAY)));
+		assertFalse(first.equals(new Holiday(date.plusDays(1), "DESCRIPTOR_TEST_CUSTOM", TYPE)));
+	}
+
+	@Test
+	public void testTableWithDescriptorsWhichAreNotInterned() {
+		HolidayDescriptor.valueOf("DESCRIPTOR_TEST_TABLE", TYPE);
+		LocalDate date = new LocalDate(2010, 5, 1);
+		Holiday interned = new Holiday(date, "DESCRIPTOR_TEST_TABLE", TYPE);
+		Holiday custom = new Holiday(date, "DESCRIPTOR_TEST_TABLE_CUSTOM", TYPE);
+		Holiday other = new Holiday(date.minusDays(1), "DESCRIPTOR_TEST_TABLE_OTHER", TYPE);
+		List<Holiday> holidays = new ArrayList<Holiday>(Arrays.asList(custom, interned, other));
+		holidays.add(new Holiday(date, "DESCRIPTOR_TEST_TABLE_CUSTOM", TYPE));
+		HolidayTable table = HolidayTable.create(holidays);
+		assertEquals(3, table.size());
+		assertEquals(other, table.getHoliday(0));
+		assertTrue(table.contains(interned));
+		assertTrue(table.contains(custom));
+		assertTrue(table.contains(new Holiday(date, "DESCRIPTOR_TEST_TABLE_CUSTOM", TYPE)));
+		assertFalse(table.contains(new Holiday(date, "DESCRIPTOR_TEST_TABLE_OTHER", TYPE)));
+		assertFalse(table.contains(new Holiday(date, "DESCRIPTOR_TEST_TABLE_UNKNOWN", TYPE)));
+		assertEquals(new HashSet<Holiday>(holidays), table.toSet());
+		assertEquals(table.toSet(), new HashSet<Holiday>(holidays));
+		for (int i = 0; i < table.size(); i++) {
+			assertEquals(i == 0 ? date.minusDays(1) : date, table.getHoliday(i).getDate());
+		}
+	}
+
+	@Test
+	public void testTableBeforeEpoch() {
+		Holiday custom = new Holiday(new LocalDate(1900, 1, 1), "DESCRIPTOR_TEST_EPOCH", TYPE);
+		Holiday later = new Holiday(new LocalDate(1900, 1, 2), "DESCRIPTOR_TEST_EPOCH", TYPE);
+		HolidayTable table = HolidayTable.create(Arrays.asList(later, custom));
+		assertEquals(custom, table.getHoliday(0));
+		assertEquals(later, table.getHoliday(1));
+		assertTrue(table.contains(custom.getEpochDay()));
+		assertEquals(1, table.indexOf(later.getEpochDay()));
+	}
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.synchrotronlabs.holidaytype.LocalizedHolidayType;
+
+/**
+ * Compares the filtered queries with filtering the result of
+ * {@link HolidayManager#getHolidays(int, String...)}, both for managers
+ * which only evaluate the accepted rules and for managers which filter after
+ * post processing.
+ *
+ * @version $Id: $
+ */
+public class HolidayFilterTest {
+
+	private static final HolidayFilter[] FILTERS = { HolidayFilter.OFFICIAL,
+			HolidayFilter.ofTypes(LocalizedHolidayType.UNOFFICIAL_HOLIDAY),
+			HolidayFilter.ofPropertiesKeys("CHRISTMAS", "NEW_YEAR", "SUBSTITUTE_HOLIDAY") };
+
+	private static HolidayManager belgium;
+	private static HolidayManager belgiumPostProcessed;
+	private static HolidayManager japan;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		belgium = TestCalendars.load("be", "holiday_filter_test_be", null);
+		Properties substitutes = new Properties();
+		substitutes.setProperty("postprocessor.impl.holiday_filter_test_be_substitutes",
+				"de.synchrotronlabs.postprocessor.impl.SubstituteCollisionPostProcessor");
+		belgiumPostProcessed = TestCalendars.load("be", "holiday_filter_test_be_substitutes", substitutes);
+		Properties japanese = new Properties();
+		japanese.setProperty("manager.impl", "de.synchrotronlabs.impl.XMLManagerJapan");
+		japan = TestCalendars.load("jp", "holiday_filter_test_jp", japanese);
+	}
+
+	private static void assertFiltered(HolidayManager manager) {
+		RegionHandle region = manager.resolve();
+		for (HolidayFilter filter : FILTERS) {
+			for (int year = 2005; year <= 2015; year++) {
+				Set<Holiday> expected = new HashSet<Holiday>();
+				for (Holiday h : manager.getHolidays(year)) {
+					if (filter.accepts(h)) {
+						expected.add(h);
+					}
+				}
+				assertEquals(filter + " " + year, expected, manager.getHolidays(year, filter));
+				assertEquals(filter + " " + year, expected, manager.getHolidays(year, filter, region));
+				assertEquals(filter + " " + year, expected, manager.getHolidayTable(year, filter, region).toSet());
+				Set<LocalDate> dates = new HashSet<LocalDate>();
+				for (Holiday h : expected) {
+					dates.add(h.getDate());
+				}
+				for (LocalDate d = new LocalDate(year, 1, 1); d.getYear() == year; d = d.plusDays(1)) {
+					assertEquals(filter + " " + d, dates.contains(d), manager.isHoliday(d, filter, region));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPushdown() {
+		assertFiltered(belgium);
+	}
+
+	@Test
+	public void testFilterAfterPostProcessing() {
+		assertFiltered(belgiumPostProcessed);
+		assertFiltered(japan);
+	}
+
+	@Test
+	public void testPostProcessedHolidaysAreFiltered() {
+		// the bridging holiday between constitution and children's day
+		LocalDate bridgingDay = new LocalDate(1988, 5, 4);
+		RegionHandle region = japan.resolve();
+		assertTrue(japan.isHoliday(bridgingDay, HolidayFilter.OFFICIAL, region));
+		assertTrue(japan.isHoliday(bridgingDay, HolidayFilter.ofPropertiesKeys("BRIDGING_HOLIDAY"), region));
+		assertFalse(japan.isHoliday(bridgingDay, HolidayFilter.ofPropertiesKeys("CONSTITUTION_DAY"), region));
+		// whit monday collides with pentecost monday and moves to the next day
+		LocalDate moved = new LocalDate(2010, 5, 25);
+		assertFalse(belgium.isHoliday(moved, HolidayFilter.OFFICIAL, belgium.resolve()));
+		assertTrue(belgiumPostProcessed.isHoliday(moved, HolidayFilter.OFFICIAL, belgiumPostProcessed.resolve()));
+	}
+
+	@Test
+	public void testKnownHolidays() {
+		Map<String, LocalDate> unofficial = new HashMap<String, LocalDate>();
+		for (Holiday h : belgium.getHolidays(2010,
+				HolidayFilter.ofTypes(LocalizedHolidayType.UNOFFICIAL_HOLIDAY))) {
+			unofficial.put(h.getPropertiesKey(), h.getDate());
+		}
+		assertEquals(3, unofficial.size());
+		assertEquals(new LocalDate(2010, 11, 2), unofficial.get("ALL_SOULS"));
+		assertEquals(new LocalDate(2010, 11, 15), unofficial.get("KINGS_FEAST"));
+		assertEquals(new LocalDate(2010, 12, 31), unofficial.get("NEW_YEARS_EVE"));
+		assertEquals(13, belgium.getHolidays(2010, HolidayFilter.OFFICIAL).size());
+		assertEquals(2, belgium.getHolidays(2010, HolidayFilter.ofPropertiesKeys("CHRISTMAS", "NEW_YEAR")).size());
+		assertTrue(belgium.getHolidays(2010, HolidayFilter.ofPropertiesKeys("UNKNOWN")).isEmpty());
+	}
+
+	@Test
+	public void testInterning() {
+		assertSame(HolidayFilter.ofPropertiesKeys("CHRISTMAS", "NEW_YEAR"),
+				HolidayFilter.ofPropertiesKeys("NEW_YEAR", "CHRISTMAS", "NEW_YEAR"));
+		assertSame(HolidayFilter.ofTypes(LocalizedHolidayType.OFFICIAL_HOLIDAY,
+				LocalizedHolidayType.UNOFFICIAL_HOLIDAY), HolidayFilter.ofTypes(
+				LocalizedHolidayType.UNOFFICIAL_HOLIDAY, LocalizedHolidayType.OFFICIAL_HOLIDAY));
+		// accepts the same holidays of belgium, but other types of holidays
+		// may be official as well
+		assertNotSame(HolidayFilter.OFFICIAL, HolidayFilter.ofTypes(LocalizedHolidayType.OFFICIAL_HOLIDAY));
+		assertEquals(belgium.getHolidays(2010, HolidayFilter.OFFICIAL),
+				belgium.getHolidays(2010, HolidayFilter.ofTypes(LocalizedHolidayType.OFFICIAL_HOLIDAY)));
+	}
+
+	@Test
+	public void testManyFiltersWithSmallCache() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty("manager.cache.size", "4");
+		HolidayManager manager = TestCalendars.load("be", "holiday_filter_test_be_small_cache", properties);
+		for (int n = 0; n < 200; n++) {
+			HolidayFilter filter = HolidayFilter.ofPropertiesKeys("CHRISTMAS", "KEY_" + n);
+			for (int year = 2009; year <= 2011; year++) {
+				Set<Holiday> holidays = manager.getHolidays(year, filter);
+				assertEquals(1, holidays.size());
+				assertEquals(new LocalDate(year, 12, 25), holidays.iterator().next().getDate());
+			}
+		}
+		assertEquals(13, manager.getHolidays(2010, HolidayFilter.OFFICIAL).size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingTypes() {
+		HolidayFilter.ofTypes();
+	}
+
+}
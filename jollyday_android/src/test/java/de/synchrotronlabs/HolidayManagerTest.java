@@ -0,0 +1,292 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.res.AssetManager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joda.time.LocalDate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.synchrotronlabs.impl.XMLManager;
+import de.synchrotronlabs.rule.PullParserConfigurationReaderTest;
+
+/**
+ * Tests the creation and caching of the managers by
+ * {@link HolidayManager#getInstance(String, Properties, AssetManager)} and
+ * their preloading.
+ *
+ * @version $Id: $
+ */
+public class HolidayManagerTest {
+
+	private static final int THREADS = 16;
+
+	private static final AtomicInteger INITS = new AtomicInteger();
+	private static final AtomicBoolean FAIL_NEXT_INIT = new AtomicBoolean();
+
+	/**
+	 * Reads the german calendar from the assets for every calendar name and
+	 * counts its initializations. There is no {@link AssetManager} on the
+	 * JVM.
+	 */
+	public static class CountingManager extends XMLManager {
+
+		@Override
+		public void init(String calendar, AssetManager am) {
+			INITS.incrementAndGet();
+			if (FAIL_NEXT_INIT.getAndSet(false)) {
+				throw new IllegalStateException("Cannot instantiate configuration.");
+			}
+			try {
+				// give the other threads the chance to ask for the manager
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			super.init(calendar, am);
+		}
+
+		@Override
+		protected InputStream openAsset(AssetManager am, String fileName) throws IOException {
+			return new FileInputStream(new File("src/main/assets/holidays/Holidays_de.xml"));
+		}
+
+	}
+
+	private boolean managerCachingEnabled;
+
+	@Before
+	public void setUp() {
+		managerCachingEnabled = HolidayManager.isManagerCachingEnabled();
+		HolidayManager.setManagerCachingEnabled(true);
+		INITS.set(0);
+		FAIL_NEXT_INIT.set(false);
+	}
+
+	@After
+	public void tearDown() {
+		HolidayManager.setManagerCachingEnabled(managerCachingEnabled);
+		HolidayManager.clearManagerCache();
+	}
+
+	private static Properties createProperties(String calendar) {
+		Properties properties = new Properties();
+		properties.setProperty("manager.impl." + calendar, CountingManager.class.getName());
+		properties.setProperty("configuration.reader.impl", "de.synchrotronlabs.impl.SimpleXmlConfigurationReader");
+		return properties;
+	}
+
+	@Test
+	public void testSingleCreationUnderConcurrentAccess() throws Exception {
+		final String calendar = "single_creation_test";
+		final Properties properties = createProperties(calendar);
+		final CountDownLatch started = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<HolidayManager>> managers = new ArrayList<Future<HolidayManager>>();
+			for (int i = 0; i < THREADS; i++) {
+				managers.add(executor.submit(new Callable<HolidayManager>() {
+					@Override
+					public HolidayManager call() throws Exception {
+						started.await();
+						return HolidayManager.getInstance(calendar, properties, null);
+					}
+				}));
+			}
+			started.countDown();
+			HolidayManager manager = managers.get(0).get();
+			for (Future<HolidayManager> f : managers) {
+				assertSame(manager, f.get());
+			}
+			assertEquals(1, INITS.get());
+			assertSame(manager, HolidayManager.getInstance(calendar, properties, null));
+			assertEquals(1, INITS.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testFailedCreationIsRetried() {
+		String calendar = "failed_creation_test";
+		Properties properties = createProperties(calendar);
+		FAIL_NEXT_INIT.set(true);
+		try {
+			HolidayManager.getInstance(calendar, properties, null);
+			fail("The creation must fail.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertEquals(1, INITS.get());
+		HolidayManager manager = HolidayManager.getInstance(calendar, properties, null);
+		assertEquals(2, INITS.get());
+		assertSame(manager, HolidayManager.getInstance(calendar, properties, null));
+		assertEquals(2, INITS.get());
+	}
+
+	@Test
+	public void testClearManagerCache() {
+		String calendar = "clear_cache_test";
+		Properties properties = createProperties(calendar);
+		HolidayManager manager = HolidayManager.getInstance(calendar, properties, null);
+		HolidayManager.clearManagerCache();
+		assertNotSame(manager, HolidayManager.getInstance(calendar, properties, null));
+		assertEquals(2, INITS.get());
+	}
+
+	@Test
+	public void testRegionHandleQueriesUseTheYearCache() {
+		String calendar = "region_handle_test";
+		Properties properties = createProperties(calendar);
+		properties.setProperty("manager.cache.size", "1");
+		HolidayManager manager = HolidayManager.getInstance(calendar, properties, null);
+		RegionHandle bavaria = manager.resolve("by");
+		assertEquals(bavaria, manager.resolve("BY"));
+		manager.cacheYears(2010, 2010, bavaria);
+		long misses = manager.getCacheMissCount();
+		long hits = manager.getCacheHitCount();
+		// epiphany is a holiday in bavaria
+		assertTrue(manager.isHoliday(2010, 1, 6, bavaria));
+		assertFalse(manager.isHoliday(2010, 1, 7, bavaria));
+		assertEquals(hits + 2, manager.getCacheHitCount());
+		assertEquals(misses, manager.getCacheMissCount());
+		// the single cached year is replaced, so 2010 is calculated again
+		manager.cacheYears(2011, 2011, bavaria);
+		assertTrue(manager.isHoliday(2010, 1, 6, bavaria));
+		assertEquals(misses + 1, manager.getCacheMissCount());
+	}
+
+	@Test
+	public void testLazyConfigurationGivesTheSameHolidays() {
+		Properties eager = createProperties("eager_test");
+		Properties lazy = createProperties("lazy_test");
+		lazy.setProperty("configuration.lazy", "true");
+		Properties lazyPullParser = createProperties("lazy_pull_parser_test");
+		lazyPullParser.setProperty("configuration.lazy", "true");
+		lazyPullParser.setProperty("configuration.reader.impl",
+				PullParserConfigurationReaderTest.KXmlConfigurationReader.class.getName());
+		HolidayManager expected = HolidayManager.getInstance("eager_test", eager, null);
+		for (HolidayManager manager : Arrays.asList(HolidayManager.getInstance("lazy_test", lazy, null),
+				HolidayManager.getInstance("lazy_pull_parser_test", lazyPullParser, null))) {
+			for (String[] region : new String[][] { {}, { "by" }, { "nw" }, { "sn" } }) {
+				for (int year = 2010; year <= 2012; year++) {
+					assertEquals(Arrays.toString(region) + " " + year, expected.getHolidays(year, region),
+							manager.getHolidays(year, region));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPreloadCachesTheYears() throws Exception {
+		String calendar = "preload_test";
+		String other = "preload_other_test";
+		Properties properties = createProperties(calendar);
+		properties.putAll(createProperties(other));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Map<String, Future<HolidayManager>> preloads = HolidayManager.preload(
+					Arrays.asList(calendar, other, calendar), 2000, 2020, executor, properties, null);
+			assertEquals(Arrays.asList(calendar, other), new ArrayList<String>(preloads.keySet()));
+			HolidayManager manager = preloads.get(calendar).get();
+			assertSame(manager, HolidayManager.getInstance(calendar, properties, null));
+			assertSame(preloads.get(other).get(), HolidayManager.getInstance(other, properties, null));
+			assertEquals(2, INITS.get());
+			long misses = manager.getCacheMissCount();
+			long hits = manager.getCacheHitCount();
+			for (int year = 2000; year <= 2020; year++) {
+				manager.isHoliday(new LocalDate(year, 5, 1));
+			}
+			assertEquals(misses, manager.getCacheMissCount());
+			assertEquals(hits + 21, manager.getCacheHitCount());
+			manager.isHoliday(new LocalDate(2021, 5, 1));
+			assertEquals(misses + 1, manager.getCacheMissCount());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testPreloadWithoutManagerCaching() throws Exception {
+		String calendar = "preload_uncached_test";
+		Properties properties = createProperties(calendar);
+		HolidayManager.setManagerCachingEnabled(false);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			HolidayManager manager = HolidayManager
+					.preload(Arrays.asList(calendar), 2010, 2012, executor, properties, null).get(calendar).get();
+			long misses = manager.getCacheMissCount();
+			manager.isHoliday(new LocalDate(2011, 1, 1));
+			assertEquals(misses, manager.getCacheMissCount());
+			assertNotSame(manager, HolidayManager.getInstance(calendar, properties, null));
+			assertEquals(2, INITS.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testPreloadOfFailedCreation() throws Exception {
+		String calendar = "preload_failed_test";
+		Properties properties = createProperties(calendar);
+		FAIL_NEXT_INIT.set(true);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<HolidayManager> preload = HolidayManager
+					.preload(Arrays.asList(calendar), 2010, 2012, executor, properties, null).get(calendar);
+			try {
+				preload.get();
+				fail("The preload must fail.");
+			} catch (ExecutionException e) {
+				assertSame(IllegalStateException.class, e.getCause().getClass());
+			}
+			// the failed creation is not cached
+			HolidayManager manager = HolidayManager.getInstance(calendar, properties, null);
+			assertEquals(2, INITS.get());
+			assertSame(manager, HolidayManager.getInstance(calendar, properties, null));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
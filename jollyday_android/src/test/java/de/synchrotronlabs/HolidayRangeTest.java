@@ -0,0 +1,151 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.joda.time.LocalDate;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares {@link HolidayManager#getHolidays(LocalDate, LocalDate, String...)}
+ * with the holidays of {@link HolidayManager#getHolidays(int, String...)}
+ * within the range.
+ *
+ * @version $Id: $
+ */
+public class HolidayRangeTest {
+
+	private static HolidayManager manager;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		manager = TestCalendars.load("de", "holiday_range_test", null);
+	}
+
+	private static Set<Holiday> getHolidays(LocalDate from, LocalDate to, String... args) {
+		Set<Holiday> holidays = new HashSet<Holiday>();
+		for (int year = from.getYear(); year <= to.getYear(); year++) {
+			for (Holiday h : manager.getHolidays(year, args)) {
+				if (!h.getDate().isBefore(from) && !h.getDate().isAfter(to)) {
+					holidays.add(h);
+				}
+			}
+		}
+		return holidays;
+	}
+
+	private static void assertRange(LocalDate from, LocalDate to, String... args) {
+		assertEquals(from + " - " + to, getHolidays(from, to, args), manager.getHolidays(from, to, args));
+	}
+
+	@Test
+	public void testRanges() {
+		LocalDate start = new LocalDate(2010, 12, 20);
+		for (int offset = 0; offset < 20; offset++) {
+			LocalDate from = start.plusDays(offset);
+			assertRange(from, from.plusDays(10));
+			assertRange(from, from.plusDays(400), "by");
+			assertRange(from, from.plusDays(1200), "nw");
+		}
+	}
+
+	@Test
+	public void testBoundsAreInclusive() {
+		LocalDate christmas = new LocalDate(2011, 12, 25);
+		LocalDate boxingDay = new LocalDate(2011, 12, 26);
+		assertEquals(1, manager.getHolidays(christmas, christmas).size());
+		assertEquals(2, manager.getHolidays(christmas, boxingDay).size());
+		assertEquals(1, manager.getHolidays(boxingDay, new LocalDate(2011, 12, 31)).size());
+		assertEquals(1, manager.getHolidays(new LocalDate(2011, 12, 20), christmas).size());
+		assertTrue(manager.getHolidays(new LocalDate(2011, 12, 27), new LocalDate(2011, 12, 31)).isEmpty());
+		assertRange(new LocalDate(2011, 12, 26), new LocalDate(2012, 1, 1));
+	}
+
+	private static Set<LocalDate> dates(Set<Holiday> holidays) {
+		Set<LocalDate> dates = new TreeSet<LocalDate>();
+		for (Holiday h : holidays) {
+			dates.add(h.getDate());
+		}
+		return dates;
+	}
+
+	@Test
+	public void testKnownYear() {
+		Set<LocalDate> expected = new TreeSet<LocalDate>();
+		expected.add(new LocalDate(2011, 1, 1));
+		expected.add(new LocalDate(2011, 4, 22));
+		expected.add(new LocalDate(2011, 4, 24));
+		expected.add(new LocalDate(2011, 4, 25));
+		expected.add(new LocalDate(2011, 5, 1));
+		expected.add(new LocalDate(2011, 6, 2));
+		expected.add(new LocalDate(2011, 6, 12));
+		expected.add(new LocalDate(2011, 6, 13));
+		expected.add(new LocalDate(2011, 10, 3));
+		expected.add(new LocalDate(2011, 12, 25));
+		expected.add(new LocalDate(2011, 12, 26));
+		assertEquals(expected, dates(manager.getHolidays(new LocalDate(2011, 1, 1), new LocalDate(2011, 12, 31))));
+		assertEquals(33, manager.getHolidays(new LocalDate(2010, 1, 1), new LocalDate(2012, 12, 31)).size());
+	}
+
+	@Test
+	public void testEasterWeekend() {
+		Set<LocalDate> expected = new TreeSet<LocalDate>();
+		expected.add(new LocalDate(2011, 4, 22));
+		expected.add(new LocalDate(2011, 4, 24));
+		expected.add(new LocalDate(2011, 4, 25));
+		assertEquals(expected, dates(manager.getHolidays(new LocalDate(2011, 4, 21), new LocalDate(2011, 4, 26))));
+		assertEquals(1, manager.getHolidays(new LocalDate(2011, 4, 23), new LocalDate(2011, 4, 24)).size());
+	}
+
+	@Test
+	public void testRangeWithoutHolidays() {
+		LocalDate day = new LocalDate(2011, 12, 27);
+		assertTrue(manager.getHolidays(day, day).isEmpty());
+		assertTrue(manager.getHolidays(new LocalDate(2011, 1, 2), new LocalDate(2011, 4, 21), "nw").isEmpty());
+		assertTrue(manager.getHolidays(new LocalDate(2011, 12, 27), new LocalDate(2011, 12, 31), "by").isEmpty());
+	}
+
+	@Test
+	public void testRangeWithinRegion() {
+		LocalDate from = new LocalDate(2011, 1, 6);
+		assertTrue(manager.getHolidays(from, from).isEmpty());
+		assertEquals(1, manager.getHolidays(from, from, "by").size());
+		assertEquals("EPIPHANY", manager.getHolidays(from, from, "by").iterator().next().getPropertiesKey());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEndBeforeStart() {
+		manager.getHolidays(new LocalDate(2011, 12, 26), new LocalDate(2011, 12, 25));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testReversedRangeOverYears() {
+		manager.getHolidays(new LocalDate(2012, 1, 1), new LocalDate(2011, 12, 31), "by");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingEnd() {
+		manager.getHolidays(new LocalDate(2011, 12, 26), null);
+	}
+
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Compares the queries of a manager with substitute holidays which are
+ * pushed into the next year with {@link HolidayManager#getHolidays(int, String...)}.
+ *
+ * @version $Id: $
+ */
+public class SubstituteHolidaysTest {
+
+	private static final String NAME = "substitute_holidays_test";
+	private static HolidayManager manager;
+	private static RegionHandle region;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		manager = TestCalendars.loadSubstitutes(NAME);
+		region = manager.resolve();
+	}
+
+	@Test
+	public void testCollisionsPushedIntoNextYear() {
+		Map<String, LocalDate> dates = new HashMap<String, LocalDate>();
+		for (Holiday h : manager.getHolidays(2011)) {
+			dates.put(h.getPropertiesKey(), h.getDate());
+		}
+		assertEquals(5, dates.size());
+		assertEquals(new LocalDate(2011, 1, 1), dates.get("NEW_YEAR"));
+		assertEquals(new LocalDate(2011, 12, 30), dates.get("DAY_A"));
+		assertEquals(new LocalDate(2012, 1, 1), dates.get("DAY_B"));
+		assertEquals(new LocalDate(2011, 12, 31), dates.get("DAY_C"));
+		assertEquals(new LocalDate(2012, 1, 2), dates.get("DAY_D"));
+	}
+
+	@Test
+	public void testHolidayTable() {
+		for (int year = 2010; year <= 2013; year++) {
+			assertEquals(manager.getHolidays(year), manager.getHolidayTable(year).toSet());
+			assertEquals(manager.getHolidays(year), manager.getHolidayTable(year, region).toSet());
+		}
+	}
+
+	@Test
+	public void testIsHolidayOnlySeesHolidaysOfTheDatesYear() {
+		for (LocalDate d = new LocalDate(2010, 12, 1); d.isBefore(new LocalDate(2013, 2, 1)); d = d.plusDays(1)) {
+			boolean expected = TestCalendars.holidayDates(manager, d.getYear(), d.getYear()).contains(d);
+			assertEquals(d.toString(), expected, manager.isHoliday(d));
+			assertEquals(d.toString(), expected, manager.isHoliday(d, region));
+			boolean[] out = new boolean[1];
+			manager.isHoliday(new LocalDate[] { d }, region, out);
+			assertEquals(d.toString(), expected, out[0]);
+		}
+		// pushed from 2011, but not a holiday of 2012
+		assertFalse(manager.isHoliday(new LocalDate(2012, 1, 2)));
+	}
+
+	@Test
+	public void testRangeIncludesPushedHolidays() {
+		LocalDate from = new LocalDate(2011, 12, 31);
+		LocalDate to = new LocalDate(2012, 1, 2);
+		Set<Holiday> expected = new HashSet<Holiday>();
+		for (int year = 2011; year <= 2012; year++) {
+			for (Holiday h : manager.getHolidays(year)) {
+				if (!h.getDate().isBefore(from) && !h.getDate().isAfter(to)) {
+					expected.add(h);
+				}
+			}
+		}
+		assertEquals(4, expected.size());
+		assertEquals(expected, manager.getHolidays(from, to));
+	}
+
+	@Test
+	public void testCollisionsOfBundledCalendar() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty("postprocessor.impl.substitute_holidays_test_be",
+				"de.synchrotronlabs.postprocessor.impl.SubstituteCollisionPostProcessor");
+		HolidayManager be = TestCalendars.load("be", "substitute_holidays_test_be", properties);
+		HolidayManager reference = TestCalendars.load("be", "substitute_holidays_test_be_reference", null);
+		Map<String, LocalDate> dates = new HashMap<String, LocalDate>();
+		for (Holiday h : be.getHolidays(2010)) {
+			dates.put(h.getPropertiesKey(), h.getDate());
+		}
+		assertEquals(reference.getHolidays(2010).size(), be.getHolidays(2010).size());
+		// both on whit monday, the first by properties key stays
+		assertEquals(new LocalDate(2010, 5, 24), dates.get("christian.PENTECOST_MONDAY"));
+		assertEquals(new LocalDate(2010, 5, 25), dates.get("christian.WHIT_MONDAY"));
+		assertTrue(be.isHoliday(new LocalDate(2010, 5, 25)));
+		assertFalse(reference.isHoliday(new LocalDate(2010, 5, 25)));
+		for (int year = 2009; year <= 2012; year++) {
+			assertEquals(TestCalendars.holidayDates(reference, year, year).size() + 1,
+					TestCalendars.holidayDates(be, year, year).size());
+		}
+	}
+
+	@Test
+	public void testWithoutCollisions() throws Exception {
+		Properties properties = new Properties();
+		properties.setProperty("postprocessor.impl.substitute_holidays_test_de",
+				"de.synchrotronlabs.postprocessor.impl.SubstituteCollisionPostProcessor");
+		HolidayManager de = TestCalendars.load("de", "substitute_holidays_test_de", properties);
+		HolidayManager reference = TestCalendars.load("de", "substitute_holidays_test_de_reference", null);
+		for (int year = 2009; year <= 2012; year++) {
+			assertEquals(reference.getHolidays(year), de.getHolidays(year));
+		}
+	}
+
+}
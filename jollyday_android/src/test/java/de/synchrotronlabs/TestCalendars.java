@@ -0,0 +1,145 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+
+/**
+ * Loads the calendars of the assets for the local unit tests and calculates
+ * the reference results through {@link HolidayManager#getHolidays(int, String...)}.
+ * The assets are read from the file system as there is no
+ * {@link android.content.res.AssetManager} on the JVM.
+ *
+ * @version $Id: $
+ */
+final class TestCalendars {
+
+	private static final File HOLIDAYS_DIR = new File("src/main/assets/holidays");
+	/**
+	 * Calendar with two holidays on each of december 30th and 31st. The
+	 * substitute post processor pushes the second holiday of each day into
+	 * the next year.
+	 */
+	private static final String SUBSTITUTES = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+			+ "<tns:Configuration hierarchy=\"xx\" description=\"Test\""
+			+ " xmlns:tns=\"http://www.example.org/Holiday\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://www.example.org/Holiday /Holiday.xsd\">\n"
+			+ "<tns:Holidays>\n"
+			+ "<tns:Fixed month=\"JANUARY\" day=\"1\" descriptionPropertiesKey=\"NEW_YEAR\"/>\n"
+			+ "<tns:Fixed month=\"DECEMBER\" day=\"30\" descriptionPropertiesKey=\"DAY_A\"/>\n"
+			+ "<tns:Fixed month=\"DECEMBER\" day=\"30\" descriptionPropertiesKey=\"DAY_B\"/>\n"
+			+ "<tns:Fixed month=\"DECEMBER\" day=\"31\" descriptionPropertiesKey=\"DAY_C\"/>\n"
+			+ "<tns:Fixed month=\"DECEMBER\" day=\"31\" descriptionPropertiesKey=\"DAY_D\"/>\n"
+			+ "</tns:Holidays>\n"
+			+ "</tns:Configuration>\n";
+
+	private TestCalendars() {
+	}
+
+	/**
+	 * Creates a manager for the calendar of the assets. The manager is cached
+	 * under the provided name, which must be unique for the properties.
+	 *
+	 * @param country
+	 *            the country of the calendar, i.e. 'de'
+	 * @param name
+	 *            the name the manager is created and cached for
+	 * @param properties
+	 *            additional configuration or <code>null</code>
+	 * @return the manager
+	 */
+	static HolidayManager load(final String country, final String name, final Properties properties)
+			throws IOException {
+		InputStream inputStream = new FileInputStream(new File(HOLIDAYS_DIR, "Holidays_" + country + ".xml"));
+		try {
+			return load(inputStream, name, properties);
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Creates a manager for the XML configuration. The manager is cached
+	 * under the provided name, which must be unique for the configuration.
+	 *
+	 * @param inputStream
+	 *            the XML configuration
+	 * @param name
+	 *            the name the manager is created and cached for
+	 * @param properties
+	 *            additional configuration or <code>null</code>
+	 * @return the manager
+	 */
+	static HolidayManager load(final InputStream inputStream, final String name, final Properties properties) {
+		Properties props = new Properties();
+		props.setProperty("configuration.reader.impl", "de.synchrotronlabs.impl.SimpleXmlConfigurationReader");
+		if (properties != null) {
+			props.putAll(properties);
+		}
+		return HolidayManager.getInstance(inputStream, name, props);
+	}
+
+	/**
+	 * Creates a manager for a calendar whose holidays of december 30th and
+	 * 31st collide and are partly pushed into the next year. In 2011 these
+	 * are 2011-12-30, 2011-12-31, 2012-01-01 and 2012-01-02.
+	 *
+	 * @param name
+	 *            the name the manager is created and cached for
+	 * @return the manager
+	 */
+	static HolidayManager loadSubstitutes(final String name) throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty("postprocessor.impl." + name,
+				"de.synchrotronlabs.postprocessor.impl.SubstituteCollisionPostProcessor");
+		return load(new ByteArrayInputStream(SUBSTITUTES.getBytes("UTF-8")), name, properties);
+	}
+
+	/**
+	 * Returns the holiday dates of the years.
+	 *
+	 * @param manager
+	 *            the manager
+	 * @param fromYear
+	 *            first year, inclusive
+	 * @param toYear
+	 *            last year, inclusive
+	 * @param args
+	 *            the hierarchy
+	 * @return the holiday dates
+	 */
+	static Set<LocalDate> holidayDates(final HolidayManager manager, int fromYear, int toYear,
+			final String... args) {
+		Set<LocalDate> dates = new HashSet<LocalDate>();
+		for (int year = fromYear; year <= toYear; year++) {
+			for (Holiday h : manager.getHolidays(year, args)) {
+				dates.add(h.getDate());
+			}
+		}
+		return dates;
+	}
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.configuration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the warnings of the {@link ConfigurationProviderManager} about
+ * configuration which is not supported anymore.
+ *
+ * @version $Id: $
+ */
+public class ConfigurationProviderManagerTest {
+
+	private final Logger logger = Logger.getLogger(ConfigurationProviderManager.class.getName());
+	private final List<LogRecord> records = new ArrayList<LogRecord>();
+	private final Handler handler = new Handler() {
+
+		@Override
+		public void publish(LogRecord record) {
+			records.add(record);
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+	};
+
+	@Before
+	public void setUp() {
+		logger.addHandler(handler);
+	}
+
+	@After
+	public void tearDown() {
+		logger.removeHandler(handler);
+	}
+
+	@Test
+	public void testDefaultConfigurationHasNoParsers() {
+		Properties properties = new ConfigurationProviderManager().getConfigurationProperties(null);
+		for (String key : properties.stringPropertyNames()) {
+			assertTrue(key, !key.startsWith("parser.impl."));
+		}
+		assertTrue(records.isEmpty());
+	}
+
+	@Test
+	public void testXmlManagerIsTheDefault() {
+		Properties properties = new ConfigurationProviderManager().getConfigurationProperties(null);
+		assertEquals("de.synchrotronlabs.impl.XMLManager", properties.getProperty("manager.impl"));
+	}
+
+	@Test
+	public void testWarnsAboutConfiguredParsers() {
+		Properties custom = new Properties();
+		custom.setProperty("parser.impl.de.jollyday.config.Fixed", "com.example.FixedParser");
+		custom.setProperty("manager.cache.size", "16");
+		Properties properties = new ConfigurationProviderManager().getConfigurationProperties(custom);
+		assertEquals("16", properties.getProperty("manager.cache.size"));
+		assertEquals(1, records.size());
+		assertEquals(Level.WARNING, records.get(0).getLevel());
+		assertTrue(records.get(0).getMessage(), records.get(0).getMessage().contains("com.example.FixedParser"));
+	}
+
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.res.AssetManager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.synchrotronlabs.HolidayManager;
+import de.synchrotronlabs.rule.RuleFile;
+
+/**
+ * Compares the {@link BinaryManager} reading the compiled calendars with the
+ * {@link XMLManager} reading the XML files. There is no
+ * {@link AssetManager} on the JVM, so both read the assets from the file
+ * system.
+ *
+ * @version $Id: $
+ */
+public class BinaryManagerTest {
+
+	private static final File ASSETS_DIR = new File("src/main/assets");
+	/**
+	 * Calendar whose compiled file is missing.
+	 */
+	private static final String MISSING = "be";
+	/**
+	 * Calendar whose compiled file is not a rule file.
+	 */
+	private static final String BROKEN = "nl";
+
+	private static File compiledDir;
+	private static boolean managerCachingEnabled;
+
+	/**
+	 * Reads the compiled files from the temporary directory and all other
+	 * files from the assets.
+	 */
+	static InputStream openFile(String fileName) throws IOException {
+		File compiled = new File(compiledDir, fileName);
+		if (fileName.endsWith(".bin")) {
+			return new FileInputStream(compiled);
+		}
+		return new FileInputStream(new File(ASSETS_DIR, fileName));
+	}
+
+	/**
+	 * Binary manager reading the files with {@link #openFile(String)}.
+	 */
+	public static class FileBinaryManager extends BinaryManager {
+
+		@Override
+		protected InputStream openAsset(AssetManager am, String fileName) throws IOException {
+			return openFile(fileName);
+		}
+
+	}
+
+	/**
+	 * XML manager reading the files with {@link #openFile(String)}.
+	 */
+	public static class FileXMLManager extends XMLManager {
+
+		@Override
+		protected InputStream openAsset(AssetManager am, String fileName) throws IOException {
+			return openFile(fileName);
+		}
+
+	}
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		compiledDir = File.createTempFile("binary_manager_test", "");
+		if (!compiledDir.delete() || !new File(compiledDir, "holidays").mkdirs()) {
+			throw new IOException("Cannot create " + compiledDir + ".");
+		}
+		for (String calendar : getCalendars()) {
+			if (calendar.equals(MISSING)) {
+				continue;
+			}
+			InputStream in = new FileInputStream(new File(ASSETS_DIR, XMLManager.getConfigurationFileName(calendar)));
+			OutputStream out = new FileOutputStream(new File(compiledDir, BinaryManager.getCompiledFileName(calendar)));
+			try {
+				if (calendar.equals(BROKEN)) {
+					out.write("<?xml version=\"1.0\"?>".getBytes("UTF-8"));
+				} else {
+					RuleFile.write(new SimpleXmlConfigurationReader().read(in), out);
+				}
+			} finally {
+				out.close();
+				in.close();
+			}
+		}
+		managerCachingEnabled = HolidayManager.isManagerCachingEnabled();
+		HolidayManager.setManagerCachingEnabled(false);
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		HolidayManager.setManagerCachingEnabled(managerCachingEnabled);
+		File holidays = new File(compiledDir, "holidays");
+		for (File file : holidays.listFiles()) {
+			file.delete();
+		}
+		holidays.delete();
+		compiledDir.delete();
+	}
+
+	private static List<String> getCalendars() {
+		List<String> calendars = new ArrayList<String>();
+		for (String name : new File(ASSETS_DIR, "holidays").list()) {
+			if (name.startsWith("Holidays_") && name.endsWith(".xml")) {
+				calendars.add(name.substring("Holidays_".length(), name.length() - ".xml".length()));
+			}
+		}
+		return calendars;
+	}
+
+	private static HolidayManager create(String calendar, Class<? extends HolidayManager> managerClass,
+			boolean lazy) {
+		Properties properties = new Properties();
+		properties.setProperty("manager.impl." + calendar, managerClass.getName());
+		properties.setProperty("configuration.reader.impl", SimpleXmlConfigurationReader.class.getName());
+		properties.setProperty("configuration.lazy", String.valueOf(lazy));
+		return HolidayManager.getInstance(calendar, properties, null);
+	}
+
+	private static void assertSameHolidays(String calendar, boolean lazy) {
+		HolidayManager expected = create(calendar, FileXMLManager.class, lazy);
+		HolidayManager actual = create(calendar, FileBinaryManager.class, lazy);
+		assertTrue(actual instanceof FileBinaryManager);
+		assertEquals(calendar, expected.getCalendarHierarchy().getChildren().keySet(),
+				actual.getCalendarHierarchy().getChildren().keySet());
+		for (int year = 2000; year <= 2020; year++) {
+			assertEquals(calendar + " " + year, expected.getHolidays(year), actual.getHolidays(year));
+			for (String region : expected.getCalendarHierarchy().getChildren().keySet()) {
+				assertEquals(calendar + "/" + region + " " + year, expected.getHolidays(year, region),
+						actual.getHolidays(year, region));
+			}
+		}
+	}
+
+	@Test
+	public void testCompiledCalendars() {
+		for (String calendar : getCalendars()) {
+			assertSameHolidays(calendar, false);
+		}
+	}
+
+	@Test
+	public void testLazyCompiledCalendars() {
+		for (String calendar : getCalendars()) {
+			assertSameHolidays(calendar, true);
+		}
+	}
+
+	@Test
+	public void testFallbackToXml() {
+		assertTrue(!new File(compiledDir, BinaryManager.getCompiledFileName(MISSING)).exists());
+		assertSameHolidays(MISSING, false);
+		assertSameHolidays(BROKEN, false);
+		assertSameHolidays(BROKEN, true);
+	}
+
+	@Test
+	public void testCompiledFileName() {
+		assertEquals("holidays/Holidays_de.bin", BinaryManager.getCompiledFileName("de"));
+	}
+
+}
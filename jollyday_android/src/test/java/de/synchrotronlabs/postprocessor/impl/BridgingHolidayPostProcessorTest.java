@@ -0,0 +1,83 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.postprocessor.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.synchrotronlabs.Holiday;
+import de.synchrotronlabs.HolidayDescriptor;
+import de.synchrotronlabs.holidaytype.LocalizedHolidayType;
+import de.synchrotronlabs.postprocessor.YearHolidays;
+
+/**
+ * Tests the days added by the {@link BridgingHolidayPostProcessor}.
+ *
+ * @version $Id: $
+ */
+public class BridgingHolidayPostProcessorTest {
+
+	private static String process(int... epochDays) {
+		List<Holiday> list = new ArrayList<Holiday>();
+		for (int i = 0; i < epochDays.length; i++) {
+			list.add(new Holiday(epochDays[i],
+					HolidayDescriptor.valueOf("H" + i, LocalizedHolidayType.OFFICIAL_HOLIDAY)));
+		}
+		YearHolidays yearHolidays = new YearHolidays(1970, list);
+		new BridgingHolidayPostProcessor().process(yearHolidays);
+		yearHolidays.apply();
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < yearHolidays.size(); i++) {
+			if (BridgingHolidayPostProcessor.BRIDGING_HOLIDAY_PROPERTIES_KEY
+					.equals(yearHolidays.getHoliday(i).getPropertiesKey())) {
+				result.append(yearHolidays.getEpochDay(i)).append(' ');
+			}
+		}
+		return result.toString().trim();
+	}
+
+	@Test
+	public void testDayBetweenHolidays() {
+		assertEquals("11", process(10, 12));
+		assertEquals("11 13", process(10, 12, 14));
+	}
+
+	@Test
+	public void testNoBridgeOverMoreDays() {
+		assertEquals("", process(10, 13));
+		assertEquals("", process(10, 11));
+	}
+
+	@Test
+	public void testHolidaysOnTheSameDay() {
+		assertEquals("11", process(10, 10, 12, 12));
+	}
+
+	@Test
+	public void testDayWhichIsAHolidayAlready() {
+		assertEquals("11", process(10, 11, 12));
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals("", process());
+	}
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.postprocessor.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.synchrotronlabs.Holiday;
+import de.synchrotronlabs.HolidayDescriptor;
+import de.synchrotronlabs.holidaytype.LocalizedHolidayType;
+import de.synchrotronlabs.postprocessor.YearHolidays;
+
+/**
+ * Tests the moves of the {@link SubstituteCollisionPostProcessor}.
+ *
+ * @version $Id: $
+ */
+public class SubstituteCollisionPostProcessorTest {
+
+	private static Holiday holiday(int epochDay, String propertiesKey) {
+		return new Holiday(epochDay, HolidayDescriptor.valueOf(propertiesKey, LocalizedHolidayType.OFFICIAL_HOLIDAY));
+	}
+
+	private static String process(Holiday... holidays) {
+		List<Holiday> list = new ArrayList<Holiday>();
+		for (Holiday h : holidays) {
+			list.add(h);
+		}
+		YearHolidays yearHolidays = new YearHolidays(1970, list);
+		new SubstituteCollisionPostProcessor().process(yearHolidays);
+		yearHolidays.apply();
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < yearHolidays.size(); i++) {
+			result.append(yearHolidays.getHoliday(i).getPropertiesKey()).append(yearHolidays.getEpochDay(i))
+					.append(' ');
+		}
+		return result.toString().trim();
+	}
+
+	@Test
+	public void testWithoutCollisions() {
+		assertEquals("A10 B11 C13", process(holiday(13, "C"), holiday(10, "A"), holiday(11, "B")));
+	}
+
+	@Test
+	public void testFirstByPropertiesKeyStays() {
+		assertEquals("A10 B11", process(holiday(10, "B"), holiday(10, "A")));
+	}
+
+	@Test
+	public void testMovedOverOccupiedDays() {
+		assertEquals("A10 D11 B12 E13 C14",
+				process(holiday(10, "A"), holiday(10, "B"), holiday(10, "C"), holiday(11, "D"), holiday(13, "E")));
+	}
+
+	@Test
+	public void testMovedHolidaysDoNotCollideWithEachOther() {
+		assertEquals("A10 C11 B12 D13",
+				process(holiday(10, "A"), holiday(10, "B"), holiday(11, "C"), holiday(11, "D")));
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals("", process());
+	}
+
+}
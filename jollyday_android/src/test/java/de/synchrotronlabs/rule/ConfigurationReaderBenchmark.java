@@ -0,0 +1,103 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import de.synchrotronlabs.impl.SimpleXmlConfigurationReader;
+
+/**
+ * Compares the parsing time and the allocations of the
+ * {@link ConfigurationReader}s on the JVM. Reads the portuguese calendar,
+ * the one with the most states/regions, unless another file is passed. Run
+ * with the test classpath:
+ *
+ * <pre>
+ * java de.synchrotronlabs.rule.ConfigurationReaderBenchmark [file] [iterations]
+ * </pre>
+ *
+ * The pull parser reader runs with kXML, which is the pull parser of the
+ * platform as well. Allocations are measured with the thread allocation
+ * counter of the JVM if it supports one.
+ *
+ * @version $Id: $
+ */
+public final class ConfigurationReaderBenchmark {
+
+	private static final File DEFAULT_FILE = new File("src/main/assets/holidays/Holidays_pt.xml");
+	private static final int DEFAULT_ITERATIONS = 50;
+
+	private ConfigurationReaderBenchmark() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		File file = args.length > 0 ? new File(args[0]) : DEFAULT_FILE;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+		byte[] xml = Files.readAllBytes(file.toPath());
+		System.out.println(file + ", " + xml.length + " bytes, " + iterations + " iterations");
+		ConfigurationReader[] readers = { new SimpleXmlConfigurationReader(),
+				new PullParserConfigurationReaderTest.KXmlConfigurationReader() };
+		for (ConfigurationReader reader : readers) {
+			// warm up
+			run(reader, xml, iterations);
+		}
+		for (ConfigurationReader reader : readers) {
+			long allocated = allocatedBytes();
+			long[] nanos = run(reader, xml, iterations);
+			allocated = allocatedBytes() - allocated;
+			Arrays.sort(nanos);
+			System.out.printf("%-40s median %8.2f ms, min %8.2f ms, %s%n", reader.getClass().getSimpleName(),
+					nanos[iterations / 2] / 1e6, nanos[0] / 1e6, allocated < 0 ? "allocations not measured"
+							: allocated / iterations / 1024 + " KiB allocated per read");
+		}
+	}
+
+	private static long[] run(ConfigurationReader reader, byte[] xml, int iterations) throws IOException {
+		long[] nanos = new long[iterations];
+		for (int i = 0; i < iterations; i++) {
+			long start = System.nanoTime();
+			RuleNode root = reader.read(new ByteArrayInputStream(xml));
+			nanos[i] = System.nanoTime() - start;
+			if (root.getChildCount() < 0) {
+				throw new IllegalStateException();
+			}
+		}
+		return nanos;
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread or -1 if the JVM does
+	 *         not count them
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		try {
+			Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes",
+					long.class);
+			return ((Long) method.invoke(bean, Thread.currentThread().getId())).longValue();
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+}
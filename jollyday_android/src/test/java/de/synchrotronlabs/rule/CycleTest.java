@@ -0,0 +1,99 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests every <code>every</code> value parsed by {@link Cycle}.
+ *
+ * @version $Id: $
+ */
+public class CycleTest {
+
+	@Test
+	public void testEveryYear() {
+		assertSame(Cycle.EVERY_YEAR, Cycle.valueOf(null));
+		assertSame(Cycle.EVERY_YEAR, Cycle.valueOf("EVERY_YEAR"));
+		for (int year = -10; year <= 10; year++) {
+			assertTrue(Cycle.EVERY_YEAR.matches(year, null));
+			assertTrue(Cycle.EVERY_YEAR.matches(year, 2000));
+		}
+	}
+
+	@Test
+	public void testOddAndEvenYears() {
+		Cycle odd = Cycle.valueOf("ODD_YEARS");
+		Cycle even = Cycle.valueOf("EVEN_YEARS");
+		for (int year = -11; year <= 2011; year++) {
+			boolean isOdd = year % 2 != 0;
+			assertEquals(String.valueOf(year), isOdd, odd.matches(year, null));
+			assertEquals(String.valueOf(year), !isOdd, even.matches(year, null));
+			// the first valid year does not shift odd and even years
+			assertEquals(String.valueOf(year), isOdd, odd.matches(year, 2000));
+			assertEquals(String.valueOf(year), !isOdd, even.matches(year, 1999));
+		}
+	}
+
+	@Test
+	public void testYearsCountedFromValidFrom() {
+		for (int years = 2; years <= 6; years++) {
+			Cycle cycle = Cycle.valueOf(years + "_YEARS");
+			assertEquals(years + "_YEARS", cycle.getName());
+			for (int year = 1990; year <= 2030; year++) {
+				String message = years + " " + year;
+				assertEquals(message, (year - 2001) % years == 0, cycle.matches(year, 2001));
+				// without a first valid year the cycle applies to every year
+				assertTrue(message, cycle.matches(year, null));
+			}
+		}
+	}
+
+	@Test
+	public void testKnownCycles() {
+		// every 4 years from 2008
+		Cycle cycle = Cycle.valueOf("4_YEARS");
+		assertTrue(cycle.matches(2008, 2008));
+		assertFalse(cycle.matches(2010, 2008));
+		assertTrue(cycle.matches(2012, 2008));
+		assertTrue(cycle.matches(2004, 2008));
+	}
+
+	@Test
+	public void testParsedOnce() {
+		assertSame(Cycle.valueOf("3_YEARS"), Cycle.valueOf("3_YEARS"));
+		assertSame(Cycle.valueOf("unknown"), Cycle.valueOf("unknown"));
+		assertTrue(Cycle.valueOf("5_years").matches(2005, 2000));
+		assertFalse(Cycle.valueOf("5_years").matches(2006, 2000));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownCycle() {
+		Cycle.valueOf("7_YEARS").matches(2011, 2000);
+	}
+
+	@Test
+	public void testUnknownCycleWithoutValidFrom() {
+		// like the other cycles counted from the first valid year it applies to every year
+		assertTrue(Cycle.valueOf("7_YEARS").matches(2011, null));
+	}
+
+}
@@ -0,0 +1,291 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+import org.kxml2.io.KXmlParser;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import de.synchrotronlabs.HolidayManager;
+import de.synchrotronlabs.impl.SimpleXmlConfigurationReader;
+
+/**
+ * Compares the rules read by the {@link PullParserConfigurationReader} with
+ * the rules read by the {@link SimpleXmlConfigurationReader}. The platform's
+ * pull parser is replaced by kXML on the JVM.
+ *
+ * @version $Id: $
+ */
+public class PullParserConfigurationReaderTest {
+
+	private static final File HOLIDAYS_DIR = new File("src/main/assets/holidays");
+
+	/**
+	 * Reader using kXML.
+	 */
+	public static class KXmlConfigurationReader extends PullParserConfigurationReader {
+
+		@Override
+		protected XmlPullParser newPullParser() {
+			return new KXmlParser();
+		}
+
+	}
+
+	private static RuleNode read(ConfigurationReader reader, File file) throws IOException {
+		return read(reader, file, false);
+	}
+
+	private static RuleNode read(ConfigurationReader reader, File file, boolean lazy) throws IOException {
+		InputStream stream = new FileInputStream(file);
+		try {
+			return reader.read(stream, lazy);
+		} finally {
+			stream.close();
+		}
+	}
+
+	private static RuleNode read(String xml) throws IOException {
+		return new KXmlConfigurationReader().read(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+	}
+
+	/**
+	 * Describes every column of the rule.
+	 */
+	private static String describe(RuleProgram p, int i) {
+		return p.kind[i] + " " + p.propertiesKey[i] + " " + p.type[i] + " " + p.validFrom[i] + " " + p.validTo[i]
+				+ " " + p.cycle[i] + " " + p.cycleModulus[i] + " " + p.cycleAnchor[i] + " " + p.month[i] + "-"
+				+ p.day[i] + " " + p.month2[i] + "-" + p.day2[i] + " " + p.weekday[i] + " " + p.weekday2[i] + " "
+				+ p.which[i] + " " + p.direction[i] + " " + p.offset[i] + " " + p.chronology[i] + " "
+				+ Arrays.toString(Arrays.copyOfRange(p.moving, p.movingStart[i], p.movingStart[i + 1]));
+	}
+
+	/**
+	 * Compares the trees ignoring the order of the rules, which the simple-xml
+	 * reader groups by their element.
+	 */
+	private static void assertSameRules(String message, RuleNode expected, RuleNode actual) {
+		message = message + "/" + expected.getHierarchy();
+		assertEquals(message, expected.getHierarchy(), actual.getHierarchy());
+		assertEquals(message, expected.getDescription(), actual.getDescription());
+		List<String> expectedRules = new ArrayList<String>();
+		for (int i = 0; i < expected.getProgram().size(); i++) {
+			expectedRules.add(describe(expected.getProgram(), i));
+		}
+		List<String> actualRules = new ArrayList<String>();
+		for (int i = 0; i < actual.getProgram().size(); i++) {
+			actualRules.add(describe(actual.getProgram(), i));
+		}
+		Collections.sort(expectedRules);
+		Collections.sort(actualRules);
+		assertEquals(message, expectedRules, actualRules);
+		assertEquals(message, expected.getChildCount(), actual.getChildCount());
+		for (int c = 0; c < expected.getChildCount(); c++) {
+			assertSameRules(message, expected.getChild(c), actual.getChild(c));
+		}
+	}
+
+	@Test
+	public void testBundledCalendars() throws IOException {
+		int count = 0;
+		for (File file : HOLIDAYS_DIR.listFiles()) {
+			if (!file.getName().startsWith("Holidays_") || !file.getName().endsWith(".xml")) {
+				continue;
+			}
+			assertSameRules(file.getName(), read(new SimpleXmlConfigurationReader(), file),
+					read(new KXmlConfigurationReader(), file));
+			count++;
+		}
+		assertTrue(count > 50);
+	}
+
+	private static HolidayManager createManager(String name, Class<? extends ConfigurationReader> readerClass)
+			throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty("configuration.reader.impl", readerClass.getName());
+		InputStream stream = new FileInputStream(new File(HOLIDAYS_DIR, "Holidays_de.xml"));
+		try {
+			return HolidayManager.getInstance(stream, name, properties);
+		} finally {
+			stream.close();
+		}
+	}
+
+	@Test
+	public void testConfiguredReader() throws IOException {
+		HolidayManager pullParser = createManager("pull_parser_test_pull", KXmlConfigurationReader.class);
+		HolidayManager simpleXml = createManager("pull_parser_test_simple", SimpleXmlConfigurationReader.class);
+		for (int year = 2000; year <= 2020; year++) {
+			assertEquals(String.valueOf(year), simpleXml.getHolidays(year), pullParser.getHolidays(year));
+			assertEquals(String.valueOf(year), simpleXml.getHolidays(year, "by"), pullParser.getHolidays(year, "by"));
+		}
+	}
+
+	@Test
+	public void testRulesKeepTheirOrder() throws IOException {
+		RuleNode root = read("<tns:Configuration hierarchy=\"xx\" description=\"Test\""
+				+ " xmlns:tns=\"http://www.example.org/Holiday\"><tns:Holidays>"
+				+ "<tns:ChristianHoliday type=\"EASTER\"/>"
+				+ "<tns:Fixed month=\"DECEMBER\" day=\"25\" descriptionPropertiesKey=\"CHRISTMAS\"/>"
+				+ "<tns:Fixed month=\"JANUARY\" day=\"1\" descriptionPropertiesKey=\"NEW_YEAR\""
+				+ " validFrom=\"2000\" every=\"ODD_YEARS\"/>"
+				+ "</tns:Holidays>"
+				+ "<tns:SubConfigurations hierarchy=\"yy\" description=\"Sub\"><tns:Holidays/>"
+				+ "</tns:SubConfigurations></tns:Configuration>");
+		assertEquals("xx", root.getHierarchy());
+		assertEquals("Test", root.getDescription());
+		RuleProgram program = root.getProgram();
+		assertEquals(3, program.size());
+		assertEquals(RuleProgram.RELATIVE_TO_EASTER_SUNDAY, program.getKind(0));
+		assertEquals("christian.EASTER", program.getPropertiesKey(0));
+		assertEquals("CHRISTMAS", program.getPropertiesKey(1));
+		assertEquals("NEW_YEAR", program.getPropertiesKey(2));
+		assertEquals(2000, program.validFrom[2]);
+		assertEquals(2, program.cycleModulus[2]);
+		assertEquals(1, root.getChildCount());
+		assertEquals("yy", root.getChild(0).getHierarchy());
+		assertTrue(root.getChild(0).getProgram().isEmpty());
+	}
+
+	@Test
+	public void testHinduAndHebrewHolidaysAreSkipped() throws IOException {
+		String xml = "<tns:Configuration hierarchy=\"xx\" description=\"Test\""
+				+ " xmlns:tns=\"http://www.example.org/Holiday\"><tns:Holidays>"
+				+ "<tns:Fixed month=\"JANUARY\" day=\"1\" descriptionPropertiesKey=\"NEW_YEAR\"/>"
+				+ "<tns:HinduHoliday type=\"HOLI\"/>"
+				+ "<tns:HebrewHoliday type=\"PASSOVER\"/>"
+				+ "</tns:Holidays></tns:Configuration>";
+		RuleNode pullParser = read(xml);
+		RuleNode simpleXml = new SimpleXmlConfigurationReader().read(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+		assertSameRules("", simpleXml, pullParser);
+		assertEquals(1, pullParser.getProgram().size());
+		assertEquals("NEW_YEAR", pullParser.getProgram().getPropertiesKey(0));
+	}
+
+	private static int countLoaded(RuleNode node) {
+		int loaded = node.isProgramLoaded() ? 1 : 0;
+		for (int c = 0; c < node.getChildCount(); c++) {
+			loaded += countLoaded(node.getChild(c));
+		}
+		return loaded;
+	}
+
+	@Test
+	public void testLazilyReadBundledCalendars() throws IOException {
+		for (File file : HOLIDAYS_DIR.listFiles()) {
+			if (!file.getName().startsWith("Holidays_") || !file.getName().endsWith(".xml")) {
+				continue;
+			}
+			RuleNode eager = read(new SimpleXmlConfigurationReader(), file);
+			assertSameRules(file.getName(), eager, read(new KXmlConfigurationReader(), file, true));
+			assertSameRules(file.getName(), eager, read(new SimpleXmlConfigurationReader(), file, true));
+		}
+	}
+
+	@Test
+	public void testLazyReadCompilesSubConfigurationsOnFirstUse() throws IOException {
+		File file = new File(HOLIDAYS_DIR, "Holidays_de.xml");
+		for (ConfigurationReader reader : Arrays.asList(new KXmlConfigurationReader(),
+				new SimpleXmlConfigurationReader())) {
+			RuleNode root = read(reader, file, true);
+			assertTrue(root.isProgramLoaded());
+			assertEquals(1, countLoaded(root));
+			RuleNode bavaria = root.getChild("by");
+			assertFalse(bavaria.getProgram().isEmpty());
+			assertTrue(bavaria.isProgramLoaded());
+			assertEquals(2, countLoaded(root));
+		}
+	}
+
+	@Test
+	public void testLazyReadOfNestedSubConfigurations() throws IOException {
+		String xml = "<tns:Configuration hierarchy=\"xx\" description=\"Test\""
+				+ " xmlns:tns=\"http://www.example.org/Holiday\"><tns:Holidays/>"
+				+ "<tns:SubConfigurations hierarchy=\"a\" description=\"A\"><tns:Holidays>"
+				+ "<tns:Fixed month=\"JANUARY\" day=\"2\" descriptionPropertiesKey=\"A\"/></tns:Holidays>"
+				+ "</tns:SubConfigurations>"
+				+ "<tns:SubConfigurations hierarchy=\"b\" description=\"B\">"
+				+ "<tns:SubConfigurations hierarchy=\"c\" description=\"C\"><tns:Holidays>"
+				+ "<tns:Fixed month=\"MARCH\" day=\"3\" descriptionPropertiesKey=\"C\"/></tns:Holidays>"
+				+ "</tns:SubConfigurations>"
+				+ "<tns:Holidays><tns:Fixed month=\"FEBRUARY\" day=\"2\" descriptionPropertiesKey=\"B\"/>"
+				+ "</tns:Holidays></tns:SubConfigurations></tns:Configuration>";
+		RuleNode root = new KXmlConfigurationReader().read(new ByteArrayInputStream(xml.getBytes("UTF-8")), true);
+		RuleNode c = root.getChild("b").getChild("c");
+		assertEquals("C", c.getProgram().getPropertiesKey(0));
+		assertFalse(root.getChild("b").isProgramLoaded());
+		assertEquals("B", root.getChild("b").getProgram().getPropertiesKey(0));
+		assertEquals("A", root.getChild("a").getProgram().getPropertiesKey(0));
+		assertSameRules("", read(xml), root);
+	}
+
+	@Test
+	public void testLazyReadOfInvalidSubConfigurationRules() throws IOException {
+		String xml = "<tns:Configuration hierarchy=\"xx\" description=\"Test\""
+				+ " xmlns:tns=\"http://www.example.org/Holiday\"><tns:Holidays/>"
+				+ "<tns:SubConfigurations hierarchy=\"a\" description=\"A\"><tns:Holidays>"
+				+ "<tns:Fixed month=\"SMARCH\" day=\"2\"/></tns:Holidays>"
+				+ "</tns:SubConfigurations></tns:Configuration>";
+		RuleNode root = new KXmlConfigurationReader().read(new ByteArrayInputStream(xml.getBytes("UTF-8")), true);
+		try {
+			root.getChild("a").getProgram();
+			fail("The rules of the sub configuration are invalid.");
+		} catch (IllegalStateException e) {
+			assertTrue(e.getCause() instanceof XmlPullParserException);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testLazyReadOfSubConfigurationWithoutHolidays() throws IOException {
+		String xml = "<tns:Configuration hierarchy=\"xx\" description=\"Test\""
+				+ " xmlns:tns=\"http://www.example.org/Holiday\"><tns:Holidays/>"
+				+ "<tns:SubConfigurations hierarchy=\"a\" description=\"A\"/></tns:Configuration>";
+		new KXmlConfigurationReader().read(new ByteArrayInputStream(xml.getBytes("UTF-8")), true);
+	}
+
+	@Test(expected = IOException.class)
+	public void testOtherRootElement() throws IOException {
+		read("<Holidays/>");
+	}
+
+	@Test(expected = IOException.class)
+	public void testMalformedXml() throws IOException {
+		read("<tns:Configuration hierarchy=\"xx\" xmlns:tns=\"http://www.example.org/Holiday\"><tns:Holidays>");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingStream() throws IOException {
+		new KXmlConfigurationReader().read(null);
+	}
+
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTimeConstants;
+import org.junit.Test;
+
+import de.synchrotronlabs.holidaytype.LocalizedHolidayType;
+import de.synchrotronlabs.impl.SimpleXmlConfigurationReader;
+import de.synchrotronlabs.util.EpochDays;
+import de.synchrotronlabs.util.HolidayBitmap;
+
+/**
+ * Tests the days of the calendar invariant rules which the
+ * {@link RuleEvaluator} memoizes per year type.
+ *
+ * @version $Id: $
+ */
+public class RuleEvaluatorTest {
+
+	private static final File HOLIDAYS_DIR = new File("src/main/assets/holidays");
+
+	private final RuleEvaluator evaluator = new RuleEvaluator();
+
+	private static void collectPrograms(RuleNode node, List<RuleProgram> programs) {
+		programs.add(node.getProgram());
+		for (int i = 0; i < node.getChildCount(); i++) {
+			collectPrograms(node.getChild(i), programs);
+		}
+	}
+
+	private HolidayBitmap evaluate(RuleProgram program, int year) {
+		HolidayBitmap.Builder builder = new HolidayBitmap.Builder(year);
+		evaluator.evaluate(program, builder);
+		return builder.build();
+	}
+
+	/**
+	 * Each calendar invariant kind, moved by the weekday where possible.
+	 */
+	private static RuleProgram createInvariantProgram() {
+		RuleProgramBuilder builder = new RuleProgramBuilder();
+		builder.addRule(RuleProgram.FIXED, "FIXED", LocalizedHolidayType.OFFICIAL_HOLIDAY).setDate(12, 26)
+				.addMovingCondition(DateTimeConstants.SATURDAY, 1, DateTimeConstants.MONDAY)
+				.addMovingCondition(DateTimeConstants.SUNDAY, 1, DateTimeConstants.TUESDAY);
+		builder.addRule(RuleProgram.RELATIVE_TO_FIXED, "RELATIVE", LocalizedHolidayType.OFFICIAL_HOLIDAY)
+				.setDate(11, 23).setWeekday(DateTimeConstants.WEDNESDAY).setDirection(-1);
+		builder.addRule(RuleProgram.FIXED_WEEKDAY_IN_MONTH, "LAST_MONDAY", LocalizedHolidayType.OFFICIAL_HOLIDAY)
+				.setDate(5, 1).setWeekday(DateTimeConstants.MONDAY).setWhich(RuleProgram.LAST);
+		builder.addRule(RuleProgram.RELATIVE_TO_WEEKDAY_IN_MONTH, "AFTER_THURSDAY",
+				LocalizedHolidayType.OFFICIAL_HOLIDAY).setDate(11, 1).setWeekday(DateTimeConstants.THURSDAY)
+				.setWhich(4).setRelativeWeekday(DateTimeConstants.FRIDAY);
+		builder.addRule(RuleProgram.FIXED_WEEKDAY_BETWEEN_FIXED, "BETWEEN", LocalizedHolidayType.OFFICIAL_HOLIDAY)
+				.setDate(1, 1).setSecondDate(1, 3).setWeekday(DateTimeConstants.MONDAY);
+		builder.addRule(RuleProgram.FIXED_WEEKDAY_RELATIVE_TO_FIXED, "WEEKDAY_RELATIVE",
+				LocalizedHolidayType.OFFICIAL_HOLIDAY).setDate(3, 1).setWeekday(DateTimeConstants.SUNDAY)
+				.setWhich(2).setDirection(-1);
+		builder.addRule(RuleProgram.FIXED, "LEAP_DAY", LocalizedHolidayType.OFFICIAL_HOLIDAY).setDate(2, 29)
+				.setValidity(2000, 2096, "4_YEARS");
+		return builder.build();
+	}
+
+	@Test
+	public void testMemoizedDaysOfBundledCalendars() throws IOException {
+		List<RuleProgram> programs = new ArrayList<RuleProgram>();
+		for (File file : HOLIDAYS_DIR.listFiles()) {
+			if (file.getName().endsWith(".xml")) {
+				InputStream stream = new FileInputStream(file);
+				try {
+					collectPrograms(new SimpleXmlConfigurationReader().read(stream), programs);
+				} finally {
+					stream.close();
+				}
+			}
+		}
+		assertTrue(programs.size() > 100);
+		for (RuleProgram program : programs) {
+			for (int year = 1900; year <= 2100; year++) {
+				HolidayBitmap bitmap = evaluate(program, year);
+				for (int dayOfYear = 1; dayOfYear <= bitmap.getLength(); dayOfYear++) {
+					int epochDay = EpochDays.of(year, 1, dayOfYear);
+					assertEquals(year + " " + dayOfYear, evaluator.isHoliday(program, year,
+							EpochDays.getMonth(epochDay), EpochDays.getDayOfMonth(epochDay)),
+							bitmap.contains(dayOfYear));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testMemoizedDaysOfEveryKind() {
+		RuleProgram program = createInvariantProgram();
+		for (int year = 1600; year <= 2400; year += 4) {
+			HolidayBitmap memoized = evaluate(program, year);
+			HolidayBitmap single = evaluate(createInvariantProgram(), year);
+			for (int dayOfYear = 1; dayOfYear <= single.getLength(); dayOfYear++) {
+				assertEquals(year + " " + dayOfYear, single.contains(dayOfYear), memoized.contains(dayOfYear));
+			}
+		}
+		for (int year = 1901; year <= 2100; year++) {
+			if (!EpochDays.isLeapYear(year)) {
+				HolidayBitmap memoized = evaluate(program, year);
+				HolidayBitmap single = evaluate(createInvariantProgram(), year);
+				assertEquals(String.valueOf(year), single.cardinality(), memoized.cardinality());
+				for (int n = 0; n < single.cardinality(); n++) {
+					assertEquals(year + " " + n, single.select(n), memoized.select(n));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testKnownDays() {
+		RuleProgram program = createInvariantProgram();
+		// 2010-12-26 is a sunday, 2011-01-03 the first monday of 2011
+		HolidayBitmap bitmap = evaluate(program, 2010);
+		assertTrue(bitmap.contains(EpochDays.of(2010, 12, 28) - EpochDays.of(2010, 1, 1) + 1));
+		assertTrue(bitmap.contains(EpochDays.of(2010, 11, 17) - EpochDays.of(2010, 1, 1) + 1));
+		assertTrue(bitmap.contains(EpochDays.of(2010, 5, 31) - EpochDays.of(2010, 1, 1) + 1));
+		assertTrue(bitmap.contains(EpochDays.of(2010, 11, 26) - EpochDays.of(2010, 1, 1) + 1));
+		assertTrue(bitmap.contains(EpochDays.of(2010, 2, 21) - EpochDays.of(2010, 1, 1) + 1));
+		assertEquals(5, bitmap.cardinality());
+		assertTrue(evaluate(program, 2011).contains(3));
+		// 2012 starts on a sunday, the monday between january 1st and 3rd is
+		// the 2nd, and february 29th exists
+		bitmap = evaluate(program, 2012);
+		assertTrue(bitmap.contains(2));
+		assertTrue(bitmap.contains(31 + 29));
+		assertEquals(7, bitmap.cardinality());
+	}
+
+	@Test
+	public void testMemoIsFilledOncePerYearType() {
+		RuleProgram program = createInvariantProgram();
+		for (int type = 0; type < RuleProgram.YEAR_TYPES; type++) {
+			assertNull(program.daysByYearType.get(type));
+		}
+		// 2011 and 2022 both start on a saturday and are no leap years
+		assertEquals(RuleProgram.getYearType(2011), RuleProgram.getYearType(2022));
+		evaluate(program, 2011);
+		int[] days = program.daysByYearType.get(RuleProgram.getYearType(2011));
+		assertNotNull(days);
+		for (int type = 0; type < RuleProgram.YEAR_TYPES; type++) {
+			assertEquals(type == RuleProgram.getYearType(2011), program.daysByYearType.get(type) != null);
+		}
+		evaluate(program, 2022);
+		assertSame(days, program.daysByYearType.get(RuleProgram.getYearType(2022)));
+		for (int year = 2000; year < 2028; year++) {
+			evaluate(program, year);
+		}
+		for (int type = 0; type < RuleProgram.YEAR_TYPES; type++) {
+			assertNotNull(program.daysByYearType.get(type));
+		}
+	}
+
+	@Test
+	public void testNoMemoWithoutInvariantRules() {
+		RuleProgram program = new RuleProgramBuilder()
+				.addRule(RuleProgram.RELATIVE_TO_EASTER_SUNDAY, "EASTER", LocalizedHolidayType.OFFICIAL_HOLIDAY)
+				.build();
+		// 2011-04-24 is the 114th day of the year
+		assertTrue(evaluate(program, 2011).contains(114));
+		for (int type = 0; type < RuleProgram.YEAR_TYPES; type++) {
+			assertNull(program.daysByYearType.get(type));
+		}
+	}
+
+	@Test
+	public void testInvalidDateFailsWithMemo() {
+		RuleProgram program = new RuleProgramBuilder()
+				.addRule(RuleProgram.FIXED, "NEW_YEAR", LocalizedHolidayType.OFFICIAL_HOLIDAY).setDate(1, 1)
+				.addRule(RuleProgram.FIXED, "LEAP_DAY", LocalizedHolidayType.OFFICIAL_HOLIDAY).setDate(2, 29)
+				.build();
+		assertTrue(evaluate(program, 2012).contains(31 + 29));
+		for (int i = 0; i < 2; i++) {
+			try {
+				evaluate(program, 2011);
+				fail("February 29th 2011 must not be accepted.");
+			} catch (IllegalArgumentException e) {
+				// expected, also when the memo of the year type exists
+			}
+		}
+		assertNotNull(program.daysByYearType.get(RuleProgram.getYearType(2011)));
+		assertTrue(evaluate(program, 2016).contains(31 + 29));
+	}
+
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import de.synchrotronlabs.impl.SimpleXmlConfigurationReader;
+
+/**
+ * Writes the bundled calendars into the {@link RuleFile} format and compares
+ * the programs read back with the programs compiled from XML.
+ *
+ * @version $Id: $
+ */
+public class RuleFileTest {
+
+	private static final File HOLIDAYS_DIR = new File("src/main/assets/holidays");
+
+	private static RuleNode compileXml(File file) throws IOException {
+		InputStream stream = new FileInputStream(file);
+		try {
+			return new SimpleXmlConfigurationReader().read(stream);
+		} finally {
+			stream.close();
+		}
+	}
+
+	private static byte[] write(RuleNode root) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RuleFile.write(root, out);
+		return out.toByteArray();
+	}
+
+	private static byte[] compileBundled(String country) throws IOException {
+		return write(compileXml(new File(HOLIDAYS_DIR, "Holidays_" + country + ".xml")));
+	}
+
+	private static void assertProgram(String message, RuleProgram expected, RuleProgram actual) {
+		assertEquals(message, expected.size, actual.size);
+		assertArrayEquals(message, expected.kind, actual.kind);
+		assertArrayEquals(message, expected.validFrom, actual.validFrom);
+		assertArrayEquals(message, expected.validTo, actual.validTo);
+		assertArrayEquals(message, expected.cycle, actual.cycle);
+		assertArrayEquals(message, expected.cycleModulus, actual.cycleModulus);
+		assertArrayEquals(message, expected.cycleAnchor, actual.cycleAnchor);
+		assertArrayEquals(message, expected.month, actual.month);
+		assertArrayEquals(message, expected.day, actual.day);
+		assertArrayEquals(message, expected.month2, actual.month2);
+		assertArrayEquals(message, expected.day2, actual.day2);
+		assertArrayEquals(message, expected.weekday, actual.weekday);
+		assertArrayEquals(message, expected.weekday2, actual.weekday2);
+		assertArrayEquals(message, expected.which, actual.which);
+		assertArrayEquals(message, expected.direction, actual.direction);
+		assertArrayEquals(message, expected.offset, actual.offset);
+		assertArrayEquals(message, expected.chronology, actual.chronology);
+		assertArrayEquals(message, expected.movingStart, actual.movingStart);
+		assertArrayEquals(message, expected.moving, actual.moving);
+		assertArrayEquals(message, expected.propertiesKey, actual.propertiesKey);
+		assertArrayEquals(message, expected.type, actual.type);
+		for (int month = 0; month < 12; month++) {
+			assertArrayEquals(message, expected.rulesByMonth[month], actual.rulesByMonth[month]);
+		}
+	}
+
+	private static void assertNode(String message, RuleNode expected, RuleNode actual) {
+		message = message + "/" + expected.getHierarchy();
+		assertEquals(message, expected.getHierarchy(), actual.getHierarchy());
+		assertEquals(message, expected.getDescription(), actual.getDescription());
+		assertProgram(message, expected.getProgram(), actual.getProgram());
+		assertEquals(message, expected.getChildCount(), actual.getChildCount());
+		for (int c = 0; c < expected.getChildCount(); c++) {
+			assertNode(message, expected.getChild(c), actual.getChild(c));
+		}
+	}
+
+	private static void assertRejected(byte[] data, int size) {
+		for (boolean lazy : new boolean[] { false, true }) {
+			try {
+				RuleFile.read(data, size, lazy);
+				fail("Rule file of " + size + " bytes must be rejected.");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void testRoundTripOfBundledCalendars() throws IOException {
+		int count = 0;
+		for (File file : HOLIDAYS_DIR.listFiles()) {
+			if (!file.getName().startsWith("Holidays_") || !file.getName().endsWith(".xml")) {
+				continue;
+			}
+			RuleNode xml = compileXml(file);
+			byte[] data = write(xml);
+			assertNode(file.getName(), xml, RuleFile.read(new ByteArrayInputStream(data)));
+			assertNode(file.getName(), xml, RuleFile.read(data, data.length, true));
+			// writing the read rules results in the same file again
+			assertArrayEquals(file.getName(), data, write(RuleFile.read(data, data.length)));
+			count++;
+		}
+		assertTrue(count > 50);
+	}
+
+	@Test
+	public void testReadFromLargerBuffer() throws IOException {
+		byte[] data = compileBundled("de");
+		byte[] buffer = Arrays.copyOf(data, data.length + 100);
+		Arrays.fill(buffer, data.length, buffer.length, (byte) 0xFF);
+		assertNode("", RuleFile.read(data, data.length), RuleFile.read(buffer, data.length));
+	}
+
+	@Test
+	public void testBadMagic() throws IOException {
+		byte[] data = compileBundled("de");
+		data[0] = 'X';
+		assertRejected(data, data.length);
+		assertRejected("<?xml version=\"1.0\"?>".getBytes("UTF-8"), 21);
+	}
+
+	@Test
+	public void testWrongVersion() throws IOException {
+		byte[] data = compileBundled("de");
+		assertEquals(RuleFile.FORMAT_VERSION, data[4]);
+		data[4] = (byte) (RuleFile.FORMAT_VERSION + 1);
+		assertRejected(data, data.length);
+		data[4] = (byte) (RuleFile.FORMAT_VERSION - 1);
+		assertRejected(data, data.length);
+	}
+
+	@Test
+	public void testTruncated() throws IOException {
+		byte[] data = compileBundled("de");
+		for (int size = 0; size < data.length; size++) {
+			assertRejected(data, size);
+		}
+	}
+
+	@Test
+	public void testTrailingBytes() throws IOException {
+		byte[] file = compileBundled("de");
+		byte[] data = Arrays.copyOf(file, file.length + 1);
+		assertRejected(data, data.length);
+	}
+
+	@Test
+	public void testEmptyProgram() throws IOException {
+		RuleNode root = new RuleNode("xx", null, new RuleProgramBuilder().build(),
+				new RuleNode("yy", "Y", new RuleProgramBuilder().build()));
+		byte[] data = write(root);
+		assertNode("", root, RuleFile.read(data, data.length));
+		assertNode("", root, RuleFile.read(data, data.length, true));
+	}
+
+}
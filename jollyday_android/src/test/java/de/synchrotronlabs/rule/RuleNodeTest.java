@@ -0,0 +1,181 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import de.synchrotronlabs.impl.SimpleXmlConfigurationReader;
+
+/**
+ * Tests the programs of {@link RuleNode}s which are decoded on their first
+ * access.
+ *
+ * @version $Id: $
+ */
+public class RuleNodeTest {
+
+	private static final int THREADS = 16;
+
+	/**
+	 * Counts the decodings and waits until all threads access the program.
+	 */
+	private static final class CountingLoader implements RuleNode.ProgramLoader {
+
+		private final AtomicInteger loads = new AtomicInteger();
+		private final CountDownLatch accessed;
+
+		CountingLoader(CountDownLatch accessed) {
+			this.accessed = accessed;
+		}
+
+		@Override
+		public RuleProgram load() {
+			loads.incrementAndGet();
+			try {
+				// give the other threads the chance to access the program
+				accessed.await(1, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new RuleProgramBuilder().build();
+		}
+
+	}
+
+	private static RuleNode readLazily(String country) throws IOException {
+		InputStream stream = new FileInputStream(new File("src/main/assets/holidays/Holidays_" + country + ".xml"));
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			RuleFile.write(new SimpleXmlConfigurationReader().read(stream), out);
+			byte[] data = out.toByteArray();
+			return RuleFile.read(data, data.length, true);
+		} finally {
+			stream.close();
+		}
+	}
+
+	private static int countLoaded(RuleNode node) {
+		int loaded = node.isProgramLoaded() ? 1 : 0;
+		for (int c = 0; c < node.getChildCount(); c++) {
+			loaded += countLoaded(node.getChild(c));
+		}
+		return loaded;
+	}
+
+	private static int countNodes(RuleNode node) {
+		int nodes = 1;
+		for (int c = 0; c < node.getChildCount(); c++) {
+			nodes += countNodes(node.getChild(c));
+		}
+		return nodes;
+	}
+
+	@Test
+	public void testDecodedOnceUnderConcurrentFirstAccess() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch accessed = new CountDownLatch(THREADS);
+		CountingLoader loader = new CountingLoader(accessed);
+		final RuleNode node = new RuleNode("xx", null, loader);
+		assertFalse(node.isProgramLoaded());
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<RuleProgram>> programs = new ArrayList<Future<RuleProgram>>();
+			for (int i = 0; i < THREADS; i++) {
+				programs.add(executor.submit(new Callable<RuleProgram>() {
+					@Override
+					public RuleProgram call() throws Exception {
+						started.await();
+						accessed.countDown();
+						return node.getProgram();
+					}
+				}));
+			}
+			started.countDown();
+			RuleProgram program = programs.get(0).get();
+			for (Future<RuleProgram> f : programs) {
+				assertSame(program, f.get());
+			}
+			assertEquals(1, loader.loads.get());
+			assertTrue(node.isProgramLoaded());
+			assertSame(program, node.getProgram());
+			assertEquals(1, loader.loads.get());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testUntouchedRegionsStayEncoded() throws IOException {
+		RuleNode root = readLazily("de");
+		assertTrue(root.isProgramLoaded());
+		assertEquals(1, countLoaded(root));
+		RuleNode bavaria = root.getChild("BY");
+		assertFalse(bavaria.isProgramLoaded());
+		assertFalse(bavaria.getProgram().isEmpty());
+		assertTrue(bavaria.isProgramLoaded());
+		assertEquals(2, countLoaded(root));
+		assertFalse(root.getChild("nw").isProgramLoaded());
+	}
+
+	@Test
+	public void testNestedRegionsStayEncoded() throws IOException {
+		RuleNode root = readLazily("us");
+		RuleNode parent = null;
+		for (int c = 0; c < root.getChildCount() && parent == null; c++) {
+			if (root.getChild(c).getChildCount() > 0) {
+				parent = root.getChild(c);
+			}
+		}
+		RuleNode child = parent.getChild(0);
+		child.getProgram();
+		assertTrue(child.isProgramLoaded());
+		assertFalse(parent.isProgramLoaded());
+		assertEquals(2, countLoaded(root));
+	}
+
+	@Test
+	public void testEagerlyReadNodes() throws IOException {
+		RuleNode root = readLazily("de");
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		RuleFile.write(root, out);
+		byte[] data = out.toByteArray();
+		RuleNode eager = RuleFile.read(data, data.length, false);
+		assertEquals(countNodes(eager), countLoaded(eager));
+		// writing decodes all programs of the lazily read nodes
+		assertEquals(countNodes(root), countLoaded(root));
+	}
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.rule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import de.synchrotronlabs.HolidayFilter;
+import de.synchrotronlabs.holidaytype.LocalizedHolidayType;
+
+/**
+ * Compares the rules looked up by the {@link ValidityIndex} with the rules
+ * whose range of valid years contains the year.
+ *
+ * @version $Id: $
+ */
+public class ValidityIndexTest {
+
+	private static final Integer[][] VALIDITY = { { null, null }, { 1990, null }, { null, 1989 }, { 1990, 1999 },
+			{ 2000, 2000 }, { 1990, 1999 }, { 2001, 2010 }, { null, Integer.MAX_VALUE - 1 },
+			{ Integer.MIN_VALUE + 1, null } };
+
+	private static RuleProgram createProgram() {
+		RuleProgramBuilder builder = new RuleProgramBuilder();
+		for (int i = 0; i < VALIDITY.length; i++) {
+			builder.addRule(RuleProgram.FIXED, "RULE_" + i, LocalizedHolidayType.OFFICIAL_HOLIDAY);
+			builder.setDate(1, 1);
+			builder.setValidity(VALIDITY[i][0], VALIDITY[i][1], null);
+		}
+		return builder.build();
+	}
+
+	private static int[] validRules(RuleProgram program, int year, boolean[] accepted) {
+		int[] rules = new int[program.size()];
+		int count = 0;
+		for (int i = 0; i < program.size(); i++) {
+			if (program.validFrom[i] <= year && year <= program.validTo[i] && (accepted == null || accepted[i])) {
+				rules[count++] = i;
+			}
+		}
+		return Arrays.copyOf(rules, count);
+	}
+
+	private static void assertIndex(RuleProgram program, ValidityIndex index, boolean[] accepted) {
+		int[] years = { Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1, 0, 1, Integer.MAX_VALUE - 1,
+				Integer.MAX_VALUE };
+		for (int year : years) {
+			assertArrayEquals(String.valueOf(year), validRules(program, year, accepted), index.getRules(year));
+		}
+		for (int year = 1980; year <= 2020; year++) {
+			assertArrayEquals(String.valueOf(year), validRules(program, year, accepted), index.getRules(year));
+		}
+	}
+
+	@Test
+	public void testSegmentBoundaries() {
+		RuleProgram program = createProgram();
+		assertIndex(program, program.validity, null);
+		assertArrayEquals(new int[] { 0, 2, 7, 8 }, program.validity.getRules(1989));
+		assertArrayEquals(new int[] { 0, 1, 3, 5, 7, 8 }, program.validity.getRules(1990));
+		assertArrayEquals(new int[] { 0, 1, 3, 5, 7, 8 }, program.validity.getRules(1999));
+		assertArrayEquals(new int[] { 0, 1, 4, 7, 8 }, program.validity.getRules(2000));
+		assertArrayEquals(new int[] { 0, 1, 6, 7, 8 }, program.validity.getRules(2001));
+		assertArrayEquals(new int[] { 0, 1, 7, 8 }, program.validity.getRules(2011));
+	}
+
+	@Test
+	public void testFilteredIndex() {
+		RuleProgram program = createProgram();
+		boolean[] accepted = new boolean[program.size()];
+		for (int i = 0; i < accepted.length; i += 2) {
+			accepted[i] = true;
+		}
+		assertIndex(program, new ValidityIndex(program.validity, accepted), accepted);
+		assertIndex(program, new ValidityIndex(program.validity, new boolean[program.size()]),
+				new boolean[program.size()]);
+	}
+
+	@Test
+	public void testEqualSegmentsShareRules() {
+		RuleProgram program = createProgram();
+		assertSame(program.validity.getRules(1991), program.validity.getRules(1999));
+		assertSame(program.validity.getRules(1991), program.validity.getRules(1990));
+	}
+
+	@Test
+	public void testFilteredIndicesAreBounded() {
+		RuleProgram program = createProgram();
+		for (int n = 0; n < 100; n++) {
+			HolidayFilter filter = HolidayFilter.ofPropertiesKeys("RULE_" + (n % VALIDITY.length), "OTHER_" + n);
+			boolean[] accepted = new boolean[program.size()];
+			accepted[n % VALIDITY.length] = true;
+			assertIndex(program, program.getValidity(filter), accepted);
+			synchronized (program.filteredValidity) {
+				assertTrue(program.filteredValidity.size() <= RuleProgram.MAX_FILTERED_VALIDITY);
+			}
+		}
+		HolidayFilter filter = HolidayFilter.ofPropertiesKeys("RULE_1");
+		assertSame(program.getValidity(filter), program.getValidity(filter));
+		assertSame(program.validity, program.getValidity(null));
+	}
+
+	@Test
+	public void testEmptyProgram() {
+		RuleProgram program = new RuleProgramBuilder().build();
+		assertEquals(0, program.validity.getRules(Integer.MIN_VALUE).length);
+		assertEquals(0, program.validity.getRules(2011).length);
+		assertEquals(0, program.validity.getRules(Integer.MAX_VALUE).length);
+	}
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.joda.time.chrono.ISOChronology;
+import org.joda.time.chrono.JulianChronology;
+import org.junit.Test;
+
+/**
+ * Tests the easter sundays of the {@link CalendarUtil}, both from the
+ * precomputed tables of 1583 to 2500 and calculated outside of them.
+ *
+ * @version $Id: $
+ */
+public class CalendarUtilTest {
+
+	private final CalendarUtil calendarUtil = new CalendarUtil();
+
+	/**
+	 * The anonymous gregorian algorithm of Meeus, Jones and Butcher.
+	 */
+	private static LocalDate gregorianEaster(int year) {
+		int a = year % 19;
+		int b = year / 100;
+		int c = year % 100;
+		int d = b / 4;
+		int e = b % 4;
+		int f = (b + 8) / 25;
+		int g = (b - f + 1) / 3;
+		int h = (19 * a + b - d - g + 15) % 30;
+		int i = c / 4;
+		int k = c % 4;
+		int l = (32 + 2 * e + 2 * i - h - k) % 7;
+		int m = (a + 11 * h + 22 * l) / 451;
+		int month = (h + l - 7 * m + 114) / 31;
+		int day = (h + l - 7 * m + 114) % 31 + 1;
+		return new LocalDate(year, month, day, ISOChronology.getInstanceUTC());
+	}
+
+	/**
+	 * The julian algorithm of Meeus, converted into the ISO chronology.
+	 */
+	private static LocalDate julianEaster(int year) {
+		int a = year % 4;
+		int b = year % 7;
+		int c = year % 19;
+		int d = (19 * c + 15) % 30;
+		int e = (2 * a + 4 * b - d + 34) % 7;
+		int month = (d + e + 114) / 31;
+		int day = (d + e + 114) % 31 + 1;
+		LocalDate julian = new LocalDate(year, month, day, JulianChronology.getInstanceUTC());
+		return new LocalDate(julian.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis(),
+				ISOChronology.getInstanceUTC());
+	}
+
+	private void assertEaster(int year) {
+		String message = String.valueOf(year);
+		LocalDate gregorian = gregorianEaster(year);
+		LocalDate julian = julianEaster(year);
+		assertEquals(message, gregorian, calendarUtil.getGregorianEasterSunday(year));
+		assertEquals(message, EpochDays.of(gregorian), calendarUtil.getGregorianEasterEpochDay(year));
+		assertEquals(message, julian, calendarUtil.getJulianEasterSunday(year));
+		assertEquals(message, EpochDays.of(julian), calendarUtil.getJulianEasterEpochDay(year));
+		LocalDate easter = year <= 1583 ? julian : gregorian;
+		assertEquals(message, easter, calendarUtil.getEasterSunday(year));
+		assertEquals(message, EpochDays.of(easter), calendarUtil.getEasterEpochDay(year));
+	}
+
+	@Test
+	public void testTabulatedYears() {
+		for (int year = 1583; year <= 2500; year++) {
+			assertEaster(year);
+		}
+	}
+
+	@Test
+	public void testTableEdges() {
+		for (int year : new int[] { 1581, 1582, 1583, 1584, 2499, 2500, 2501, 2502 }) {
+			assertEaster(year);
+		}
+		// 1583 is still calculated within the julian calendar
+		assertEquals(new LocalDate(1583, 4, 10), calendarUtil.getGregorianEasterSunday(1583));
+		assertEquals(calendarUtil.getJulianEasterSunday(1583), calendarUtil.getEasterSunday(1583));
+		assertEquals(new LocalDate(1584, 4, 1), calendarUtil.getEasterSunday(1584));
+	}
+
+	@Test
+	public void testCalculatedYears() {
+		for (int year = 1; year < 1583; year += 7) {
+			assertEaster(year);
+		}
+		for (int year = 2501; year < 10000; year += 7) {
+			assertEaster(year);
+		}
+	}
+
+	@Test
+	public void testKnownEasterSundays() {
+		assertEquals(new LocalDate(2011, 4, 24), calendarUtil.getEasterSunday(2011));
+		assertEquals(new LocalDate(2012, 4, 8), calendarUtil.getEasterSunday(2012));
+		assertEquals(new LocalDate(2019, 4, 21), calendarUtil.getEasterSunday(2019));
+		// orthodox easter
+		assertEquals(new LocalDate(2012, 4, 15), calendarUtil.getJulianEasterSunday(2012));
+		assertEquals(new LocalDate(2019, 4, 28), calendarUtil.getJulianEasterSunday(2019));
+	}
+
+}
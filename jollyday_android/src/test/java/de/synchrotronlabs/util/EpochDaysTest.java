@@ -0,0 +1,166 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.joda.time.chrono.ISOChronology;
+import org.joda.time.chrono.JulianChronology;
+import org.junit.Test;
+
+/**
+ * Tests the date arithmetic of {@link EpochDays}.
+ *
+ * @version $Id: $
+ */
+public class EpochDaysTest {
+
+	private static final LocalDate EPOCH = new LocalDate(1970, 1, 1, ISOChronology.getInstanceUTC());
+
+	private static void assertDate(int epochDay, LocalDate date) {
+		String message = date + " " + epochDay;
+		assertEquals(message, epochDay, EpochDays.of(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth()));
+		assertEquals(message, epochDay, EpochDays.of(date));
+		assertEquals(message, date, EpochDays.toLocalDate(epochDay));
+		assertEquals(message, date.getYear(), EpochDays.getYear(epochDay));
+		assertEquals(message, date.getMonthOfYear(), EpochDays.getMonth(epochDay));
+		assertEquals(message, date.getDayOfMonth(), EpochDays.getDayOfMonth(epochDay));
+		assertEquals(message, date.getDayOfYear(), EpochDays.getDayOfYear(epochDay));
+		assertEquals(message, date.getDayOfWeek(), EpochDays.getDayOfWeek(epochDay));
+	}
+
+	@Test
+	public void testAgainstJodaAroundTheEpoch() {
+		LocalDate date = EPOCH.minusYears(600);
+		for (int epochDay = EpochDays.of(date); date.getYear() < 2600; epochDay++) {
+			assertDate(epochDay, date);
+			date = date.plusDays(1);
+		}
+	}
+
+	@Test
+	public void testAgainstJodaFarFromTheEpoch() {
+		for (int year = -100000; year <= 100000; year += 97) {
+			LocalDate date = new LocalDate(year, 1, 1, ISOChronology.getInstanceUTC());
+			int epochDay = (int) (date.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis()
+					/ DateTimeConstants.MILLIS_PER_DAY);
+			for (int i = 0; i < 400; i++) {
+				assertDate(epochDay + i, date.plusDays(i));
+			}
+		}
+	}
+
+	@Test
+	public void testYearAndMonthLengths() {
+		for (int year = -1000; year <= 3000; year++) {
+			LocalDate january = new LocalDate(year, 1, 1, ISOChronology.getInstanceUTC());
+			assertEquals(String.valueOf(year), january.year().isLeap(), EpochDays.isLeapYear(year));
+			assertEquals(String.valueOf(year), january.dayOfYear().getMaximumValue(), EpochDays.getYearLength(year));
+			for (int month = 1; month <= 12; month++) {
+				LocalDate first = january.withMonthOfYear(month);
+				assertEquals(first.toString(), first.dayOfMonth().getMaximumValue(),
+						EpochDays.getMonthLength(year, month));
+				assertEquals(first.toString(), first.getDayOfYear() - 1, EpochDays.getDaysBeforeMonth(year, month));
+			}
+		}
+	}
+
+	@Test
+	public void testDaysExceedingTheMonth() {
+		assertEquals(EpochDays.of(2012, 3, 1), EpochDays.of(2012, 2, 30));
+		assertEquals(EpochDays.of(2011, 3, 2), EpochDays.of(2011, 2, 30));
+		assertEquals(EpochDays.of(2012, 1, 1), EpochDays.of(2011, 12, 32));
+		assertEquals(EpochDays.of(2011, 12, 31), EpochDays.of(2012, 1, 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCheckedFebruary29th() {
+		EpochDays.ofChecked(2011, 2, 29);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCheckedMonth() {
+		EpochDays.ofChecked(2011, 13, 1);
+	}
+
+	@Test
+	public void testJulianDates() {
+		// joda has no julian year 0, so only years of the common era are compared
+		for (LocalDate date = new LocalDate(1, 1, 1, JulianChronology.getInstanceUTC()); date.getYear() < 2600; date = date
+				.plusDays(13)) {
+			LocalDate iso = new LocalDate(date.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis(),
+					ISOChronology.getInstanceUTC());
+			assertEquals(date.toString(), EpochDays.of(iso),
+					EpochDays.ofJulian(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth()));
+		}
+		// the day the gregorian calendar was introduced
+		assertEquals(EpochDays.of(1582, 10, 15), EpochDays.ofJulian(1582, 10, 5));
+	}
+
+	/**
+	 * Moves day by day like the former weekday loops of the parsers.
+	 */
+	private static int stepToWeekday(int epochDay, int weekday, int direction) {
+		LocalDate date = EpochDays.toLocalDate(epochDay);
+		while (date.getDayOfWeek() != weekday) {
+			date = date.plusDays(direction);
+		}
+		return EpochDays.of(date);
+	}
+
+	@Test
+	public void testToWeekday() {
+		for (int epochDay = -10; epochDay < 11; epochDay++) {
+			for (int weekday = DateTimeConstants.MONDAY; weekday <= DateTimeConstants.SUNDAY; weekday++) {
+				for (int direction = -1; direction <= 1; direction += 2) {
+					String message = epochDay + " " + weekday + " " + direction;
+					int expected = stepToWeekday(epochDay, weekday, direction);
+					assertEquals(message, expected, EpochDays.toWeekday(epochDay, weekday, direction));
+					assertEquals(message, stepToWeekday(epochDay + direction, weekday, direction),
+							EpochDays.toNextWeekday(epochDay, weekday, direction));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testAlreadyOnWeekday() {
+		// 2011-12-25 is a sunday
+		int sunday = EpochDays.of(2011, 12, 25);
+		assertEquals(sunday, EpochDays.toWeekday(sunday, DateTimeConstants.SUNDAY, 1));
+		assertEquals(sunday, EpochDays.toWeekday(sunday, DateTimeConstants.SUNDAY, -1));
+		assertEquals(sunday + 7, EpochDays.toNextWeekday(sunday, DateTimeConstants.SUNDAY, 1));
+		assertEquals(sunday - 7, EpochDays.toNextWeekday(sunday, DateTimeConstants.SUNDAY, -1));
+	}
+
+	@Test
+	public void testWeekdayAcrossMonthAndYear() {
+		// the first monday after 2011-12-30 (friday) and the last friday before 2012-01-02 (monday)
+		assertEquals(EpochDays.of(2012, 1, 2), EpochDays.toWeekday(EpochDays.of(2011, 12, 30),
+				DateTimeConstants.MONDAY, 1));
+		assertEquals(EpochDays.of(2011, 12, 30), EpochDays.toWeekday(EpochDays.of(2012, 1, 2),
+				DateTimeConstants.FRIDAY, -1));
+		assertEquals(EpochDays.of(2011, 12, 26), EpochDays.toNextWeekday(EpochDays.of(2012, 1, 2),
+				DateTimeConstants.MONDAY, -1));
+		// weekdays of dates before 1970 are negative epoch days
+		assertEquals(EpochDays.of(1969, 12, 29), EpochDays.toWeekday(EpochDays.of(1969, 12, 24),
+				DateTimeConstants.MONDAY, 1));
+	}
+
+}
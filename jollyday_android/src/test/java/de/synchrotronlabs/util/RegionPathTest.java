@@ -0,0 +1,61 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.Locale;
+
+import org.junit.Test;
+
+/**
+ * Tests the case insensitive comparison of {@link RegionPath}s.
+ *
+ * @version $Id: $
+ */
+public class RegionPathTest {
+
+	@Test
+	public void testCaseInsensitive() {
+		assertEquals(RegionPath.of("us", "ny"), RegionPath.of("US", "Ny"));
+		assertEquals(RegionPath.of("us", "ny").hashCode(), RegionPath.of("US", "Ny").hashCode());
+		assertEquals("us/ny", RegionPath.of("US", "NY").toString());
+	}
+
+	@Test
+	public void testIndependentOfDefaultLocale() {
+		Locale defaultLocale = Locale.getDefault();
+		try {
+			// the turkish locale lower cases 'I' to a dotless i
+			Locale.setDefault(new Locale("tr", "TR"));
+			assertEquals(RegionPath.of("id"), RegionPath.of("ID"));
+			assertEquals("id", RegionPath.of("ID").toString());
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	@Test
+	public void testElementWise() {
+		assertFalse(RegionPath.of("a/b").equals(RegionPath.of("a", "b")));
+		assertSame(RegionPath.ROOT, RegionPath.of());
+		assertSame(RegionPath.ROOT, RegionPath.of((String[]) null));
+		assertEquals(0, RegionPath.ROOT.size());
+	}
+
+}
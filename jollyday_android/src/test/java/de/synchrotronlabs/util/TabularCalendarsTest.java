@@ -0,0 +1,164 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.joda.time.Chronology;
+import org.joda.time.DateTimeZone;
+import org.joda.time.LocalDate;
+import org.joda.time.chrono.CopticChronology;
+import org.joda.time.chrono.IslamicChronology;
+import org.junit.Test;
+
+/**
+ * Compares the arithmetic conversions of {@link TabularCalendars} with Joda's
+ * <code>IslamicChronology</code> and <code>CopticChronology</code>.
+ *
+ * @version $Id: $
+ */
+public class TabularCalendarsTest {
+
+	private static final Chronology ISLAMIC = IslamicChronology.getInstanceUTC();
+	private static final Chronology COPTIC = CopticChronology.getInstanceUTC();
+
+	private static int toEpochDay(LocalDate date) {
+		return (int) (date.toDateTimeAtStartOfDay(DateTimeZone.UTC).getMillis() / (24L * 60 * 60 * 1000));
+	}
+
+	private static LocalDate toChronology(int epochDay, Chronology chronology) {
+		return new LocalDate(epochDay * (24L * 60 * 60 * 1000), chronology);
+	}
+
+	/**
+	 * Collects the days of the gregorian year which equal the month/day
+	 * within the chronology by converting every single day.
+	 */
+	private static int[] occurrences(int gregorianYear, int month, int day, Chronology chronology) {
+		int[] found = new int[2];
+		int count = 0;
+		for (int epochDay = EpochDays.of(gregorianYear, 1, 1); epochDay <= EpochDays.of(gregorianYear, 12, 31); epochDay++) {
+			LocalDate date = toChronology(epochDay, chronology);
+			if (date.getMonthOfYear() == month && date.getDayOfMonth() == day) {
+				found[count++] = epochDay;
+			}
+		}
+		return Arrays.copyOf(found, count);
+	}
+
+	@Test
+	public void testIslamicDates() {
+		LocalDate date = toChronology(EpochDays.of(TabularCalendars.FIRST_ISLAMIC_GREGORIAN_YEAR, 1, 1), ISLAMIC);
+		for (int epochDay = toEpochDay(date); epochDay < EpochDays.of(2600, 1, 1); epochDay++) {
+			String message = date + " " + epochDay;
+			assertEquals(message, epochDay,
+					TabularCalendars.islamicToEpochDay(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth()));
+			assertEquals(message, date.getYear(), TabularCalendars.getIslamicYear(epochDay));
+			date = date.plusDays(1);
+		}
+	}
+
+	@Test
+	public void testIslamicYearAndMonthLengths() {
+		for (int year = 1; year <= 2000; year++) {
+			LocalDate first = new LocalDate(year, 1, 1, ISLAMIC);
+			assertEquals(String.valueOf(year), first.year().isLeap(), TabularCalendars.isIslamicLeapYear(year));
+			for (int month = 1; month <= 12; month++) {
+				assertEquals(year + "-" + month, first.withMonthOfYear(month).dayOfMonth().getMaximumValue(),
+						TabularCalendars.getIslamicMonthLength(year, month));
+			}
+		}
+	}
+
+	@Test
+	public void testCopticDates() {
+		LocalDate date = toChronology(EpochDays.of(TabularCalendars.FIRST_COPTIC_GREGORIAN_YEAR, 1, 1), COPTIC);
+		for (int epochDay = toEpochDay(date); epochDay < EpochDays.of(2600, 1, 1); epochDay++) {
+			String message = date + " " + epochDay;
+			assertEquals(message, epochDay,
+					TabularCalendars.copticToEpochDay(date.getYear(), date.getMonthOfYear(), date.getDayOfMonth()));
+			assertEquals(message, date.getYear(), TabularCalendars.getCopticYear(epochDay));
+			date = date.plusDays(1);
+		}
+	}
+
+	@Test
+	public void testCopticMonthLengths() {
+		for (int year = 1; year <= 2400; year++) {
+			for (int month = 1; month <= 13; month++) {
+				assertEquals(year + "-" + month, new LocalDate(year, month, 1, COPTIC).dayOfMonth().getMaximumValue(),
+						TabularCalendars.getCopticMonthLength(year, month));
+			}
+		}
+	}
+
+	@Test
+	public void testIslamicOccurrences() {
+		for (int gregorianYear : new int[] { 623, 1000, 2007, 2008, 2009, 2040, 2041 }) {
+			for (int month = 1; month <= 12; month++) {
+				for (int day = 1; day <= 29; day += 7) {
+					String message = gregorianYear + " " + month + "-" + day;
+					assertArrayEquals(message, occurrences(gregorianYear, month, day, ISLAMIC),
+							TabularCalendars.getIslamicEpochDays(gregorianYear, month, day));
+				}
+			}
+		}
+		// the islamic new year occurred twice in 2008
+		assertArrayEquals(new int[] { EpochDays.of(2008, 1, 10), EpochDays.of(2008, 12, 29) },
+				TabularCalendars.getIslamicEpochDays(2008, 1, 1));
+	}
+
+	@Test
+	public void testCopticOccurrences() {
+		for (int gregorianYear : new int[] { 285, 1000, 2010, 2011, 2012 }) {
+			for (int month = 1; month <= 13; month++) {
+				for (int day = 1; day <= 5; day += 2) {
+					String message = gregorianYear + " " + month + "-" + day;
+					assertArrayEquals(message, occurrences(gregorianYear, month, day, COPTIC),
+							TabularCalendars.getCopticEpochDays(gregorianYear, month, day));
+				}
+			}
+		}
+		// ethiopian orthodox christmas, the 29th of the 4th month
+		assertArrayEquals(new int[] { EpochDays.of(2011, 1, 7) }, TabularCalendars.getCopticEpochDays(2011, 4, 29));
+	}
+
+	@Test
+	public void testOccurrencesAreShared() {
+		assertSame(TabularCalendars.getIslamicEpochDays(2011, 9, 1), TabularCalendars.getIslamicEpochDays(2011, 9, 1));
+		assertSame(TabularCalendars.getCopticEpochDays(2011, 1, 1), TabularCalendars.getCopticEpochDays(2011, 1, 1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidIslamicDate() {
+		TabularCalendars.getIslamicEpochDays(2011, 2, 30);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBeforeIslamicCalendar() {
+		TabularCalendars.getIslamicEpochDays(TabularCalendars.FIRST_ISLAMIC_GREGORIAN_YEAR - 1, 1, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCopticDate() {
+		TabularCalendars.getCopticEpochDays(2011, 13, 7);
+	}
+
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the bound, the eviction and the counters of the {@link YearCache}.
+ *
+ * @version $Id: $
+ */
+public class YearCacheTest {
+
+	private static final RegionPath BY = RegionPath.of("by");
+
+	@Test
+	public void testSizeNeverExceedsMaximum() {
+		for (int maximumSize : new int[] { 1, 2, 3, 15, 16, 17, 31, 100 }) {
+			YearCache<String> cache = new YearCache<String>(maximumSize);
+			for (int year = 0; year < 1000; year++) {
+				cache.putIfAbsent(year, RegionPath.ROOT, "root");
+				cache.putIfAbsent(year, BY, "by");
+				assertTrue(maximumSize + ": " + cache.size(), cache.size() <= maximumSize);
+			}
+			assertEquals(maximumSize, cache.getMaximumSize());
+		}
+	}
+
+	@Test
+	public void testSingleEntryCacheKeepsLatest() {
+		YearCache<String> cache = new YearCache<String>(1);
+		cache.putIfAbsent(2010, RegionPath.ROOT, "2010");
+		cache.putIfAbsent(2011, RegionPath.ROOT, "2011");
+		assertEquals(1, cache.size());
+		assertFalse(cache.contains(2010, RegionPath.ROOT));
+		assertEquals("2011", cache.get(2011, RegionPath.ROOT));
+	}
+
+	@Test
+	public void testRecentlyUsedEntrySurvivesEviction() {
+		YearCache<String> cache = new YearCache<String>(32);
+		cache.putIfAbsent(2010, BY, "kept");
+		for (int year = 0; year < 1000; year++) {
+			assertEquals("kept", cache.get(2010, BY));
+			cache.putIfAbsent(year, RegionPath.ROOT, "evicted");
+		}
+		assertTrue(cache.contains(2010, BY));
+		assertEquals(32, cache.size());
+	}
+
+	@Test
+	public void testKeysCompareRegionsElementWise() {
+		YearCache<String> cache = new YearCache<String>(16);
+		cache.putIfAbsent(2010, RegionPath.of("a", "b"), "a,b");
+		assertNull(cache.get(2010, RegionPath.of("a/b")));
+		assertEquals("a,b", cache.get(2010, RegionPath.of("A", "B")));
+		assertNull(cache.get(2011, RegionPath.of("a", "b")));
+	}
+
+	@Test
+	public void testPutIfAbsentKeepsExistingValue() {
+		YearCache<String> cache = new YearCache<String>(16);
+		String first = "first";
+		assertSame(first, cache.putIfAbsent(2010, BY, first));
+		assertSame(first, cache.putIfAbsent(2010, BY, "second"));
+	}
+
+	@Test
+	public void testQualifiersShareTheBound() {
+		YearCache<String> cache = new YearCache<String>(4);
+		cache.putIfAbsent(2010, BY, "unqualified");
+		for (int qualifier = 0; qualifier < 100; qualifier++) {
+			cache.putIfAbsent(2010, BY, Integer.valueOf(qualifier), "qualified " + qualifier);
+			assertTrue(cache.size() <= 4);
+		}
+		assertEquals("qualified 99", cache.get(2010, BY, Integer.valueOf(99)));
+		assertNull(cache.get(2010, BY, Integer.valueOf(0)));
+		cache.putIfAbsent(2011, BY, "unqualified");
+		assertEquals("unqualified", cache.get(2011, BY));
+		assertEquals("unqualified", cache.get(2011, BY, null));
+		assertNull(cache.get(2011, BY, Integer.valueOf(99)));
+	}
+
+	@Test
+	public void testHitAndMissCounters() {
+		YearCache<String> cache = new YearCache<String>(16);
+		assertNull(cache.get(2010, BY));
+		cache.putIfAbsent(2010, BY, "2010");
+		assertEquals("2010", cache.get(2010, BY));
+		assertEquals("2010", cache.get(2010, RegionPath.of("BY")));
+		assertTrue(cache.contains(2010, BY));
+		cache.putIfAbsent(2010, BY, "other");
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNull(cache.get(2010, BY));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNonPositiveSize() {
+		new YearCache<String>(0);
+	}
+
+	@Test
+	public void testValuesPerYear() {
+		YearCache<String> cache = new YearCache<String>(16);
+		String first = "first";
+		assertNull(cache.get(-1));
+		assertSame(first, cache.putIfAbsent(-1, first));
+		assertSame(first, cache.putIfAbsent(-1, "second"));
+		assertSame(first, cache.get(-1));
+		assertSame(first, cache.get(-1, RegionPath.ROOT));
+		assertNull(cache.get(-1, BY));
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+	}
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright 2010 Sven Diedrichsen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package de.synchrotronlabs.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Logger;
+
+import de.synchrotronlabs.rule.RuleFile;
+
+/**
+ * Build time tool which compiles the Holidays_[country].xml files of a
+ * directory into the binary files read by {@link BinaryManager}. Called by
+ * the <code>compileHolidayRules</code> tasks of the build.
+ * 
+ * @version $Id: $
+ */
+public final class RuleFileCompiler {
+
+	private static final Logger LOG = Logger.getLogger(RuleFileCompiler.class.getName());
+
+	private static final String XML_PREFIX = "Holidays_";
+	private static final String XML_SUFFIX = ".xml";
+
+	private RuleFileCompiler() {
+	}
+
+	/**
+	 * Compiles all XML files of the input directory.
+	 * 
+	 * @param args
+	 *            the input and the output directory
+	 * @throws IOException
+	 *             if a file cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			throw new IllegalArgumentException("Usage: RuleFileCompiler <xml directory> <output directory>");
+		}
+		File inputDirectory = new File(args[0]);
+		File outputDirectory = new File(args[1]);
+		File[] files = inputDirectory.listFiles();
+		if (files == null) {
+			throw new IllegalArgumentException(inputDirectory + " is not a directory.");
+		}
+		if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+			throw new IOException("Cannot create " + outputDirectory + ".");
+		}
+		int count = 0;
+		for (File file : files) {
+			String name = file.getName();
+			if (!name.startsWith(XML_PREFIX) || !name.endsWith(XML_SUFFIX)) {
+				continue;
+			}
+			String country = name.substring(XML_PREFIX.length(), name.length() - XML_SUFFIX.length());
+			File target = new File(outputDirectory, new File(BinaryManager.getCompiledFileName(country)).getName());
+			InputStream in = new FileInputStream(file);
+			try {
+				OutputStream out = new BufferedOutputStream(new FileOutputStream(target));
+				try {
+					compile(in, out);
+				} finally {
+					out.close();
+				}
+			} finally {
+				in.close();
+			}
+			count++;
+		}
+		LOG.info("Compiled " + count + " holiday configurations into " + outputDirectory + ".");
+	}
+
+	/**
+	 * Compiles one XML configuration.
+	 * 
+	 * @param xml
+	 *            the XML configuration
+	 * @param out
+	 *            the stream to write the compiled configuration to
+	 * @throws IOException
+	 *             if the configuration cannot be read or written
+	 */
+	public static void compile(final InputStream xml, final OutputStream out) throws IOException {
+		// runs on the build machine which has no pull parser of the platform
+		RuleFile.write(new SimpleXmlConfigurationReader().read(xml), out);
+	}
+
+}